@@ -2,8 +2,21 @@ package site.hnfy258.aop;
 import lombok.Getter;
 import lombok.Setter;
 import org.aopalliance.intercept.MethodInterceptor;
+import site.hnfy258.aop.framework.PointcutAdvisor;
+import site.hnfy258.aop.framework.adapter.CompositeMethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AdvisedSupport {
+    // 方法没有匹配任何通知器时在缓存中的占位值
+    private static final MethodInterceptor NO_INTERCEPTORS = invocation -> invocation.proceed();
+
     @Getter
     @Setter
     private TargetSource targetSource;
@@ -13,6 +26,18 @@ public class AdvisedSupport {
     @Getter
     @Setter
     private MethodMatcher methodMatcher;
+    // 代理方法调用计数，开启使用频率分析时由 AspectJAutoProxyCreator 设置
+    @Getter
+    @Setter
+    private LongAdder invocationCounter;
+    // 被代理的 Bean 名称，记录在 AdviceInvocationEvent 中
+    @Getter
+    @Setter
+    private String beanName;
+
+    private final List<PointcutAdvisor> advisors = new ArrayList<>();
+    // 方法 -> 只包含切点匹配该方法的拦截器的调用链，第一次调用时计算
+    private final Map<Method, MethodInterceptor> methodCache = new ConcurrentHashMap<>();
 
     private boolean proxyTargetClass = false;
     public boolean isProxyTargetClass() {
@@ -22,4 +47,50 @@ public class AdvisedSupport {
     public void setProxyTargetClass(boolean b) {
         this.proxyTargetClass = b;
     }
+
+    /**
+     * 添加通知器，必须在创建代理之前调用。
+     */
+    public void addAdvisor(PointcutAdvisor advisor) {
+        advisors.add(advisor);
+        methodCache.clear();
+    }
+
+    public List<PointcutAdvisor> getAdvisors() {
+        return Collections.unmodifiableList(advisors);
+    }
+
+    /**
+     * 获取方法的拦截器调用链，方法没有被任何通知器匹配时返回 null，代理应直接调用目标。
+     *
+     * 每个方法只匹配一次切点，结果缓存在当前代理中，之后的调用不再执行切点匹配。
+     * 没有添加通知器时使用 methodMatcher 和 methodInterceptor。
+     */
+    public MethodInterceptor getInterceptorChain(Method method, Class<?> targetClass) {
+        MethodInterceptor chain = methodCache.get(method);
+        if (chain == null) {
+            chain = methodCache.computeIfAbsent(method, key -> buildInterceptorChain(key, targetClass));
+        }
+        return chain == NO_INTERCEPTORS ? null : chain;
+    }
+
+    private MethodInterceptor buildInterceptorChain(Method method, Class<?> targetClass) {
+        if (advisors.isEmpty()) {
+            if (methodInterceptor != null && methodMatcher != null && methodMatcher.matches(method, targetClass)) {
+                return methodInterceptor;
+            }
+            return NO_INTERCEPTORS;
+        }
+        List<MethodInterceptor> interceptors = new ArrayList<>();
+        for (PointcutAdvisor advisor : advisors) {
+            if (advisor.getPointcut().getMethodMatcher().matches(method, targetClass)) {
+                interceptors.add((MethodInterceptor) advisor.getAdvice());
+            }
+        }
+        if (interceptors.isEmpty()) {
+            return NO_INTERCEPTORS;
+        }
+        // 只有一个拦截器时也通过复合拦截器调用，每个通知都能被 JFR 记录
+        return new CompositeMethodInterceptor(beanName, interceptors.toArray(new MethodInterceptor[0]));
+    }
 }
@@ -0,0 +1,24 @@
+package site.hnfy258.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * 连接点，通知方法声明这个类型的参数时会收到当前被拦截的方法调用。
+ */
+public interface JoinPoint {
+
+    /**
+     * 被拦截的方法。
+     */
+    Method getMethod();
+
+    /**
+     * 调用参数，修改数组中的元素会影响目标方法收到的参数。
+     */
+    Object[] getArgs();
+
+    /**
+     * 目标对象，不是代理对象。
+     */
+    Object getTarget();
+}
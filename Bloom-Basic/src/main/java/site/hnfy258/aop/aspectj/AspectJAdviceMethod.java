@@ -0,0 +1,107 @@
+package site.hnfy258.aop.aspectj;
+
+import site.hnfy258.aop.JoinPoint;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+/**
+ * 切面中的一个通知方法，在创建通知器时解析并绑定到切面实例，之后每次调用不再做反射查找。
+ *
+ * 通知方法的参数按类型绑定：
+ * JoinPoint 接收连接点，Object[] 接收调用参数，其余参数（最多一个）接收返回值。
+ * 返回值参数只能用于 @AfterReturning，编译时保留了参数名时按 returning 指定的名称匹配。
+ * 返回值与参数类型不兼容时不调用通知方法。
+ */
+public class AspectJAdviceMethod {
+    private static final int JOIN_POINT = 0;
+    private static final int ARGUMENTS = 1;
+    private static final int RETURN_VALUE = 2;
+    // 统一的调用形式：(连接点, 调用参数, 返回值)
+    private static final MethodType INVOKER_TYPE =
+            MethodType.methodType(void.class, JoinPoint.class, Object[].class, Object.class);
+
+    private final Method method;
+    private final MethodHandle invoker;
+    private final boolean needsJoinPoint;
+    // 返回值参数的类型，基本类型已转换为包装类型；没有返回值参数时为 null
+    private final Class<?> returningType;
+    private final boolean returningPrimitive;
+
+    private AspectJAdviceMethod(Method method, MethodHandle invoker, boolean needsJoinPoint,
+                                Class<?> returningType, boolean returningPrimitive) {
+        this.method = method;
+        this.invoker = invoker;
+        this.needsJoinPoint = needsJoinPoint;
+        this.returningType = returningType;
+        this.returningPrimitive = returningPrimitive;
+    }
+
+    /**
+     * 解析通知方法并绑定到切面实例。
+     *
+     * @param returningName @AfterReturning 的 returning 属性；不是返回通知时为 null
+     * @throws IllegalArgumentException 通知方法的参数无法绑定
+     */
+    public static AspectJAdviceMethod bind(Object aspectInstance, Method method, String returningName) {
+        Parameter[] parameters = method.getParameters();
+        int[] sources = new int[parameters.length];
+        Class<?>[] parameterTypes = new Class<?>[parameters.length];
+        boolean needsJoinPoint = false;
+        Class<?> returningType = null;
+        boolean returningPrimitive = false;
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameters[i].getType();
+            if (type == JoinPoint.class) {
+                sources[i] = JOIN_POINT;
+                parameterTypes[i] = JoinPoint.class;
+                needsJoinPoint = true;
+            } else if (type == Object[].class && !isReturningParameter(parameters[i], returningName)) {
+                sources[i] = ARGUMENTS;
+                parameterTypes[i] = Object[].class;
+            } else if (returningName != null && returningType == null) {
+                sources[i] = RETURN_VALUE;
+                parameterTypes[i] = Object.class;
+                returningType = MethodType.methodType(type).wrap().returnType();
+                returningPrimitive = type.isPrimitive();
+            } else {
+                throw new IllegalArgumentException("Cannot bind parameter [" + parameters[i].getName()
+                        + "] of advice method " + method);
+            }
+        }
+
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(aspectInstance)
+                    .asType(MethodType.methodType(void.class, parameterTypes));
+            MethodHandle invoker = MethodHandles.permuteArguments(handle, INVOKER_TYPE, sources);
+            return new AspectJAdviceMethod(method, invoker, needsJoinPoint, returningType, returningPrimitive);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot bind advice method " + method, e);
+        }
+    }
+
+    private static boolean isReturningParameter(Parameter parameter, String returningName) {
+        return returningName != null && parameter.isNamePresent() && parameter.getName().equals(returningName);
+    }
+
+    /**
+     * 调用通知方法。
+     *
+     * @param returnValue 目标方法的返回值，不是返回通知时传 null
+     */
+    public void invoke(Method targetMethod, Object[] args, Object target, Object returnValue) throws Throwable {
+        if (returningType != null && (returnValue == null ? returningPrimitive : !returningType.isInstance(returnValue))) {
+            return;
+        }
+        JoinPoint joinPoint = needsJoinPoint ? new MethodJoinPoint(targetMethod, args, target) : null;
+        invoker.invokeExact(joinPoint, args, returnValue);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+}
@@ -1,37 +1,25 @@
 package site.hnfy258.aop.aspectj;
 
-import org.aspectj.weaver.tools.PointcutParser;
+import org.aspectj.weaver.tools.PointcutExpression;
 import site.hnfy258.aop.ClassFilter;
 import site.hnfy258.aop.MethodMatcher;
 import site.hnfy258.aop.PointCut;
 
-import org.aspectj.weaver.tools.PointcutExpression;
-import org.aspectj.weaver.tools.PointcutParser;
-import org.aspectj.weaver.tools.PointcutPrimitive;
-
 import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
 
 public class AspectJExpressionPointcut implements PointCut, ClassFilter, MethodMatcher {
-    private static final Set<PointcutPrimitive> SUPPORTED_PRIMITIVES = new HashSet<PointcutPrimitive>();
-
-    static{
-        SUPPORTED_PRIMITIVES.add(PointcutPrimitive.EXECUTION);
-    }
 
     private final PointcutExpression pointcutExpression;
 
 
     public AspectJExpressionPointcut(String expression){
-        PointcutParser pointcutParser = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(
-                SUPPORTED_PRIMITIVES,
-                this.getClass().getClassLoader()
-        );
-        pointcutExpression = pointcutParser.parsePointcutExpression(expression);
-
-
+        // 相同的表达式共用一次解析结果
+        pointcutExpression = PointcutRegistry.getPointcutExpression(expression, AspectJExpressionPointcut.class);
     }
+    public PointcutExpression getPointcutExpression() {
+        return pointcutExpression;
+    }
+
     @Override
     public boolean matches(Class<?> clazz) {
         return pointcutExpression.couldMatchJoinPointsInType(clazz);
@@ -39,7 +27,7 @@ public class AspectJExpressionPointcut implements PointCut, ClassFilter, MethodM
 
     @Override
     public boolean matches(Method method, Class<?> targetClass) {
-        return pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+        return PointcutRegistry.matchesMethodExecution(pointcutExpression, method);
     }
 
     @Override
@@ -6,22 +6,60 @@ import org.aopalliance.aop.Advice;
 import site.hnfy258.aop.PointCut;
 import site.hnfy258.aop.framework.PointcutAdvisor;
 
+import java.lang.reflect.Method;
+
 public class AspectJExpressionPointcutAdvisor implements PointcutAdvisor {
+    // 并行创建单例时可能被多个线程同时读取
     @Setter
-    private AspectJExpressionPointcut pointcut;
+    private volatile AspectJExpressionPointcut pointcut;
     @Getter
     @Setter
     private Advice advice;
     @Getter
     @Setter
     private String expression;
+    // 声明通知的切面实例和通知方法，由 AspectJAdvisorFactory 设置
+    @Getter
+    @Setter
+    private Object aspectInstance;
+    @Getter
+    @Setter
+    private Method adviceMethod;
+    // 由表达式分析得到，并发时可能重复分析，结果相同
+    private volatile PointcutPrefilter prefilter;
+
+    /**
+     * 获取已经解析的切点，还没有解析时返回 null，不会触发解析。
+     */
+    public AspectJExpressionPointcut getParsedPointcut() {
+        return pointcut;
+    }
+
+    /**
+     * 获取表达式的预过滤条件，不会触发 AspectJ 解析。
+     */
+    public PointcutPrefilter getPrefilter() {
+        PointcutPrefilter result = prefilter;
+        if (result == null) {
+            result = PointcutPrefilter.parse(expression);
+            prefilter = result;
+        }
+        return result;
+    }
 
     @Override
     public PointCut getPointcut() {
-        if(pointcut == null){
-            pointcut = new AspectJExpressionPointcut(expression);
+        AspectJExpressionPointcut result = pointcut;
+        if (result == null) {
+            synchronized (this) {
+                result = pointcut;
+                if (result == null) {
+                    result = new AspectJExpressionPointcut(expression);
+                    pointcut = result;
+                }
+            }
         }
-        return pointcut;
+        return result;
     }
 
 }
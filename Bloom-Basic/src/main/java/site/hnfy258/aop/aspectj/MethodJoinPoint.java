@@ -0,0 +1,40 @@
+package site.hnfy258.aop.aspectj;
+
+import site.hnfy258.aop.JoinPoint;
+
+import java.lang.reflect.Method;
+
+/**
+ * 一次方法调用对应的连接点，运行时代理和编译期生成的代理都用它向通知方法传递调用信息。
+ */
+public class MethodJoinPoint implements JoinPoint {
+    private final Method method;
+    private final Object[] args;
+    private final Object target;
+
+    public MethodJoinPoint(Method method, Object[] args, Object target) {
+        this.method = method;
+        this.args = args;
+        this.target = target;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object[] getArgs() {
+        return args;
+    }
+
+    @Override
+    public Object getTarget() {
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return "execution(" + method.getDeclaringClass().getSimpleName() + "." + method.getName() + ")";
+    }
+}
@@ -0,0 +1,442 @@
+package site.hnfy258.aop.aspectj;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 从切点表达式中提取的静态过滤条件：execution 的声明类型、方法名和方法上的注解。
+ *
+ * 只用字符串和反射元数据判断，不调用 AspectJ，用来在类型匹配之前快速排除不可能匹配的类和方法。
+ * 判断结果总是 AspectJ 匹配结果的超集：返回 false 时 AspectJ 一定不匹配，返回 true 时仍要交给 AspectJ。
+ * 无法分析的表达式（语法不认识、取反等）得到 {@link #ANY}，不排除任何方法。
+ */
+public abstract class PointcutPrefilter {
+
+    /**
+     * 不排除任何方法的过滤条件。
+     */
+    public static final PointcutPrefilter ANY = new PointcutPrefilter() {
+        @Override
+        public boolean couldMatch(Method method, TypeNames typeNames) {
+            return true;
+        }
+
+        @Override
+        boolean collectIndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "any";
+        }
+    };
+
+    /**
+     * 分析切点表达式，不认识的语法得到 {@link #ANY}。
+     */
+    public static PointcutPrefilter parse(String expression) {
+        if (expression == null) {
+            return ANY;
+        }
+        try {
+            Parser parser = new Parser(expression);
+            PointcutPrefilter prefilter = parser.parseOr();
+            parser.skipWhitespace();
+            return parser.pos == expression.length() ? prefilter : ANY;
+        } catch (IllegalArgumentException e) {
+            return ANY;
+        }
+    }
+
+    /**
+     * 方法的执行连接点是否可能匹配。
+     *
+     * @param typeNames 目标类及其全部父类、接口的名称
+     */
+    public abstract boolean couldMatch(Method method, TypeNames typeNames);
+
+    /**
+     * 收集建立索引用的键：可能匹配的类一定有其中一个方法名，或者类型层次中有名称以其中一个前缀开头的类型。
+     *
+     * @return 没有可用的键时返回 false，这时只能逐个检查
+     */
+    abstract boolean collectIndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes);
+
+    /**
+     * 这个过滤条件的索引键，没有可用的键时返回 null。
+     */
+    public IndexKeys getIndexKeys() {
+        Set<String> methodNames = new LinkedHashSet<>();
+        Set<String> typeNamePrefixes = new LinkedHashSet<>();
+        if (!collectIndexKeys(methodNames, typeNamePrefixes)) {
+            return null;
+        }
+        return new IndexKeys(methodNames, typeNamePrefixes);
+    }
+
+    /**
+     * 索引键，见 {@link #getIndexKeys()}。
+     */
+    public static final class IndexKeys {
+        private final Set<String> methodNames;
+        private final Set<String> typeNamePrefixes;
+
+        IndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes) {
+            this.methodNames = methodNames;
+            this.typeNamePrefixes = typeNamePrefixes;
+        }
+
+        public Set<String> getMethodNames() {
+            return methodNames;
+        }
+
+        public Set<String> getTypeNamePrefixes() {
+            return typeNamePrefixes;
+        }
+    }
+
+    /**
+     * 一个类的类型层次中全部类型的名称，嵌套类用 "." 分隔，与 AspectJ 类型模式中的写法一致。
+     */
+    public static final class TypeNames {
+        private final Set<String> names = new LinkedHashSet<>();
+        private final Set<String> simpleNames = new HashSet<>();
+
+        private TypeNames() {
+        }
+
+        public static TypeNames of(Class<?> clazz) {
+            TypeNames typeNames = new TypeNames();
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                typeNames.add(current);
+            }
+            return typeNames;
+        }
+
+        private void add(Class<?> clazz) {
+            String name = clazz.getName().replace('$', '.');
+            if (!names.add(name)) {
+                return;
+            }
+            simpleNames.add(name.substring(name.lastIndexOf('.') + 1));
+            for (Class<?> interfaceClass : clazz.getInterfaces()) {
+                add(interfaceClass);
+            }
+        }
+
+        /**
+         * 全部类型名称，以及它们在每个 "." 之前的前缀，用于在索引中查找。
+         */
+        public Set<String> getNamePrefixes() {
+            Set<String> prefixes = new HashSet<>();
+            for (String name : names) {
+                for (int dot = name.indexOf('.'); dot > 0; dot = name.indexOf('.', dot + 1)) {
+                    prefixes.add(name.substring(0, dot));
+                }
+                prefixes.add(name);
+            }
+            return prefixes;
+        }
+
+        boolean anyMatches(Pattern pattern, boolean qualified) {
+            for (String name : qualified ? names : simpleNames) {
+                if (pattern.matcher(name).matches()) {
+                    return true;
+                }
+            }
+            // 没有包名的模式在 AspectJ 中只匹配默认包和 java.lang 中的类型，这里放宽为匹配简单类名
+            if (!qualified) {
+                for (String name : names) {
+                    if (pattern.matcher(name).matches()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class And extends PointcutPrefilter {
+        private final PointcutPrefilter left;
+        private final PointcutPrefilter right;
+
+        And(PointcutPrefilter left, PointcutPrefilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Method method, TypeNames typeNames) {
+            return left.couldMatch(method, typeNames) && right.couldMatch(method, typeNames);
+        }
+
+        @Override
+        boolean collectIndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes) {
+            // 两边都要匹配，用任意一边的键即可
+            return left.collectIndexKeys(methodNames, typeNamePrefixes)
+                    || right.collectIndexKeys(methodNames, typeNamePrefixes);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " && " + right + ")";
+        }
+    }
+
+    private static final class Or extends PointcutPrefilter {
+        private final PointcutPrefilter left;
+        private final PointcutPrefilter right;
+
+        Or(PointcutPrefilter left, PointcutPrefilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Method method, TypeNames typeNames) {
+            return left.couldMatch(method, typeNames) || right.couldMatch(method, typeNames);
+        }
+
+        @Override
+        boolean collectIndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes) {
+            return left.collectIndexKeys(methodNames, typeNamePrefixes)
+                    && right.collectIndexKeys(methodNames, typeNamePrefixes);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " || " + right + ")";
+        }
+    }
+
+    /**
+     * 一个 execution 切点。只检查方法名、方法注解和声明类型，修饰符、返回值和参数留给 AspectJ。
+     */
+    private static final class Execution extends PointcutPrefilter {
+        private static final Pattern NAME = Pattern.compile("[\\w$*]+");
+        private static final Pattern TYPE = Pattern.compile("[\\w$*.]+\\+?");
+        private static final Pattern ANNOTATION = Pattern.compile("@[\\w$.]+");
+
+        private final String methodName;
+        private final Pattern methodNamePattern;
+        private final String typePattern;
+        private final Pattern declaringTypePattern;
+        private final List<String> annotations;
+
+        private Execution(String methodName, String typePattern, List<String> annotations) {
+            this.methodName = methodName;
+            this.methodNamePattern = methodName.indexOf('*') >= 0 ? wildcard(methodName, ".*") : null;
+            this.typePattern = typePattern;
+            this.declaringTypePattern = typePattern != null ? wildcard(stripSubtypes(typePattern), "[^.]*") : null;
+            this.annotations = annotations;
+        }
+
+        /**
+         * 分析 execution(...) 括号中的内容。
+         */
+        static PointcutPrefilter parseBody(String body) {
+            int paren = body.indexOf('(');
+            if (paren < 0) {
+                return ANY;
+            }
+            String[] tokens = body.substring(0, paren).trim().split("\\s+");
+            // 至少有返回值类型和方法名
+            if (tokens.length < 2) {
+                return ANY;
+            }
+            List<String> annotations = new ArrayList<>();
+            for (int i = 0; i < tokens.length - 1; i++) {
+                if (ANNOTATION.matcher(tokens[i]).matches()) {
+                    annotations.add(tokens[i].substring(1));
+                }
+            }
+            String last = tokens[tokens.length - 1];
+            int dot = last.lastIndexOf('.');
+            String name = last.substring(dot + 1);
+            if (!NAME.matcher(name).matches()) {
+                return ANY;
+            }
+            String typePattern = dot > 0 ? last.substring(0, dot) : null;
+            // "com.example..find*(..)" 这类写法以及不认识的类型模式不检查声明类型
+            if (typePattern != null && (typePattern.endsWith(".") || !TYPE.matcher(typePattern).matches())) {
+                typePattern = null;
+            }
+            if ("*".equals(typePattern)) {
+                typePattern = null;
+            }
+            return new Execution(name, typePattern, annotations);
+        }
+
+        @Override
+        public boolean couldMatch(Method method, TypeNames typeNames) {
+            if (methodNamePattern != null ? !methodNamePattern.matcher(method.getName()).matches()
+                    : !methodName.equals(method.getName())) {
+                return false;
+            }
+            for (String annotation : annotations) {
+                if (!hasAnnotation(method, annotation)) {
+                    return false;
+                }
+            }
+            return declaringTypePattern == null || typeNames.anyMatches(declaringTypePattern, typePattern.indexOf('.') >= 0);
+        }
+
+        private static boolean hasAnnotation(Method method, String annotation) {
+            for (Annotation present : method.getAnnotations()) {
+                String name = present.annotationType().getName().replace('$', '.');
+                if (name.equals(annotation) || annotation.indexOf('.') < 0 && name.endsWith("." + annotation)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean collectIndexKeys(Set<String> methodNames, Set<String> typeNamePrefixes) {
+            if (methodNamePattern == null) {
+                methodNames.add(methodName);
+                return true;
+            }
+            String prefix = typePattern != null && typePattern.indexOf('.') >= 0 ? literalPrefix(typePattern) : "";
+            if (prefix.isEmpty()) {
+                return false;
+            }
+            typeNamePrefixes.add(prefix);
+            return true;
+        }
+
+        /**
+         * 类型模式中第一个通配符之前的完整名称段，例如 "com.example..*" 和 "com.example.*Service" 都是 "com.example"。
+         */
+        private static String literalPrefix(String typePattern) {
+            String pattern = stripSubtypes(typePattern);
+            int star = pattern.indexOf('*');
+            int dots = pattern.indexOf("..");
+            if (dots >= 0 && (star < 0 || dots < star)) {
+                return pattern.substring(0, dots);
+            }
+            if (star < 0) {
+                return pattern;
+            }
+            int dot = pattern.lastIndexOf('.', star);
+            return dot > 0 ? pattern.substring(0, dot) : "";
+        }
+
+        private static String stripSubtypes(String typePattern) {
+            return typePattern.endsWith("+") ? typePattern.substring(0, typePattern.length() - 1) : typePattern;
+        }
+
+        @Override
+        public String toString() {
+            return "execution(" + (annotations.isEmpty() ? "" : "@" + String.join(" @", annotations) + " ")
+                    + (typePattern != null ? typePattern + "." : "") + methodName + ")";
+        }
+    }
+
+    /**
+     * 把 AspectJ 的通配符转换为正则表达式，"*" 替换为 star，".." 匹配任意多层包名。
+     */
+    private static Pattern wildcard(String pattern, String star) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (pattern.startsWith("..", i)) {
+                regex.append("\\.(?:.*\\.)?");
+                i++;
+            } else if (c == '*') {
+                regex.append(star);
+            } else if (c == '.' || c == '$') {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 只认识 ||、&&、!、括号和 execution(...)，其他写法抛出 IllegalArgumentException。
+     */
+    private static final class Parser {
+        private final String expression;
+        private int pos;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        PointcutPrefilter parseOr() {
+            PointcutPrefilter result = parseAnd();
+            while (consume("||")) {
+                result = new Or(result, parseAnd());
+            }
+            return result;
+        }
+
+        private PointcutPrefilter parseAnd() {
+            PointcutPrefilter result = parseUnary();
+            while (consume("&&")) {
+                result = new And(result, parseUnary());
+            }
+            return result;
+        }
+
+        private PointcutPrefilter parseUnary() {
+            if (consume("!")) {
+                // 取反后无法保证是超集，只检查语法
+                parseUnary();
+                return ANY;
+            }
+            if (consume("(")) {
+                PointcutPrefilter result = parseOr();
+                if (!consume(")")) {
+                    throw new IllegalArgumentException("Expected ')' at " + pos);
+                }
+                return result;
+            }
+            if (consume("execution")) {
+                skipWhitespace();
+                if (pos >= expression.length() || expression.charAt(pos) != '(') {
+                    throw new IllegalArgumentException("Expected '(' at " + pos);
+                }
+                int start = ++pos;
+                int depth = 1;
+                while (pos < expression.length() && depth > 0) {
+                    char c = expression.charAt(pos++);
+                    if (c == '(') {
+                        depth++;
+                    } else if (c == ')') {
+                        depth--;
+                    }
+                }
+                if (depth > 0) {
+                    throw new IllegalArgumentException("Unbalanced parentheses");
+                }
+                return Execution.parseBody(expression.substring(start, pos - 1));
+            }
+            throw new IllegalArgumentException("Unsupported pointcut at " + pos);
+        }
+
+        private boolean consume(String token) {
+            skipWhitespace();
+            if (expression.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
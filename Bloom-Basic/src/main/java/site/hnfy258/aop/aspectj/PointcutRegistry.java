@@ -0,0 +1,148 @@
+package site.hnfy258.aop.aspectj;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.aspectj.weaver.tools.PointcutParser;
+import org.aspectj.weaver.tools.PointcutPrimitive;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内共享的切点解析结果。
+ *
+ * 每个上下文类只创建一个 PointcutParser，同一段表达式文本（忽略首尾空白和包住整个表达式的括号）只解析一次，
+ * 引用同一个 @Pointcut 的通知以及多个切面中相同的表达式共用同一个 PointcutExpression。
+ * 方法匹配结果按 (表达式, 方法) 缓存在方法的声明类上，每个类的条目超过上限时只清空这个类的缓存。
+ *
+ * 两种缓存都挂在类上（ClassValue），解析器和匹配结果引用的类加载器被回收时缓存一起回收，不会因为缓存而无法卸载。
+ */
+public final class PointcutRegistry {
+    private static final Set<PointcutPrimitive> SUPPORTED_PRIMITIVES = Set.of(PointcutPrimitive.EXECUTION);
+    // 一个类的匹配结果数量不超过 表达式数 x 方法数，只有表达式不断变化时才会达到上限
+    private static final int MAX_CACHED_MATCHES_PER_CLASS = 4096;
+
+    // 解析器引用上下文类的类加载器，放在以加载器为键的 WeakHashMap 中会让键一直可达
+    private static final ClassValue<ContextPointcuts> CONTEXTS = new ClassValue<>() {
+        @Override
+        protected ContextPointcuts computeValue(Class<?> contextClass) {
+            return new ContextPointcuts(contextClass.getClassLoader());
+        }
+    };
+    private static final ClassValue<Map<MatchKey, Boolean>> MATCHES = new ClassValue<>() {
+        @Override
+        protected Map<MatchKey, Boolean> computeValue(Class<?> declaringClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private PointcutRegistry() {
+    }
+
+    /**
+     * 获取表达式解析后的切点，同一个上下文类中相同的表达式文本返回同一个实例。
+     *
+     * @param contextClass 用它的类加载器解析表达式中的类型，通常是切点实现类本身
+     * @throws IllegalArgumentException 表达式不合法，或者使用了 execution 以外的切点
+     */
+    public static PointcutExpression getPointcutExpression(String expression, Class<?> contextClass) {
+        ContextPointcuts pointcuts = CONTEXTS.get(contextClass);
+        String key = normalize(expression);
+        PointcutExpression result = pointcuts.expressions.get(key);
+        if (result == null) {
+            result = pointcuts.expressions.computeIfAbsent(key, pointcuts::parse);
+        }
+        return result;
+    }
+
+    /**
+     * 去掉首尾空白和包住整个表达式的括号。"serviceMethods()" 形式的引用展开后带有括号，"@serviceMethods" 不带。
+     */
+    private static String normalize(String expression) {
+        String result = expression.trim();
+        while (result.startsWith("(") && closingParenthesis(result) == result.length() - 1) {
+            result = result.substring(1, result.length() - 1).trim();
+        }
+        return result;
+    }
+
+    private static int closingParenthesis(String expression) {
+        int depth = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 方法的执行连接点是否一定匹配切点，结果缓存在方法的声明类上。
+     */
+    public static boolean matchesMethodExecution(PointcutExpression expression, Method method) {
+        Map<MatchKey, Boolean> matches = MATCHES.get(method.getDeclaringClass());
+        MatchKey key = new MatchKey(expression, method);
+        Boolean result = matches.get(key);
+        if (result == null) {
+            result = expression.matchesMethodExecution(method).alwaysMatches();
+            if (matches.size() >= MAX_CACHED_MATCHES_PER_CLASS) {
+                matches.clear();
+            }
+            matches.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 一个上下文类的解析器和已解析的表达式。
+     */
+    private static class ContextPointcuts {
+        private final PointcutParser parser;
+        private final Map<String, PointcutExpression> expressions = new ConcurrentHashMap<>();
+
+        ContextPointcuts(ClassLoader classLoader) {
+            this.parser = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(
+                    SUPPORTED_PRIMITIVES, classLoader);
+        }
+
+        PointcutExpression parse(String expression) {
+            // PointcutParser 没有声明线程安全
+            synchronized (parser) {
+                return parser.parsePointcutExpression(expression);
+            }
+        }
+    }
+
+    /**
+     * 匹配缓存的键，表达式已经按文本共享，按实例比较即可。
+     */
+    private static final class MatchKey {
+        private final PointcutExpression expression;
+        private final Method method;
+        private final int hash;
+
+        MatchKey(PointcutExpression expression, Method method) {
+            this.expression = expression;
+            this.method = method;
+            this.hash = System.identityHashCode(expression) * 31 + method.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof MatchKey)) {
+                return false;
+            }
+            MatchKey key = (MatchKey) other;
+            return expression == key.expression && method.equals(key.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
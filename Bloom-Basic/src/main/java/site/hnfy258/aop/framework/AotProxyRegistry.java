@@ -0,0 +1,235 @@
+package site.hnfy258.aop.framework;
+
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.common.logging.LogLevelHolder;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 编译期生成的 AOP 代理，由 Bloom-Processor 中的 AopProxyProcessor 生成。
+ *
+ * 代理类与 Bean 类在同一个包中，名为 "Bean 类的二进制名$$BloomAotProxy"，声明了两个静态字段：
+ * ADVICE 是生成时考虑过的全部通知（"切面类#方法名=解析后的表达式"），ASPECTS 是构造函数需要的切面类型；
+ * 以及构造函数 (目标对象, 切面实例数组, 调用计数器)。
+ *
+ * 运行时的每个通知器都在 ADVICE 中，并且代理重写了 Bean 类的全部方法时才使用生成的代理。
+ * 否则说明存在编译期没有看到的切面，或者 Bean 类在生成代理之后被单独重新编译过，由调用方创建运行时代理。
+ * 设置系统属性 bloom.aot.proxies.ignore=true 可以强制使用运行时代理。
+ * 回退的原因输出到调用方容器的日志级别下；生成的代理类不可用（例如已经过期）的警告每个代理类只输出一次。
+ */
+public final class AotProxyRegistry {
+    public static final String PROXY_CLASS_SUFFIX = "$$BloomAotProxy";
+    public static final String IGNORE_PROPERTY = "bloom.aot.proxies.ignore";
+
+    private static final MethodType CONSTRUCTOR_TYPE =
+            MethodType.methodType(Object.class, Object.class, Object[].class, LongAdder.class);
+    // Bean 类没有可用的生成代理时的占位值
+    private static final ProxyClass NONE = new ProxyClass(null, Set.of(), new Class<?>[0], null, null);
+
+    private static final ClassValue<ProxyClass> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> targetClass) {
+            return load(targetClass);
+        }
+    };
+
+    private AotProxyRegistry() {
+    }
+
+    /**
+     * 用生成的代理包装目标对象。
+     *
+     * @param advisors 容器中的全部通知器，不只是匹配这个 Bean 的
+     * @param invocationCounter 代理方法调用计数，可以为 null
+     * @param logLevelHolder 调用方容器的日志级别，用于输出回退到运行时代理的原因
+     * @return 代理对象；没有生成的代理或者代理不适用时返回 null
+     */
+    public static Object newProxy(Object target, Collection<AspectJExpressionPointcutAdvisor> advisors,
+                                  LongAdder invocationCounter, LogLevelHolder logLevelHolder) {
+        if (Boolean.getBoolean(IGNORE_PROPERTY)) {
+            return null;
+        }
+        ProxyClass proxyClass = PROXY_CLASSES.get(ProxyClassCache.getUserClass(target.getClass()));
+        if (proxyClass == NONE) {
+            return null;
+        }
+        // 只有存在生成的代理类时才需要输出日志
+        Logger logger = LoggerFactory.getLogger(AotProxyRegistry.class, logLevelHolder);
+        if (proxyClass.constructor == null) {
+            if (proxyClass.problemReported.compareAndSet(false, true)) {
+                logger.warn(proxyClass.problem);
+            }
+            return null;
+        }
+        Object[] aspects = proxyClass.resolveAspects(advisors, logger);
+        if (aspects == null) {
+            return null;
+        }
+        try {
+            return (Object) proxyClass.constructor.invokeExact(target, aspects, invocationCounter);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate " + proxyClass.generatedClass.getName(), e);
+        }
+    }
+
+    /**
+     * 供生成的代理查找传给连接点的方法，结果与运行时代理拦截到的 Method 相同。
+     */
+    public static Method findMethod(Class<?> targetClass, String name, Class<?>... parameterTypes) {
+        try {
+            return targetClass.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            // 不是 public 方法，在父类中查找
+        }
+        for (Class<?> clazz = targetClass; clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                return clazz.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                // 继续查找父类
+            }
+        }
+        throw new IllegalStateException("Cannot find method " + name + Arrays.toString(parameterTypes)
+                + " in " + targetClass.getName());
+    }
+
+    private static ProxyClass load(Class<?> targetClass) {
+        String proxyClassName = targetClass.getName() + PROXY_CLASS_SUFFIX;
+        Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(proxyClassName, false, targetClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return NONE;
+        }
+        if (generatedClass.getSuperclass() != targetClass) {
+            return NONE;
+        }
+        try {
+            Method missing = findMethodNotOverridden(targetClass, generatedClass);
+            if (missing != null) {
+                return unusable("编译期生成的代理 " + proxyClassName + " 没有重写方法 " + missing + "，可能已经过期，使用运行时代理");
+            }
+            Set<String> advice = new HashSet<>(Arrays.asList((String[]) generatedClass.getField("ADVICE").get(null)));
+            Class<?>[] aspects = (Class<?>[]) generatedClass.getField("ASPECTS").get(null);
+            MethodHandle constructor = MethodHandles.lookup().findConstructor(generatedClass,
+                    MethodType.methodType(void.class, targetClass, Object[].class, LongAdder.class));
+            return new ProxyClass(generatedClass, advice, aspects, constructor.asType(CONSTRUCTOR_TYPE), null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return unusable("无法使用编译期生成的代理 " + proxyClassName + ": " + e);
+        }
+    }
+
+    /**
+     * 存在生成的代理类但无法使用，第一次用到时由调用方输出原因。
+     */
+    private static ProxyClass unusable(String problem) {
+        return new ProxyClass(null, Set.of(), new Class<?>[0], null, problem);
+    }
+
+    /**
+     * 查找生成的代理应该重写、但没有重写的方法：Bean 类及其父类中可以重写的方法、接口的默认方法，
+     * 以及 equals、hashCode 和 toString。
+     */
+    private static Method findMethodNotOverridden(Class<?> targetClass, Class<?> generatedClass) {
+        for (Class<?> clazz = targetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)
+                        || method.isSynthetic()) {
+                    continue;
+                }
+                boolean packagePrivate = !Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers);
+                if (packagePrivate && !clazz.getPackageName().equals(targetClass.getPackageName())) {
+                    continue;
+                }
+                if (!declares(generatedClass, method)) {
+                    return method;
+                }
+            }
+        }
+        for (Method method : targetClass.getMethods()) {
+            boolean objectMethod = method.getDeclaringClass() == Object.class && !Modifier.isFinal(method.getModifiers());
+            if ((method.isDefault() || objectMethod) && !declares(generatedClass, method)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean declares(Class<?> clazz, Method method) {
+        try {
+            clazz.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一个生成的代理类，以及生成时考虑过的通知和需要的切面。代理类不可用时 constructor 为 null，problem 说明原因。
+     */
+    private static class ProxyClass {
+        private final Class<?> generatedClass;
+        private final Set<String> advice;
+        private final Class<?>[] aspects;
+        private final MethodHandle constructor;
+        private final String problem;
+        private final AtomicBoolean problemReported = new AtomicBoolean();
+
+        ProxyClass(Class<?> generatedClass, Set<String> advice, Class<?>[] aspects, MethodHandle constructor,
+                   String problem) {
+            this.generatedClass = generatedClass;
+            this.advice = advice;
+            this.aspects = aspects;
+            this.constructor = constructor;
+            this.problem = problem;
+        }
+
+        /**
+         * 按 ASPECTS 的顺序找出切面实例。有通知器不在 ADVICE 中、同一个切面类有多个实例，
+         * 或者缺少需要的切面时返回 null。
+         */
+        Object[] resolveAspects(Collection<AspectJExpressionPointcutAdvisor> advisors, Logger logger) {
+            Map<Class<?>, Object> instances = new HashMap<>();
+            for (AspectJExpressionPointcutAdvisor advisor : advisors) {
+                Object aspectInstance = advisor.getAspectInstance();
+                Method adviceMethod = advisor.getAdviceMethod();
+                if (aspectInstance == null || adviceMethod == null || !advice.contains(
+                        aspectInstance.getClass().getName() + "#" + adviceMethod.getName() + "=" + advisor.getExpression())) {
+                    logger.debug("通知 {} 不在编译期生成的代理 {} 中，使用运行时代理",
+                            advisor.getExpression(), generatedClass.getName());
+                    return null;
+                }
+                Object previous = instances.putIfAbsent(aspectInstance.getClass(), aspectInstance);
+                if (previous != null && previous != aspectInstance) {
+                    logger.debug("切面 {} 有多个实例，使用运行时代理", aspectInstance.getClass().getName());
+                    return null;
+                }
+            }
+            Object[] result = new Object[aspects.length];
+            for (int i = 0; i < aspects.length; i++) {
+                result[i] = instances.get(aspects[i]);
+                if (result[i] == null) {
+                    logger.debug("缺少切面 {}，使用运行时代理", aspects[i].getName());
+                    return null;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -3,20 +3,46 @@ package site.hnfy258.aop.framework;
 import org.aopalliance.aop.Advice;
 import site.hnfy258.aop.PointCut;
 import site.hnfy258.aop.annotation.*;
+import site.hnfy258.aop.aspectj.AspectJAdviceMethod;
 import site.hnfy258.aop.aspectj.AspectJExpressionPointcut;
 import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
 import site.hnfy258.aop.framework.adapter.AfterReturningAdviceInterceptor;
 import site.hnfy258.aop.framework.adapter.MethodAfterAdviceInterceptor;
 import site.hnfy258.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+import site.hnfy258.common.logging.LogLevelHolder;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class AspectJAdvisorFactory {
+    // 表达式中对 @Pointcut 方法的引用，例如 serviceMethods()
+    private static final Pattern POINTCUT_REFERENCE = Pattern.compile("(?<![\\w$.*])([A-Za-z_$][\\w$]*)\\(\\)");
+    // 与 AopProxyProcessor 相同的引用层次上限，超过时通常是 @Pointcut 之间循环引用
+    private static final int MAX_REFERENCE_DEPTH = 32;
+    private final Logger logger;
+
+    /**
+     * 使用全局日志级别。
+     */
+    public AspectJAdvisorFactory() {
+        this(new LogLevelHolder());
+    }
+
+    /**
+     * @param logLevelHolder 所属容器的日志级别
+     */
+    public AspectJAdvisorFactory(LogLevelHolder logLevelHolder) {
+        this.logger = LoggerFactory.getLogger(AspectJAdvisorFactory.class, logLevelHolder);
+    }
 
     public List<AspectJExpressionPointcutAdvisor> getAdvisors(Object aspectInstance){
-        Class<?> aspectClass = aspectInstance.getClass();
+        // CGLIB 实例化的切面在用户类上查找注解
+        Class<?> aspectClass = ProxyClassCache.getUserClass(aspectInstance.getClass());
 
         if(!aspectClass.isAnnotationPresent(Aspect.class)){
             return new ArrayList<>();
@@ -27,42 +53,42 @@ public class AspectJAdvisorFactory {
             // 处理 @Before 注解
             if(method.isAnnotationPresent(Before.class)){
                 String expression = method.getAnnotation(Before.class).value();
-                if (expression.startsWith("@")) {
-                    expression = resolvePointcutReference(aspectClass, expression.substring(1));
-                }
+                expression = resolveExpression(aspectClass, expression, 0);
 
                 AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
                 advisor.setExpression(expression);
+                advisor.setAspectInstance(aspectInstance);
+                advisor.setAdviceMethod(method);
                 advisor.setAdvice(createBeforeAdvice(aspectInstance, method));
                 advisors.add(advisor);
-                System.out.println("创建Before通知: " + expression + " 对应方法: " + method.getName());
+                logger.debug("创建Before通知: {} 对应方法: {}", expression, method.getName());
             }
             // 处理 @After 注解
             else if(method.isAnnotationPresent(After.class)){
                 String expression = method.getAnnotation(After.class).value();
-                if (expression.startsWith("@")) {
-                    expression = resolvePointcutReference(aspectClass, expression.substring(1));
-                }
+                expression = resolveExpression(aspectClass, expression, 0);
 
                 AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
                 advisor.setExpression(expression);
+                advisor.setAspectInstance(aspectInstance);
+                advisor.setAdviceMethod(method);
                 advisor.setAdvice(createAfterAdvice(aspectInstance, method));
                 advisors.add(advisor);
-                System.out.println("创建After通知: " + expression + " 对应方法: " + method.getName());
+                logger.debug("创建After通知: {} 对应方法: {}", expression, method.getName());
             }
             // 处理 @AfterReturning 注解
             else if(method.isAnnotationPresent(AfterReturning.class)){
                 AfterReturning afterReturning = method.getAnnotation(AfterReturning.class);
                 String expression = afterReturning.value();
-                if (expression.startsWith("@")) {
-                    expression = resolvePointcutReference(aspectClass, expression.substring(1));
-                }
+                expression = resolveExpression(aspectClass, expression, 0);
 
                 AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
                 advisor.setExpression(expression);
+                advisor.setAspectInstance(aspectInstance);
+                advisor.setAdviceMethod(method);
                 advisor.setAdvice(createAfterReturningAdvice(aspectInstance, method, afterReturning.returning()));
                 advisors.add(advisor);
-                System.out.println("创建AfterReturning通知: " + expression + " 对应方法: " + method.getName());
+                logger.debug("创建AfterReturning通知: {} 对应方法: {}", expression, method.getName());
             }
         }
         return advisors;
@@ -70,52 +96,68 @@ public class AspectJAdvisorFactory {
 
     // 添加创建After通知的方法
     private Advice createAfterAdvice(final Object aspectInstance, final Method method) {
-        return new MethodAfterAdviceInterceptor(new MethodAfterAdvice() {
-            @Override
-            public void after(Method method, Object[] args, Object target) throws Throwable {
-                aspectInstance.getClass().getMethod(method.getName()).invoke(aspectInstance);
-            }
-        });
+        AspectJAdviceMethod adviceMethod = AspectJAdviceMethod.bind(aspectInstance, method, null);
+        return new MethodAfterAdviceInterceptor((method1, args, target) -> adviceMethod.invoke(method1, args, target, null));
     }
 
     // 添加创建AfterReturning通知的方法
     private Advice createAfterReturningAdvice(final Object aspectInstance, final Method method, final String returningName) {
-        return new AfterReturningAdviceInterceptor(new AfterReturningAdvice() {
-            @Override
-            public void afterReturning(Object returnValue, Method method, Object[] args, Object target) throws Throwable {
-                // 如果切面方法有一个参数，则传入返回值
-                if (method.getParameterCount() == 1) {
-                    aspectInstance.getClass().getMethod(method.getName(), Object.class).invoke(aspectInstance, returnValue);
-                } else {
-                    aspectInstance.getClass().getMethod(method.getName()).invoke(aspectInstance);
-                }
-            }
-        });
+        AspectJAdviceMethod adviceMethod = AspectJAdviceMethod.bind(aspectInstance, method, returningName);
+        return new AfterReturningAdviceInterceptor((returnValue, method1, args, target) ->
+                adviceMethod.invoke(method1, args, target, returnValue));
     }
 
     /**
      * 创建前置通知
      */
     private Advice createBeforeAdvice(final Object aspectInstance, final Method method) {
-        return new MethodBeforeAdviceInterceptor((method1, args, target) -> {
-            // 调用切面方法
-            aspectInstance.getClass().getMethod(method1.getName()).invoke(aspectInstance);
-        });
+        // 在创建通知器时绑定切面方法，调用时不再反射查找
+        AspectJAdviceMethod adviceMethod = AspectJAdviceMethod.bind(aspectInstance, method, null);
+        return new MethodBeforeAdviceInterceptor((method1, args, target) -> adviceMethod.invoke(method1, args, target, null));
     }
 
+    /**
+     * 把表达式中对 @Pointcut 方法的引用替换为方法上声明的表达式。
+     * 支持 "@serviceMethods" 形式的整体引用，以及表达式中出现的 "serviceMethods()"（可以与其他表达式组合）。
+     *
+     * @throws IllegalArgumentException 引用的 @Pointcut 方法不存在，或者引用层次超过上限（循环引用）
+     */
+    private String resolveExpression(Class<?> aspectClass, String expression, int depth) {
+        if (depth > MAX_REFERENCE_DEPTH) {
+            throw new IllegalArgumentException("Pointcut references nested too deeply, possibly cyclic: " + expression);
+        }
+        if (expression.startsWith("@")) {
+            return resolvePointcutReference(aspectClass, expression.substring(1), depth);
+        }
+        Matcher matcher = POINTCUT_REFERENCE.matcher(expression);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            Method pointcutMethod = findPointcutMethod(aspectClass, matcher.group(1));
+            String replacement = pointcutMethod == null ? matcher.group()
+                    : "(" + resolveExpression(aspectClass, pointcutMethod.getAnnotation(Pointcut.class).value(), depth + 1) + ")";
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
 
+    private String resolvePointcutReference(Class<?> aspectClass, String methodName, int depth) {
+        Method pointcutMethod = findPointcutMethod(aspectClass, methodName);
+        if (pointcutMethod == null) {
+            throw new IllegalArgumentException("Cannot find pointcut declaration: " + methodName);
+        }
+        return resolveExpression(aspectClass, pointcutMethod.getAnnotation(Pointcut.class).value(), depth + 1);
+    }
 
-    private String resolvePointcutReference(Class<?> aspectClass, String methodName) {
-        try {
-            for (Method method : aspectClass.getDeclaredMethods()) {
+    private Method findPointcutMethod(Class<?> aspectClass, String methodName) {
+        for (Class<?> clazz = aspectClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
                 if (method.getName().equals(methodName) && method.isAnnotationPresent(Pointcut.class)) {
-                    return method.getAnnotation(Pointcut.class).value();
+                    return method;
                 }
             }
-            throw new IllegalArgumentException("Cannot find pointcut declaration: " + methodName);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to resolve pointcut reference", e);
         }
+        return null;
     }
 
 }
@@ -1,16 +1,32 @@
 package site.hnfy258.aop.framework;
 
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
+import net.sf.cglib.proxy.NoOp;
 import site.hnfy258.aop.AdvisedSupport;
 import site.hnfy258.aop.framework.AopProxy;
 import site.hnfy258.aop.framework.ReflectiveMethodInvocation;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Cglib2AopProxy implements AopProxy {
 
+    // 回调下标，与 ProxyCallbackFilter 返回的值对应
+    private static final int AOP_PROXY = 0;
+    private static final int INVOKE_TARGET = 1;
+    private static final int NO_OVERRIDE = 2;
+    private static final int FIXED_CHAIN_OFFSET = 3;
+
     private final AdvisedSupport advised;
 
     public Cglib2AopProxy(AdvisedSupport advised) {
@@ -19,11 +35,113 @@ public class Cglib2AopProxy implements AopProxy {
 
     @Override
     public Object getProxy() {
-        Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(advised.getTargetSource().getTarget().getClass());
-        enhancer.setInterfaces(advised.getTargetSource().getTargetClass());
-        enhancer.setCallback(new DynamicAdvisedInterceptor(advised));
-        return enhancer.create();
+        Object target = advised.getTargetSource().getTarget();
+        // 目标对象可能是 CGLIB 实例化的子类，代理类继承用户类，不能再继承一次生成类
+        Class<?> targetClass = ProxyClassCache.getUserClass(target.getClass());
+        Class<?>[] interfaces = advised.getTargetSource().getTargetClass();
+
+        // 创建代理时为每个方法确定调用链，没有通知的方法直接分派到目标对象
+        List<Method> methods = new ArrayList<>();
+        Enhancer.getMethods(targetClass, interfaces, methods);
+        List<Callback> callbacks = new ArrayList<>();
+        callbacks.add(new DynamicAdvisedInterceptor(advised));
+        callbacks.add(new TargetDispatcher(target, advised.getInvocationCounter()));
+        callbacks.add(NoOp.INSTANCE);
+        Map<Method, Integer> callbackIndexes = new HashMap<>();
+        for (Method method : methods) {
+            callbackIndexes.put(method, getCallbackIndex(method, targetClass, callbacks));
+        }
+
+        // 通知分布相同的代理共用一个生成类，回调绑定到各自的实例
+        return ProxyClassCache.newInstance(targetClass, interfaces, new ProxyCallbackFilter(callbackIndexes),
+                callbacks.toArray(new Callback[0]));
+    }
+
+    private int getCallbackIndex(Method method, Class<?> targetClass, List<Callback> callbacks) {
+        if (method.getName().equals("finalize") && method.getParameterCount() == 0) {
+            return NO_OVERRIDE;
+        }
+        org.aopalliance.intercept.MethodInterceptor chain = advised.getInterceptorChain(method, targetClass);
+        if (chain != null) {
+            callbacks.add(new FixedChainInterceptor(advised, chain));
+            return callbacks.size() - 1;
+        }
+        // 分派器在代理类中直接调用目标对象的方法，非 public 方法可能无权访问，仍然通过 MethodProxy 调用
+        return Modifier.isPublic(method.getModifiers()) ? INVOKE_TARGET : AOP_PROXY;
+    }
+
+    /**
+     * 按创建代理时确定的下标为方法选择回调。
+     * 下标相同的过滤器相等，ProxyClassCache 据此为通知分布相同的目标类复用生成的代理类。
+     */
+    private static class ProxyCallbackFilter implements CallbackFilter {
+
+        private final Map<Method, Integer> callbackIndexes;
+
+        ProxyCallbackFilter(Map<Method, Integer> callbackIndexes) {
+            this.callbackIndexes = callbackIndexes;
+        }
+
+        @Override
+        public int accept(Method method) {
+            return callbackIndexes.getOrDefault(method, AOP_PROXY);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ProxyCallbackFilter
+                    && callbackIndexes.equals(((ProxyCallbackFilter) other).callbackIndexes);
+        }
+
+        @Override
+        public int hashCode() {
+            return callbackIndexes.hashCode();
+        }
+    }
+
+    /**
+     * 没有通知的 public 方法：代理类直接在目标对象上调用同一个方法，不创建 MethodInvocation。
+     */
+    private static class TargetDispatcher implements Dispatcher {
+
+        private final Object target;
+        private final LongAdder invocationCounter;
+
+        TargetDispatcher(Object target, LongAdder invocationCounter) {
+            this.target = target;
+            this.invocationCounter = invocationCounter;
+        }
+
+        @Override
+        public Object loadObject() {
+            if (invocationCounter != null) {
+                invocationCounter.increment();
+            }
+            return target;
+        }
+    }
+
+    /**
+     * 有通知的方法：调用链在创建代理时已经确定。
+     */
+    private static class FixedChainInterceptor implements MethodInterceptor {
+
+        private final AdvisedSupport advised;
+        private final org.aopalliance.intercept.MethodInterceptor chain;
+
+        FixedChainInterceptor(AdvisedSupport advised, org.aopalliance.intercept.MethodInterceptor chain) {
+            this.advised = advised;
+            this.chain = chain;
+        }
+
+        @Override
+        public Object intercept(Object o, Method method, Object[] objects, MethodProxy methodProxy) throws Throwable {
+            LongAdder invocationCounter = advised.getInvocationCounter();
+            if (invocationCounter != null) {
+                invocationCounter.increment();
+            }
+            return chain.invoke(new CglibMethodInvocation(advised.getTargetSource().getTarget(), method, objects, methodProxy));
+        }
     }
 
     private static class DynamicAdvisedInterceptor implements MethodInterceptor {
@@ -36,11 +154,16 @@ public class Cglib2AopProxy implements AopProxy {
 
         @Override
         public Object intercept(Object o, Method method, Object[] objects, MethodProxy methodProxy) throws Throwable {
-            CglibMethodInvocation methodInvocation = new CglibMethodInvocation(advised.getTargetSource().getTarget(), method, objects, methodProxy);
-            if (advised.getMethodMatcher().matches(method, advised.getTargetSource().getTarget().getClass())) {
-                return advised.getMethodInterceptor().invoke(methodInvocation);
+            LongAdder invocationCounter = advised.getInvocationCounter();
+            if (invocationCounter != null) {
+                invocationCounter.increment();
+            }
+            Object target = advised.getTargetSource().getTarget();
+            org.aopalliance.intercept.MethodInterceptor chain = advised.getInterceptorChain(method, target.getClass());
+            if (chain == null) {
+                return methodProxy.invoke(target, objects);
             }
-            return methodInvocation.proceed();
+            return chain.invoke(new CglibMethodInvocation(target, method, objects, methodProxy));
         }
     }
 
@@ -60,4 +183,4 @@ public class Cglib2AopProxy implements AopProxy {
 
     }
 
-}
\ No newline at end of file
+}
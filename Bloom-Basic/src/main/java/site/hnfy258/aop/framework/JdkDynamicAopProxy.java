@@ -6,6 +6,7 @@ import site.hnfy258.aop.AdvisedSupport;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.LongAdder;
 
 public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
@@ -16,13 +17,16 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
     }
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if(advised.getMethodMatcher().matches(method, advised.getTargetSource().getTarget().getClass())){
-            MethodInterceptor methodInterceptor = advised.getMethodInterceptor();
-            return methodInterceptor.invoke(new ReflectiveMethodInvocation(advised.getTargetSource().getTarget(),
-                    method,
-                    args));
+        LongAdder invocationCounter = advised.getInvocationCounter();
+        if (invocationCounter != null) {
+            invocationCounter.increment();
         }
-        return method.invoke(advised.getTargetSource().getTarget(), args);
+        Object target = advised.getTargetSource().getTarget();
+        MethodInterceptor chain = advised.getInterceptorChain(method, target.getClass());
+        if (chain != null) {
+            return chain.invoke(new ReflectiveMethodInvocation(target, method, args));
+        }
+        return method.invoke(target, args);
     }
 
     @Override
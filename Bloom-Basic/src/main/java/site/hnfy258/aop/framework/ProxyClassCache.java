@@ -0,0 +1,206 @@
+package site.hnfy258.aop.framework;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Enhancer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CGLIB 生成类的缓存，按父类、接口、回调类型和回调过滤器区分生成类的形状。
+ *
+ * 同一形状只生成一次类，之后每个实例在创建时绑定自己的回调，不再创建 Enhancer，也不再计算 CGLIB 的缓存键。
+ * 缓存挂在父类上（ClassValue），父类所在的类加载器被回收时缓存一起回收。
+ *
+ * 生成每个类时记录前后元空间的差值。缓存是进程内共享的，一个类只在第一次生成时测量一次，
+ * 多个容器使用同一个生成类时报告的是同一个值；测量值包括生成过程中顺带加载的其他类，
+ * 其他线程同时加载的类也会混入，只能作为估算。
+ */
+public final class ProxyClassCache {
+    // CGLIB 在生成类中定义的静态方法，构造函数从线程变量中取出回调
+    private static final String SET_THREAD_CALLBACKS_NAME = "CGLIB$SET_THREAD_CALLBACKS";
+    // CGLIB 默认命名策略在生成类名中加入的标记
+    private static final String GENERATED_CLASS_MARKER = "$$EnhancerByCGLIB$$";
+    private static final MemoryPoolMXBean METASPACE = findMetaspacePool();
+
+    private static final ClassValue<Map<ShapeKey, ProxyClass>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<ShapeKey, ProxyClass> computeValue(Class<?> superclass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ProxyClassCache() {
+    }
+
+    /**
+     * 创建生成类的实例，调用父类的无参构造函数。
+     *
+     * @param filter 回调过滤器，必须正确实现 equals 和 hashCode；只有一个回调时可以为 null
+     * @param callbacks 绑定到这个实例的回调
+     */
+    public static Object newInstance(Class<?> superclass, Class<?>[] interfaces, CallbackFilter filter,
+                                     Callback[] callbacks) {
+        ProxyClass proxyClass = getProxyClass(superclass, interfaces, filter, callbacks);
+        try {
+            return proxyClass.newInstance(callbacks);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate " + proxyClass.generatedClass.getName(), e);
+        }
+    }
+
+    /**
+     * 获取生成类第一次生成时元空间的增长量。
+     *
+     * @return 增长的字节数；不是这里生成的类或者无法测量时返回 -1
+     */
+    public static long getMetaspaceBytes(Class<?> generatedClass) {
+        Class<?> superclass = generatedClass.getSuperclass();
+        if (superclass == null || !isGeneratedClass(generatedClass)) {
+            return -1;
+        }
+        for (ProxyClass proxyClass : CACHE.get(superclass).values()) {
+            if (proxyClass.generatedClass == generatedClass) {
+                return proxyClass.metaspaceBytes;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取 CGLIB 生成类对应的用户类，其他类原样返回。
+     * 使用 CglibInstaniateStrategy 实例化的 Bean 的类是生成的子类，注解和切点都要在用户类上查找。
+     */
+    public static Class<?> getUserClass(Class<?> clazz) {
+        Class<?> result = clazz;
+        while (isGeneratedClass(result) && result.getSuperclass() != null) {
+            result = result.getSuperclass();
+        }
+        return result;
+    }
+
+    private static boolean isGeneratedClass(Class<?> clazz) {
+        return clazz.getName().contains(GENERATED_CLASS_MARKER);
+    }
+
+    private static ProxyClass getProxyClass(Class<?> superclass, Class<?>[] interfaces, CallbackFilter filter,
+                                            Callback[] callbacks) {
+        Class<?>[] callbackTypes = new Class<?>[callbacks.length];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbackTypes[i] = callbacks[i].getClass();
+        }
+        ShapeKey key = new ShapeKey(interfaces, callbackTypes, filter);
+        Map<ShapeKey, ProxyClass> classes = CACHE.get(superclass);
+        ProxyClass proxyClass = classes.get(key);
+        if (proxyClass == null) {
+            proxyClass = classes.computeIfAbsent(key, k -> generate(superclass, interfaces, filter, callbackTypes));
+        }
+        return proxyClass;
+    }
+
+    private static ProxyClass generate(Class<?> superclass, Class<?>[] interfaces, CallbackFilter filter,
+                                       Class<?>[] callbackTypes) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(superclass);
+        if (interfaces != null && interfaces.length > 0) {
+            enhancer.setInterfaces(interfaces);
+        }
+        if (filter != null) {
+            enhancer.setCallbackFilter(filter);
+        }
+        enhancer.setCallbackTypes(callbackTypes);
+        long metaspaceBefore = METASPACE == null ? -1 : METASPACE.getUsage().getUsed();
+        Class<?> generatedClass = enhancer.createClass();
+        long metaspaceBytes = metaspaceBefore < 0 ? -1 : Math.max(0, METASPACE.getUsage().getUsed() - metaspaceBefore);
+        try {
+            Method setThreadCallbacks = generatedClass.getDeclaredMethod(SET_THREAD_CALLBACKS_NAME, Callback[].class);
+            setThreadCallbacks.setAccessible(true);
+            Constructor<?> constructor = generatedClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new ProxyClass(generatedClass, metaspaceBytes,
+                    lookup.unreflect(setThreadCallbacks),
+                    lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind generated class " + generatedClass.getName(), e);
+        }
+    }
+
+    private static MemoryPoolMXBean findMetaspacePool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 一个生成类、生成时元空间的增长量以及创建它的实例所需的方法句柄。
+     */
+    private static class ProxyClass {
+        private final Class<?> generatedClass;
+        private final long metaspaceBytes;
+        private final MethodHandle setThreadCallbacks;
+        private final MethodHandle constructor;
+
+        ProxyClass(Class<?> generatedClass, long metaspaceBytes, MethodHandle setThreadCallbacks,
+                   MethodHandle constructor) {
+            this.generatedClass = generatedClass;
+            this.metaspaceBytes = metaspaceBytes;
+            this.setThreadCallbacks = setThreadCallbacks;
+            this.constructor = constructor;
+        }
+
+        Object newInstance(Callback[] callbacks) throws Throwable {
+            setThreadCallbacks.invokeExact(callbacks);
+            try {
+                return (Object) constructor.invokeExact();
+            } finally {
+                setThreadCallbacks.invokeExact((Callback[]) null);
+            }
+        }
+    }
+
+    private static class ShapeKey {
+        private final List<Class<?>> interfaces;
+        private final List<Class<?>> callbackTypes;
+        private final CallbackFilter filter;
+        private final int hashCode;
+
+        ShapeKey(Class<?>[] interfaces, Class<?>[] callbackTypes, CallbackFilter filter) {
+            this.interfaces = interfaces == null ? List.of() : Arrays.asList(interfaces);
+            this.callbackTypes = Arrays.asList(callbackTypes);
+            this.filter = filter;
+            this.hashCode = Objects.hash(this.interfaces, this.callbackTypes, filter);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ShapeKey)) {
+                return false;
+            }
+            ShapeKey key = (ShapeKey) other;
+            return interfaces.equals(key.interfaces) && callbackTypes.equals(key.callbackTypes)
+                    && Objects.equals(filter, key.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
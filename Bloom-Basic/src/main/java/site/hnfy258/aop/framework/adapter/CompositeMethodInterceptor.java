@@ -2,6 +2,7 @@ package site.hnfy258.aop.framework.adapter;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import site.hnfy258.common.jfr.AdviceInvocationEvent;
 
 import java.lang.reflect.AccessibleObject;
 import java.util.List;
@@ -11,36 +12,74 @@ import java.util.List;
  */
 public class CompositeMethodInterceptor implements MethodInterceptor {
     
-    private final List<MethodInterceptor> interceptors;
+    private final String beanName;
+    private final MethodInterceptor[] interceptors;
     
     public CompositeMethodInterceptor(List<MethodInterceptor> interceptors) {
+        this(null, interceptors);
+    }
+
+    /**
+     * @param beanName 被代理的 Bean 名称，记录在 AdviceInvocationEvent 中
+     */
+    public CompositeMethodInterceptor(String beanName, List<MethodInterceptor> interceptors) {
+        this(beanName, interceptors.toArray(new MethodInterceptor[0]));
+    }
+
+    /**
+     * @param interceptors 拦截器数组，创建后不再修改
+     */
+    public CompositeMethodInterceptor(String beanName, MethodInterceptor[] interceptors) {
+        this.beanName = beanName;
         this.interceptors = interceptors;
     }
+
+    public List<MethodInterceptor> getInterceptors() {
+        return List.of(interceptors);
+    }
     
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        return new CompositeMI(invocation, interceptors).proceed();
+        return new CompositeMI(invocation, beanName, interceptors).proceed();
     }
     
     private static class CompositeMI implements MethodInvocation {
         
         private final MethodInvocation mi;
-        private final List<MethodInterceptor> interceptors;
+        private final String beanName;
+        private final MethodInterceptor[] interceptors;
         private int currentInterceptorIndex = -1;
         
-        public CompositeMI(MethodInvocation mi, List<MethodInterceptor> interceptors) {
+        public CompositeMI(MethodInvocation mi, String beanName, MethodInterceptor[] interceptors) {
             this.mi = mi;
+            this.beanName = beanName;
             this.interceptors = interceptors;
         }
         
         @Override
         public Object proceed() throws Throwable {
-            if (currentInterceptorIndex == interceptors.size() - 1) {
+            if (currentInterceptorIndex == interceptors.length - 1) {
                 return mi.proceed();
             }
             
-            MethodInterceptor interceptor = interceptors.get(++currentInterceptorIndex);
-            return interceptor.invoke(this);
+            int position = ++currentInterceptorIndex;
+            MethodInterceptor interceptor = interceptors[position];
+            // 事件默认关闭，关闭时 begin/end/shouldCommit 都不做任何事
+            AdviceInvocationEvent event = new AdviceInvocationEvent();
+            event.begin();
+            try {
+                return interceptor.invoke(this);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.beanName = beanName;
+                    event.adviceClass = interceptor.getClass();
+                    event.targetClass = mi.getThis() == null ? null : mi.getThis().getClass();
+                    event.method = mi.getMethod().getName();
+                    event.position = position;
+                    event.commit();
+                }
+            }
         }
         
         @Override
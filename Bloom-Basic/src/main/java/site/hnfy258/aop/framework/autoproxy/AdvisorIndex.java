@@ -0,0 +1,131 @@
+package site.hnfy258.aop.framework.autoproxy;
+
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.aspectj.PointcutPrefilter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按切点的预过滤条件为通知器建立的索引，为 Bean 查找候选通知器时不调用 AspectJ。
+ *
+ * 有确定方法名的通知器按方法名索引，其余有包名前缀的按类型名前缀索引，查找时用 Bean 的方法名
+ * 和类型层次中每个类型名的各级前缀做哈希查找；两者都没有的通知器对每个 Bean 都要检查。
+ * 候选通知器再用预过滤条件逐个方法检查，只有存在可能匹配的方法时才交给 AspectJ。
+ */
+class AdvisorIndex {
+    private final int version;
+    private final List<AspectJExpressionPointcutAdvisor> advisors;
+    private final List<PointcutPrefilter> prefilters = new ArrayList<>();
+    private final Map<String, List<Integer>> byMethodName = new HashMap<>();
+    private final Map<String, List<Integer>> byTypeNamePrefix = new HashMap<>();
+    private final BitSet unindexed = new BitSet();
+
+    /**
+     * @param version 建立索引时通知器缓存的版本，缓存变化后需要重建
+     */
+    AdvisorIndex(int version, List<AspectJExpressionPointcutAdvisor> advisors) {
+        this.version = version;
+        this.advisors = advisors;
+        for (int i = 0; i < advisors.size(); i++) {
+            PointcutPrefilter prefilter = advisors.get(i).getPrefilter();
+            prefilters.add(prefilter);
+            PointcutPrefilter.IndexKeys keys = prefilter.getIndexKeys();
+            if (keys == null) {
+                unindexed.set(i);
+                continue;
+            }
+            for (String methodName : keys.getMethodNames()) {
+                byMethodName.computeIfAbsent(methodName, key -> new ArrayList<>()).add(i);
+            }
+            for (String prefix : keys.getTypeNamePrefixes()) {
+                byTypeNamePrefix.computeIfAbsent(prefix, key -> new ArrayList<>()).add(i);
+            }
+        }
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * 查找可能匹配目标类的通知器，按通知器缓存中的顺序返回，值为可能匹配的方法。
+     */
+    Map<AspectJExpressionPointcutAdvisor, List<Method>> findCandidates(Class<?> targetClass, List<Method> methods) {
+        PointcutPrefilter.TypeNames typeNames = PointcutPrefilter.TypeNames.of(targetClass);
+        BitSet candidates = (BitSet) unindexed.clone();
+        for (Method method : methods) {
+            addAll(candidates, byMethodName.get(method.getName()));
+        }
+        if (!byTypeNamePrefix.isEmpty()) {
+            for (String prefix : typeNames.getNamePrefixes()) {
+                addAll(candidates, byTypeNamePrefix.get(prefix));
+            }
+        }
+
+        Map<AspectJExpressionPointcutAdvisor, List<Method>> result = new LinkedHashMap<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            PointcutPrefilter prefilter = prefilters.get(i);
+            List<Method> matched = new ArrayList<>();
+            for (Method method : methods) {
+                if (prefilter.couldMatch(method, typeNames)) {
+                    matched.add(method);
+                }
+            }
+            if (!matched.isEmpty()) {
+                result.put(advisors.get(i), matched);
+            }
+        }
+        return result;
+    }
+
+    private static void addAll(BitSet candidates, List<Integer> indexes) {
+        if (indexes != null) {
+            for (int index : indexes) {
+                candidates.set(index);
+            }
+        }
+    }
+
+    /**
+     * 代理能够拦截的方法：类型层次中非 static、非 private、非 final 的方法，子类中的方法覆盖父类的同签名方法。
+     * 不使用 CGLIB 的 Enhancer 枚举，使用编译期生成的代理时不需要初始化 CGLIB。
+     */
+    static List<Method> getProxiableMethods(Class<?> targetClass) {
+        Map<List<Object>, Method> methods = new LinkedHashMap<>();
+        for (Class<?> clazz = targetClass; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                addMethod(methods, method);
+            }
+        }
+        // 接口中的方法，包括默认方法
+        for (Method method : targetClass.getMethods()) {
+            addMethod(methods, method);
+        }
+        List<Method> result = new ArrayList<>();
+        for (Method method : methods.values()) {
+            if (!Modifier.isFinal(method.getModifiers())) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    private static void addMethod(Map<List<Object>, Method> methods, Method method) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || method.isBridge()) {
+            return;
+        }
+        List<Object> signature = new ArrayList<>();
+        signature.add(method.getName());
+        signature.addAll(Arrays.asList(method.getParameterTypes()));
+        methods.putIfAbsent(signature, method);
+    }
+}
@@ -1,53 +1,77 @@
 package site.hnfy258.aop.framework.autoproxy;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.PointCut;
 import site.hnfy258.aop.TargetSource;
 import site.hnfy258.aop.annotation.Aspect;
 import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.AotProxyRegistry;
 import site.hnfy258.aop.framework.AspectJAdvisorFactory;
+import site.hnfy258.aop.framework.ProxyClassCache;
 import site.hnfy258.aop.framework.ProxyFactory;
-import site.hnfy258.aop.framework.adapter.CompositeMethodInterceptor;
 import site.hnfy258.bean.factory.config.BeanFactory;
 import site.hnfy258.bean.factory.config.BeanPostProcessor;
+import site.hnfy258.bean.factory.support.BeanUsageTracker;
 import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.bean.factory.support.GeneratedClassRegistry;
 import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.jfr.ProxyCreationEvent;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
+import site.hnfy258.common.startup.StartupStep;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 自动代理创建器，负责为符合条件的Bean创建代理
  */
 public class AspectJAutoProxyCreator implements BeanPostProcessor {
-    
     private DefaultListableBeanFactory beanFactory;
-    private AspectJAdvisorFactory advisorFactory = new AspectJAdvisorFactory();
+    // 绑定到 beanFactory 的日志级别
+    private Logger logger;
+    private AspectJAdvisorFactory advisorFactory;
     private final Map<String, List<AspectJExpressionPointcutAdvisor>> advisorsCache = new ConcurrentHashMap<>();
-    private final List<String> aspectNames = new ArrayList<>();
+    // 并行创建单例时可能被多个线程同时访问
+    private final List<String> aspectNames = new CopyOnWriteArrayList<>();
+    // advisorsCache 每次加入切面后递增，索引的版本不同时重建
+    private final AtomicInteger advisorsVersion = new AtomicInteger();
+    private volatile AdvisorIndex advisorIndex;
     
     public AspectJAutoProxyCreator(DefaultListableBeanFactory beanFactory) {
-        this.beanFactory = beanFactory;
+        bindBeanFactory(beanFactory);
     }
 
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
-        this.beanFactory = (DefaultListableBeanFactory) beanFactory;
-        System.out.println("已注册AOP处理器: AspectJAutoProxyCreator");
+        bindBeanFactory((DefaultListableBeanFactory) beanFactory);
+        logger.debug("已注册AOP处理器: AspectJAutoProxyCreator");
+    }
+
+    private void bindBeanFactory(DefaultListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+        this.logger = LoggerFactory.getLogger(AspectJAutoProxyCreator.class, beanFactory.getLogLevelHolder());
+        this.advisorFactory = new AspectJAdvisorFactory(beanFactory.getLogLevelHolder());
     }
 
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
         // 如果是切面类，记录下来
-        if (bean.getClass().isAnnotationPresent(Aspect.class)) {
-            System.out.println("发现切面类: " + beanName + ", 类型: " + bean.getClass().getName());
-            aspectNames.add(beanName);
-
-            // 立即初始化通知器缓存
-            if (advisorsCache.isEmpty()) {
-                initializeAdvisorsCache();
+        if (isAspect(bean)) {
+            logger.debug("发现切面类: {}, 类型: {}", beanName, bean.getClass().getName());
+            if (!aspectNames.contains(beanName)) {
+                aspectNames.add(beanName);
             }
+
+            // 直接使用当前实例提取通知器，不再通过 getBean 取回正在创建的切面
+            advisorsCache.computeIfAbsent(beanName, name -> extractAdvisors(name, bean));
+            advisorsVersion.incrementAndGet();
         }
         return bean;
     }
@@ -55,13 +79,13 @@ public class AspectJAutoProxyCreator implements BeanPostProcessor {
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         // 如果是切面类，不进行代理
-        if (bean.getClass().isAnnotationPresent(Aspect.class)) {
+        if (isAspect(bean)) {
             return bean;
         }
 
         // 确保所有切面都已初始化并缓存
         if (advisorsCache.isEmpty() && !aspectNames.isEmpty()) {
-            System.out.println("初始化切面缓存，发现切面数量: " + aspectNames.size());
+            logger.debug("初始化切面缓存，发现切面数量: {}", aspectNames.size());
             initializeAdvisorsCache();
         }
 
@@ -72,110 +96,172 @@ public class AspectJAutoProxyCreator implements BeanPostProcessor {
             return bean;
         }
 
-        System.out.println("为Bean创建代理: " + beanName + ", 匹配的通知器数量: " + advisors.size());
+        logger.debug("为Bean创建代理: {}, 匹配的通知器数量: {}", beanName, advisors.size());
 
         // 创建代理
+        StartupStep step = beanFactory.getStartupRecorder().start("aop.proxy").tag("beanName", beanName);
+        ProxyCreationEvent event = new ProxyCreationEvent();
+        event.begin();
+        Object proxy = null;
         try {
-            // 创建一个AdvisedSupport，包含所有匹配的通知器
-            AdvisedSupport advisedSupport = new AdvisedSupport();
-            TargetSource targetSource = new TargetSource(bean);
-            advisedSupport.setTargetSource(targetSource);
-            advisedSupport.setProxyTargetClass(true);
-
-            // 创建一个复合拦截器，包含所有匹配的通知器
-            List<MethodInterceptor> interceptors = new ArrayList<>();
-            for (AspectJExpressionPointcutAdvisor advisor : advisors) {
-                interceptors.add((MethodInterceptor) advisor.getAdvice());
-                System.out.println("添加拦截器: " + advisor.getAdvice().getClass().getSimpleName() +
-                        " 表达式: " + advisor.getExpression());
-            }
-
-            if (!interceptors.isEmpty()) {
-                // 如果只有一个拦截器，直接使用它
-                if (interceptors.size() == 1) {
-                    advisedSupport.setMethodInterceptor(interceptors.get(0));
-                    advisedSupport.setMethodMatcher(advisors.get(0).getPointcut().getMethodMatcher());
-                } else {
-                    // 否则创建一个复合拦截器
-                    advisedSupport.setMethodInterceptor(new CompositeMethodInterceptor(interceptors));
-                    advisedSupport.setMethodMatcher((method, targetClass) -> {
-                        for (AspectJExpressionPointcutAdvisor advisor : advisors) {
-                            if (advisor.getPointcut().getMethodMatcher().matches(method, targetClass)) {
-                                return true;
-                            }
-                        }
-                        return false;
-                    });
-                }
-
-                // 创建代理
-                Object proxy = new ProxyFactory(advisedSupport).getProxy();
-                System.out.println("成功为Bean创建代理: " + beanName);
-                return proxy;
+            BeanUsageTracker usageTracker = beanFactory.getUsageTracker();
+            LongAdder invocationCounter = usageTracker != null ? usageTracker.getProxyInvocationCounter(beanName) : null;
+            GeneratedClassRegistry generatedClasses = beanFactory.getGeneratedClassRegistry();
+            // 优先使用编译期生成的代理，存在编译期没有看到的通知时回退到运行时生成的 CGLIB 代理
+            proxy = AotProxyRegistry.newProxy(bean, getAllAdvisors(), invocationCounter,
+                    beanFactory.getLogLevelHolder());
+            if (proxy != null) {
+                generatedClasses.registerProxyClass(proxy.getClass());
+                logger.debug("使用编译期生成的代理: {}", proxy.getClass().getName());
+            } else {
+                proxy = createRuntimeProxy(bean, beanName, advisors, invocationCounter);
+                generatedClasses.registerGeneratedClass(GeneratedClassRegistry.PROXY, bean.getClass(), proxy.getClass());
             }
+            logger.debug("成功为Bean创建代理: {}", beanName);
+            return proxy;
         } catch (Exception e) {
-            System.err.println("为Bean创建代理失败: " + beanName + ", 错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("为Bean创建代理失败: {}", beanName, e);
             throw new BeansException("Error creating proxy for bean [" + beanName + "]", e);
+        } finally {
+            event.end();
+            step.end();
+            // 创建失败时也提交事件，proxyClass 为空
+            if (event.shouldCommit()) {
+                event.beanName = beanName;
+                event.beanClass = bean.getClass();
+                event.proxyClass = proxy == null ? null : proxy.getClass();
+                event.advisorCount = advisors.size();
+                event.commit();
+            }
         }
+    }
 
-        return bean;
+    private Object createRuntimeProxy(Object bean, String beanName, List<AspectJExpressionPointcutAdvisor> advisors,
+                                      LongAdder invocationCounter) {
+        // 创建一个AdvisedSupport，包含所有匹配的通知器
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        TargetSource targetSource = new TargetSource(bean);
+        advisedSupport.setTargetSource(targetSource);
+        advisedSupport.setProxyTargetClass(true);
+        advisedSupport.setInvocationCounter(invocationCounter);
+
+        // 每个方法第一次调用时只组装切点匹配该方法的拦截器
+        advisedSupport.setBeanName(beanName);
+        for (AspectJExpressionPointcutAdvisor advisor : advisors) {
+            advisedSupport.addAdvisor(advisor);
+            logger.debug("添加拦截器: {} 表达式: {}",
+                    advisor.getAdvice().getClass().getSimpleName(), advisor.getExpression());
+        }
+        return new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    private List<AspectJExpressionPointcutAdvisor> getAllAdvisors() {
+        List<AspectJExpressionPointcutAdvisor> result = new ArrayList<>();
+        advisorsCache.values().forEach(result::addAll);
+        return result;
     }
 
     /**
-     * 初始化通知器缓存
+     * 获取已缓存的通知器，键为切面 Bean 名称。
      */
-    public void initializeAdvisorsCache() {
+    public Map<String, List<AspectJExpressionPointcutAdvisor>> getAdvisorsCache() {
+        return Collections.unmodifiableMap(advisorsCache);
+    }
+
+    /**
+     * 初始化通知器缓存，已缓存的切面会被跳过
+     */
+    public synchronized void initializeAdvisorsCache() {
         for (String aspectName : aspectNames) {
+            if (advisorsCache.containsKey(aspectName)) {
+                continue;
+            }
             try {
-                Object aspectInstance = beanFactory.getBean(aspectName);
-                System.out.println("处理切面: " + aspectName + ", 类型: " + aspectInstance.getClass().getName());
-                List<AspectJExpressionPointcutAdvisor> advisors = advisorFactory.getAdvisors(aspectInstance);
-                System.out.println("从切面 " + aspectName + " 提取的通知器数量: " + advisors.size());
-                for (AspectJExpressionPointcutAdvisor advisor : advisors) {
-                    System.out.println("  - 通知器: " + advisor.getAdvice().getClass().getSimpleName() +
-                            ", 表达式: " + advisor.getExpression());
-                }
-                advisorsCache.put(aspectName, advisors);
+                advisorsCache.put(aspectName, extractAdvisors(aspectName, beanFactory.getBean(aspectName)));
+                advisorsVersion.incrementAndGet();
             } catch (Exception e) {
-                System.err.println("处理切面失败: " + aspectName + ", 错误: " + e.getMessage());
-                e.printStackTrace();
+                logger.error("处理切面失败: {}", aspectName, e);
                 throw new RuntimeException("Failed to get aspect: " + aspectName, e);
             }
         }
     }
 
+    private List<AspectJExpressionPointcutAdvisor> extractAdvisors(String aspectName, Object aspectInstance) {
+        logger.debug("处理切面: {}, 类型: {}", aspectName, aspectInstance.getClass().getName());
+        List<AspectJExpressionPointcutAdvisor> advisors = advisorFactory.getAdvisors(aspectInstance);
+        logger.debug("从切面 {} 提取的通知器数量: {}", aspectName, advisors.size());
+        for (AspectJExpressionPointcutAdvisor advisor : advisors) {
+            logger.debug("  - 通知器: {}, 表达式: {}",
+                    advisor.getAdvice().getClass().getSimpleName(), advisor.getExpression());
+        }
+        return advisors;
+    }
+
     /**
-     * 获取所有适用于该bean的通知器
+     * 获取所有适用于该bean的通知器。
+     *
+     * 先用切点的预过滤条件在索引中查找候选通知器，只对候选通知器调用 AspectJ 的类型匹配，
+     * 再确认至少有一个方法匹配；没有任何方法匹配的 Bean 不创建代理。
      */
     private List<AspectJExpressionPointcutAdvisor> getAdvisorsForBean(Object bean, String beanName) {
         List<AspectJExpressionPointcutAdvisor> result = new ArrayList<>();
-        Class<?> targetClass = bean.getClass();
-
-        // 处理CGLIB代理类
-        if (targetClass.getName().contains("$$EnhancerByCGLIB$$")) {
-            targetClass = targetClass.getSuperclass();
+        if (advisorsCache.isEmpty()) {
+            return result;
         }
+        // CGLIB 实例化的 Bean 按用户类匹配切点
+        Class<?> targetClass = ProxyClassCache.getUserClass(bean.getClass());
+
+        logger.trace("检查bean: {} 原始类: {}", beanName, targetClass.getName());
 
-        System.out.println("检查bean: " + beanName + " 原始类: " + targetClass.getName());
+        List<Method> methods = AdvisorIndex.getProxiableMethods(targetClass);
+        Map<AspectJExpressionPointcutAdvisor, List<Method>> candidates =
+                getAdvisorIndex().findCandidates(targetClass, methods);
+        logger.trace("Bean {} 预过滤后剩余 {} 个候选通知器", beanName, candidates.size());
 
-        for (List<AspectJExpressionPointcutAdvisor> advisors : advisorsCache.values()) {
-            for (AspectJExpressionPointcutAdvisor advisor : advisors) {
-                if (advisor.getPointcut().getClassFilter().matches(targetClass)) {
-                    System.out.println("Bean " + beanName + " 匹配切点表达式: " + advisor.getExpression());
-                    result.add(advisor);
-                } else {
-                    System.out.println("Bean " + beanName + " 不匹配切点表达式: " + advisor.getExpression());
-                }
+        for (Map.Entry<AspectJExpressionPointcutAdvisor, List<Method>> candidate : candidates.entrySet()) {
+            AspectJExpressionPointcutAdvisor advisor = candidate.getKey();
+            PointCut pointcut = advisor.getPointcut();
+            if (pointcut.getClassFilter().matches(targetClass) && matchesAnyMethod(pointcut, candidate.getValue(), targetClass)) {
+                logger.trace("Bean {} 匹配切点表达式: {}", beanName, advisor.getExpression());
+                result.add(advisor);
+            } else {
+                logger.trace("Bean {} 不匹配切点表达式: {}", beanName, advisor.getExpression());
             }
         }
 
         if (result.isEmpty()) {
-            System.out.println("Bean " + beanName + " 没有匹配任何切点表达式");
+            logger.trace("Bean {} 没有匹配任何切点表达式", beanName);
         } else {
-            System.out.println("Bean " + beanName + " 匹配了 " + result.size() + " 个切点表达式");
+            logger.debug("Bean {} 匹配了 {} 个切点表达式", beanName, result.size());
         }
 
         return result;
     }
+
+    /**
+     * 判断 Bean 是否是切面，CGLIB 实例化的切面的类是生成的子类，@Aspect 在用户类上。
+     */
+    private static boolean isAspect(Object bean) {
+        return ProxyClassCache.getUserClass(bean.getClass()).isAnnotationPresent(Aspect.class);
+    }
+
+    private static boolean matchesAnyMethod(PointCut pointcut, List<Method> methods, Class<?> targetClass) {
+        for (Method method : methods) {
+            if (pointcut.getMethodMatcher().matches(method, targetClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AdvisorIndex getAdvisorIndex() {
+        // 先读版本再读缓存，读到的缓存不会比版本旧
+        int version = advisorsVersion.get();
+        AdvisorIndex index = advisorIndex;
+        if (index == null || index.getVersion() != version) {
+            index = new AdvisorIndex(version, getAllAdvisors());
+            advisorIndex = index;
+        }
+        return index;
+    }
 }
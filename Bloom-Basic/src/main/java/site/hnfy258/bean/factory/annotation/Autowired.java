@@ -3,7 +3,7 @@ package site.hnfy258.bean.factory.annotation;
 import java.lang.annotation.*;
 
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.CONSTRUCTOR})
 @Documented
 public @interface Autowired {
 }
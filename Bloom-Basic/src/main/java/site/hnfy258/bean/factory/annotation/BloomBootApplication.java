@@ -2,6 +2,7 @@ package site.hnfy258.bean.factory.annotation;
 
 import site.hnfy258.bean.factory.annotation.Component;
 import site.hnfy258.bean.factory.annotation.ComponentScan;
+import site.hnfy258.common.logging.LogLevel;
 
 import java.lang.annotation.*;
 
@@ -11,4 +12,37 @@ import java.lang.annotation.*;
 @ComponentScan
 public @interface BloomBootApplication {
     String[] scanBasePackages() default {};
+
+    /**
+     * 类路径扫描的并行度，1 表示单线程扫描，小于等于 0 表示使用可用处理器数量
+     */
+    int scanParallelism() default 1;
+
+    /**
+     * 是否按 @Autowired 依赖图在虚拟线程上并行创建单例，存在循环依赖的 Bean 仍然顺序创建
+     */
+    boolean parallelPreInstantiation() default false;
+
+    /**
+     * 容器日志级别，低于该级别的日志不会拼接消息也不会输出。只作用于本上下文的 Bean 工厂、扫描器和代理创建器，
+     * 不属于容器的代码（例如代理上的拦截器）使用 LoggerFactory 的全局级别
+     */
+    LogLevel logLevel() default LogLevel.INFO;
+
+    /**
+     * 是否记录启动过程中每个阶段和每个 Bean 的耗时，可以通过 ApplicationContext.getStartupRecorder 查询。
+     * 只记录刷新期间的步骤，刷新结束后按需创建的 Bean 不再记录
+     */
+    boolean recordStartup() default false;
+
+    /**
+     * Bean 使用频率画像文件。设置后关闭上下文时写入本次运行的使用统计，
+     * 下次启动时先创建常用的 Bean，并推迟创建最近几次运行都没有使用的 Bean
+     */
+    String usageProfile() default "";
+
+    /**
+     * 连续多少次运行未被使用的 Bean 会被推迟到第一次访问时创建，小于等于 0 表示只调整创建顺序
+     */
+    int coldBeanThreshold() default 3;
 }
\ No newline at end of file
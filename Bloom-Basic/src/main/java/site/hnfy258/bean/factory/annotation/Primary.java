@@ -0,0 +1,12 @@
+package site.hnfy258.bean.factory.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 按类型获取 Bean 时存在多个候选，优先使用标注了该注解的 Bean
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Primary {
+}
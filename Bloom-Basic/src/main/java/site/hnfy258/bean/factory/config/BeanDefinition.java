@@ -17,6 +17,9 @@ public class BeanDefinition {
         @Setter
         private String scope; // Bean 的作用域
         private boolean isLazy = false; // 是否延迟初始化
+        @Getter
+        @Setter
+        private boolean primary = false; // 按类型获取时存在多个候选是否优先使用
 
         /**
          * 构造函数，用于创建一个 BeanDefinition 实例。
@@ -1,7 +1,9 @@
 package site.hnfy258.bean.factory.context;
 
 import site.hnfy258.bean.factory.config.BeanFactory;
+import site.hnfy258.bean.factory.support.MemoryFootprint;
 import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.startup.StartupRecorder;
 
 /**
  * ApplicationContext 接口扩展了 BeanFactory，提供了应用上下文的功能。
@@ -37,6 +39,20 @@ public interface ApplicationContext extends BeanFactory {
      */
     void setApplicationName(String applicationName);
 
+    /**
+     * 获取启动过程记录器。没有开启记录时返回 StartupRecorder.NOOP。
+     *
+     * @return 启动过程记录器
+     */
+    StartupRecorder getStartupRecorder();
+
+    /**
+     * 估算容器本身和单例 Bean 占用的内存。
+     *
+     * @return 内存占用报告
+     */
+    MemoryFootprint analyzeMemoryFootprint();
+
 
     public void registerShutdownHook();
 }
@@ -1,21 +1,64 @@
 package site.hnfy258.bean.factory.context;
 
+import lombok.Getter;
+import lombok.Setter;
 import site.hnfy258.bean.factory.annotation.BloomBootApplication;
 import site.hnfy258.bean.factory.config.BeanFactoryPostProcessor;
+import site.hnfy258.bean.factory.support.BeanDependencyGraph;
+import site.hnfy258.bean.factory.support.BeanUsageProfile;
+import site.hnfy258.bean.factory.support.BeanUsageTracker;
 import site.hnfy258.bean.factory.support.ClassPathBeanDefinitionScanner;
 import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.bean.factory.support.MemoryFootprint;
 import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.logging.LogLevel;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
+import site.hnfy258.common.startup.BufferingStartupRecorder;
+import site.hnfy258.common.startup.StartupRecorder;
+import site.hnfy258.common.startup.StartupStep;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  * BloomBootApplicationContext 是 BloomBoot 框架的应用上下文实现类，负责管理 Bean 的生命周期和依赖注入。
  * 它通过扫描指定包路径下的类，注册 Bean 定义，并执行 BeanFactoryPostProcessor 和 BeanPostProcessor 来初始化 Bean。
  */
 public class BloomBootApplicationContext implements ApplicationContext {
+    public static final String GRAPH_DUMP_PROPERTY = "bloom.graph.dump";
+    public static final String STARTUP_TRACE_PROPERTY = "bloom.startup.trace";
+    public static final String USAGE_PROFILE_PROPERTY = "bloom.usage.profile";
+
     private DefaultListableBeanFactory beanFactory;
+    private final Logger logger;
     private String applicationName;
+    // 类路径扫描的并行度，来自 @BloomBootApplication
+    private int scanParallelism = 1;
+    // 是否并行创建单例，来自 @BloomBootApplication
+    private boolean parallelPreInstantiation = false;
+    // 容器日志级别，来自 @BloomBootApplication 或 setLogLevel，刷新时设置到本上下文的 Bean 工厂上，不影响其他上下文
+    @Getter
+    @Setter
+    private LogLevel logLevel = LogLevel.INFO;
+    // 启动过程记录器，来自 @BloomBootApplication(recordStartup) 或 setStartupRecorder
+    @Getter
+    @Setter
+    private StartupRecorder startupRecorder = StartupRecorder.NOOP;
+    // Bean 使用频率画像文件，来自 @BloomBootApplication 或系统属性 bloom.usage.profile，为空时不统计
+    @Getter
+    @Setter
+    private String usageProfileLocation = "";
+    @Getter
+    @Setter
+    private int coldBeanThreshold = 3;
+    private BeanUsageTracker usageTracker;
+    private BeanUsageProfile usageProfile;
     private final List<BeanFactoryPostProcessor> beanFactoryPostProcessors = new ArrayList<>();
 
     /**
@@ -23,6 +66,7 @@ public class BloomBootApplicationContext implements ApplicationContext {
      */
     public BloomBootApplicationContext() {
         this.beanFactory = new DefaultListableBeanFactory();
+        this.logger = LoggerFactory.getLogger(BloomBootApplicationContext.class, beanFactory.getLogLevelHolder());
     }
 
     /**
@@ -54,6 +98,14 @@ public class BloomBootApplicationContext implements ApplicationContext {
         // 获取注解信息，确定扫描的包路径
         BloomBootApplication annotation = primarySource.getAnnotation(BloomBootApplication.class);
         String[] scanBasePackages = annotation.scanBasePackages();
+        scanParallelism = annotation.scanParallelism();
+        parallelPreInstantiation = annotation.parallelPreInstantiation();
+        logLevel = annotation.logLevel();
+        usageProfileLocation = annotation.usageProfile();
+        coldBeanThreshold = annotation.coldBeanThreshold();
+        if (annotation.recordStartup() && startupRecorder == StartupRecorder.NOOP) {
+            startupRecorder = new BufferingStartupRecorder();
+        }
 
         // 如果没有指定扫描包，则使用主类所在的包
         if (scanBasePackages.length == 0) {
@@ -82,25 +134,142 @@ public class BloomBootApplicationContext implements ApplicationContext {
      * @throws BeansException 如果刷新过程中发生错误
      */
     private void refresh(String[] basePackages) throws BeansException {
+        beanFactory.getLogLevelHolder().setLevel(logLevel);
+        String tracePath = System.getProperty(STARTUP_TRACE_PROPERTY);
+        if (tracePath != null && !tracePath.isEmpty() && startupRecorder == StartupRecorder.NOOP) {
+            startupRecorder = new BufferingStartupRecorder();
+        }
+        beanFactory.setStartupRecorder(startupRecorder);
+        loadUsageProfile();
+        StartupStep refreshStep = startupRecorder.start("context.refresh");
+        try {
+            doRefresh(basePackages);
+        } finally {
+            // 中途失败时没有结束的子步骤随之丢弃
+            refreshStep.end();
+            // 启动完成后不再记录，之后按需创建的 Bean 和原型 Bean 不会让记录无限增长，已有的记录仍然可以通过 getStartupRecorder 查询
+            beanFactory.setStartupRecorder(StartupRecorder.NOOP);
+        }
+
+        if (tracePath != null && !tracePath.isEmpty()) {
+            exportStartupTrace(tracePath);
+        }
+        logger.info("BloomBoot 上下文已初始化完成，共加载 {} 个Bean定义",
+                beanFactory.getBeanDefinitionNames().length);
+    }
+
+    private void doRefresh(String[] basePackages) throws BeansException {
+        // 上一次刷新缓存的类元数据可能已经过期
+        beanFactory.clearInjectionMetadataCache();
+
         // 1. 扫描指定包路径下的类，注册 Bean 定义
+        StartupStep step = startupRecorder.start("context.scan");
         ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory);
+        scanner.setParallelism(scanParallelism);
         if (basePackages != null && basePackages.length > 0) {
             scanner.scan(basePackages);
         } else {
             scanner.scan();
         }
+        step.end();
 
-        // 2. 执行所有已注册的 BeanFactoryPostProcessor
+        // 2. 静态分析 Bean 之间的依赖关系，提前发现循环依赖
+        step = startupRecorder.start("context.analyze-dependencies");
+        analyzeDependencies();
+        step.end();
+
+        // 3. 执行所有已注册的 BeanFactoryPostProcessor
+        step = startupRecorder.start("context.bean-factory-post-processors");
         invokeBeanFactoryPostProcessors();
+        step.end();
 
-        // 3. 注册所有 BeanPostProcessor
+        // 4. 注册所有 BeanPostProcessor
+        step = startupRecorder.start("context.bean-post-processors");
         registerBeanPostProcessors();
+        step.end();
 
-        // 4. 初始化所有单例 Bean
+        // 5. 初始化所有单例 Bean
+        step = startupRecorder.start("context.pre-instantiate");
         finishBeanFactoryInitialization();
+        step.end();
+    }
 
-        System.out.println("BloomBoot 上下文已初始化完成，共加载 " +
-                beanFactory.getBeanDefinitionNames().length + " 个Bean定义");
+    /**
+     * 分析依赖图并报告循环依赖。设置系统属性 bloom.graph.dump 时，把依赖图写到
+     * 以该属性值为前缀的 .dot 和 .json 文件中。
+     *
+     * @throws BeansException 如果分析过程中发生错误
+     */
+    private void analyzeDependencies() throws BeansException {
+        BeanDependencyGraph graph = beanFactory.analyzeDependencies();
+        for (List<String> cycle : graph.getCycles()) {
+            logger.info("发现循环依赖: {}", String.join(" <-> ", cycle));
+        }
+        String dumpPrefix = System.getProperty(GRAPH_DUMP_PROPERTY);
+        if (dumpPrefix != null && !dumpPrefix.isEmpty()) {
+            try {
+                Files.writeString(Paths.get(dumpPrefix + ".dot"), graph.toDot());
+                Files.writeString(Paths.get(dumpPrefix + ".json"), graph.toJson());
+                logger.info("依赖图已导出: {}.dot, {}.json", dumpPrefix, dumpPrefix);
+            } catch (IOException e) {
+                logger.warn("导出依赖图失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 读取 Bean 使用频率画像并开始统计本次运行的使用次数。画像文件不存在时从空画像开始。
+     */
+    private void loadUsageProfile() {
+        String location = System.getProperty(USAGE_PROFILE_PROPERTY, usageProfileLocation);
+        if (location == null || location.isEmpty()) {
+            return;
+        }
+        usageProfileLocation = location;
+        try {
+            usageProfile = BeanUsageProfile.load(Paths.get(location));
+        } catch (IOException e) {
+            logger.warn("读取使用频率画像失败: {}", e.getMessage());
+            usageProfile = BeanUsageProfile.empty();
+        }
+        usageTracker = new BeanUsageTracker();
+        beanFactory.setUsageProfile(usageProfile);
+        beanFactory.setColdBeanThreshold(coldBeanThreshold);
+        beanFactory.setUsageTracker(usageTracker);
+    }
+
+    /**
+     * 把本次运行的使用统计合并进画像并写回文件。
+     */
+    private void saveUsageProfile() {
+        if (usageTracker == null) {
+            return;
+        }
+        try {
+            usageProfile.merge(usageTracker, Arrays.asList(beanFactory.getBeanDefinitionNames()))
+                    .write(Paths.get(usageProfileLocation));
+            logger.info("使用频率画像已写入: {}", usageProfileLocation);
+        } catch (IOException e) {
+            logger.warn("写入使用频率画像失败: {}", e.getMessage());
+        }
+        // 关闭钩子和显式关闭都会调用，同一次运行只合并一次
+        usageTracker = null;
+    }
+
+    /**
+     * 把启动过程写成 Chrome trace event JSON，可以在 chrome://tracing 或 Perfetto 中打开。
+     */
+    private void exportStartupTrace(String tracePath) {
+        if (!(startupRecorder instanceof BufferingStartupRecorder)) {
+            logger.warn("启动记录器 {} 不支持导出", startupRecorder.getClass().getName());
+            return;
+        }
+        try {
+            Files.writeString(Paths.get(tracePath), ((BufferingStartupRecorder) startupRecorder).toChromeTrace());
+            logger.info("启动时间线已导出: {}", tracePath);
+        } catch (IOException e) {
+            logger.warn("导出启动时间线失败: {}", e.getMessage());
+        }
     }
 
     /**
@@ -116,8 +285,9 @@ public class BloomBootApplicationContext implements ApplicationContext {
             }
         }
 
-        // 从容器中查找并执行 BeanFactoryPostProcessor 类型的 Bean
-        String[] beanNames = beanFactory.getBeanDefinitionNames();
+        // 从容器中查找并执行 BeanFactoryPostProcessor 类型的 Bean，只实例化这类 Bean，
+        // 其余单例留到 finishBeanFactoryInitialization 中创建
+        String[] beanNames = beanFactory.getBeanNamesForType(BeanFactoryPostProcessor.class);
         for (String beanName : beanNames) {
             try {
                 Object bean = beanFactory.getBean(beanName);
@@ -146,7 +316,24 @@ public class BloomBootApplicationContext implements ApplicationContext {
      * @throws BeansException 如果初始化过程中发生错误
      */
     private void finishBeanFactoryInitialization() throws BeansException {
+        // BeanFactoryPostProcessor 执行完毕后不再有新的 Bean 定义，按类型查找的结果可以缓存
+        beanFactory.freezeConfiguration();
+        beanFactory.setParallelPreInstantiation(parallelPreInstantiation);
         beanFactory.preInstantiateSingletons();
+        Set<String> leftovers = beanFactory.getLeftoverEarlySingletonNames();
+        if (!leftovers.isEmpty()) {
+            logger.warn("启动完成后二级/三级缓存中仍有 Bean，它们提前暴露的对象不会被释放: {}", leftovers);
+        }
+    }
+
+    /**
+     * 估算容器占用的内存，见 MemoryFootprintAnalyzer。
+     *
+     * @return 内存占用报告
+     */
+    @Override
+    public MemoryFootprint analyzeMemoryFootprint() {
+        return beanFactory.analyzeMemoryFootprint();
     }
 
     /**
@@ -164,8 +351,10 @@ public class BloomBootApplicationContext implements ApplicationContext {
      */
     @Override
     public void close() throws BeansException {
+        saveUsageProfile();
         beanFactory.destroySingletons();
-        System.out.println("关闭BloomBoot上下文");
+        beanFactory.clearInjectionMetadataCache();
+        logger.info("关闭BloomBoot上下文");
     }
 
     /**
@@ -185,6 +374,9 @@ public class BloomBootApplicationContext implements ApplicationContext {
                 close();
             } catch (BeansException e) {
                 throw new RuntimeException(e);
+            } finally {
+                // 输出异步日志缓冲区中剩余的日志
+                LoggerFactory.getAppender().close();
             }
         }));
     }
@@ -1,24 +1,55 @@
     package site.hnfy258.bean.factory.support;
 
     import lombok.Getter;
+    import lombok.Setter;
     import site.hnfy258.bean.factory.DisposableBean;
-    import site.hnfy258.bean.factory.annotation.Autowired;
-    import site.hnfy258.bean.factory.annotation.PostConstruct;
     import site.hnfy258.bean.factory.config.BeanDefinition;
     import site.hnfy258.bean.factory.config.BeanPostProcessor;
     import site.hnfy258.bean.factory.config.InstantiationAwareBeanPostProcessor;
+    import site.hnfy258.common.exceptions.BeanCurrentlyInCreationException;
     import site.hnfy258.common.exceptions.BeansException;
+    import site.hnfy258.common.exceptions.UnsatisfiedDependencyException;
+    import site.hnfy258.common.jfr.BeanCreationEvent;
+    import site.hnfy258.common.jfr.DependencyResolutionEvent;
+    import site.hnfy258.common.logging.Logger;
+    import site.hnfy258.common.logging.LoggerFactory;
+    import site.hnfy258.common.startup.StartupRecorder;
+    import site.hnfy258.common.startup.StartupStep;
 
     import java.lang.reflect.Field;
     import java.lang.reflect.Method;
+    import java.lang.reflect.Parameter;
     import java.util.ArrayList;
+    import java.util.HashSet;
     import java.util.List;
+    import java.util.Map;
+    import java.util.Set;
+    import java.util.concurrent.ConcurrentHashMap;
 
 
     public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory {
-        private InstantiationStrategy instantiationStrategy = new SmartInstaniateStrategy();
+        private final Logger logger = LoggerFactory.getLogger(AbstractAutowireCapableBeanFactory.class, logLevelHolder);
+        private static final Object[] NO_ARGS = new Object[0];
+        private InstantiationStrategy instantiationStrategy = new JdkInstaniateStrategy();
         @Getter
         private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+        // 按类缓存注入和生命周期元数据，类被卸载时缓存项随之回收，刷新上下文时整体替换
+        private volatile ClassValue<InjectionMetadata> injectionMetadataCache = newInjectionMetadataCache();
+        // 每个注入点解析出的依赖 Bean 名称，注册新的 Bean 定义后失效
+        private final Map<Field, String> dependencyBeanNameCache = new ConcurrentHashMap<>();
+        // 每个构造函数参数解析出的依赖 Bean 名称，与 dependencyBeanNameCache 一同失效
+        private final Map<Parameter, String> constructorArgumentNameCache = new ConcurrentHashMap<>();
+        // 当前线程正在解析构造函数参数的 Bean，用于发现无法通过提前暴露解决的构造函数循环依赖
+        private final ThreadLocal<Set<String>> beansResolvingConstructorArguments = ThreadLocal.withInitial(HashSet::new);
+        // 记录每个 Bean 各阶段的耗时，默认不记录
+        @Getter
+        @Setter
+        private volatile StartupRecorder startupRecorder = StartupRecorder.NOOP;
+        // 实例化和创建代理时生成的类
+        @Getter
+        private final GeneratedClassRegistry generatedClassRegistry = new GeneratedClassRegistry();
+        // 当前线程正在创建的 Bean，用于 BeanCreationEvent 记录父 Bean
+        private final ThreadLocal<String> currentlyCreatedBean = new ThreadLocal<>();
 
         public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
             this.beanPostProcessors.remove(beanPostProcessor); // 避免重复添加
@@ -28,44 +59,107 @@
 
         @Override
         protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
+            // 依赖触发的嵌套创建会记录为这一步的子步骤
+            StartupStep createStep = startupRecorder.start("bean.create").tag("beanName", beanName);
+            BeanCreationEvent creationEvent = new BeanCreationEvent();
+            // 只在 JFR 记录该事件时才维护正在创建的 Bean
+            boolean recording = creationEvent.isEnabled();
+            String parentBeanName = null;
+            if (recording) {
+                parentBeanName = currentlyCreatedBean.get();
+                currentlyCreatedBean.set(beanName);
+                creationEvent.begin();
+            }
+            try {
+                return doCreateBean(beanName, beanDefinition);
+            } finally {
+                createStep.end();
+                if (recording) {
+                    creationEvent.end();
+                    currentlyCreatedBean.set(parentBeanName);
+                    if (creationEvent.shouldCommit()) {
+                        creationEvent.beanName = beanName;
+                        creationEvent.beanClass = beanDefinition.getBeanClass();
+                        creationEvent.scope = beanDefinition.getScope();
+                        creationEvent.parentBeanName = parentBeanName;
+                        creationEvent.commit();
+                    }
+                }
+            }
+        }
+
+
+        private Object doCreateBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
             Object bean = resolveBeforeInstantiation(beanName, beanDefinition);
             if (bean != null) {
                 return bean;
             }
+            // 当前阶段的步骤，某个阶段抛出异常时在 finally 中结束它
+            StartupStep step = startupRecorder.start("bean.instantiate");
             try {
 
                 // 1. 创建实例
                 bean = createBeanInstance(beanName, beanDefinition);
+                step.end();
 
-                if(beanDefinition.isSingleton()){
+                // 只有可能被循环引用的单例才需要提前暴露
+                if(beanDefinition.isSingleton() && requiresEarlyReference(beanName)){
                     Object finalBean = bean;
                     addSingletonFactory(beanName, ()->getEarlyBeanReference(beanName,beanDefinition,finalBean));
                 }
 
                 // 2. 依赖注入
-                applyPropertyValues(bean);
+                step = startupRecorder.start("bean.inject");
+                applyPropertyValues(beanName, bean);
+                step.end();
 
                 // 3. 执行BeanPostProcessor的前置处理
+                step = startupRecorder.start("bean.post-process-before");
                 bean = applyBeanPostProcessorsBeforeInitialization(bean, beanName);
+                step.end();
 
                 // 4. 执行初始化方法
+                step = startupRecorder.start("bean.init");
                 invokeInitMethods(bean);
+                step.end();
 
                 // 5. 执行BeanPostProcessor的后置处理
+                step = startupRecorder.start("bean.post-process-after");
                 bean = applyBeanPostProcessorsAfterInitialization(bean, beanName);
+                step.end();
 
-                // 6. 添加到单例池
-                addSingleton(beanName, bean);
+                // 6. 添加到单例池，原型 Bean 每次获取都重新创建
+                if (beanDefinition.isSingleton()) {
+                    addSingleton(beanName, bean);
+                }
 
                 registerDisposableBeanIfNecessary(beanName, bean, beanDefinition);
 
 
                 return bean;
+            } catch (UnsatisfiedDependencyException | BeanCurrentlyInCreationException e) {
+                // 已经包含完整的诊断信息，不再包装
+                throw e;
             } catch (Exception e) {
+                // 初始化方法中获取 Bean 时，循环依赖的异常被包装在 RuntimeException 中
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof BeanCurrentlyInCreationException) {
+                        throw (BeanCurrentlyInCreationException) cause;
+                    }
+                }
                 throw new BeansException("Instantiation of bean failed: " + beanName, e);
+            } finally {
+                step.end();
             }
         }
 
+        /**
+         * 判断创建单例时是否需要注册三级缓存中的对象工厂，默认总是需要。
+         */
+        protected boolean requiresEarlyReference(String beanName) {
+            return true;
+        }
+
         private void addSingleton(String beanName, Object singletonObject) {
             registerSingleton(beanName, singletonObject);
         }
@@ -111,83 +205,221 @@
         }
 
 
+        /**
+         * 获取类的注入和生命周期元数据，每个类只解析一次。
+         */
+        public InjectionMetadata getInjectionMetadata(Class<?> clazz) {
+            return injectionMetadataCache.get(clazz);
+        }
+
+
+        /**
+         * 丢弃所有缓存的元数据，刷新或关闭上下文时调用。
+         */
+        public void clearInjectionMetadataCache() {
+            injectionMetadataCache = newInjectionMetadataCache();
+        }
+
+
+        private static ClassValue<InjectionMetadata> newInjectionMetadataCache() {
+            return new ClassValue<>() {
+                @Override
+                protected InjectionMetadata computeValue(Class<?> type) {
+                    return InjectionMetadata.forClass(type);
+                }
+            };
+        }
+
+
         private void invokeInitMethods(Object bean) {
-            Class<?> clazz = bean.getClass();
-            // 处理当前类及其所有父类的方法
-            while (clazz != null && clazz != Object.class) {
-                for (Method method : clazz.getDeclaredMethods()) {
-                    if (method.isAnnotationPresent(PostConstruct.class)) {
-                        try {
-                            method.setAccessible(true);
-                            method.invoke(bean);
-                            System.out.println("执行@PostConstruct方法: " + method.getName() +
-                                    " 在类: " + clazz.getName());
-                        } catch (Exception e) {
-                            throw new RuntimeException("Error executing @PostConstruct method", e);
-                        }
-                    }
+            // 当前类及其所有父类上的 @PostConstruct 方法
+            for (InjectionMetadata.InitMethod initMethod : getInjectionMetadata(bean.getClass()).getInitMethods()) {
+                Method method = initMethod.getMethod();
+                try {
+                    initMethod.invoke(bean);
+                    logger.debug("执行@PostConstruct方法: {} 在类: {}",
+                            method.getName(), method.getDeclaringClass().getName());
+                } catch (Throwable e) {
+                    throw new RuntimeException("Error executing @PostConstruct method", e);
                 }
-                // 获取父类继续处理
-                clazz = clazz.getSuperclass();
             }
         }
 
 
         private Object createBeanInstance(String beanName, BeanDefinition beanDefinition) throws BeansException {
-            return instantiationStrategy.instantiate(beanDefinition, beanName);
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            InjectionMetadata.BeanConstructor constructor = getInjectionMetadata(beanClass).getConstructor();
+            Object[] args = resolveConstructorArguments(beanName, constructor);
+            Object bean = instantiationStrategy.instantiate(beanDefinition, beanName, constructor, args);
+            generatedClassRegistry.registerGeneratedClass(GeneratedClassRegistry.INSTANTIATE, beanClass, bean.getClass());
+            return bean;
         }
 
 
-        private void applyPropertyValues(Object bean) throws BeansException {
-            Class<?> beanClass = bean.getClass();
+        private Object[] resolveConstructorArguments(String beanName, InjectionMetadata.BeanConstructor constructor) throws BeansException {
+            if (constructor == null || constructor.getParameterCount() == 0) {
+                return NO_ARGS;
+            }
+            Set<String> resolving = beansResolvingConstructorArguments.get();
+            if (!resolving.add(beanName)) {
+                throw new BeansException("Requested bean is currently in creation: " + beanName
+                        + " (unresolvable circular reference through constructor arguments)");
+            }
+            try {
+                Parameter[] parameters = constructor.getConstructor().getParameters();
+                Object[] args = new Object[parameters.length];
+                for (int i = 0; i < parameters.length; i++) {
+                    String dependencyName = resolveConstructorArgumentBeanName(beanName, parameters[i]);
+                    args[i] = getBean(dependencyName);
+                    logger.debug("已注入构造函数参数: {} -> {}[{}]", dependencyName, beanName, i);
+                }
+                return args;
+            } finally {
+                resolving.remove(beanName);
+            }
+        }
+
 
+        /**
+         * 为构造函数参数确定依赖的 Bean 名称。编译时保留了参数名且存在同名、类型匹配的 Bean 定义时按名称注入，否则按类型解析。
+         * 结果按参数缓存，之后创建同类 Bean 时直接使用。
+         */
+        protected String resolveConstructorArgumentBeanName(String beanName, Parameter parameter) throws BeansException {
+            String cached = constructorArgumentNameCache.get(parameter);
+            if (cached != null) {
+                return cached;
+            }
+            String dependencyName;
+            if (parameter.isNamePresent() && containsBeanDefinition(parameter.getName())
+                    && parameter.getType().isAssignableFrom(getBeanDefinition(parameter.getName()).getBeanClass())) {
+                dependencyName = parameter.getName();
+            } else {
+                try {
+                    dependencyName = resolveBeanName(parameter.getType());
+                } catch (BeansException e) {
+                    throw new BeansException("Unsatisfied dependency for constructor parameter " + parameter
+                            + " of bean '" + beanName + "': " + e.getMessage());
+                }
+            }
+            constructorArgumentNameCache.put(parameter, dependencyName);
+            return dependencyName;
+        }
+
+
+        private void applyPropertyValues(String beanName, Object bean) throws BeansException {
             // 处理当前类及其所有父类的字段
-            while (beanClass != null && beanClass != Object.class) {
-                injectFieldsForClass(bean, beanClass);
-                // 获取父类继续处理
-                beanClass = beanClass.getSuperclass();
-            }
-        }
-
-
-        private void injectFieldsForClass(Object bean, Class<?> clazz) throws BeansException {
-            for (Field field : clazz.getDeclaredFields()) {
-                if (field.isAnnotationPresent(Autowired.class)) {
-                    String fieldName = field.getName();
-                    System.out.println("发现需要自动注入的字段: " + fieldName + " 在类: " + clazz.getName());
-
-                    Object dependencyBean = null;
-                    try {
-                        // 尝试先按名称获取
-                        dependencyBean = getBean(fieldName);
-                        System.out.println("已通过名称注入依赖: " + fieldName);
-                    } catch (Exception e) {
-                        // 如果按名称获取失败，则尝试按类型获取
-                        try {
-                            dependencyBean = getBean(field.getType());
-                            System.out.println("已通过类型注入依赖: " + field.getType().getName());
-                        } catch (Exception ex) {
-                            System.err.println("无法获取需要注入的依赖: " + fieldName);
-                            throw new BeansException("无法获取需要注入的依赖: " + fieldName, ex);
-                        }
-                    }
+            for (InjectionMetadata.InjectedField injectedField : getInjectionMetadata(bean.getClass()).getInjectedFields()) {
+                injectField(beanName, bean, injectedField);
+            }
+        }
 
-                    field.setAccessible(true);
-                    try {
-                        // 设置字段值
-                        field.set(bean, dependencyBean);
-                        System.out.println("成功注入字段: " + fieldName);
-                    } catch (IllegalAccessException e) {
-                        System.err.println("设置字段值时出错: " + fieldName);
-                        throw new BeansException("设置字段值时出错: " + fieldName, e);
-                    }
+
+        private void injectField(String beanName, Object bean, InjectionMetadata.InjectedField injectedField) throws BeansException {
+            Field field = injectedField.getField();
+            String fieldName = field.getName();
+            logger.trace("发现需要自动注入的字段: {} 在类: {}", fieldName, field.getDeclaringClass().getName());
+
+            String dependencyName = resolveDependencyBeanName(beanName, field);
+            Object dependencyBean;
+            try {
+                dependencyBean = getBean(dependencyName);
+                logger.debug("已注入依赖: {} -> {}", dependencyName, fieldName);
+            } catch (UnsatisfiedDependencyException | BeanCurrentlyInCreationException e) {
+                throw e;
+            } catch (BeansException e) {
+                logger.warn("无法获取需要注入的依赖: {}", fieldName);
+                throw new UnsatisfiedDependencyException(beanName, field,
+                        "error creating bean '" + dependencyName + "': " + e.getMessage());
+            }
+
+            try {
+                // 设置字段值
+                injectedField.inject(bean, dependencyBean);
+                logger.trace("成功注入字段: {}", fieldName);
+            } catch (IllegalAccessException | RuntimeException e) {
+                logger.warn("设置字段值时出错: {}", fieldName);
+                throw new BeansException("设置字段值时出错: " + fieldName, e);
+            }
+        }
+
+
+        /**
+         * 为注入点确定依赖的 Bean 名称：存在与字段同名且类型匹配的 Bean 定义时按名称注入，否则按类型解析。
+         * 结果按字段缓存，之后创建同类 Bean 时不再查询注册表，也不会通过抛出再捕获异常来回退。
+         *
+         * @throws UnsatisfiedDependencyException 如果按类型找不到或找到多个无法区分的候选
+         */
+        protected String resolveDependencyBeanName(String beanName, Field field) throws BeansException {
+            DependencyResolutionEvent event = new DependencyResolutionEvent();
+            event.begin();
+            String cached = dependencyBeanNameCache.get(field);
+            if (cached != null) {
+                commitResolutionEvent(event, beanName, field, cached, true);
+                return cached;
+            }
+            String dependencyName;
+            if (isAutowireCandidateByName(field)) {
+                dependencyName = field.getName();
+            } else {
+                try {
+                    dependencyName = resolveBeanName(field.getType());
+                } catch (BeansException e) {
+                    throw new UnsatisfiedDependencyException(beanName, field, e.getMessage());
                 }
             }
+            dependencyBeanNameCache.put(field, dependencyName);
+            commitResolutionEvent(event, beanName, field, dependencyName, false);
+            return dependencyName;
+        }
+
+
+        private static void commitResolutionEvent(DependencyResolutionEvent event, String beanName, Field field,
+                                                  String dependencyName, boolean cached) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.beanName = beanName;
+                event.declaringClass = field.getDeclaringClass();
+                event.injectionPoint = field.getDeclaringClass().getName() + "." + field.getName();
+                event.dependencyType = field.getType();
+                event.dependencyBeanName = dependencyName;
+                event.cached = cached;
+                event.commit();
+            }
         }
+
+
+        /**
+         * 判断注入点是否可以按名称注入。
+         */
+        protected boolean isAutowireCandidateByName(Field field) throws BeansException {
+            String fieldName = field.getName();
+            return containsBeanDefinition(fieldName) &&
+                    field.getType().isAssignableFrom(getBeanDefinition(fieldName).getBeanClass());
+        }
+
+
+        /**
+         * 丢弃注入点的解析结果，注册表发生变化时调用。
+         */
+        protected void clearDependencyResolutionCache() {
+            dependencyBeanNameCache.clear();
+            constructorArgumentNameCache.clear();
+        }
+
+
+        public abstract boolean containsBeanDefinition(String beanName);
+
+
+        /**
+         * 按类型解析唯一的 Bean 名称。
+         */
+        public abstract String resolveBeanName(Class<?> requiredType) throws BeansException;
+
+
         protected void registerDisposableBeanIfNecessary(String beanName, Object bean, BeanDefinition beanDefinition) {
             // 只有单例Bean才需要注册销毁方法
             if (beanDefinition.isSingleton()) {
-                if (bean instanceof DisposableBean) {
+                if (getInjectionMetadata(bean.getClass()).isDisposable()) {
                     registerDisposableBean(beanName, (DisposableBean) bean);
                 }
             }
@@ -1,19 +1,62 @@
 package site.hnfy258.bean.factory.support;
 
+import lombok.Getter;
+import lombok.Setter;
 import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
 import site.hnfy258.bean.factory.config.BeanDefinition;
 import site.hnfy258.bean.factory.config.BeanFactory;
+import site.hnfy258.common.exceptions.BeanCurrentlyInCreationException;
 import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.logging.LogLevelHolder;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public  abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistery implements BeanFactory {
+    // 容器的日志级别，工厂和依附于它的扫描器、代理创建器的 Logger 都绑定到这里；
+    // 子类在字段初始化时直接读取字段，调用 getter 会让未构造完成的 this 逸出
+    @Getter
+    protected final LogLevelHolder logLevelHolder = new LogLevelHolder();
+    private final Logger logger = LoggerFactory.getLogger(AbstractBeanFactory.class, logLevelHolder);
+    // 统计 Bean 的使用次数，为 null 时不统计
+    @Getter
+    @Setter
+    private volatile BeanUsageTracker usageTracker;
+    // Bean 名称 -> 创建该单例时持有的锁
+    private final Map<String, Lock> singletonCreationLocks = new ConcurrentHashMap<>();
+    // 当前线程正在创建的单例，按进入顺序排列
+    private final ThreadLocal<Set<String>> singletonsCurrentlyInCreation = ThreadLocal.withInitial(LinkedHashSet::new);
+
     @Override
     public Object getBean(String name) throws BeansException {
+        BeanUsageTracker tracker = usageTracker;
+        if (tracker != null) {
+            tracker.recordGetBean(name);
+        }
+        return doGetBean(name);
+    }
+
+
+    /**
+     * 获取 Bean 但不计入使用次数，容器提前实例化单例时使用。
+     *
+     * 单例在创建锁内创建，拿到锁后再检查一次单例池，同一个单例不会被两个线程重复创建。
+     * 其他线程在锁外只能看到完全初始化好的单例，提前暴露的引用只对持有锁的线程（即循环依赖中的嵌套创建）可见。
+     */
+    protected Object doGetBean(String name) throws BeansException {
         // 先从单例池中获取
-        Object bean = getSingleton(name);
+        Object bean = getSingleton(name, false);
         if (bean != null) {
-            System.out.println("从单例池中找到已存在的Bean: " + name);
+            logger.trace("从单例池中找到已存在的Bean: {}", name);
             return bean;
         }
 
@@ -22,9 +65,57 @@ public  abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistery
         if (beanDefinition == null) {
             throw new BeansException("找不到名为 " + name + " 的Bean定义");
         }
+        if (!beanDefinition.isSingleton()) {
+            logger.debug("开始创建新的Bean: {}", name);
+            return createBean(name, beanDefinition);
+        }
+
+        // 并行创建在虚拟线程上进行，使用 ReentrantLock 而不是 synchronized，等待时不会占住载体线程
+        Lock lock = getSingletonCreationLock(name);
+        lock.lock();
+        try {
+            bean = getSingleton(name);
+            if (bean != null) {
+                return bean;
+            }
+            // 持有锁时只有当前线程可能在创建它，再次进入说明循环依赖没有提前暴露的引用，继续创建只会无限递归
+            Set<String> inCreation = singletonsCurrentlyInCreation.get();
+            if (!inCreation.add(name)) {
+                throw new BeanCurrentlyInCreationException(name, describeCycle(inCreation, name));
+            }
+            try {
+                logger.debug("开始创建新的Bean: {}", name);
+                return createBean(name, beanDefinition);
+            } finally {
+                inCreation.remove(name);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 从第一次进入该 Bean 开始依次列出当前线程正在创建的单例，最后回到该 Bean。
+     */
+    private static List<String> describeCycle(Set<String> inCreation, String beanName) {
+        List<String> cycle = new ArrayList<>();
+        for (String current : inCreation) {
+            if (current.equals(beanName) || !cycle.isEmpty()) {
+                cycle.add(current);
+            }
+        }
+        cycle.add(beanName);
+        return cycle;
+    }
+
 
-        System.out.println("开始创建新的Bean: " + name);
-        return createBean(name, beanDefinition);
+    /**
+     * 获取创建单例时持有的锁，默认每个 Bean 一把。锁在单例创建后不会移除，
+     * 否则创建失败时仍在等待旧锁的线程和拿到新锁的线程会同时创建。
+     */
+    protected Lock getSingletonCreationLock(String beanName) {
+        return singletonCreationLocks.computeIfAbsent(beanName, key -> new ReentrantLock());
     }
 
 
@@ -0,0 +1,109 @@
+package site.hnfy258.bean.factory.support;
+
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 静态依赖分析器，在扫描完成后根据 Bean 定义计算完整的注入依赖图及其强连通分量，不会创建任何 Bean。
+ * 依赖的推断规则见 DefaultListableBeanFactory#getAutowiredDependencyNames。
+ */
+public final class BeanDependencyAnalyzer {
+
+    private BeanDependencyAnalyzer() {
+    }
+
+    /**
+     * 分析 BeanFactory 中当前所有 Bean 定义之间的依赖关系。
+     */
+    public static BeanDependencyGraph analyze(DefaultListableBeanFactory beanFactory) throws BeansException {
+        // 按名称排序，保证输出稳定
+        Map<String, Set<String>> edges = new TreeMap<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            edges.put(beanName, new TreeSet<>(beanFactory.getAutowiredDependencyNames(beanName)));
+        }
+        return new BeanDependencyGraph(edges, stronglyConnectedComponents(edges));
+    }
+
+    /**
+     * 用 Tarjan 算法计算强连通分量。为了避免 Bean 很多时递归过深，使用显式栈实现。
+     * 指向图外节点的边会被忽略。
+     *
+     * @param edges 节点 -> 它依赖的节点
+     * @return 强连通分量，依赖总是排在依赖它的分量之前
+     */
+    public static List<List<String>> stronglyConnectedComponents(Map<String, ? extends Collection<String>> edges) {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Map<String, Iterator<String>> pending = new HashMap<>();
+        Deque<String> componentStack = new ArrayDeque<>();
+        Set<String> onStack = new HashSet<>();
+        Deque<String> callStack = new ArrayDeque<>();
+        List<List<String>> components = new ArrayList<>();
+
+        for (String root : edges.keySet()) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            visit(root, edges, index, lowLink, pending, componentStack, onStack, callStack);
+            while (!callStack.isEmpty()) {
+                String node = callStack.peek();
+                Iterator<String> iterator = pending.get(node);
+                if (iterator.hasNext()) {
+                    String dependency = iterator.next();
+                    if (!edges.containsKey(dependency)) {
+                        continue;
+                    }
+                    if (!index.containsKey(dependency)) {
+                        visit(dependency, edges, index, lowLink, pending, componentStack, onStack, callStack);
+                    } else if (onStack.contains(dependency)) {
+                        lowLink.put(node, Math.min(lowLink.get(node), index.get(dependency)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                pending.remove(node);
+                if (!callStack.isEmpty()) {
+                    String parent = callStack.peek();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+                }
+                if (lowLink.get(node).equals(index.get(node))) {
+                    List<String> component = new ArrayList<>();
+                    String member;
+                    do {
+                        member = componentStack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(node));
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    private static void visit(String node, Map<String, ? extends Collection<String>> edges,
+                              Map<String, Integer> index, Map<String, Integer> lowLink,
+                              Map<String, Iterator<String>> pending, Deque<String> componentStack,
+                              Set<String> onStack, Deque<String> callStack) {
+        int order = index.size();
+        index.put(node, order);
+        lowLink.put(node, order);
+        componentStack.push(node);
+        onStack.add(node);
+        pending.put(node, edges.get(node).iterator());
+        callStack.push(node);
+    }
+}
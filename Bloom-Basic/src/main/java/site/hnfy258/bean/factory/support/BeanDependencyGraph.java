@@ -0,0 +1,162 @@
+package site.hnfy258.bean.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Bean 之间的注入依赖图，由 BeanDependencyAnalyzer 生成，生成后不可变。
+ * 边的方向是从 Bean 指向它依赖的 Bean。
+ */
+public class BeanDependencyGraph {
+    private final Map<String, Set<String>> dependencies;
+    private final Map<String, Set<String>> dependents = new LinkedHashMap<>();
+    private final List<List<String>> components;
+    private final List<List<String>> cycles = new ArrayList<>();
+    // 处于循环中的 Bean -> 它所在的循环
+    private final Map<String, List<String>> cycleOf = new HashMap<>();
+
+    BeanDependencyGraph(Map<String, Set<String>> dependencies, List<List<String>> components) {
+        this.dependencies = dependencies;
+        this.components = components;
+        for (String beanName : dependencies.keySet()) {
+            dependents.put(beanName, new TreeSet<>());
+        }
+        dependencies.forEach((beanName, targets) -> {
+            for (String target : targets) {
+                Set<String> targetDependents = dependents.get(target);
+                if (targetDependents != null) {
+                    targetDependents.add(beanName);
+                }
+            }
+        });
+        for (List<String> component : components) {
+            String first = component.get(0);
+            // 只有一个 Bean 的分量在依赖自身时也算循环
+            if (component.size() > 1 || dependencies.get(first).contains(first)) {
+                cycles.add(component);
+                for (String beanName : component) {
+                    cycleOf.put(beanName, component);
+                }
+            }
+        }
+    }
+
+    public Set<String> getBeanNames() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    public boolean contains(String beanName) {
+        return dependencies.containsKey(beanName);
+    }
+
+    /**
+     * 获取 Bean 直接依赖的 Bean。
+     */
+    public Set<String> getDependencies(String beanName) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(beanName, Collections.emptySet()));
+    }
+
+    /**
+     * 获取直接依赖该 Bean 的 Bean。
+     */
+    public Set<String> getDependents(String beanName) {
+        return Collections.unmodifiableSet(dependents.getOrDefault(beanName, Collections.emptySet()));
+    }
+
+    /**
+     * 获取所有强连通分量，依赖总是排在依赖它的分量之前。
+     */
+    public List<List<String>> getStronglyConnectedComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * 获取所有循环依赖，即包含多个 Bean 或依赖自身的强连通分量。
+     */
+    public List<List<String>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    /**
+     * 判断 Bean 是否处于循环依赖中。不在循环中的 Bean 创建时不会被提前引用。
+     */
+    public boolean isInCycle(String beanName) {
+        return cycleOf.containsKey(beanName);
+    }
+
+    /**
+     * 获取 Bean 所在的循环依赖，不在循环中时返回 null。
+     */
+    public List<String> getCycle(String beanName) {
+        List<String> cycle = cycleOf.get(beanName);
+        return cycle == null ? null : Collections.unmodifiableList(cycle);
+    }
+
+    /**
+     * 导出为 Graphviz DOT 格式，循环依赖中的 Bean 标为红色。
+     */
+    public String toDot() {
+        StringBuilder dot = new StringBuilder("digraph beans {\n");
+        for (String beanName : dependencies.keySet()) {
+            dot.append("  \"").append(escape(beanName)).append('"');
+            if (cycleOf.containsKey(beanName)) {
+                dot.append(" [color=red]");
+            }
+            dot.append(";\n");
+        }
+        dependencies.forEach((beanName, targets) -> {
+            for (String target : targets) {
+                dot.append("  \"").append(escape(beanName)).append("\" -> \"").append(escape(target)).append("\";\n");
+            }
+        });
+        return dot.append("}\n").toString();
+    }
+
+    /**
+     * 导出为 JSON，格式为 {"beans":{"名称":["依赖",...]},"cycles":[["名称",...]]}。
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"beans\":{");
+        boolean first = true;
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(escape(entry.getKey())).append("\":");
+            appendJsonArray(json, entry.getValue());
+        }
+        json.append("},\"cycles\":[");
+        for (int i = 0; i < cycles.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendJsonArray(json, cycles.get(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendJsonArray(StringBuilder json, Iterable<String> values) {
+        json.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(escape(value)).append('"');
+        }
+        json.append(']');
+    }
+
+    // Bean 名称来自类名，只需要处理引号和反斜杠
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
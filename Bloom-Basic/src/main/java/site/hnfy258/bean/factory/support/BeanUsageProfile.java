@@ -0,0 +1,149 @@
+package site.hnfy258.bean.factory.support;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跨多次运行的 Bean 使用频率画像，保存为一个文本文件，每行一个 Bean：
+ * <pre>
+ * # bloom-usage-profile v1 runs=3
+ * 名称	热度	连续未使用的运行次数
+ * </pre>
+ * 热度是按运行次数衰减的使用次数：每次运行先减半，再加上本次的使用次数，
+ * 所以很久以前频繁使用、最近不再使用的 Bean 会逐渐变冷。
+ */
+public class BeanUsageProfile {
+    private static final String HEADER = "# bloom-usage-profile v1 runs=";
+
+    private final Map<String, Entry> entries;
+    private final int runs;
+
+    private BeanUsageProfile(Map<String, Entry> entries, int runs) {
+        this.entries = entries;
+        this.runs = runs;
+    }
+
+    public static BeanUsageProfile empty() {
+        return new BeanUsageProfile(new LinkedHashMap<>(), 0);
+    }
+
+    /**
+     * 读取画像文件，文件不存在时返回空画像。无法解析的行会被忽略。
+     */
+    public static BeanUsageProfile load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return empty();
+        }
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        int runs = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HEADER)) {
+                    runs = parseInt(line.substring(HEADER.length()));
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length != 3 || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    entries.put(fields[0], new Entry(Long.parseLong(fields[1]), Integer.parseInt(fields[2])));
+                } catch (NumberFormatException e) {
+                    // 忽略损坏的行
+                }
+            }
+        }
+        return new BeanUsageProfile(entries, runs);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 把本次运行的统计合并进画像，得到下一次启动使用的画像。只保留当前仍然存在的 Bean。
+     */
+    public BeanUsageProfile merge(BeanUsageTracker tracker, Collection<String> beanNames) {
+        Map<String, Entry> merged = new LinkedHashMap<>();
+        for (String beanName : beanNames) {
+            Entry previous = entries.get(beanName);
+            long usage = tracker.getUsageCount(beanName);
+            long score = (previous == null ? 0 : previous.score / 2) + usage;
+            int idleRuns = usage > 0 ? 0 : (previous == null ? 0 : previous.idleRuns) + 1;
+            merged.put(beanName, new Entry(score, idleRuns));
+        }
+        return new BeanUsageProfile(merged, runs + 1);
+    }
+
+    /**
+     * 写入画像文件，先写临时文件再替换，进程中途退出不会留下写了一半的文件。
+     */
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + runs);
+            writer.newLine();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getKey() + '\t' + entry.getValue().score + '\t' + entry.getValue().idleRuns);
+                writer.newLine();
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public long getScore(String beanName) {
+        Entry entry = entries.get(beanName);
+        return entry == null ? 0 : entry.score;
+    }
+
+    /**
+     * 判断 Bean 是否在最近 threshold 次运行中都没有被使用。画像中没有记录的 Bean 不算冷 Bean。
+     */
+    public boolean isCold(String beanName, int threshold) {
+        Entry entry = entries.get(beanName);
+        return entry != null && threshold > 0 && entry.idleRuns >= threshold;
+    }
+
+    /**
+     * 按热度从高到低排列，热度相同时保持原来的顺序。
+     */
+    public List<String> orderByUsage(Collection<String> beanNames) {
+        List<String> ordered = new ArrayList<>(beanNames);
+        ordered.sort(Comparator.comparingLong(this::getScore).reversed());
+        return ordered;
+    }
+
+    private static final class Entry {
+        private final long score;
+        private final int idleRuns;
+
+        private Entry(long score, int idleRuns) {
+            this.score = score;
+            this.idleRuns = idleRuns;
+        }
+    }
+}
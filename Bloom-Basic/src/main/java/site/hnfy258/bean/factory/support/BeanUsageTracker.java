@@ -0,0 +1,48 @@
+package site.hnfy258.bean.factory.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计本次运行中每个 Bean 的使用次数：getBean 调用（包括注入依赖时的调用）和代理方法调用。
+ * 计数器使用 LongAdder，多个线程同时访问同一个热点 Bean 时不会争抢同一个变量。
+ *
+ * 提前实例化时容器自己发起的 getBean 不计入使用次数。
+ */
+public class BeanUsageTracker {
+    private final Map<String, LongAdder> getBeanCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> proxyInvocationCounts = new ConcurrentHashMap<>();
+
+    public void recordGetBean(String beanName) {
+        LongAdder counter = getBeanCounts.get(beanName);
+        if (counter == null) {
+            counter = getBeanCounts.computeIfAbsent(beanName, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 获取 Bean 的代理调用计数器，由代理在每次方法调用时递增。
+     */
+    public LongAdder getProxyInvocationCounter(String beanName) {
+        return proxyInvocationCounts.computeIfAbsent(beanName, k -> new LongAdder());
+    }
+
+    public long getGetBeanCount(String beanName) {
+        LongAdder counter = getBeanCounts.get(beanName);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getProxyInvocationCount(String beanName) {
+        LongAdder counter = proxyInvocationCounts.get(beanName);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * 获取 Bean 在本次运行中的总使用次数。
+     */
+    public long getUsageCount(String beanName) {
+        return getGetBeanCount(beanName) + getProxyInvocationCount(beanName);
+    }
+}
@@ -1,7 +1,8 @@
 package site.hnfy258.bean.factory.support;
 
-import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.NoOp;
+import site.hnfy258.aop.framework.ProxyClassCache;
 import site.hnfy258.bean.factory.config.BeanDefinition;
 import site.hnfy258.common.exceptions.BeansException;
 
@@ -10,6 +11,7 @@ import site.hnfy258.common.exceptions.BeansException;
  * 使用 CGLIB 动态代理技术来实例化 Bean。
  */
 public class CglibInstaniateStrategy implements InstantiationStrategy {
+    private static final Callback[] NO_OP_CALLBACKS = {NoOp.INSTANCE};
 
     /**
      * 使用 CGLIB 动态代理技术实例化 Bean。
@@ -21,21 +23,7 @@ public class CglibInstaniateStrategy implements InstantiationStrategy {
      */
     @Override
     public Object instantiate(BeanDefinition beanDefinition, String beanName) throws BeansException {
-        // 创建 CGLIB 的 Enhancer 对象，用于生成代理类
-        Enhancer enhancer = new Enhancer();
-
-        // 设置代理类的父类为 Bean 的类类型
-        enhancer.setSuperclass(beanDefinition.getBeanClass());
-
-        // 设置回调函数，使用 NoOp 实现，表示不进行任何操作
-        enhancer.setCallback(new NoOp() {
-            @Override
-            public int hashCode() {
-                return super.hashCode();
-            }
-        });
-
-        // 创建并返回代理类的实例
-        return enhancer.create();
+        // 同一个类只生成一次子类，之后的实例（包括每个原型实例）直接通过缓存的构造函数创建
+        return ProxyClassCache.newInstance(beanDefinition.getBeanClass(), null, null, NO_OP_CALLBACKS);
     }
 }
@@ -4,26 +4,98 @@
     import site.hnfy258.bean.factory.annotation.*;
     import site.hnfy258.bean.factory.config.BeanDefinition;
     import site.hnfy258.bean.factory.config.ClassPathScanner;
+    import site.hnfy258.bean.factory.support.classreading.ClassMetadata;
+    import site.hnfy258.bean.factory.support.classreading.ClassMetadataReader;
+    import site.hnfy258.bean.factory.support.classreading.MappedJarFile;
+    import site.hnfy258.bean.factory.support.classreading.StereotypeFilter;
+    import site.hnfy258.bean.factory.support.index.CandidateComponentsIndex;
+    import site.hnfy258.bean.factory.support.index.CandidateComponentsIndexLoader;
+    import site.hnfy258.common.exceptions.BeansException;
+    import site.hnfy258.common.logging.Logger;
+    import site.hnfy258.common.logging.LoggerFactory;
 
     import java.io.File;
     import java.io.IOException;
+    import java.io.InputStream;
     import java.lang.annotation.Annotation;
     import java.lang.reflect.Method;
     import java.net.JarURLConnection;
+    import java.net.URI;
+    import java.net.URISyntaxException;
     import java.net.URL;
+    import java.nio.file.Files;
+    import java.nio.file.Path;
+    import java.nio.file.Paths;
+    import java.util.ArrayList;
+    import java.util.Arrays;
+    import java.util.Comparator;
     import java.util.Enumeration;
+    import java.util.HashSet;
+    import java.util.List;
+    import java.util.Set;
+    import java.util.concurrent.ForkJoinPool;
+    import java.util.concurrent.ForkJoinTask;
+    import java.util.concurrent.RecursiveTask;
     import java.util.jar.JarEntry;
     import java.util.jar.JarFile;
+    import java.util.zip.ZipException;
 
     /**
      * ClassPathBeanDefinitionScanner 类用于扫描指定包路径下的类，并根据注解生成Bean定义。
      */
     public class ClassPathBeanDefinitionScanner implements ClassPathScanner {
+        private static final Set<String> STEREOTYPES = Set.of(
+                Component.class.getName(), Bean.class.getName(), Repository.class.getName(),
+                Resource.class.getName(), Service.class.getName());
+
+        // 设置为 true 时不使用 MappedJarFile，直接通过 JarFile 遍历 jar
+        public static final String IGNORE_MAPPED_JAR_PROPERTY = "bloom.jar.mapped.ignore";
+
         private final DefaultListableBeanFactory beanFactory;
+        private final Logger logger;
+        private StereotypeFilter stereotypeFilter;
+        // 读取了元数据但没有加载的类数量
+        private int skippedClassCount;
+        // 确认为候选 Bean 后加载的类数量
+        private int loadedClassCount;
+        // 编译期生成的组件索引，为 null 时回退到类路径扫描
+        private CandidateComponentsIndex componentsIndex;
+        // 扫描并行度，1 表示单线程扫描
+        private int parallelism = 1;
+        // 仅在一次并行扫描期间存在
+        private ForkJoinPool forkJoinPool;
 
 
         public ClassPathBeanDefinitionScanner(DefaultListableBeanFactory beanFactory) {
             this.beanFactory = beanFactory;
+            this.logger = LoggerFactory.getLogger(ClassPathBeanDefinitionScanner.class, beanFactory.getLogLevelHolder());
+        }
+
+
+        /**
+         * 设置扫描并行度。
+         *
+         * @param parallelism 1 表示单线程扫描；大于 1 时使用对应并行度的 ForkJoinPool；
+         *                    小于等于 0 时使用可用处理器数量
+         */
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+
+
+        /**
+         * @return 扫描中只读取了元数据、没有被加载的类数量
+         */
+        public int getSkippedClassCount() {
+            return skippedClassCount;
+        }
+
+
+        /**
+         * @return 扫描中确认为候选 Bean 并被加载的类数量
+         */
+        public int getLoadedClassCount() {
+            return loadedClassCount;
         }
 
 
@@ -38,13 +110,31 @@
                 }
             }
 
-            System.out.println("开始扫描包: " + String.join(", ", basePackages));
-            for (String basePackage : basePackages) {
-                scanPackage(basePackage);
+            logger.info("开始扫描包: {}", String.join(", ", basePackages));
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            stereotypeFilter = new StereotypeFilter(classLoader, STEREOTYPES);
+            componentsIndex = CandidateComponentsIndexLoader.loadIndex(classLoader);
+            if (componentsIndex != null) {
+                logger.info("发现组件索引 {}，共 {} 个候选类，跳过类路径扫描",
+                        CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION, componentsIndex.size());
+            }
+            if (parallelism > 1 && componentsIndex == null) {
+                forkJoinPool = new ForkJoinPool(parallelism);
+            }
+            try {
+                for (String basePackage : basePackages) {
+                    scanPackage(basePackage);
+                }
+            } finally {
+                if (forkJoinPool != null) {
+                    forkJoinPool.shutdown();
+                    forkJoinPool = null;
+                }
             }
             registerAopProcessors();
 
-            System.out.println("包扫描完成，共发现 " + beanFactory.getBeanDefinitionNames().length + " 个Bean定义");
+            logger.info("包扫描完成，共发现 {} 个Bean定义，加载 {} 个候选类，跳过 {} 个非Bean类（未加载）",
+                    beanFactory.getBeanDefinitionNames().length, loadedClassCount, skippedClassCount);
 
 
         }
@@ -69,6 +159,10 @@
 
 
         private void scanPackage(String basePackage) {
+            if (componentsIndex != null) {
+                scanCandidateComponents(basePackage);
+                return;
+            }
             String path = basePackage.replace(".", "/");
             ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 
@@ -82,9 +176,9 @@
                     String protocol = resource.getProtocol();
 
                     if ("file".equals(protocol)) {
-                        scanDirectory(new File(resource.getFile()), basePackage);
+                        registerCandidates(scanDirectory(new File(resource.getFile())));
                     } else if ("jar".equals(protocol)) {
-                        scanJarPackage(resource, basePackage);
+                        registerCandidates(scanJarPackage(resource, basePackage));
                     }
                 }
             } catch (IOException e) {
@@ -93,50 +187,132 @@
         }
 
 
-        private void scanDirectory(File directory, String packageName) {
-            if (!directory.exists()) {
-                return;
+        /**
+         * 根据组件索引加载候选类，只有索引中记录的类才会被加载。
+         * 存在索引时所有基础包都走这里，没有索引的 jar 中的组件不会被发现。
+         */
+        private void scanCandidateComponents(String basePackage) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            for (String className : componentsIndex.getCandidateTypes(basePackage)) {
+                try {
+                    processAnnotations(classLoader.loadClass(className));
+                    loadedClassCount++;
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("组件索引中的类无法加载: " + className, e);
+                }
             }
+        }
 
-            File[] files = directory.listFiles();
-            if (files == null) return;
 
-            for (File file : files) {
-                String fileName = file.getName();
-                if (file.isDirectory()) {
-                    scanDirectory(file, packageName + "." + fileName);
-                } else if (fileName.endsWith(".class")) {
-                    try {
-                        String className = packageName + "." + fileName.substring(0, fileName.length() - 6);
-                        Class<?> clazz = Thread.currentThread().getContextClassLoader().loadClass(className);
-                        processAnnotations(clazz);
-                    } catch (ClassNotFoundException e) {
-                        throw new RuntimeException("无法加载类: " + packageName + "." + fileName, e);
-                    }
-                }
+        /**
+         * 扫描目录下的所有类文件。并行模式下子目录作为独立任务提交到 ForkJoinPool，
+         * 结果按文件名顺序合并，因此与单线程扫描得到的候选类顺序一致。
+         */
+        private ScannedCandidates scanDirectory(File directory) {
+            if (!directory.exists()) {
+                return new ScannedCandidates();
             }
+            DirectoryScanTask task = new DirectoryScanTask(directory);
+            return forkJoinPool != null ? forkJoinPool.invoke(task) : task.compute();
         }
 
 
-        private void scanJarPackage(URL url, String packageName) throws IOException {
+        /**
+         * 扫描 jar 中指定包下的类。默认通过 MappedJarFile 映射中央目录并按前缀查找，
+         * 支持 fat jar 中的嵌套 jar；遇到不支持的格式时回退到 JarFile 遍历。
+         */
+        private ScannedCandidates scanJarPackage(URL url, String packageName) throws IOException {
+            if (!Boolean.getBoolean(IGNORE_MAPPED_JAR_PROPERTY)) {
+                try {
+                    return scanMappedJarPackage(url, packageName);
+                } catch (ZipException | IllegalArgumentException e) {
+                    logger.warn("无法映射 jar，回退到 JarFile 扫描: {}, 原因: {}", url, e.getMessage());
+                }
+            }
             try (JarFile jarFile = ((JarURLConnection) url.openConnection()).getJarFile()) {
                 Enumeration<JarEntry> jarEntries = jarFile.entries();
-                String packagePath = packageName.replace('.', '/');
+                String packagePath = packageName.replace('.', '/') + "/";
+                List<String> classEntries = new ArrayList<>();
 
                 while (jarEntries.hasMoreElements()) {
                     JarEntry jarEntry = jarEntries.nextElement();
                     String entryName = jarEntry.getName();
 
                     if (entryName.startsWith(packagePath) && entryName.endsWith(".class")) {
-                        String className = entryName.replace('/', '.').substring(0, entryName.length() - 6);
-                        try {
-                            Class<?> clazz = Thread.currentThread().getContextClassLoader().loadClass(className);
-                            processAnnotations(clazz);
-                        } catch (ClassNotFoundException e) {
-                            throw new RuntimeException("无法加载类: " + className, e);
-                        }
+                        classEntries.add(entryName);
+                    }
+                }
+                // 与映射方式保持相同的顺序
+                classEntries.sort(null);
+                JarEntryScanTask task = new JarEntryScanTask(entryName -> {
+                    try (InputStream inputStream = jarFile.getInputStream(jarFile.getEntry(entryName))) {
+                        return inputStream.readAllBytes();
+                    }
+                }, classEntries, 0, classEntries.size());
+                return forkJoinPool != null ? forkJoinPool.invoke(task) : task.compute();
+            }
+        }
+
+
+        /**
+         * 解析形如 jar:file:/app.jar!/BOOT-INF/lib/lib.jar!/com/example 的地址，
+         * 其中以 .jar 结尾的中间段是嵌套 jar，其余中间段（如 BOOT-INF/classes）是 jar 内的目录前缀。
+         */
+        private ScannedCandidates scanMappedJarPackage(URL url, String packageName) throws IOException {
+            String[] parts = url.getPath().split("!/");
+            Path jarPath;
+            try {
+                jarPath = Paths.get(new URI(parts[0]));
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("无法解析 jar 地址: " + url, e);
+            }
+            try (MappedJarFile rootJar = MappedJarFile.open(jarPath)) {
+                MappedJarFile jar = rootJar;
+                String directoryPrefix = "";
+                for (int i = 1; i < parts.length - 1; i++) {
+                    if (parts[i].endsWith(".jar")) {
+                        jar = jar.openNested(directoryPrefix + parts[i]);
+                        directoryPrefix = "";
+                    } else {
+                        directoryPrefix = directoryPrefix + parts[i] + "/";
                     }
                 }
+                String packagePath = directoryPrefix + packageName.replace('.', '/') + "/";
+                List<String> classEntries = jar.getEntryNames(packagePath, ".class");
+                JarEntryScanTask task = new JarEntryScanTask(jar::readEntry, classEntries, 0, classEntries.size());
+                return forkJoinPool != null ? forkJoinPool.invoke(task) : task.compute();
+            }
+        }
+
+
+        /**
+         * 读取类元数据并判断是否为候选 Bean，可以在多个线程中并发调用。
+         */
+        private void readCandidate(byte[] classBytes, ScannedCandidates result) {
+            ClassMetadata metadata = ClassMetadataReader.read(classBytes);
+            if (stereotypeFilter.matches(metadata)) {
+                result.candidates.add(metadata);
+            } else {
+                result.skippedCount++;
+            }
+        }
+
+
+        /**
+         * 在当前线程中按扫描顺序加载候选类并注册 Bean 定义，
+         * 同名 Bean 总是由顺序靠后的类覆盖，与单线程扫描的结果相同。
+         */
+        private void registerCandidates(ScannedCandidates scanned) {
+            skippedClassCount += scanned.skippedCount;
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            for (ClassMetadata metadata : scanned.candidates) {
+                try {
+                    Class<?> clazz = classLoader.loadClass(metadata.getClassName());
+                    loadedClassCount++;
+                    processAnnotations(clazz);
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("无法加载类: " + metadata.getClassName(), e);
+                }
             }
         }
 
@@ -144,15 +320,32 @@
         private void processAnnotations(Class<?> clazz) {
             Annotation[] annotations = clazz.getAnnotations();
             for (Annotation annotation : annotations) {
-                if (annotation instanceof Component || annotation instanceof Bean ||
-                    annotation instanceof Repository || annotation instanceof Resource ||
-                    annotation instanceof Service) {
+                if (isStereotype(annotation.annotationType(), new HashSet<>())) {
                     processBeanAnnotation(clazz, annotation.annotationType());
                 }
             }
         }
 
 
+        /**
+         * 判断注解是否为 Bean 注解，或者被 Bean 注解标注（元注解）。
+         */
+        private boolean isStereotype(Class<? extends Annotation> annotationType, Set<Class<?>> visited) {
+            if (STEREOTYPES.contains(annotationType.getName())) {
+                return true;
+            }
+            if (annotationType.getName().startsWith("java.lang.annotation.") || !visited.add(annotationType)) {
+                return false;
+            }
+            for (Annotation metaAnnotation : annotationType.getAnnotations()) {
+                if (isStereotype(metaAnnotation.annotationType(), visited)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+
         private <T extends Annotation> void processBeanAnnotation(Class<?> clazz, Class<T> annotationType) {
             if (clazz.isAnnotationPresent(annotationType)) {
                 BeanDefinition beanDefinition = new BeanDefinition(clazz);
@@ -162,6 +355,7 @@
                 } else {
                     beanDefinition.setScope("singleton");
                 }
+                beanDefinition.setPrimary(clazz.isAnnotationPresent(Primary.class));
 
                 T annotation = clazz.getAnnotation(annotationType);
                 String beanName;
@@ -174,10 +368,26 @@
                     beanName = clazz.getSimpleName();
                 }
 
+                warnIfOverriding(beanName, clazz);
                 beanFactory.registerBeanDefinition(beanName, beanDefinition);
             }
         }
 
+        private void warnIfOverriding(String beanName, Class<?> clazz) {
+            if (!beanFactory.containsBeanDefinition(beanName)) {
+                return;
+            }
+            try {
+                Class<?> existingClass = beanFactory.getBeanDefinition(beanName).getBeanClass();
+                if (existingClass != clazz) {
+                    logger.warn("Bean名称冲突: {} 原定义 {} 被 {} 覆盖",
+                            beanName, existingClass.getName(), clazz.getName());
+                }
+            } catch (BeansException e) {
+                // 已确认存在该定义
+            }
+        }
+
         private void registerAopProcessors() {
             // 实例化并注册AspectJAutoProxyCreator
             try {
@@ -189,10 +399,130 @@
                 creator.initializeAdvisorsCache();
 
                 beanFactory.addBeanPostProcessor(creator);
-                System.out.println("已注册AOP处理器: AspectJAutoProxyCreator");
+                logger.debug("已注册AOP处理器: AspectJAutoProxyCreator");
             } catch (Exception e) {
-                System.err.println("注册AOP处理器失败");
-                e.printStackTrace();
+                logger.error("注册AOP处理器失败", e);
+            }
+        }
+
+
+        /**
+         * 一次扫描得到的候选类（按扫描顺序）以及跳过的类数量。
+         */
+        private static class ScannedCandidates {
+            private final List<ClassMetadata> candidates = new ArrayList<>();
+            private int skippedCount;
+
+            void merge(ScannedCandidates other) {
+                candidates.addAll(other.candidates);
+                skippedCount += other.skippedCount;
+            }
+        }
+
+
+        /**
+         * 扫描一个目录的任务，在 ForkJoinPool 中运行时每个子目录都会拆分为子任务。
+         * ForkJoinTask 实现了 Serializable，但扫描任务只在本次扫描中使用，从不序列化。
+         */
+        @SuppressWarnings("serial")
+        private class DirectoryScanTask extends RecursiveTask<ScannedCandidates> {
+            private final File directory;
+
+            DirectoryScanTask(File directory) {
+                this.directory = directory;
+            }
+
+            @Override
+            protected ScannedCandidates compute() {
+                File[] files = directory.listFiles();
+                if (files == null) {
+                    return new ScannedCandidates();
+                }
+                // listFiles 的顺序与文件系统有关，排序后扫描结果才是确定的
+                Arrays.sort(files, Comparator.comparing(File::getName));
+                boolean parallel = ForkJoinTask.inForkJoinPool();
+
+                // 每个位置保存一个已完成的结果或一个已提交的子任务，最后按顺序合并
+                List<Object> parts = new ArrayList<>(files.length);
+                for (File file : files) {
+                    if (file.isDirectory()) {
+                        DirectoryScanTask subtask = new DirectoryScanTask(file);
+                        parts.add(parallel ? subtask.fork() : subtask.compute());
+                    } else if (file.getName().endsWith(".class")) {
+                        ScannedCandidates part = new ScannedCandidates();
+                        try {
+                            readCandidate(Files.readAllBytes(file.toPath()), part);
+                        } catch (IOException e) {
+                            throw new RuntimeException("无法读取类文件: " + file, e);
+                        }
+                        parts.add(part);
+                    }
+                }
+
+                ScannedCandidates result = new ScannedCandidates();
+                for (Object part : parts) {
+                    if (part instanceof DirectoryScanTask) {
+                        result.merge(((DirectoryScanTask) part).join());
+                    } else {
+                        result.merge((ScannedCandidates) part);
+                    }
+                }
+                return result;
+            }
+        }
+
+
+        /**
+         * 读取 jar 条目内容的方法，由 MappedJarFile 或 JarFile 提供。
+         */
+        @FunctionalInterface
+        private interface JarEntryReader {
+            byte[] read(String entryName) throws IOException;
+        }
+
+
+        /**
+         * 扫描 jar 中一段连续条目的任务，条目数超过阈值时对半拆分。
+         * 同 DirectoryScanTask，不会被序列化。
+         */
+        @SuppressWarnings("serial")
+        private class JarEntryScanTask extends RecursiveTask<ScannedCandidates> {
+            private static final int THRESHOLD = 64;
+
+            private final JarEntryReader reader;
+            private final List<String> entries;
+            private final int from;
+            private final int to;
+
+            JarEntryScanTask(JarEntryReader reader, List<String> entries, int from, int to) {
+                this.reader = reader;
+                this.entries = entries;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected ScannedCandidates compute() {
+                if (to - from > THRESHOLD && ForkJoinTask.inForkJoinPool()) {
+                    int middle = (from + to) >>> 1;
+                    JarEntryScanTask left = new JarEntryScanTask(reader, entries, from, middle);
+                    left.fork();
+                    ScannedCandidates right = new JarEntryScanTask(reader, entries, middle, to).compute();
+                    ScannedCandidates result = left.join();
+                    result.merge(right);
+                    return result;
+                }
+
+                ScannedCandidates result = new ScannedCandidates();
+                for (int i = from; i < to; i++) {
+                    String entryName = entries.get(i);
+                    try {
+                        readCandidate(reader.read(entryName), result);
+                    } catch (IOException e) {
+                        throw new RuntimeException("无法读取类文件: " + entryName, e);
+                    }
+                }
+                return result;
             }
         }
     }
@@ -1,21 +1,62 @@
 package site.hnfy258.bean.factory.support;
 
+import lombok.Getter;
+import lombok.Setter;
+import site.hnfy258.aop.annotation.Aspect;
 import site.hnfy258.bean.factory.ObjectFactory;
 import site.hnfy258.bean.factory.config.BeanDefinition;
 import site.hnfy258.bean.factory.config.BeanDefinitionRegistry;
+import site.hnfy258.bean.factory.config.BeanFactoryPostProcessor;
 import site.hnfy258.bean.factory.config.BeanPostProcessor;
 import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.jfr.BeanDefinitionRegistrationEvent;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 
 
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements BeanDefinitionRegistry {
+    private final Logger logger = LoggerFactory.getLogger(DefaultListableBeanFactory.class, logLevelHolder);
     private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
-
+    // 是否按依赖图在虚拟线程上并行创建单例
+    @Getter
+    @Setter
+    private boolean parallelPreInstantiation = false;
+    // 扫描后生成的依赖图，注册新的 Bean 定义后失效
+    @Getter
+    private volatile BeanDependencyGraph dependencyGraph;
+    // 类型索引：类型 -> 可以赋值给该类型的 Bean 名称，覆盖 Bean 类的所有父类和接口，按注册顺序排列
+    private final Map<Class<?>, List<String>> beanNamesByType = new ConcurrentHashMap<>();
+    // 配置冻结后按类型解析出的唯一 Bean 名称，以及只包含单例的 getBeansOfType 结果
+    private final Map<Class<?>, String> resolvedBeanNameCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<String, ?>> beansOfTypeCache = new ConcurrentHashMap<>();
+    @Getter
+    private volatile boolean configurationFrozen = false;
+    // 上几次运行的使用频率画像，为 null 时按注册顺序创建所有单例
+    @Getter
+    @Setter
+    private BeanUsageProfile usageProfile;
+    // 连续多少次运行未被使用的 Bean 推迟到第一次访问时创建，小于等于 0 表示不推迟
+    @Getter
+    @Setter
+    private int coldBeanThreshold = 3;
+    private volatile Set<String> deferredBeanNames = Collections.emptySet();
 
 
     @Override
@@ -27,9 +68,118 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 
     @Override
-    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
-        beanDefinitionMap.put(beanName, beanDefinition);
-        System.out.println("Registered bean definition: " + beanName);
+    public synchronized void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        BeanDefinitionRegistrationEvent event = new BeanDefinitionRegistrationEvent();
+        event.begin();
+        BeanDefinition previous = beanDefinitionMap.put(beanName, beanDefinition);
+        if (previous != null) {
+            for (Class<?> type : collectTypes(previous.getBeanClass())) {
+                List<String> beanNames = beanNamesByType.get(type);
+                if (beanNames != null) {
+                    beanNames.remove(beanName);
+                }
+            }
+        }
+        for (Class<?> type : collectTypes(beanDefinition.getBeanClass())) {
+            beanNamesByType.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(beanName);
+        }
+        dependencyGraph = null;
+        resolvedBeanNameCache.clear();
+        beansOfTypeCache.clear();
+        clearDependencyResolutionCache();
+        event.end();
+        if (event.shouldCommit()) {
+            event.beanName = beanName;
+            event.beanClass = beanDefinition.getBeanClass();
+            event.scope = beanDefinition.getScope();
+            event.overriding = previous != null;
+            event.commit();
+        }
+        logger.debug("Registered bean definition: {}", beanName);
+    }
+
+
+    /**
+     * 冻结配置，之后按类型查找的结果会被缓存。冻结后仍然可以注册新的 Bean 定义，注册时会清空缓存。
+     */
+    public void freezeConfiguration() {
+        configurationFrozen = true;
+    }
+
+
+    /**
+     * 获取 Bean 类的所有父类和接口（包括自身），即所有可以通过类型查找到它的类型。
+     */
+    private static Set<Class<?>> collectTypes(Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(beanClass);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.poll();
+            if (!types.add(type)) {
+                continue;
+            }
+            if (type.getSuperclass() != null) {
+                pending.add(type.getSuperclass());
+            }
+            pending.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        return types;
+    }
+
+
+    /**
+     * 获取所有可以赋值给指定类型的 Bean 名称，按注册顺序排列。
+     */
+    public String[] getBeanNamesForType(Class<?> type) {
+        return beanNamesByType.getOrDefault(type, Collections.emptyList()).toArray(new String[0]);
+    }
+
+
+    /**
+     * 按类型解析唯一的 Bean 名称。有多个候选时使用唯一的 @Primary Bean，否则视为有歧义。
+     *
+     * @throws BeansException 如果没有候选，或者有多个候选且无法确定首选
+     */
+    @Override
+    public String resolveBeanName(Class<?> requiredType) throws BeansException {
+        String cached = resolvedBeanNameCache.get(requiredType);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> candidates = beanNamesByType.getOrDefault(requiredType, Collections.emptyList());
+        String beanName;
+        if (candidates.isEmpty()) {
+            throw new BeansException("No bean of type '" + requiredType.getName() + "' is defined");
+        } else if (candidates.size() == 1) {
+            beanName = candidates.get(0);
+        } else {
+            beanName = determinePrimaryCandidate(requiredType, candidates);
+        }
+        if (configurationFrozen) {
+            resolvedBeanNameCache.put(requiredType, beanName);
+        }
+        return beanName;
+    }
+
+
+    private String determinePrimaryCandidate(Class<?> requiredType, List<String> candidates) throws BeansException {
+        String primary = null;
+        for (String candidate : candidates) {
+            BeanDefinition bd = beanDefinitionMap.get(candidate);
+            if (bd != null && bd.isPrimary()) {
+                if (primary != null) {
+                    throw new BeansException("More than one 'primary' bean of type '" + requiredType.getName() +
+                            "' found among candidates: " + candidates);
+                }
+                primary = candidate;
+            }
+        }
+        if (primary == null) {
+            throw new BeansException("No qualifying bean of type '" + requiredType.getName() +
+                    "': expected single matching bean but found " + candidates.size() + ": " + candidates);
+        }
+        return primary;
     }
 
 
@@ -38,6 +188,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
 
 
+    @Override
     public boolean containsBeanDefinition(String beanName) {
         return beanDefinitionMap.containsKey(beanName);
     }
@@ -46,67 +197,218 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     public void registerBeanPostProcessors() throws BeansException {
         List<BeanPostProcessor> postProcessors = new ArrayList<>();
 
-        // 遍历所有BeanDefinition，找出BeanPostProcessor类型的bean
-        String[] beanNames = getBeanDefinitionNames();
-        for (String beanName : beanNames) {
-            BeanDefinition bd = getBeanDefinition(beanName);
-            if (BeanPostProcessor.class.isAssignableFrom(bd.getBeanClass())) {
-                try {
-                    // 实例化并注册BeanPostProcessor
-                    BeanPostProcessor postProcessor = (BeanPostProcessor) getBean(beanName);
-                    postProcessors.add(postProcessor);
-                    addBeanPostProcessor(postProcessor);
-                    System.out.println("Registered BeanPostProcessor: " + beanName);
-                } catch (Exception e) {
-                    System.err.println("Failed to register BeanPostProcessor: " + beanName);
-                    e.printStackTrace();
-                }
+        // 通过类型索引找出BeanPostProcessor类型的bean
+        for (String beanName : getBeanNamesForType(BeanPostProcessor.class)) {
+            try {
+                // 实例化并注册BeanPostProcessor
+                BeanPostProcessor postProcessor = (BeanPostProcessor) getBean(beanName);
+                postProcessors.add(postProcessor);
+                addBeanPostProcessor(postProcessor);
+                logger.debug("Registered BeanPostProcessor: {}", beanName);
+            } catch (Exception e) {
+                logger.error("Failed to register BeanPostProcessor: {}", beanName, e);
             }
         }
     }
 
 
     public void preInstantiateSingletons() throws BeansException {
-        String[] beanNames = getBeanDefinitionNames();
+        deferredBeanNames = determineDeferredBeans();
+        if (!deferredBeanNames.isEmpty()) {
+            logger.info("根据使用频率画像推迟创建 {} 个最近 {} 次运行未使用的Bean",
+                    deferredBeanNames.size(), coldBeanThreshold);
+            for (String beanName : deferredBeanNames) {
+                logger.info("推迟创建Bean: {}", beanName);
+            }
+        }
+        if (parallelPreInstantiation) {
+            new ParallelSingletonInstantiator(this).preInstantiate();
+            return;
+        }
+        List<String> beanNames = Arrays.asList(getBeanDefinitionNames());
+        if (usageProfile != null) {
+            // 常用的 Bean 先创建，尽早可用
+            beanNames = usageProfile.orderByUsage(beanNames);
+        }
+        // 切面必须在其他 Bean 之前创建，否则先创建的 Bean 不会被代理
+        List<String> orderedNames = new ArrayList<>(beanNames.size());
+        List<String> otherNames = new ArrayList<>(beanNames.size());
         for (String beanName : beanNames) {
+            Class<?> beanClass = getBeanDefinition(beanName).getBeanClass();
+            (beanClass.isAnnotationPresent(Aspect.class) ? orderedNames : otherNames).add(beanName);
+        }
+        orderedNames.addAll(otherNames);
+        for (String beanName : orderedNames) {
             BeanDefinition bd = getBeanDefinition(beanName);
-            if (bd.isSingleton() && !bd.isLazyInit()) {
+            if (bd.isSingleton() && !bd.isLazyInit() && !isDeferred(beanName)) {
                 try {
                     // 提前实例化单例bean
-                    getBean(beanName);
-                    System.out.println("提前实例化" + beanName);
+                    doGetBean(beanName);
+                    logger.debug("提前实例化{}", beanName);
                 } catch (Exception e) {
-                    System.err.println("Failed to pre-instantiate singleton bean: " + beanName);
-                    e.printStackTrace();
+                    logger.error("Failed to pre-instantiate singleton bean: {}", beanName, e);
                 }
             }
         }
     }
 
 
+    /**
+     * 判断单例是否因为最近没有被使用而推迟到第一次访问时创建。
+     */
+    public boolean isDeferred(String beanName) {
+        return deferredBeanNames.contains(beanName);
+    }
+
+
+    private Set<String> determineDeferredBeans() {
+        if (usageProfile == null || coldBeanThreshold <= 0) {
+            return Collections.emptySet();
+        }
+        // 按名称排序，日志输出稳定
+        Set<String> deferred = new TreeSet<>();
+        beanDefinitionMap.forEach((beanName, bd) -> {
+            if (bd.isSingleton() && !isInfrastructureBean(bd) && !hasLifecycleCallbacks(bd)
+                    && usageProfile.isCold(beanName, coldBeanThreshold)) {
+                deferred.add(beanName);
+            }
+        });
+        return deferred;
+    }
+
+
+    /**
+     * 带有 @PostConstruct 方法或实现了 DisposableBean 的 Bean 不推迟：初始化方法可能有启动时必须发生的副作用
+     * （注册监听、预热缓存），而推迟后从未被访问的 Bean 也不会在关闭时被销毁。
+     */
+    private boolean hasLifecycleCallbacks(BeanDefinition bd) {
+        InjectionMetadata metadata = getInjectionMetadata(bd.getBeanClass());
+        return !metadata.getInitMethods().isEmpty() || metadata.isDisposable();
+    }
+
+
+    /**
+     * 后置处理器和切面影响其他 Bean 的创建过程，从来不会被 getBean 直接使用，不能推迟。
+     */
+    private static boolean isInfrastructureBean(BeanDefinition bd) {
+        Class<?> beanClass = bd.getBeanClass();
+        return BeanPostProcessor.class.isAssignableFrom(beanClass) ||
+                BeanFactoryPostProcessor.class.isAssignableFrom(beanClass) ||
+                beanClass.isAnnotationPresent(Aspect.class);
+    }
+
+
+    /**
+     * 分析当前所有 Bean 定义之间的依赖关系。分析结果会被保存下来，
+     * 之后创建不在循环依赖中的单例时不再注册提前暴露的对象工厂。
+     */
+    public BeanDependencyGraph analyzeDependencies() throws BeansException {
+        BeanDependencyGraph graph = BeanDependencyAnalyzer.analyze(this);
+        this.dependencyGraph = graph;
+        return graph;
+    }
+
+
+    /**
+     * 估算容器和单例 Bean 占用的内存，报告生成的类和残留在二级、三级缓存中的 Bean。
+     */
+    public MemoryFootprint analyzeMemoryFootprint() {
+        return MemoryFootprintAnalyzer.analyze(this);
+    }
+
+
+    // 供 MemoryFootprintAnalyzer 估算 Bean 定义的占用
+    Map<String, BeanDefinition> getBeanDefinitionMap() {
+        return beanDefinitionMap;
+    }
+
+
+    /**
+     * 没有依赖图，或者 Bean 是在分析之后才注册的，都无法证明它不在循环中。
+     * 依赖图之外的循环（例如初始化方法中调用 getBean）再次获取该 Bean 时抛出 BeanCurrentlyInCreationException。
+     */
     @Override
-    public Object getBean(Class<?> requiredType) throws BeansException {
-        for (String beanName : beanDefinitionMap.keySet()) {
-            BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
-            if (requiredType.isAssignableFrom(beanDefinition.getBeanClass())) {
-                return getBean(beanName);
+    protected boolean requiresEarlyReference(String beanName) {
+        BeanDependencyGraph graph = this.dependencyGraph;
+        return graph == null || !graph.contains(beanName) || graph.isInCycle(beanName);
+    }
+
+
+    /**
+     * 同一个循环中的 Bean 共用一把创建锁。各自一把锁时，两个线程从循环的两端同时开始创建，
+     * 会各自持有一把锁并等待对方的锁。
+     */
+    @Override
+    protected Lock getSingletonCreationLock(String beanName) {
+        BeanDependencyGraph graph = this.dependencyGraph;
+        List<String> cycle = graph == null ? null : graph.getCycle(beanName);
+        return super.getSingletonCreationLock(cycle == null ? beanName : cycle.get(0));
+    }
+
+
+    /**
+     * 根据类定义上的构造函数参数和 @Autowired 字段推断 Bean 依赖的其他 Bean，不会创建任何 Bean。
+     * 规则与注入一致：字段名恰好是某个 Bean 名称时依赖该 Bean，否则依赖所有类型匹配的 Bean
+     * （按类型注入时会取其中之一，这里保守地全部算作依赖）。
+     */
+    public Set<String> getAutowiredDependencyNames(String beanName) throws BeansException {
+        Set<String> dependencies = new LinkedHashSet<>();
+        Class<?> beanClass = getBeanDefinition(beanName).getBeanClass();
+        InjectionMetadata.BeanConstructor constructor = getInjectionMetadata(beanClass).getConstructor();
+        if (constructor != null) {
+            for (Parameter parameter : constructor.getConstructor().getParameters()) {
+                if (parameter.isNamePresent() && containsBeanDefinition(parameter.getName())) {
+                    dependencies.add(parameter.getName());
+                    continue;
+                }
+                dependencies.addAll(beanNamesByType.getOrDefault(parameter.getType(), Collections.emptyList()));
+            }
+        }
+        for (InjectionMetadata.InjectedField injectedField : getInjectionMetadata(beanClass).getInjectedFields()) {
+            Field field = injectedField.getField();
+            if (isAutowireCandidateByName(field)) {
+                dependencies.add(field.getName());
+                continue;
             }
+            dependencies.addAll(beanNamesByType.getOrDefault(field.getType(), Collections.emptyList()));
         }
-        throw new BeansException("No bean of type '" + requiredType.getName() + "' is defined");
+        return dependencies;
+    }
+
+
+    @Override
+    public Object getBean(Class<?> requiredType) throws BeansException {
+        return getBean(resolveBeanName(requiredType));
     }
 
+    /**
+     * 获取所有可以赋值给指定类型的 Bean，按注册顺序排列，返回的 Map 不可修改。
+     * 配置冻结后，如果结果中都是已经创建完成的单例，结果会被缓存。
+     */
+    @SuppressWarnings("unchecked")
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-            Class beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                try {
-                    result.put(beanName, (T) getBean(beanName));
-                } catch (BeansException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        Map<String, ?> cached = beansOfTypeCache.get(type);
+        if (cached != null) {
+            return (Map<String, T>) cached;
+        }
+        Map<String, T> result = new LinkedHashMap<>();
+        boolean cacheable = configurationFrozen;
+        for (String beanName : getBeanNamesForType(type)) {
+            result.put(beanName, (T) getBean(beanName));
+            // 原型 Bean 每次都不同，正在创建的单例拿到的只是提前暴露的引用
+            cacheable &= getBeanDefinition(beanName).isSingleton() && containsSingleton(beanName);
+        }
+        result = Collections.unmodifiableMap(result);
+        if (cacheable) {
+            beansOfTypeCache.put(type, result);
+        }
         return result;
     }
+
+
+    @Override
+    public void destroySingletons() throws BeansException {
+        beansOfTypeCache.clear();
+        super.destroySingletons();
+    }
 }
@@ -7,8 +7,11 @@ import site.hnfy258.bean.factory.config.SingletonBeanRegistry;
 import site.hnfy258.common.exceptions.BeansException;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -23,7 +26,8 @@ public class DefaultSingletonBeanRegistery implements SingletonBeanRegistry {
     private Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>();
     //3级缓存，代理对象
     private Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<>();
-    private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+    // 并行创建单例时会被多个线程同时注册，保持注册顺序以便逆序销毁
+    private final Map<String, DisposableBean> disposableBeans = Collections.synchronizedMap(new LinkedHashMap<>());
 
 
 
@@ -44,9 +48,18 @@ public class DefaultSingletonBeanRegistery implements SingletonBeanRegistry {
      */
     @Override
     public Object getSingleton(String beanName) throws BeansException {
+        return getSingleton(beanName, true);
+    }
+
+    /**
+     * 根据Bean名称获取单例。
+     *
+     * @param allowEarlyReference 为 false 时只返回完全初始化好的对象，不查二级、三级缓存
+     */
+    protected Object getSingleton(String beanName, boolean allowEarlyReference) throws BeansException {
         // 先从一级缓存中获取
         Object singletonObject = singletonObjects.get(beanName);
-        if (singletonObject == null) {
+        if (singletonObject == null && allowEarlyReference) {
             // 如果一级缓存中没有，则从二级缓存中获取
             singletonObject = earlySingletonObjects.get(beanName);
             if (singletonObject == null) {
@@ -65,12 +78,42 @@ public class DefaultSingletonBeanRegistery implements SingletonBeanRegistry {
         return singletonObject;
     }
 
+    /**
+     * 判断是否已有完全初始化好的单例，不会触发三级缓存中的对象工厂。
+     */
+    public boolean containsSingleton(String beanName) {
+        return singletonObjects.containsKey(beanName);
+    }
+
     public void registerSingleton(String beanName, Object singletonObject) {
         singletonObjects.put(beanName, singletonObject);
         earlySingletonObjects.remove(beanName);
         singletonFactories.remove(beanName);
     }
 
+    /**
+     * 获取仍留在二级、三级缓存中的 Bean 名称。所有单例创建完成后两个缓存都应该为空，
+     * 留下的条目说明有 Bean 创建失败或提前暴露后没有完成创建，它们引用的对象不会被释放。
+     */
+    public Set<String> getLeftoverEarlySingletonNames() {
+        Set<String> names = new TreeSet<>(earlySingletonObjects.keySet());
+        names.addAll(singletonFactories.keySet());
+        return names;
+    }
+
+    // 供 MemoryFootprintAnalyzer 估算三级缓存的占用
+    Map<String, Object> getSingletonObjects() {
+        return singletonObjects;
+    }
+
+    Map<String, Object> getEarlySingletonObjects() {
+        return earlySingletonObjects;
+    }
+
+    Map<String, ObjectFactory<?>> getSingletonFactories() {
+        return singletonFactories;
+    }
+
     // 添加注册可销毁Bean的方法
     protected void registerDisposableBean(String beanName, DisposableBean bean) {
         disposableBeans.put(beanName, bean);
@@ -79,7 +122,10 @@ public class DefaultSingletonBeanRegistery implements SingletonBeanRegistry {
     // 添加销毁单例Bean的方法
     public void destroySingletons() throws BeansException {
         // 按照注册的逆序销毁Bean
-        String[] disposableBeanNames = disposableBeans.keySet().toArray(new String[0]);
+        String[] disposableBeanNames;
+        synchronized (disposableBeans) {
+            disposableBeanNames = disposableBeans.keySet().toArray(new String[0]);
+        }
         for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
             String beanName = disposableBeanNames[i];
             DisposableBean disposableBean = disposableBeans.remove(beanName);
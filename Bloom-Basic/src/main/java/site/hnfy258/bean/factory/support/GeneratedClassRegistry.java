@@ -0,0 +1,68 @@
+package site.hnfy258.bean.factory.support;
+
+import site.hnfy258.aop.framework.ProxyClassCache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录容器使用的生成类（CGLIB 子类和 AOP 代理类），也记录编译期生成的 AOP 代理类。
+ *
+ * 元空间的增长量由 ProxyClassCache 在真正生成类时测量，这里只记录容器用到了哪些类，生成报告时再读取。
+ * 同一个源类可以有多个生成类（例如通知分布不同的代理），每个生成类单独记录。
+ */
+public class GeneratedClassRegistry {
+    public static final String INSTANTIATE = "instantiate";
+    public static final String PROXY = "proxy";
+
+    private final Set<Class<?>> generatedClasses = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final Set<Class<?>> proxyClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 记录实例化或创建代理得到的类，与源类相同（即没有生成新类）时不记录。
+     *
+     * @param kind 生成方式，INSTANTIATE 或 PROXY
+     * @param sourceClass 被继承或代理的类
+     * @param generatedClass 实例的实际类型
+     */
+    public void registerGeneratedClass(String kind, Class<?> sourceClass, Class<?> generatedClass) {
+        if (generatedClass == sourceClass) {
+            return;
+        }
+        generatedClasses.add(generatedClass);
+        if (PROXY.equals(kind)) {
+            proxyClasses.add(generatedClass);
+        }
+    }
+
+    /**
+     * 记录编译期生成的 AOP 代理类。这些类不是运行时生成的，不计入元空间增长量。
+     */
+    public void registerProxyClass(Class<?> proxyClass) {
+        proxyClasses.add(proxyClass);
+    }
+
+    /**
+     * 判断类是否是记录过的 AOP 代理类。
+     */
+    public boolean isProxyClass(Class<?> clazz) {
+        return proxyClasses.contains(clazz);
+    }
+
+    /**
+     * 获取所有记录的生成类及其第一次生成时元空间的增长量（无法测量时为 0），按记录顺序排列。
+     */
+    public Map<Class<?>, Long> getGeneratedClasses() {
+        Map<Class<?>, Long> result = new LinkedHashMap<>();
+        synchronized (generatedClasses) {
+            for (Class<?> generatedClass : generatedClasses) {
+                result.put(generatedClass, Math.max(0, ProxyClassCache.getMetaspaceBytes(generatedClass)));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,255 @@
+package site.hnfy258.bean.factory.support;
+
+import lombok.Getter;
+import site.hnfy258.bean.factory.DisposableBean;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个类的注入和生命周期元数据：用于实例化的构造函数、需要注入的 @Autowired 字段、@PostConstruct 方法以及是否实现了 DisposableBean。
+ * 每个类只在第一次创建实例时遍历一次类层次结构，之后由 AbstractAutowireCapableBeanFactory 缓存复用。
+ *
+ * 字段和方法的顺序与逐层遍历时一致：先当前类，再依次向上到父类。
+ *
+ * 构造函数、每个注入点和初始化方法在解析时就生成好 MethodHandle，之后每次创建实例都直接调用，
+ * 不再经过 Field.set / Method.invoke 的访问检查和参数包装；无法生成 MethodHandle 时退回反射。
+ */
+public class InjectionMetadata {
+    @Getter
+    private final Class<?> targetClass;
+    /**
+     * 用于实例化的构造函数，类无法直接实例化（抽象类、接口或没有可选的构造函数）时为 null。
+     */
+    @Getter
+    private final BeanConstructor constructor;
+    @Getter
+    private final List<InjectedField> injectedFields;
+    @Getter
+    private final List<InitMethod> initMethods;
+    @Getter
+    private final boolean disposable;
+
+    private InjectionMetadata(Class<?> targetClass, BeanConstructor constructor,
+                              List<InjectedField> injectedFields, List<InitMethod> initMethods) {
+        this.targetClass = targetClass;
+        this.constructor = constructor;
+        this.injectedFields = injectedFields;
+        this.initMethods = initMethods;
+        this.disposable = DisposableBean.class.isAssignableFrom(targetClass);
+    }
+
+    /**
+     * 遍历类及其所有父类，解析注入点和初始化方法。
+     */
+    public static InjectionMetadata forClass(Class<?> targetClass) {
+        List<InjectedField> fields = new ArrayList<>();
+        List<InitMethod> methods = new ArrayList<>();
+        Class<?> clazz = targetClass;
+        while (clazz != null && clazz != Object.class) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Autowired.class)) {
+                    field.setAccessible(true);
+                    fields.add(new InjectedField(field));
+                }
+            }
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(PostConstruct.class)) {
+                    method.setAccessible(true);
+                    methods.add(new InitMethod(method));
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return new InjectionMetadata(targetClass, BeanConstructor.resolve(targetClass),
+                fields.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(fields),
+                methods.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(methods));
+    }
+
+    /**
+     * 用于实例化的构造函数及其调用器。调用器的类型统一为 (Object[])Object，参数按顺序展开传给构造函数。
+     *
+     * 构造函数的选择规则：标注了 @Autowired 的构造函数；否则类只有一个构造函数时使用它；否则使用无参构造函数。
+     * 有参数的构造函数按参数类型注入依赖。
+     */
+    public static class BeanConstructor {
+        @Getter
+        private final Constructor<?> constructor;
+        private final MethodHandle invoker;
+
+        BeanConstructor(Constructor<?> constructor) {
+            this.constructor = constructor;
+            this.invoker = createInvoker(constructor);
+        }
+
+        static BeanConstructor resolve(Class<?> targetClass) {
+            if (targetClass.isInterface() || Modifier.isAbstract(targetClass.getModifiers())) {
+                return null;
+            }
+            Constructor<?>[] constructors = targetClass.getDeclaredConstructors();
+            Constructor<?> selected = null;
+            for (Constructor<?> constructor : constructors) {
+                if (constructor.isAnnotationPresent(Autowired.class)) {
+                    if (selected != null) {
+                        throw new IllegalStateException("Multiple @Autowired constructors in " + targetClass.getName());
+                    }
+                    selected = constructor;
+                }
+            }
+            if (selected == null && constructors.length == 1) {
+                selected = constructors[0];
+            }
+            if (selected == null) {
+                for (Constructor<?> constructor : constructors) {
+                    if (constructor.getParameterCount() == 0) {
+                        selected = constructor;
+                    }
+                }
+            }
+            if (selected == null) {
+                return null;
+            }
+            selected.setAccessible(true);
+            return new BeanConstructor(selected);
+        }
+
+        public Class<?>[] getParameterTypes() {
+            return constructor.getParameterTypes();
+        }
+
+        public int getParameterCount() {
+            return constructor.getParameterCount();
+        }
+
+        /**
+         * 调用构造函数创建实例，构造函数本身抛出的异常原样抛出。
+         */
+        public Object newInstance(Object[] args) throws Throwable {
+            if (invoker != null) {
+                return (Object) invoker.invokeExact(args);
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static MethodHandle createInvoker(Constructor<?> constructor) {
+            try {
+                MethodHandle invoker = MethodHandles.lookup().unreflectConstructor(constructor)
+                        .asType(MethodType.methodType(Object.class, constructor.getParameterTypes()));
+                if (constructor.getParameterCount() == 0) {
+                    return MethodHandles.dropArguments(invoker, 0, Object[].class);
+                }
+                return invoker.asSpreader(Object[].class, constructor.getParameterCount());
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 一个 @Autowired 字段及其 setter。setter 的类型统一为 (Object, Object)void，用 invokeExact 调用。
+     */
+    public static class InjectedField {
+        @Getter
+        private final Field field;
+        private final MethodHandle setter;
+
+        InjectedField(Field field) {
+            this.field = field;
+            this.setter = createSetter(field);
+        }
+
+        /**
+         * 把依赖写入字段。
+         *
+         * @throws ClassCastException 如果依赖的类型与字段不匹配
+         */
+        public void inject(Object bean, Object value) throws IllegalAccessException {
+            if (setter == null) {
+                field.set(bean, value);
+                return;
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // 字段 setter 不会抛出受检异常
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static MethodHandle createSetter(Field field) {
+            try {
+                // 字段已经 setAccessible，非静态的 final 字段同样可以得到 setter
+                MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    setter = MethodHandles.dropArguments(setter, 0, Object.class);
+                }
+                return setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                // 例如静态 final 字段，退回反射并由 Field.set 报告错误
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 一个 @PostConstruct 方法及其调用器。调用器的类型统一为 (Object)void，返回值会被丢弃。
+     */
+    public static class InitMethod {
+        @Getter
+        private final Method method;
+        private final MethodHandle invoker;
+
+        InitMethod(Method method) {
+            this.method = method;
+            this.invoker = createInvoker(method);
+        }
+
+        /**
+         * 调用初始化方法，方法本身抛出的异常原样抛出。
+         */
+        public void invoke(Object bean) throws Throwable {
+            if (invoker != null) {
+                invoker.invokeExact(bean);
+                return;
+            }
+            try {
+                method.invoke(bean);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static MethodHandle createInvoker(Method method) {
+            if (method.getParameterCount() != 0) {
+                // 与之前的 Method.invoke 行为一致，由反射报告参数错误
+                return null;
+            }
+            try {
+                MethodHandle invoker = MethodHandles.lookup().unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    invoker = MethodHandles.dropArguments(invoker, 0, Object.class);
+                }
+                return invoker.asType(MethodType.methodType(void.class, Object.class));
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+        }
+    }
+}
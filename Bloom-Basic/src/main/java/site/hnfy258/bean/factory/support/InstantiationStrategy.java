@@ -19,4 +19,20 @@ public interface InstantiationStrategy {
      */
     Object instantiate(BeanDefinition beanDefinition, String beanName) throws BeansException;
 
+    /**
+     * 使用容器解析好的构造函数和参数实例化 Bean。
+     * 默认实现只支持无参构造函数，委托给 instantiate(beanDefinition, beanName)。
+     *
+     * @param constructor 从 InjectionMetadata 中得到的构造函数，类无法直接实例化时为 null。
+     * @param args 已经解析好的构造函数参数，无参构造函数时为空数组。
+     * @throws BeansException 如果实例化过程中发生错误，或者策略不支持构造函数注入。
+     */
+    default Object instantiate(BeanDefinition beanDefinition, String beanName,
+                               InjectionMetadata.BeanConstructor constructor, Object[] args) throws BeansException {
+        if (args.length > 0) {
+            throw new BeansException(getClass().getSimpleName() + " 不支持构造函数注入: " + beanName);
+        }
+        return instantiate(beanDefinition, beanName);
+    }
+
 }
@@ -4,12 +4,13 @@ import site.hnfy258.bean.factory.config.BeanDefinition;
 import site.hnfy258.common.exceptions.BeansException;
 
 /**
- * JdkInstaniateStrategy 类实现了 InstantiationStrategy 接口，用于通过 JDK 的反射机制实例化 Bean。
+ * JdkInstaniateStrategy 类实现了 InstantiationStrategy 接口，直接调用 Bean 类的构造函数实例化 Bean，不生成任何类。
+ * 这是容器默认的实例化策略，只有需要 AOP 代理时才会生成字节码。
  */
 public class JdkInstaniateStrategy implements InstantiationStrategy {
 
     /**
-     * 通过 JDK 的反射机制实例化给定的 BeanDefinition 对应的 Bean。
+     * 通过 Bean 类的无参构造函数实例化 Bean。
      *
      * @param beanDefinition Bean 的定义信息，包含 Bean 的类类型等元数据。
      * @param beanName Bean 的名称，用于标识该 Bean。
@@ -22,14 +23,29 @@ public class JdkInstaniateStrategy implements InstantiationStrategy {
         Class<?> clazz = beanDefinition.getBeanClass();
 
         try {
-            // 使用 JDK 的反射机制创建 Bean 的实例
-            return clazz.newInstance();
-        } catch (InstantiationException e) {
-            // 如果实例化失败，抛出运行时异常
-            throw new RuntimeException(e);
-        } catch (IllegalAccessException e) {
-            // 如果访问权限不足，抛出运行时异常
-            throw new RuntimeException(e);
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new BeansException("Failed to instantiate [" + clazz.getName() + "]: " + e, e);
+        }
+    }
+
+    /**
+     * 通过解析好的构造函数实例化 Bean，构造函数已经编译为 MethodHandle。
+     */
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName,
+                              InjectionMetadata.BeanConstructor constructor, Object[] args) throws BeansException {
+        if (constructor == null) {
+            throw new BeansException("No usable constructor found for [" + beanDefinition.getBeanClass().getName()
+                    + "]: declare a no-arg constructor, a single constructor or an @Autowired constructor");
+        }
+        try {
+            return constructor.newInstance(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("Constructor of [" + beanDefinition.getBeanClass().getName()
+                    + "] threw exception: " + e, e instanceof Exception ? (Exception) e : null);
         }
     }
 }
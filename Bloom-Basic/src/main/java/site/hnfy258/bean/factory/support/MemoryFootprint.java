@@ -0,0 +1,123 @@
+package site.hnfy258.bean.factory.support;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 容器内存占用报告，由 MemoryFootprintAnalyzer 生成，生成后不可变。
+ * 堆大小是按对象布局估算的值，元空间是生成代理类时测得的增长量，两者都只能用于比较和排查，不是精确值。
+ */
+public class MemoryFootprint {
+    public static final String BEAN_DEFINITIONS = "beanDefinitions";
+    public static final String SINGLETON_OBJECTS = "singletonObjects";
+    public static final String EARLY_SINGLETON_OBJECTS = "earlySingletonObjects";
+    public static final String SINGLETON_FACTORIES = "singletonFactories";
+    public static final String ADVISORS_CACHE = "advisorsCache";
+    public static final String POINTCUT_EXPRESSIONS = "pointcutExpressions";
+
+    /**
+     * 按估算大小从大到小排列的单例 Bean。
+     */
+    @Getter
+    private final List<BeanFootprint> beans;
+    /**
+     * 容器结构名称 -> 估算的堆大小，不包括其中引用的 Bean。
+     */
+    @Getter
+    private final Map<String, Long> structures;
+    /**
+     * 生成的类 -> 生成时元空间的增长量。
+     */
+    @Getter
+    private final Map<Class<?>, Long> generatedClasses;
+    /**
+     * 启动完成后仍然留在二级、三级缓存中的 Bean。
+     */
+    @Getter
+    private final Set<String> leftoverEarlySingletons;
+
+    MemoryFootprint(List<BeanFootprint> beans, Map<String, Long> structures,
+                    Map<Class<?>, Long> generatedClasses, Set<String> leftoverEarlySingletons) {
+        this.beans = Collections.unmodifiableList(beans);
+        this.structures = Collections.unmodifiableMap(structures);
+        this.generatedClasses = generatedClasses;
+        this.leftoverEarlySingletons = Collections.unmodifiableSet(leftoverEarlySingletons);
+    }
+
+    public long getBeansHeapBytes() {
+        long total = 0;
+        for (BeanFootprint bean : beans) {
+            total += bean.retainedBytes;
+        }
+        return total;
+    }
+
+    public long getStructuresHeapBytes() {
+        long total = 0;
+        for (long bytes : structures.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    public long getGeneratedClassesMetaspaceBytes() {
+        long total = 0;
+        for (long bytes : generatedClasses.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * 输出为便于阅读的文本，Bean 只列出最大的 limit 个。
+     */
+    public String toText(int limit) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("容器结构 (堆, 共 %d 字节)%n", getStructuresHeapBytes()));
+        structures.forEach((name, bytes) -> text.append(String.format("  %-24s %12d%n", name, bytes)));
+        text.append(String.format("单例 Bean (堆, %d 个, 共 %d 字节)%n", beans.size(), getBeansHeapBytes()));
+        for (int i = 0; i < Math.min(limit, beans.size()); i++) {
+            BeanFootprint bean = beans.get(i);
+            text.append(String.format("  %-24s %12d  %s%s%n", bean.beanName, bean.retainedBytes,
+                    bean.beanClass.getName(), bean.proxy ? " (代理)" : ""));
+        }
+        text.append(String.format("生成的类 (元空间, %d 个, 共 %d 字节)%n",
+                generatedClasses.size(), getGeneratedClassesMetaspaceBytes()));
+        if (!leftoverEarlySingletons.isEmpty()) {
+            text.append("警告: 二级/三级缓存中残留的 Bean: ").append(String.join(", ", leftoverEarlySingletons))
+                    .append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toText(20);
+    }
+
+    /**
+     * 一个单例 Bean 的估算大小，包括它引用的、没有被之前统计过的对象，但不包括其他 Bean。
+     * 代理 Bean 的大小包括目标对象和拦截器。
+     */
+    public static class BeanFootprint {
+        @Getter
+        private final String beanName;
+        @Getter
+        private final Class<?> beanClass;
+        @Getter
+        private final long retainedBytes;
+        @Getter
+        private final boolean proxy;
+
+        BeanFootprint(String beanName, Class<?> beanClass, long retainedBytes, boolean proxy) {
+            this.beanName = beanName;
+            this.beanClass = beanClass;
+            this.retainedBytes = retainedBytes;
+            this.proxy = proxy;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package site.hnfy258.bean.factory.support;
+
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcut;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.config.BeanPostProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 估算容器本身占用的内存，不会创建任何 Bean。
+ *
+ * 先统计 AOP 的共享结构（解析后的切点表达式、通知器缓存），再统计每个单例 Bean，最后统计 Bean 定义和三级缓存。
+ * 顺序决定了共享对象计入哪一项：代理 Bean 通过拦截器引用的切点不会重复计入 Bean 的大小。
+ * Bean 之间的引用、Bean 对容器的引用都不计入，因此各项之和近似于容器和所有 Bean 的总占用。
+ */
+public final class MemoryFootprintAnalyzer {
+
+    private MemoryFootprintAnalyzer() {
+    }
+
+    public static MemoryFootprint analyze(DefaultListableBeanFactory beanFactory) {
+        // 按名称排序，保证输出稳定
+        Map<String, Object> singletons = new TreeMap<>(beanFactory.getSingletonObjects());
+        Set<Object> beans = Collections.newSetFromMap(new IdentityHashMap<>());
+        beans.addAll(singletons.values());
+        beans.addAll(beanFactory.getEarlySingletonObjects().values());
+        beans.add(beanFactory);
+        beans.addAll(beanFactory.getBeanPostProcessors());
+        ObjectSizeEstimator estimator = new ObjectSizeEstimator(beans::contains);
+
+        Map<String, Long> structures = new LinkedHashMap<>();
+        List<AspectJExpressionPointcutAdvisor> advisors = new ArrayList<>();
+        Object advisorsCache = null;
+        for (BeanPostProcessor processor : beanFactory.getBeanPostProcessors()) {
+            if (processor instanceof AspectJAutoProxyCreator) {
+                Map<String, List<AspectJExpressionPointcutAdvisor>> cache =
+                        ((AspectJAutoProxyCreator) processor).getAdvisorsCache();
+                advisorsCache = cache;
+                cache.values().forEach(advisors::addAll);
+            }
+        }
+        long pointcutBytes = 0;
+        for (AspectJExpressionPointcutAdvisor advisor : advisors) {
+            AspectJExpressionPointcut pointcut = advisor.getParsedPointcut();
+            if (pointcut != null) {
+                pointcutBytes += estimator.estimate(pointcut.getPointcutExpression());
+            }
+        }
+        structures.put(MemoryFootprint.POINTCUT_EXPRESSIONS, pointcutBytes);
+        structures.put(MemoryFootprint.ADVISORS_CACHE, estimator.estimate(advisorsCache));
+
+        GeneratedClassRegistry generatedClasses = beanFactory.getGeneratedClassRegistry();
+        List<MemoryFootprint.BeanFootprint> beanFootprints = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : singletons.entrySet()) {
+            String beanName = entry.getKey();
+            Object bean = entry.getValue();
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinitionMap().get(beanName);
+            Class<?> beanClass = beanDefinition != null ? beanDefinition.getBeanClass() : bean.getClass();
+            beanFootprints.add(new MemoryFootprint.BeanFootprint(beanName, beanClass,
+                    estimator.estimate(bean), generatedClasses.isProxyClass(bean.getClass())));
+        }
+        beanFootprints.sort(Comparator.comparingLong(MemoryFootprint.BeanFootprint::getRetainedBytes).reversed());
+
+        structures.put(MemoryFootprint.BEAN_DEFINITIONS, estimator.estimate(beanFactory.getBeanDefinitionMap()));
+        structures.put(MemoryFootprint.SINGLETON_OBJECTS, estimator.estimate(beanFactory.getSingletonObjects()));
+        structures.put(MemoryFootprint.EARLY_SINGLETON_OBJECTS, estimator.estimate(beanFactory.getEarlySingletonObjects()));
+        structures.put(MemoryFootprint.SINGLETON_FACTORIES, estimator.estimate(beanFactory.getSingletonFactories()));
+
+        return new MemoryFootprint(beanFootprints, structures, generatedClasses.getGeneratedClasses(),
+                beanFactory.getLeftoverEarlySingletonNames());
+    }
+}
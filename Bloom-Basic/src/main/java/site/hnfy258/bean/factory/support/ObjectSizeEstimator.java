@@ -0,0 +1,226 @@
+package site.hnfy258.bean.factory.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 按 HotSpot 的对象布局估算对象图占用的堆空间，不依赖 Instrumentation。
+ *
+ * 对象大小按对象头加上所有实例字段计算并按 8 字节对齐，忽略字段重排产生的空隙，因此是估算值。
+ * 模块没有开放的 JDK 类（例如 java.util 中的集合）无法读取字段，集合和 Map 通过公开接口遍历元素，
+ * 并按每个元素一个节点估算内部结构。
+ *
+ * 同一个估算器会记住已经计算过的对象，依次估算多个根对象时，共享的对象只计入最先到达它的根。
+ */
+public class ObjectSizeEstimator {
+    private static final boolean COMPRESSED_OOPS = vmOption("UseCompressedOops", true);
+    private static final boolean COMPRESSED_CLASS_POINTERS = vmOption("UseCompressedClassPointers", true);
+    static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+    static final int OBJECT_HEADER_SIZE = COMPRESSED_CLASS_POINTERS ? 12 : 16;
+    static final int ARRAY_HEADER_SIZE = OBJECT_HEADER_SIZE + 4;
+    // HashMap.Node / ConcurrentHashMap.Node：对象头、hash 以及 key、value、next 三个引用
+    static final long MAP_ENTRY_SIZE = align(OBJECT_HEADER_SIZE + 4 + 3L * REFERENCE_SIZE);
+    // LinkedList.Node 等链式集合的节点
+    static final long COLLECTION_NODE_SIZE = align(OBJECT_HEADER_SIZE + 3L * REFERENCE_SIZE);
+
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return new ClassLayout(type);
+        }
+    };
+
+    private final Predicate<Object> boundary;
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param boundary 返回 true 的对象不计入大小，也不会继续遍历，例如其他 Bean
+     */
+    public ObjectSizeEstimator(Predicate<Object> boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * 估算从根对象出发可以到达、且之前没有计算过的对象的总大小。根对象本身总会被计算，即使它满足边界条件。
+     */
+    public long estimate(Object root) {
+        if (root == null || !visited.add(root)) {
+            return 0;
+        }
+        long size = 0;
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            size += shallowSizeAndChildren(pending.pop(), pending);
+        }
+        return size;
+    }
+
+    /**
+     * 把对象标记为已计算，之后遍历到它时不再计入。
+     */
+    public void exclude(Object object) {
+        if (object != null) {
+            visited.add(object);
+        }
+    }
+
+    private long shallowSizeAndChildren(Object object, Deque<Object> pending) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return arraySize(object, pending);
+        }
+        if (object instanceof String) {
+            return stringSize((String) object);
+        }
+        ClassLayout layout = LAYOUTS.get(type);
+        long size = layout.shallowSize;
+        if (layout.accessible) {
+            for (Field field : layout.referenceFields) {
+                try {
+                    push(field.get(object), pending);
+                } catch (IllegalAccessException e) {
+                    // setAccessible 已经成功，不会发生
+                }
+            }
+        } else if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            size += hashTableSize(map.size()) + map.size() * MAP_ENTRY_SIZE;
+            for (Map.Entry<?, ?> entry : snapshot(map.entrySet())) {
+                push(entry.getKey(), pending);
+                push(entry.getValue(), pending);
+            }
+        } else if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            // 不知道是数组还是链表实现，按链表节点估算，两者相差不大
+            size += collection.size() * COLLECTION_NODE_SIZE;
+            for (Object element : snapshot(collection)) {
+                push(element, pending);
+            }
+        }
+        return size;
+    }
+
+    private void push(Object child, Deque<Object> pending) {
+        if (child == null || child instanceof Class || child instanceof ClassLoader || child instanceof Thread
+                || boundary.test(child) || !visited.add(child)) {
+            return;
+        }
+        pending.push(child);
+    }
+
+    private long arraySize(Object array, Deque<Object> pending) {
+        int length = Array.getLength(array);
+        Class<?> componentType = array.getClass().getComponentType();
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER_SIZE + (long) length * primitiveSize(componentType));
+        }
+        for (Object element : (Object[]) array) {
+            push(element, pending);
+        }
+        return align(ARRAY_HEADER_SIZE + (long) length * REFERENCE_SIZE);
+    }
+
+    private static long stringSize(String value) {
+        // 紧凑字符串：全部是 Latin-1 字符时每个字符占一个字节
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return LAYOUTS.get(String.class).shallowSize + align(ARRAY_HEADER_SIZE + (long) value.length() * bytesPerChar);
+    }
+
+    private static long hashTableSize(int entries) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < entries) {
+            capacity <<= 1;
+        }
+        return align(ARRAY_HEADER_SIZE + (long) capacity * REFERENCE_SIZE);
+    }
+
+    private static <T> List<T> snapshot(Collection<T> collection) {
+        // 并发修改时放弃遍历，估算值只会偏小
+        try {
+            return new ArrayList<>(collection);
+        } catch (RuntimeException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static boolean vmOption(String name, boolean defaultValue) {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean diagnostics =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(diagnostics.getVMOption(name).getValue());
+        } catch (RuntimeException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 一个类的实例大小和引用字段，包括所有父类声明的字段。
+     */
+    private static class ClassLayout {
+        private final long shallowSize;
+        private final List<Field> referenceFields = new ArrayList<>();
+        private final boolean accessible;
+
+        ClassLayout(Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+            boolean accessible = true;
+            for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    Class<?> fieldType = field.getType();
+                    size += fieldType.isPrimitive() ? primitiveSize(fieldType) : REFERENCE_SIZE;
+                    if (fieldType.isPrimitive() || !accessible) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        referenceFields.add(field);
+                    } catch (InaccessibleObjectException | SecurityException e) {
+                        accessible = false;
+                    }
+                }
+            }
+            this.shallowSize = align(size);
+            this.accessible = accessible;
+        }
+    }
+}
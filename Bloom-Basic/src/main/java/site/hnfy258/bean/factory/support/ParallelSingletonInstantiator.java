@@ -0,0 +1,227 @@
+package site.hnfy258.bean.factory.support;
+
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 @Autowired 依赖图并行创建单例 Bean。
+ *
+ * 先把依赖图按强连通分量缩成无环图，每个分量作为一个创建单元：没有未完成依赖的单元提交到虚拟线程上创建，
+ * 某个单元创建完成后把依赖它的单元的剩余依赖数减一，减到 0 时再提交（Kahn 算法）。
+ * 因此 Bean 只会在其他单元中的依赖全部完成后创建，注入时依赖都能直接从一级缓存取到，
+ * 启动耗时接近依赖图中最长路径上的耗时之和。
+ * 调度本身不保证同一个 Bean 只被一个线程创建（例如依赖图之外的 getBean 调用），这由 doGetBean 中的创建锁保证。
+ *
+ * 循环依赖中的 Bean 属于同一个单元，在同一个线程中依次创建，
+ * 由 DefaultSingletonBeanRegistery 的提前暴露机制处理循环，不影响其他单元并行。
+ * 依赖了延迟初始化单例的 Bean，以及依赖创建失败的 Bean，最后在当前线程中按原来的顺序创建。
+ */
+final class ParallelSingletonInstantiator {
+    private final Logger logger;
+    private final DefaultListableBeanFactory beanFactory;
+
+    // Bean 名称 -> 需要等待的 Bean，只包含参与并行创建的 Bean
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+    // 依赖了延迟初始化的单例，必须顺序创建的 Bean
+    private final Set<String> sequentialOnly = new HashSet<>();
+
+    // 创建单元（强连通分量），以及单元之间的依赖关系
+    private final List<List<String>> units = new ArrayList<>();
+    private final List<List<Integer>> unitDependents = new ArrayList<>();
+    private AtomicInteger[] remaining;
+
+    private final Set<Integer> blocked = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    ParallelSingletonInstantiator(DefaultListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+        this.logger = LoggerFactory.getLogger(ParallelSingletonInstantiator.class, beanFactory.getLogLevelHolder());
+    }
+
+    void preInstantiate() throws BeansException {
+        List<String> candidates = new ArrayList<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+            if (bd.isSingleton() && !bd.isLazyInit() && !beanFactory.isDeferred(beanName)) {
+                candidates.add(beanName);
+            }
+        }
+
+        // 切面必须在其他 Bean 之前创建，否则一个 Bean 是否被代理会取决于线程调度
+        for (String beanName : candidates) {
+            Class<?> beanClass = beanFactory.getBeanDefinition(beanName).getBeanClass();
+            if (beanClass.isAnnotationPresent(Aspect.class)) {
+                instantiate(beanName);
+            }
+        }
+
+        for (String beanName : candidates) {
+            if (!beanFactory.containsSingleton(beanName)) {
+                dependencies.put(beanName, new LinkedHashSet<>());
+            }
+        }
+        for (String beanName : dependencies.keySet()) {
+            collectDependencies(beanName, beanName, new HashSet<>());
+        }
+
+        List<Integer> parallelUnits = buildUnits();
+        int cyclicUnits = 0;
+        for (int unit : parallelUnits) {
+            if (units.get(unit).size() > 1) {
+                cyclicUnits++;
+            }
+        }
+        logger.info("并行实例化单例: {} 个Bean分为 {} 个单元并行创建, 其中 {} 个单元存在循环依赖",
+                dependencies.size(), parallelUnits.size(), cyclicUnits);
+        if (!parallelUnits.isEmpty()) {
+            runParallel(parallelUnits);
+        }
+
+        // 依赖延迟初始化单例的 Bean，以及依赖创建失败的 Bean 按原来的顺序创建
+        for (String beanName : dependencies.keySet()) {
+            if (!beanFactory.containsSingleton(beanName) && !failed.contains(beanName)) {
+                instantiate(beanName);
+            }
+        }
+    }
+
+    /**
+     * 收集 Bean 需要等待的依赖。原型 Bean 会在依赖它的 Bean 的线程中创建，
+     * 所以继续展开原型 Bean 自己的依赖；依赖延迟初始化的单例时无法安全地并行创建。
+     */
+    private void collectDependencies(String beanName, String current, Set<String> visited) throws BeansException {
+        if (!visited.add(current)) {
+            return;
+        }
+        for (String dependency : beanFactory.getAutowiredDependencyNames(current)) {
+            if (dependencies.containsKey(dependency)) {
+                dependencies.get(beanName).add(dependency);
+            } else if (beanFactory.containsSingleton(dependency)) {
+                // 已经创建好的单例（例如切面）可以直接注入
+            } else if (beanFactory.getBeanDefinition(dependency).isSingleton()) {
+                sequentialOnly.add(beanName);
+            } else {
+                collectDependencies(beanName, dependency, visited);
+            }
+        }
+    }
+
+    /**
+     * 把强连通分量作为创建单元，计算单元之间的依赖。
+     *
+     * @return 可以并行创建的单元，包含顺序创建的 Bean 或依赖了这类单元的单元除外
+     */
+    private List<Integer> buildUnits() {
+        Map<String, Integer> position = new HashMap<>();
+        for (String beanName : dependencies.keySet()) {
+            position.put(beanName, position.size());
+        }
+        Map<String, Integer> unitOf = new HashMap<>();
+        for (List<String> component : BeanDependencyAnalyzer.stronglyConnectedComponents(dependencies)) {
+            // 分量内按原来的顺序创建，保证结果稳定
+            component.sort(Comparator.comparing(position::get));
+            for (String beanName : component) {
+                unitOf.put(beanName, units.size());
+            }
+            units.add(component);
+            unitDependents.add(new ArrayList<>());
+        }
+
+        remaining = new AtomicInteger[units.size()];
+        boolean[] sequential = new boolean[units.size()];
+        List<Integer> parallelUnits = new ArrayList<>();
+        // 强连通分量按依赖在前的顺序给出，依赖单元总是先被处理
+        for (int unit = 0; unit < units.size(); unit++) {
+            Set<Integer> required = new HashSet<>();
+            for (String beanName : units.get(unit)) {
+                sequential[unit] |= sequentialOnly.contains(beanName);
+                for (String dependency : dependencies.get(beanName)) {
+                    int dependencyUnit = unitOf.get(dependency);
+                    if (dependencyUnit != unit) {
+                        required.add(dependencyUnit);
+                    }
+                }
+            }
+            for (int dependencyUnit : required) {
+                sequential[unit] |= sequential[dependencyUnit];
+            }
+            if (sequential[unit]) {
+                continue;
+            }
+            for (int dependencyUnit : required) {
+                unitDependents.get(dependencyUnit).add(unit);
+            }
+            remaining[unit] = new AtomicInteger(required.size());
+            parallelUnits.add(unit);
+        }
+        return parallelUnits;
+    }
+
+    private void runParallel(List<Integer> parallelUnits) throws BeansException {
+        CountDownLatch latch = new CountDownLatch(parallelUnits.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int unit : parallelUnits) {
+                if (remaining[unit].get() == 0) {
+                    executor.execute(() -> create(executor, latch, unit));
+                }
+            }
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("并行实例化单例时被中断", e);
+        }
+    }
+
+    private void create(ExecutorService executor, CountDownLatch latch, int unit) {
+        boolean created = false;
+        try {
+            if (!blocked.contains(unit)) {
+                created = true;
+                for (String beanName : units.get(unit)) {
+                    if (!beanFactory.containsSingleton(beanName) && !instantiate(beanName)) {
+                        failed.add(beanName);
+                        created = false;
+                    }
+                }
+            }
+        } finally {
+            for (int dependent : unitDependents.get(unit)) {
+                if (!created) {
+                    blocked.add(dependent);
+                }
+                if (remaining[dependent].decrementAndGet() == 0) {
+                    executor.execute(() -> create(executor, latch, dependent));
+                }
+            }
+            latch.countDown();
+        }
+    }
+    private boolean instantiate(String beanName) {
+        try {
+            beanFactory.doGetBean(beanName);
+            logger.debug("提前实例化{}", beanName);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to pre-instantiate singleton bean: {}", beanName, e);
+            return false;
+        }
+    }
+}
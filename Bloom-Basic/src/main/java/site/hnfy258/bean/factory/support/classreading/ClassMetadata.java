@@ -0,0 +1,62 @@
+package site.hnfy258.bean.factory.support.classreading;
+
+import java.util.List;
+
+/**
+ * 从 class 文件字节中解析出的类元数据，获取它不需要加载或初始化该类。
+ * 所有类名均为二进制名，例如 "com.example.Outer$Inner"。
+ */
+public class ClassMetadata {
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final List<String> annotationTypes;
+    private final int accessFlags;
+
+    ClassMetadata(String className, String superClassName, List<String> interfaceNames,
+                  List<String> annotationTypes, int accessFlags) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.annotationTypes = annotationTypes;
+        this.accessFlags = accessFlags;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return 父类名，java.lang.Object 和 module-info 返回 null
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * @return 类上直接声明的运行时可见注解的类型名
+     */
+    public List<String> getAnnotationTypes() {
+        return annotationTypes;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+}
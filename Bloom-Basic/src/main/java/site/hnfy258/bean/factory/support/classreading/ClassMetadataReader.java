@@ -0,0 +1,259 @@
+package site.hnfy258.bean.factory.support.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * class 文件元数据读取器，直接解析常量池和 RuntimeVisibleAnnotations 属性，
+ * 用于在不加载类的情况下判断它是否是候选 Bean。
+ *
+ * 只解析扫描需要的部分：类名、父类、接口以及类上的运行时注解，字段和方法只做跳过。
+ */
+public final class ClassMetadataReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    // 常量池标签
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final byte[] bytes;
+    // 每个常量池项在 bytes 中的起始偏移（指向标签之后的内容）
+    private final int[] constantOffsets;
+    private final String[] utf8Cache;
+    private int position;
+
+    private ClassMetadataReader(byte[] bytes) {
+        this.bytes = bytes;
+        if (readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("不是合法的 class 文件");
+        }
+        int constantCount = readUnsignedShort(8);
+        this.constantOffsets = new int[constantCount];
+        this.utf8Cache = new String[constantCount];
+        this.position = 10;
+        for (int i = 1; i < constantCount; i++) {
+            int tag = bytes[position++] & 0xFF;
+            constantOffsets[i] = position;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    position += 2 + readUnsignedShort(position);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    position += 4;
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    position += 8;
+                    // long 和 double 占用两个常量池槽位
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    position += 2;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    position += 3;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的常量池标签: " + tag);
+            }
+        }
+    }
+
+    /**
+     * 从 class 文件字节中读取类元数据。
+     *
+     * @param bytes 完整的 class 文件内容
+     * @return 类元数据
+     * @throws IllegalArgumentException 如果字节不是合法的 class 文件
+     */
+    public static ClassMetadata read(byte[] bytes) {
+        try {
+            return new ClassMetadataReader(bytes).readMetadata();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("class 文件内容不完整", e);
+        }
+    }
+
+    /**
+     * 从输入流中读取类元数据，流由调用者负责关闭。
+     */
+    public static ClassMetadata read(InputStream inputStream) throws IOException {
+        return read(inputStream.readAllBytes());
+    }
+
+    private ClassMetadata readMetadata() {
+        int accessFlags = readUnsignedShort(position);
+        String className = readClassName(readUnsignedShort(position + 2));
+        int superIndex = readUnsignedShort(position + 4);
+        String superClassName = superIndex == 0 ? null : readClassName(superIndex);
+        int interfaceCount = readUnsignedShort(position + 6);
+        position += 8;
+
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(readClassName(readUnsignedShort(position)));
+            position += 2;
+        }
+
+        // 跳过字段和方法，它们的结构相同
+        skipMembers();
+        skipMembers();
+
+        List<String> annotationTypes = Collections.emptyList();
+        int attributeCount = readUnsignedShort(position);
+        position += 2;
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = readUtf8(readUnsignedShort(position));
+            int length = readInt(position + 2);
+            position += 6;
+            int attributeEnd = position + length;
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                annotationTypes = readAnnotationTypes();
+            }
+            position = attributeEnd;
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, annotationTypes, accessFlags);
+    }
+
+    private void skipMembers() {
+        int memberCount = readUnsignedShort(position);
+        position += 2;
+        for (int i = 0; i < memberCount; i++) {
+            // access_flags, name_index, descriptor_index
+            position += 6;
+            int attributeCount = readUnsignedShort(position);
+            position += 2;
+            for (int j = 0; j < attributeCount; j++) {
+                position += 6 + readInt(position + 2);
+            }
+        }
+    }
+
+    private List<String> readAnnotationTypes() {
+        int annotationCount = readUnsignedShort(position);
+        position += 2;
+        List<String> annotationTypes = new ArrayList<>(annotationCount);
+        for (int i = 0; i < annotationCount; i++) {
+            annotationTypes.add(readAnnotation());
+        }
+        return annotationTypes;
+    }
+
+    /**
+     * 读取一个注解结构，返回注解类型名，并把 position 移到注解末尾。
+     */
+    private String readAnnotation() {
+        String descriptor = readUtf8(readUnsignedShort(position));
+        int pairCount = readUnsignedShort(position + 2);
+        position += 4;
+        for (int i = 0; i < pairCount; i++) {
+            // element_name_index
+            position += 2;
+            skipElementValue();
+        }
+        return descriptorToClassName(descriptor);
+    }
+
+    private void skipElementValue() {
+        char tag = (char) (bytes[position++] & 0xFF);
+        switch (tag) {
+            case 'B': case 'C': case 'D': case 'F': case 'I':
+            case 'J': case 'S': case 'Z': case 's': case 'c':
+                position += 2;
+                break;
+            case 'e':
+                position += 4;
+                break;
+            case '@':
+                readAnnotation();
+                break;
+            case '[':
+                int valueCount = readUnsignedShort(position);
+                position += 2;
+                for (int i = 0; i < valueCount; i++) {
+                    skipElementValue();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("未知的注解元素类型: " + tag);
+        }
+    }
+
+    private String readClassName(int classIndex) {
+        return readUtf8(readUnsignedShort(constantOffsets[classIndex])).replace('/', '.');
+    }
+
+    private String readUtf8(int index) {
+        String value = utf8Cache[index];
+        if (value == null) {
+            int offset = constantOffsets[index];
+            value = decodeModifiedUtf8(offset + 2, readUnsignedShort(offset));
+            utf8Cache[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * 解码 class 文件使用的 modified UTF-8。
+     */
+    private String decodeModifiedUtf8(int offset, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int end = offset + length;
+        while (offset < end) {
+            int b = bytes[offset++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[offset++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[offset++] & 0x3F) << 6) | (bytes[offset++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static String descriptorToClassName(String descriptor) {
+        // 注解描述符形如 Lcom/example/Foo;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
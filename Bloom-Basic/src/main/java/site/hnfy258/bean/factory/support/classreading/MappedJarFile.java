@@ -0,0 +1,421 @@
+package site.hnfy258.bean.factory.support.classreading;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 基于内存映射的只读 jar 读取器，用于扫描时按包前缀查找类文件。
+ *
+ * 整个 jar 通过 FileChannel.map 映射到内存，但只有被访问到的页才会真正读入：
+ * 打开时只解析中央目录，按名称建立哈希表，并把条目按名称字节排序；按前缀查找时二分查找前缀的上下界，
+ * 不为不相关的条目创建 String 或 JarEntry；读取条目时只解压该条目本身。jar 中以 STORED 方式存放的嵌套 jar 直接在映射区上切片打开，不会复制。
+ *
+ * 条目超过 65535 个时 jar 使用 ZIP64 的中央目录结尾记录，这种情况可以识别；
+ * 但不支持超过 2GB 的文件以及条目本身使用 ZIP64 大小的情况，遇到时抛出 ZipException，由调用者回退到 JarFile。
+ * 偏移或长度超出文件范围的损坏 jar 同样抛出 ZipException。
+ * 实例可以被多个线程并发读取。
+ *
+ * JDK 没有提供主动解除映射的公开接口，close 只关闭文件句柄并丢弃对映射区的引用，
+ * 映射在 MappedByteBuffer 被垃圾回收时才解除；由 openNested 打开的嵌套 jar 持有映射区的切片，也会让映射保留到它不可达为止。
+ */
+public class MappedJarFile implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private final FileChannel channel;
+    // 整个归档的内容，嵌套 jar 时是外层映射区的切片，关闭后为 null
+    private ByteBuffer archive;
+    // 中央目录的切片，关闭后为 null
+    private ByteBuffer centralDirectory;
+    // 每个条目在中央目录中的偏移，保持中央目录中的顺序
+    private final int[] entries;
+    // 按名称字节（无符号）升序排列的条目偏移，用于前缀查找
+    private final int[] sortedEntries;
+    // 按名称哈希分桶的链表，buckets 存放链表头的下标，nextEntries 存放同一桶中下一个条目的下标，-1 表示结束
+    private final int[] buckets;
+    private final int[] nextEntries;
+
+    private MappedJarFile(FileChannel channel, ByteBuffer archive) throws IOException {
+        this.channel = channel;
+        this.archive = archive.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int endOffset = findEndOfCentralDirectory(this.archive);
+        long entryCount = this.archive.getShort(endOffset + 10) & 0xFFFF;
+        long directorySize = this.archive.getInt(endOffset + 12) & 0xFFFFFFFFL;
+        long directoryOffset = this.archive.getInt(endOffset + 16) & 0xFFFFFFFFL;
+        int zip64EndOffset = findZip64EndOfCentralDirectory(this.archive, endOffset);
+        if (zip64EndOffset >= 0) {
+            // 条目数等字段放不下时，以 ZIP64 记录中的值为准
+            entryCount = this.archive.getLong(zip64EndOffset + 32);
+            directorySize = this.archive.getLong(zip64EndOffset + 40);
+            directoryOffset = this.archive.getLong(zip64EndOffset + 48);
+            endOffset = zip64EndOffset;
+        } else if (entryCount == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+            throw new ZipException("ZIP64 记录缺失");
+        }
+        if (directoryOffset < 0 || directorySize < 0 || directoryOffset + directorySize > endOffset
+                || entryCount < 0 || entryCount > directorySize / CENTRAL_HEADER_SIZE) {
+            throw new ZipException("中央目录位置无效");
+        }
+        this.centralDirectory = slice(this.archive, (int) directoryOffset, (int) directorySize);
+
+        int count = (int) entryCount;
+        this.entries = new int[count];
+        this.buckets = new int[Math.max(1, Integer.highestOneBit(Math.max(1, count)) << 1)];
+        this.nextEntries = new int[count];
+        Arrays.fill(buckets, -1);
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            if (offset + CENTRAL_HEADER_SIZE > directorySize
+                    || centralDirectory.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("中央目录条目损坏");
+            }
+            // 名称、扩展字段和注释都必须在中央目录内
+            int next = offset + CENTRAL_HEADER_SIZE + nameLength(offset)
+                    + (centralDirectory.getShort(offset + 30) & 0xFFFF)
+                    + (centralDirectory.getShort(offset + 32) & 0xFFFF);
+            if (next > directorySize) {
+                throw new ZipException("中央目录条目损坏");
+            }
+            entries[i] = offset;
+            int bucket = hashName(offset) & (buckets.length - 1);
+            nextEntries[i] = buckets[bucket];
+            buckets[bucket] = i;
+            offset = next;
+        }
+        this.sortedEntries = Arrays.stream(entries).boxed()
+                .sorted(this::compareNames)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * 打开一个 jar 文件。
+     *
+     * @throws ZipException 如果文件不是可识别的 jar，或者使用了不支持的格式
+     */
+    public static MappedJarFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("jar 文件超过 2GB: " + path);
+            }
+            return new MappedJarFile(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开嵌套在当前 jar 中的 jar（例如 fat jar 中的 BOOT-INF/lib/xxx.jar）。
+     * STORED 条目直接在映射区上切片，DEFLATED 条目解压到堆内存。
+     * 返回的实例与当前实例共享文件句柄，只需要关闭外层 jar。
+     *
+     * @param entryName 嵌套 jar 的条目名称
+     */
+    public MappedJarFile openNested(String entryName) throws IOException {
+        ensureOpen();
+        int entry = findEntry(entryName);
+        if (entry < 0) {
+            throw new ZipException("找不到嵌套 jar: " + entryName);
+        }
+        ByteBuffer nested = getMethod(entry) == METHOD_STORED
+                ? entryData(entry)
+                : ByteBuffer.wrap(inflate(entry));
+        return new MappedJarFile(null, nested);
+    }
+
+    /**
+     * 按名称前缀和后缀查找条目，例如前缀 "com/example/"、后缀 ".class"。
+     * 带有同一前缀的条目在 sortedEntries 中连续，二分查找出这一段后只检查段内条目的后缀。
+     *
+     * @return 按名称的 UTF-8 字节排序的条目名称
+     */
+    public List<String> getEntryNames(String prefix, String suffix) {
+        ensureOpen();
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        int from = searchPrefix(prefixBytes, false);
+        int to = searchPrefix(prefixBytes, true);
+        List<String> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int entry = sortedEntries[i];
+            if (endsWith(entry, suffixBytes)) {
+                result.add(readName(entry));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 在 sortedEntries 中二分查找带有该前缀的条目段的边界。
+     *
+     * @param upper false 时返回第一个不小于前缀的位置，true 时返回之后第一个不以该前缀开头的位置
+     */
+    private int searchPrefix(byte[] prefix, boolean upper) {
+        int low = 0;
+        int high = sortedEntries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparePrefix(sortedEntries[middle], prefix);
+            if (comparison < 0 || (upper && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 读取条目的内容，只解压该条目本身。
+     *
+     * @throws ZipException 如果条目不存在或压缩方式不受支持
+     */
+    public byte[] readEntry(String entryName) throws IOException {
+        ensureOpen();
+        int entry = findEntry(entryName);
+        if (entry < 0) {
+            throw new ZipException("找不到条目: " + entryName);
+        }
+        if (getMethod(entry) == METHOD_STORED) {
+            ByteBuffer data = entryData(entry);
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            return bytes;
+        }
+        return inflate(entry);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * 关闭文件句柄并丢弃对映射区的引用，映射本身在垃圾回收时解除。
+     */
+    @Override
+    public void close() throws IOException {
+        archive = null;
+        centralDirectory = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (centralDirectory == null) {
+            throw new IllegalStateException("jar 已关闭");
+        }
+    }
+
+    private int findEntry(String entryName) {
+        byte[] nameBytes = entryName.getBytes(StandardCharsets.UTF_8);
+        int hash = 1;
+        for (byte b : nameBytes) {
+            hash = 31 * hash + b;
+        }
+        for (int i = buckets[hash & (buckets.length - 1)]; i >= 0; i = nextEntries[i]) {
+            int entry = entries[i];
+            if (nameLength(entry) == nameBytes.length && startsWith(entry, nameBytes)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] inflate(int entry) throws IOException {
+        if (getMethod(entry) != METHOD_DEFLATED) {
+            throw new ZipException("不支持的压缩方式: " + getMethod(entry));
+        }
+        long uncompressedSize = centralDirectory.getInt(entry + 24) & 0xFFFFFFFFL;
+        if (uncompressedSize >= Integer.MAX_VALUE - 8) {
+            throw new ZipException("条目过大: " + readName(entry));
+        }
+        byte[] result = new byte[(int) uncompressedSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(entryData(entry));
+            int count = 0;
+            while (count < result.length && !inflater.finished()) {
+                int inflated = inflater.inflate(result, count, result.length - count);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("条目数据不完整: " + readName(entry));
+                }
+                count += inflated;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new ZipException("条目解压失败: " + readName(entry) + ", " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 根据本地文件头定位条目的（压缩后）数据。
+     */
+    private ByteBuffer entryData(int entry) throws IOException {
+        int localOffset = centralDirectory.getInt(entry + 42);
+        int compressedSize = centralDirectory.getInt(entry + 20);
+        if (localOffset < 0 || compressedSize < 0) {
+            // 0xFFFFFFFF 表示真实值在 ZIP64 扩展字段中，小于 2GB 的文件不应出现
+            throw new ZipException("不支持 ZIP64 条目: " + readName(entry));
+        }
+        int limit = archive.limit();
+        if (localOffset > limit - LOCAL_HEADER_SIZE || archive.getInt(localOffset) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("本地文件头损坏: " + readName(entry));
+        }
+        long dataOffset = (long) localOffset + LOCAL_HEADER_SIZE
+                + (archive.getShort(localOffset + 26) & 0xFFFF)
+                + (archive.getShort(localOffset + 28) & 0xFFFF);
+        if (dataOffset + compressedSize > limit) {
+            throw new ZipException("条目数据超出文件范围: " + readName(entry));
+        }
+        return slice(archive, (int) dataOffset, compressedSize);
+    }
+
+    private int getMethod(int entry) {
+        return centralDirectory.getShort(entry + 10) & 0xFFFF;
+    }
+
+    private int nameLength(int entry) {
+        return centralDirectory.getShort(entry + 28) & 0xFFFF;
+    }
+
+    private String readName(int entry) {
+        byte[] bytes = new byte[nameLength(entry)];
+        centralDirectory.get(entry + CENTRAL_HEADER_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean startsWith(int entry, byte[] prefix) {
+        if (nameLength(entry) < prefix.length) {
+            return false;
+        }
+        int base = entry + CENTRAL_HEADER_SIZE;
+        for (int i = 0; i < prefix.length; i++) {
+            if (centralDirectory.get(base + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean endsWith(int entry, byte[] suffix) {
+        int length = nameLength(entry);
+        if (length < suffix.length) {
+            return false;
+        }
+        int base = entry + CENTRAL_HEADER_SIZE + length - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (centralDirectory.get(base + i) != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按无符号字节比较两个条目的名称，对 UTF-8 而言与按码点比较一致。
+     */
+    private int compareNames(int left, int right) {
+        int leftBase = left + CENTRAL_HEADER_SIZE;
+        int rightBase = right + CENTRAL_HEADER_SIZE;
+        int leftLength = nameLength(left);
+        int rightLength = nameLength(right);
+        for (int i = 0; i < Math.min(leftLength, rightLength); i++) {
+            int comparison = Byte.compareUnsigned(centralDirectory.get(leftBase + i), centralDirectory.get(rightBase + i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(leftLength, rightLength);
+    }
+
+    /**
+     * 比较条目名称与前缀：以该前缀开头时返回 0，否则返回名称与前缀的字节序比较结果。
+     */
+    private int comparePrefix(int entry, byte[] prefix) {
+        int base = entry + CENTRAL_HEADER_SIZE;
+        int length = nameLength(entry);
+        for (int i = 0; i < Math.min(length, prefix.length); i++) {
+            int comparison = Byte.compareUnsigned(centralDirectory.get(base + i), prefix[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length < prefix.length ? -1 : 0;
+    }
+
+    /**
+     * 与 findEntry 中对名称字节的哈希方式一致。
+     */
+    private int hashName(int entry) {
+        int base = entry + CENTRAL_HEADER_SIZE;
+        int length = nameLength(entry);
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + centralDirectory.get(base + i);
+        }
+        return hash;
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer archive) throws ZipException {
+        int limit = archive.limit();
+        if (limit < END_HEADER_SIZE) {
+            throw new ZipException("文件过小，不是有效的 jar 文件");
+        }
+        int stop = Math.max(0, limit - END_HEADER_SIZE - MAX_COMMENT_LENGTH);
+        for (int offset = limit - END_HEADER_SIZE; offset >= stop; offset--) {
+            if (archive.getInt(offset) == END_SIGNATURE) {
+                return offset;
+            }
+        }
+        throw new ZipException("找不到中央目录结尾，不是有效的 jar 文件");
+    }
+
+    /**
+     * ZIP64 定位记录紧挨在中央目录结尾之前，存在时返回 ZIP64 中央目录结尾记录的位置，否则返回 -1。
+     */
+    private static int findZip64EndOfCentralDirectory(ByteBuffer archive, int endOffset) throws ZipException {
+        int locatorOffset = endOffset - ZIP64_LOCATOR_SIZE;
+        if (locatorOffset < 0 || archive.getInt(locatorOffset) != ZIP64_LOCATOR_SIGNATURE) {
+            return -1;
+        }
+        long zip64EndOffset = archive.getLong(locatorOffset + 8);
+        if (zip64EndOffset < 0 || zip64EndOffset > locatorOffset - 56
+                || archive.getInt((int) zip64EndOffset) != ZIP64_END_SIGNATURE) {
+            throw new ZipException("ZIP64 中央目录结尾记录损坏");
+        }
+        return (int) zip64EndOffset;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
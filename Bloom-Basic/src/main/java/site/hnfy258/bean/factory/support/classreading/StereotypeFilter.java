@@ -0,0 +1,85 @@
+package site.hnfy258.bean.factory.support.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于类元数据判断一个类是否带有 Bean 注解，支持元注解（例如用 @Component 标注的自定义注解）。
+ * 元注解同样通过读取注解类型的 class 字节解析，判定结果按注解类型缓存。
+ *
+ * 元注解可能互相标注形成环，遍历中再次遇到的注解按 false 处理，此时环上其他注解的否定结果只是部分结果。
+ * 因此肯定结果总是缓存，否定结果只在从该注解出发的遍历完整结束时（即顶层调用）缓存。
+ */
+public class StereotypeFilter {
+    private final ClassLoader classLoader;
+    private final Set<String> stereotypes;
+    // 注解类型名 -> 是否直接或间接带有 Bean 注解
+    private final Map<String, Boolean> annotationCache = new ConcurrentHashMap<>();
+
+    /**
+     * @param classLoader 用于读取注解类型 class 字节的类加载器
+     * @param stereotypes Bean 注解的类型名
+     */
+    public StereotypeFilter(ClassLoader classLoader, Set<String> stereotypes) {
+        this.classLoader = classLoader;
+        this.stereotypes = stereotypes;
+    }
+
+    /**
+     * 判断类上是否直接或通过元注解带有 Bean 注解。
+     */
+    public boolean matches(ClassMetadata metadata) {
+        if (metadata.isAnnotation()) {
+            return false;
+        }
+        for (String annotationType : metadata.getAnnotationTypes()) {
+            if (isStereotype(annotationType, new HashSet<>())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isStereotype(String annotationType, Set<String> visited) {
+        if (stereotypes.contains(annotationType)) {
+            return true;
+        }
+        if (annotationType.startsWith("java.lang.annotation.") || !visited.add(annotationType)) {
+            return false;
+        }
+        Boolean cached = annotationCache.get(annotationType);
+        if (cached != null) {
+            return cached;
+        }
+        // visited 只有自己时是顶层调用，遍历结果完整
+        boolean topLevel = visited.size() == 1;
+        boolean result = false;
+        ClassMetadata annotationMetadata = readAnnotationMetadata(annotationType);
+        if (annotationMetadata != null) {
+            for (String metaAnnotationType : annotationMetadata.getAnnotationTypes()) {
+                if (isStereotype(metaAnnotationType, visited)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        if (result || topLevel) {
+            annotationCache.put(annotationType, result);
+        }
+        return result;
+    }
+
+    private ClassMetadata readAnnotationMetadata(String annotationType) {
+        String resourceName = annotationType.replace('.', '/') + ".class";
+        try (InputStream inputStream = classLoader.getResourceAsStream(resourceName)) {
+            return inputStream == null ? null : ClassMetadataReader.read(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            // 无法读取的注解不可能是 Bean 注解
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package site.hnfy258.bean.factory.support.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成的组件索引，记录了每个候选类以及它所带的 Bean 注解。
+ * 由 CandidateComponentsIndexLoader 从 META-INF/bloom.components 合并加载。
+ */
+public class CandidateComponentsIndex {
+    // 类名 -> 注解全名，按类名排序，保证扫描结果的顺序稳定
+    private final TreeMap<String, Set<String>> index = new TreeMap<>();
+
+    void add(String className, String stereotype) {
+        index.computeIfAbsent(className, k -> new TreeSet<>()).add(stereotype);
+    }
+
+    /**
+     * 获取指定包及其子包下的所有候选类名。
+     *
+     * @param basePackage 要扫描的包名，例如 "com.example"
+     * @return 按类名排序的候选类名列表
+     */
+    public List<String> getCandidateTypes(String basePackage) {
+        String prefix = basePackage.isEmpty() ? "" : basePackage + ".";
+        List<String> result = new ArrayList<>();
+        // 已排序，因此同一个包前缀的类名是连续的
+        for (Map.Entry<String, Set<String>> entry : index.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * 获取某个候选类在索引中记录的注解全名。
+     */
+    public Set<String> getStereotypes(String className) {
+        return index.getOrDefault(className, Set.of());
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,70 @@
+package site.hnfy258.bean.factory.support.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * 组件索引加载器，负责从类路径上读取所有 META-INF/bloom.components 文件并合并为一个索引。
+ * 设置系统属性 bloom.index.ignore=true 可以强制忽略索引，回退到类路径扫描。
+ *
+ * 索引是全有或全无的：类路径上只要存在任意一份索引，扫描器对所有基础包都只使用索引，
+ * 没有经过 Bloom-Processor 编译的 jar 中没有索引文件，其中的组件不会被发现。
+ */
+public final class CandidateComponentsIndexLoader {
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/bloom.components";
+
+    public static final String IGNORE_INDEX_PROPERTY = "bloom.index.ignore";
+
+    /**
+     * 加载组件索引。
+     *
+     * @param classLoader 用于查找索引文件的类加载器
+     * @return 合并后的索引；如果类路径上没有索引或索引被禁用，返回 null
+     */
+    public static CandidateComponentsIndex loadIndex(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        try {
+            Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            CandidateComponentsIndex index = new CandidateComponentsIndex();
+            while (urls.hasMoreElements()) {
+                readIndex(urls.nextElement(), index);
+            }
+            return index;
+        } catch (IOException e) {
+            throw new IllegalStateException("无法加载组件索引: " + COMPONENTS_RESOURCE_LOCATION, e);
+        }
+    }
+
+    private static void readIndex(URL url, CandidateComponentsIndex index) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int separator = line.indexOf('=');
+                if (line.isEmpty() || line.startsWith("#") || separator < 0) {
+                    continue;
+                }
+                String className = line.substring(0, separator).trim();
+                for (String stereotype : line.substring(separator + 1).split(",")) {
+                    index.add(className, stereotype.trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private CandidateComponentsIndexLoader() {
+    }
+}
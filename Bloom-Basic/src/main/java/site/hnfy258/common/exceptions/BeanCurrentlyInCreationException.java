@@ -0,0 +1,28 @@
+package site.hnfy258.common.exceptions;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 请求的单例正在当前线程中创建，又没有提前暴露的引用时抛出。可能是构造函数之间的循环依赖，
+ * 也可能是依赖图之外的循环（例如在初始化方法或后置处理器中获取 Bean），这类 Bean 创建时不会提前暴露。
+ * 消息中按获取顺序列出循环上的 Bean。
+ */
+public class BeanCurrentlyInCreationException extends BeansException {
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final String beanName;
+    // List 接口不保证可序列化，反序列化后为 null，循环仍保留在消息中
+    @Getter
+    private final transient List<String> cycle;
+
+    public BeanCurrentlyInCreationException(String beanName, List<String> cycle) {
+        super("Requested bean is currently in creation: " + beanName
+                + " (unresolvable circular reference without an early reference: "
+                + String.join(" -> ", cycle) + ")");
+        this.beanName = beanName;
+        this.cycle = List.copyOf(cycle);
+    }
+}
@@ -0,0 +1,26 @@
+package site.hnfy258.common.exceptions;
+
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+
+/**
+ * 无法为注入点解析出依赖时抛出，消息中包含 Bean 名称、注入点和失败原因，不再嵌套底层异常。
+ */
+public class UnsatisfiedDependencyException extends BeansException {
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final String beanName;
+    // Field 不可序列化，反序列化后为 null，注入点的信息仍保留在消息中
+    @Getter
+    private final transient Field injectionPoint;
+
+    public UnsatisfiedDependencyException(String beanName, Field injectionPoint, String reason) {
+        super("Unsatisfied dependency on field '" + injectionPoint.getName() + "' (" +
+                injectionPoint.getType().getName() + ") declared in " + injectionPoint.getDeclaringClass().getName() +
+                " while creating bean '" + beanName + "': " + reason);
+        this.beanName = beanName;
+        this.injectionPoint = injectionPoint;
+    }
+}
@@ -0,0 +1,37 @@
+package site.hnfy258.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 执行一个通知。耗时包含它调用 proceed() 之后的拦截器和目标方法。
+ * 每次代理调用都会产生，默认关闭，需要在 JFR 设置中开启 site.hnfy258.AdviceInvocation。
+ */
+@Name("site.hnfy258.AdviceInvocation")
+@Label("Advice Invocation")
+@Category({"BloomBoot", "AOP"})
+@Description("执行拦截器链中的一个通知")
+@Enabled(false)
+@StackTrace(false)
+public class AdviceInvocationEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Advice")
+    public Class<?> adviceClass;
+
+    @Label("Target Class")
+    public Class<?> targetClass;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Position")
+    @Description("通知在拦截器链中的位置，从 0 开始")
+    public int position;
+}
@@ -0,0 +1,32 @@
+package site.hnfy258.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 创建一个 Bean，从实例化到后置处理结束。依赖在注入时被创建的 Bean 会记录触发它的 Bean，
+ * 其耗时包含在父 Bean 的耗时中。
+ */
+@Name("site.hnfy258.BeanCreation")
+@Label("Bean Creation")
+@Category({"BloomBoot", "Container"})
+@Description("创建 Bean 实例、注入依赖、执行初始化方法和后置处理器")
+@StackTrace(false)
+public class BeanCreationEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Bean Class")
+    public Class<?> beanClass;
+
+    @Label("Scope")
+    public String scope;
+
+    @Label("Parent Bean Name")
+    @Description("注入依赖时触发创建这个 Bean 的 Bean，直接获取时为空")
+    public String parentBeanName;
+}
@@ -0,0 +1,31 @@
+package site.hnfy258.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 注册一个 Bean 定义。
+ */
+@Name("site.hnfy258.BeanDefinitionRegistration")
+@Label("Bean Definition Registration")
+@Category({"BloomBoot", "Container"})
+@Description("注册 Bean 定义，包括覆盖同名的定义")
+@StackTrace(false)
+public class BeanDefinitionRegistrationEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Bean Class")
+    public Class<?> beanClass;
+
+    @Label("Scope")
+    public String scope;
+
+    @Label("Overriding")
+    @Description("是否覆盖了已有的同名定义")
+    public boolean overriding;
+}
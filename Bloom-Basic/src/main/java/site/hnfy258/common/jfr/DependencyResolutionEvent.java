@@ -0,0 +1,39 @@
+package site.hnfy258.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 为一个注入点确定依赖的 Bean 名称，不包括创建依赖 Bean 的时间。
+ */
+@Name("site.hnfy258.DependencyResolution")
+@Label("Dependency Resolution")
+@Category({"BloomBoot", "Container"})
+@Description("按名称或类型为 @Autowired 字段确定依赖的 Bean")
+@StackTrace(false)
+public class DependencyResolutionEvent extends Event {
+    @Label("Bean Name")
+    @Description("正在注入的 Bean")
+    public String beanName;
+
+    @Label("Declaring Class")
+    @Description("声明注入字段的类，可能是 Bean 类的父类")
+    public Class<?> declaringClass;
+
+    @Label("Injection Point")
+    public String injectionPoint;
+
+    @Label("Dependency Type")
+    public Class<?> dependencyType;
+
+    @Label("Dependency Bean Name")
+    public String dependencyBeanName;
+
+    @Label("Cached")
+    @Description("是否直接使用了之前的解析结果")
+    public boolean cached;
+}
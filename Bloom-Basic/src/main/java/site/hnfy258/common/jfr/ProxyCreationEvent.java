@@ -0,0 +1,28 @@
+package site.hnfy258.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 为一个 Bean 生成代理类并创建代理实例。
+ */
+@Name("site.hnfy258.ProxyCreation")
+@Label("Proxy Creation")
+@Category({"BloomBoot", "AOP"})
+@Description("为匹配切点的 Bean 生成 CGLIB 或 JDK 代理")
+public class ProxyCreationEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Bean Class")
+    public Class<?> beanClass;
+
+    @Label("Proxy Class")
+    public Class<?> proxyClass;
+
+    @Label("Advisor Count")
+    public int advisorCount;
+}
@@ -0,0 +1,15 @@
+package site.hnfy258.common.logging;
+
+/**
+ * 日志输出目标。append 可能被多个线程同时调用，实现需要自己保证线程安全。
+ */
+public interface Appender {
+
+    void append(LogEvent event);
+
+    /**
+     * 输出所有尚未写出的日志并释放资源。
+     */
+    default void close() {
+    }
+}
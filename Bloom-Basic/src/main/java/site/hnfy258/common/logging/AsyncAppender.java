@@ -0,0 +1,109 @@
+package site.hnfy258.common.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步输出：记录日志的线程只把 LogEvent 放进固定容量的环形缓冲区，由一个后台线程批量交给实际的输出目标，
+ * 消息格式化和控制台 IO 都不再占用业务线程。
+ *
+ * 缓冲区满时，WARN 及以上的日志等待空位，其余级别直接丢弃并计数，丢弃数量会在后台线程中补充输出一条警告。
+ */
+public class AsyncAppender implements Appender {
+    private static final int BATCH_SIZE = 256;
+
+    private final Appender delegate;
+    private final BlockingQueue<LogEvent> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean closed = false;
+
+    public AsyncAppender(Appender delegate, int capacity) {
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::drainLoop, "bloom-async-logger");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        if (closed) {
+            delegate.append(event);
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (event.getLevel().compareTo(LogLevel.WARN) < 0) {
+            dropped.increment();
+            return;
+        }
+        try {
+            buffer.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delegate.append(event);
+        }
+    }
+
+    /**
+     * 获取因缓冲区已满而丢弃的日志数量。
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(BATCH_SIZE);
+        long reportedDrops = 0;
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                LogEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                for (LogEvent event : batch) {
+                    delegate.append(event);
+                }
+                batch.clear();
+                long drops = dropped.sum();
+                if (drops > reportedDrops) {
+                    delegate.append(new LogEvent(LogLevel.WARN, AsyncAppender.class.getName(),
+                            "日志缓冲区已满，丢弃了 {} 条日志", new Object[]{drops - reportedDrops}, null));
+                    reportedDrops = drops;
+                }
+            } catch (InterruptedException e) {
+                // 只有关闭时才会被中断，剩余的日志在循环中继续输出
+            } catch (RuntimeException e) {
+                // 输出目标出错时不能让后台线程退出，丢弃这一批继续处理
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 停止接收新的异步日志，等待缓冲区中的日志全部输出后关闭实际的输出目标。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 关闭前一刻放进缓冲区、后台线程来不及处理的日志
+        LogEvent event;
+        while ((event = buffer.poll()) != null) {
+            delegate.append(event);
+        }
+        delegate.close();
+    }
+}
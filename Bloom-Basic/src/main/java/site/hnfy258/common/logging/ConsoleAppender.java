@@ -0,0 +1,40 @@
+package site.hnfy258.common.logging;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 同步输出到控制台，WARN 及以上输出到标准错误，其余输出到标准输出。
+ * 格式为：时间 级别 [线程] 类名 - 消息
+ */
+public class ConsoleAppender implements Appender {
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    @Override
+    public void append(LogEvent event) {
+        PrintStream out = event.getLevel().compareTo(LogLevel.WARN) >= 0 ? System.err : System.out;
+        String line = TIME_FORMAT.format(Instant.ofEpochMilli(event.getTimestamp())) + ' ' +
+                event.getLevel() + " [" + event.getThreadName() + "] " +
+                simpleName(event.getLoggerName()) + " - " + event.getFormattedMessage();
+        // 整行和堆栈在同一把锁下输出，避免多个线程的日志交错
+        synchronized (out) {
+            out.println(line);
+            if (event.getThrowable() != null) {
+                event.getThrowable().printStackTrace(out);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        System.out.flush();
+        System.err.flush();
+    }
+
+    private static String simpleName(String loggerName) {
+        return loggerName.substring(loggerName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,59 @@
+package site.hnfy258.common.logging;
+
+import lombok.Getter;
+
+/**
+ * 一条日志。消息模板中的 {} 占位符直到 getFormattedMessage 时才被参数替换，
+ * 异步输出时格式化发生在后台线程上，参数对象应当在记录之后不再修改。
+ */
+public class LogEvent {
+    @Getter
+    private final long timestamp;
+    @Getter
+    private final LogLevel level;
+    @Getter
+    private final String loggerName;
+    @Getter
+    private final String threadName;
+    @Getter
+    private final String pattern;
+    private final Object[] arguments;
+    @Getter
+    private final Throwable throwable;
+    private String formattedMessage;
+
+    LogEvent(LogLevel level, String loggerName, String pattern, Object[] arguments, Throwable throwable) {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.pattern = pattern;
+        this.arguments = arguments;
+        this.throwable = throwable;
+    }
+
+    /**
+     * 获取替换占位符之后的消息，多余的参数被忽略，缺少的参数保留 {}。
+     */
+    public String getFormattedMessage() {
+        if (formattedMessage == null) {
+            formattedMessage = format(pattern, arguments);
+        }
+        return formattedMessage;
+    }
+
+    static String format(String pattern, Object[] arguments) {
+        if (pattern == null || arguments == null || arguments.length == 0) {
+            return pattern;
+        }
+        StringBuilder message = new StringBuilder(pattern.length() + 16 * arguments.length);
+        int argumentIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argumentIndex < arguments.length && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+            message.append(pattern, start, placeholder).append(arguments[argumentIndex++]);
+            start = placeholder + 2;
+        }
+        return message.append(pattern, start, pattern.length()).toString();
+    }
+}
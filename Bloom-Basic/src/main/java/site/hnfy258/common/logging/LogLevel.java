@@ -0,0 +1,20 @@
+package site.hnfy258.common.logging;
+
+/**
+ * 日志级别，按严重程度从低到高排列。OFF 表示关闭所有日志。
+ */
+public enum LogLevel {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * 判断当前级别的日志在阈值为 threshold 时是否输出。
+     */
+    public boolean isEnabledFor(LogLevel threshold) {
+        return this != OFF && compareTo(threshold) >= 0;
+    }
+}
@@ -0,0 +1,26 @@
+package site.hnfy258.common.logging;
+
+/**
+ * 一个容器的日志级别。
+ *
+ * 每个 Bean 工厂持有一个 LogLevelHolder，工厂、扫描器、自动代理创建器和应用上下文的 Logger 都绑定到它，
+ * 因此同一个 JVM 中的多个上下文可以使用不同的级别。没有设置级别时使用 LoggerFactory 的全局级别。
+ */
+public final class LogLevelHolder {
+    private volatile LogLevel level;
+
+    /**
+     * 获取生效的级别，没有设置时返回全局级别。
+     */
+    public LogLevel getLevel() {
+        LogLevel current = level;
+        return current != null ? current : LoggerFactory.getLevel();
+    }
+
+    /**
+     * 设置级别，为 null 时恢复使用全局级别。
+     */
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+}
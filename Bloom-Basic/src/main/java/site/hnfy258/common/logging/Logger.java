@@ -0,0 +1,183 @@
+package site.hnfy258.common.logging;
+
+/**
+ * 容器内部使用的日志记录器，通过 LoggerFactory 获取。
+ * 绑定了 LogLevelHolder 的 Logger 使用所属容器的级别，否则使用全局级别。
+ *
+ * 消息使用 {} 占位符，级别未开启时直接返回，不拼接字符串也不创建 LogEvent。
+ * 0 到 3 个参数的重载不会分配可变参数数组，热路径上应优先使用。
+ * 最后一个参数是 Throwable 且没有对应的占位符时，作为异常一起输出堆栈。
+ */
+public final class Logger {
+    private final String name;
+    // 所属容器的日志级别，为 null 时使用全局级别
+    private final LogLevelHolder levelHolder;
+
+    Logger(String name) {
+        this(name, null);
+    }
+
+    Logger(String name, LogLevelHolder levelHolder) {
+        this.name = name;
+        this.levelHolder = levelHolder;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.isEnabledFor(levelHolder != null ? levelHolder.getLevel() : LoggerFactory.getLevel());
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(LogLevel.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return isEnabled(LogLevel.INFO);
+    }
+
+    public void trace(String message) {
+        if (isEnabled(LogLevel.TRACE)) {
+            log(LogLevel.TRACE, message, null);
+        }
+    }
+
+    public void trace(String pattern, Object arg) {
+        if (isEnabled(LogLevel.TRACE)) {
+            log(LogLevel.TRACE, pattern, new Object[]{arg});
+        }
+    }
+
+    public void trace(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.TRACE)) {
+            log(LogLevel.TRACE, pattern, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void trace(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogLevel.TRACE)) {
+            log(LogLevel.TRACE, pattern, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public void debug(String message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, message, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, pattern, new Object[]{arg});
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, pattern, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, pattern, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, message, null);
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, pattern, new Object[]{arg});
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, pattern, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, pattern, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public void warn(String message) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, message, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, pattern, new Object[]{arg});
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, pattern, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, pattern, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public void error(String message) {
+        if (isEnabled(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, message, null);
+        }
+    }
+
+    public void error(String pattern, Object arg) {
+        if (isEnabled(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, pattern, new Object[]{arg});
+        }
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, pattern, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void error(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, pattern, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    private void log(LogLevel level, String pattern, Object[] arguments) {
+        Throwable throwable = null;
+        if (arguments != null) {
+            Object last = arguments[arguments.length - 1];
+            if (last instanceof Throwable && countPlaceholders(pattern) < arguments.length) {
+                throwable = (Throwable) last;
+            }
+        }
+        LoggerFactory.getAppender().append(new LogEvent(level, name, pattern, arguments, throwable));
+    }
+
+    private static int countPlaceholders(String pattern) {
+        int count = 0;
+        for (int i = pattern.indexOf("{}"); i >= 0; i = pattern.indexOf("{}", i + 2)) {
+            count++;
+        }
+        return count;
+    }
+}
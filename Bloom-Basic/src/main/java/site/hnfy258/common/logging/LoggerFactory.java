@@ -0,0 +1,59 @@
+package site.hnfy258.common.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 获取 Logger 并保存全局的日志级别和输出目标。
+ *
+ * 容器内部组件通过 getLogger(Class, LogLevelHolder) 获取绑定到所属 Bean 工厂的 Logger，
+ * 应用上下文在刷新时把 @BloomBootApplication 或 setLogLevel 指定的级别设置到自己的 Bean 工厂上，不影响其他上下文。
+ * 不属于某个容器的代码（拦截器等）使用全局级别；AotProxyRegistry 这类静态工具由调用方传入所属容器的 LogLevelHolder。输出目标总是全局共享的。
+ * 默认输出到控制台，全局级别为 INFO。
+ */
+public final class LoggerFactory {
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static volatile LogLevel level = LogLevel.INFO;
+    private static volatile Appender appender = new ConsoleAppender();
+
+    private LoggerFactory() {
+    }
+
+    public static Logger getLogger(Class<?> clazz) {
+        return getLogger(clazz.getName());
+    }
+
+    public static Logger getLogger(String name) {
+        return loggers.computeIfAbsent(name, Logger::new);
+    }
+
+    /**
+     * 获取绑定到某个容器日志级别的 Logger，每次调用都创建新的实例，应保存在组件的实例字段中。
+     */
+    public static Logger getLogger(Class<?> clazz, LogLevelHolder levelHolder) {
+        return new Logger(clazz.getName(), levelHolder);
+    }
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    public static void setLevel(LogLevel level) {
+        LoggerFactory.level = level;
+    }
+
+    public static Appender getAppender() {
+        return appender;
+    }
+
+    /**
+     * 替换输出目标并关闭原来的输出目标，例如换成 AsyncAppender 避免业务线程争抢标准输出。
+     */
+    public static void setAppender(Appender appender) {
+        Appender previous = LoggerFactory.appender;
+        LoggerFactory.appender = appender;
+        if (previous != appender) {
+            previous.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package site.hnfy258.common.startup;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 把所有结束的步骤保存在内存中，可以查询，也可以导出为 Chrome trace event 格式，
+ * 在 chrome://tracing 或 Perfetto 中按线程查看嵌套的时间线。
+ *
+ * 父子关系按线程维护：并行创建单例时，每个线程上的步骤各自嵌套。
+ */
+public class BufferingStartupRecorder implements StartupRecorder {
+    private final long originNanos = System.nanoTime();
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final ConcurrentLinkedQueue<RecordedStep> steps = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<RecordedStep> currentStep = new ThreadLocal<>();
+
+    @Override
+    public StartupStep start(String name) {
+        RecordedStep parent = currentStep.get();
+        RecordedStep step = new RecordedStep(idGenerator.incrementAndGet(), parent, name);
+        currentStep.set(step);
+        return step;
+    }
+
+    /**
+     * 获取所有已经结束的步骤，按开始时间排序。
+     */
+    public List<RecordedStep> getSteps() {
+        List<RecordedStep> result = new ArrayList<>(steps);
+        result.sort(Comparator.comparingLong(RecordedStep::getStartNanos));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 获取指定名称的步骤，按开始时间排序。
+     */
+    public List<RecordedStep> getSteps(String name) {
+        List<RecordedStep> result = new ArrayList<>();
+        for (RecordedStep step : getSteps()) {
+            if (step.getName().equals(name)) {
+                result.add(step);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 导出为 Chrome trace event JSON，每个步骤是一个 "X" 类型的完整事件，时间单位为微秒。
+     */
+    public String toChromeTrace() {
+        StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+        boolean first = true;
+        for (RecordedStep step : getSteps()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"name\":\"").append(escape(step.getName()))
+                    .append("\",\"cat\":\"bloom\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(step.getThreadId())
+                    .append(",\"ts\":").append((step.getStartNanos() - originNanos) / 1000)
+                    .append(",\"dur\":").append(step.getDurationNanos() / 1000)
+                    .append(",\"args\":{");
+            boolean firstTag = true;
+            for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+                if (!firstTag) {
+                    json.append(',');
+                }
+                firstTag = false;
+                json.append('"').append(escape(tag.getKey())).append("\":\"").append(escape(tag.getValue())).append('"');
+            }
+            json.append("}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * 一个被记录的步骤。
+     */
+    public class RecordedStep implements StartupStep {
+        @Getter
+        private final long id;
+        @Getter
+        private final long parentId;
+        @Getter
+        private final String name;
+        @Getter
+        private final long threadId;
+        @Getter
+        private final long startNanos;
+        @Getter
+        private long durationNanos = -1;
+        private final RecordedStep parent;
+        private final Map<String, String> tags = new LinkedHashMap<>();
+
+        private RecordedStep(long id, RecordedStep parent, String name) {
+            this.id = id;
+            this.parent = parent;
+            this.parentId = parent == null ? 0 : parent.id;
+            this.name = name;
+            this.threadId = Thread.currentThread().threadId();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            tags.put(key, value);
+            return this;
+        }
+
+        public String getTag(String key) {
+            return tags.get(key);
+        }
+
+        public Map<String, String> getTags() {
+            return Collections.unmodifiableMap(tags);
+        }
+
+        @Override
+        public void end() {
+            if (durationNanos >= 0) {
+                return;
+            }
+            durationNanos = System.nanoTime() - startNanos;
+            // 即使中间有子步骤因为异常没有结束，也恢复到父步骤
+            if (parent == null) {
+                currentStep.remove();
+            } else {
+                currentStep.set(parent);
+            }
+            steps.add(this);
+        }
+    }
+}
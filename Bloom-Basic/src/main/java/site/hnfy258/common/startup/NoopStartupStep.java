@@ -0,0 +1,17 @@
+package site.hnfy258.common.startup;
+
+final class NoopStartupStep implements StartupStep {
+    static final NoopStartupStep INSTANCE = new NoopStartupStep();
+
+    private NoopStartupStep() {
+    }
+
+    @Override
+    public StartupStep tag(String key, String value) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+    }
+}
@@ -0,0 +1,17 @@
+package site.hnfy258.common.startup;
+
+/**
+ * 启动过程记录器。默认的 NOOP 实现总是返回同一个空步骤，不读取时钟也不分配对象，
+ * 需要分析启动耗时时换成 BufferingStartupRecorder。
+ */
+public interface StartupRecorder {
+
+    StartupRecorder NOOP = name -> NoopStartupStep.INSTANCE;
+
+    /**
+     * 开始一个步骤。
+     *
+     * @param name 步骤名称，例如 context.scan 或 bean.create
+     */
+    StartupStep start(String name);
+}
@@ -0,0 +1,18 @@
+package site.hnfy258.common.startup;
+
+/**
+ * 启动过程中的一个步骤，从 StartupRecorder.start 开始，到 end 结束。
+ * 同一线程上在结束之前开始的步骤会成为它的子步骤。
+ */
+public interface StartupStep {
+
+    /**
+     * 为步骤附加一个标签，例如 Bean 名称。
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * 结束步骤。没有结束的子步骤会被丢弃。重复调用没有效果，出错时可以在 finally 中无条件调用。
+     */
+    void end();
+}
@@ -0,0 +1,95 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.JoinPoint;
+import site.hnfy258.aop.TargetSource;
+import site.hnfy258.aop.annotation.After;
+import site.hnfy258.aop.annotation.AfterReturning;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.AspectJAdvisorFactory;
+import site.hnfy258.aop.framework.ProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AdviceMethodBindingTest {
+
+    public interface Greeter {
+        String greet(String name);
+
+        int length(String name);
+    }
+
+    public static class SimpleGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        @Override
+        public int length(String name) {
+            return name.length();
+        }
+    }
+
+    @Aspect
+    public static class RecordingAspect {
+        private final List<String> calls = new ArrayList<>();
+
+        @Before("execution(* greet(..))")
+        public void beforeGreet(JoinPoint joinPoint) {
+            calls.add("before " + joinPoint.getMethod().getName() + " " + joinPoint.getArgs()[0]);
+        }
+
+        @After("execution(* greet(..))")
+        public void afterGreet(Object[] args) {
+            calls.add("after " + args[0]);
+        }
+
+        @AfterReturning(value = "execution(* *(..))", returning = "result")
+        public void returned(JoinPoint joinPoint, String result) {
+            // 返回值不是 String 的方法不会调用这个通知
+            calls.add("returned " + joinPoint.getMethod().getName() + " " + result);
+        }
+    }
+
+    @Aspect
+    public static class InvalidAspect {
+        @Before("execution(* greet(..))")
+        public void before(String unknown) {
+        }
+    }
+
+    private static Greeter createProxy(Object aspect) {
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(new SimpleGreeter()));
+        for (AspectJExpressionPointcutAdvisor advisor : new AspectJAdvisorFactory().getAdvisors(aspect)) {
+            advisedSupport.addAdvisor(advisor);
+        }
+        return (Greeter) new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    @Test
+    public void test_bindJoinPointArgumentsAndReturnValue() {
+        RecordingAspect aspect = new RecordingAspect();
+        Greeter greeter = createProxy(aspect);
+
+        Assert.assertEquals("hello bloom", greeter.greet("bloom"));
+        Assert.assertEquals(5, greeter.length("bloom"));
+
+        Assert.assertEquals(3, aspect.calls.size());
+        Assert.assertTrue(aspect.calls.contains("before greet bloom"));
+        Assert.assertTrue(aspect.calls.contains("after bloom"));
+        Assert.assertTrue(aspect.calls.contains("returned greet hello bloom"));
+    }
+
+    @Test
+    public void test_rejectUnboundParameter() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new AspectJAdvisorFactory().getAdvisors(new InvalidAspect()));
+    }
+}
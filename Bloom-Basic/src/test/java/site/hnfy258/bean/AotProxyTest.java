@@ -0,0 +1,235 @@
+package site.hnfy258.bean;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.JoinPoint;
+import site.hnfy258.aop.annotation.AfterReturning;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.AotProxyRegistry;
+import site.hnfy258.aop.framework.AspectJAdvisorFactory;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.annotation.Component;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.logging.ConsoleAppender;
+import site.hnfy258.common.logging.LogEvent;
+import site.hnfy258.common.logging.LogLevel;
+import site.hnfy258.common.logging.LogLevelHolder;
+import site.hnfy258.common.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 测试编译时运行 AopProxyProcessor（只处理这个类中的切面和 Bean），Greeter 和 Inventory 的代理在编译期生成。
+ */
+public class AotProxyTest {
+
+    @Component
+    public static class Greeter {
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        public int length(String name) {
+            return name.length();
+        }
+    }
+
+    @Aspect
+    @Component
+    public static class GreetingAspect {
+        private final List<String> calls = new ArrayList<>();
+
+        @Before("execution(* site.hnfy258.bean.AotProxyTest.Greeter.greet(..))")
+        public void beforeGreet(JoinPoint joinPoint) {
+            calls.add("before " + joinPoint.getMethod().getName() + " " + joinPoint.getArgs()[0]);
+        }
+
+        // 带声明类型的模式对 Inventory 中泛型重写的方法无法在编译期确定，会让 Inventory 不生成代理，这里只按方法名匹配
+        @AfterReturning(value = "execution(* greet(..)) || execution(* length(..))", returning = "result")
+        public void returned(String result) {
+            calls.add("returned " + result);
+        }
+    }
+
+    @Aspect
+    public static class LengthAspect {
+        private int calls;
+
+        @Before("execution(* length(..))")
+        public void beforeLength() {
+            calls++;
+        }
+    }
+
+    public interface Handler<T> {
+        String handle(T value);
+    }
+
+    @Component
+    public static class Inventory implements Handler<String> {
+        @Override
+        public String handle(String value) {
+            return "handled " + value;
+        }
+
+        public int count() {
+            return 1;
+        }
+
+        protected String describe() {
+            return "inventory";
+        }
+
+        String restock() {
+            return "restocked";
+        }
+
+        public final String name() {
+            return "inventory";
+        }
+    }
+
+    @Aspect
+    @Component
+    public static class InventoryAspect {
+        private final List<String> advised = new ArrayList<>();
+
+        // 只按方法名匹配，泛型重写方法的匹配结果在编译期可以确定
+        @Before("execution(* handle(..)) || execution(* describe(..)) || execution(* restock(..))")
+        public void record(JoinPoint joinPoint) {
+            advised.add(joinPoint.getMethod().getName());
+        }
+    }
+
+    private static Inventory proxyInventory(InventoryAspect aspect, boolean generated) throws BeansException {
+        if (!generated) {
+            System.setProperty(AotProxyRegistry.IGNORE_PROPERTY, "true");
+        }
+        try {
+            AspectJAutoProxyCreator proxyCreator = new AspectJAutoProxyCreator(new DefaultListableBeanFactory());
+            proxyCreator.postProcessBeforeInitialization(aspect, "InventoryAspect");
+            Inventory proxy = (Inventory) proxyCreator.postProcessAfterInitialization(new Inventory(), "Inventory");
+            Assert.assertEquals(generated, proxy.getClass().getName().endsWith(AotProxyRegistry.PROXY_CLASS_SUFFIX));
+            return proxy;
+        } finally {
+            System.clearProperty(AotProxyRegistry.IGNORE_PROPERTY);
+        }
+    }
+
+    private static List<AspectJExpressionPointcutAdvisor> getAdvisors(Object... aspects) {
+        List<AspectJExpressionPointcutAdvisor> advisors = new ArrayList<>();
+        for (Object aspect : aspects) {
+            advisors.addAll(new AspectJAdvisorFactory().getAdvisors(aspect));
+        }
+        return advisors;
+    }
+
+    @After
+    public void clearProperty() {
+        System.clearProperty(AotProxyRegistry.IGNORE_PROPERTY);
+    }
+
+    @Test
+    public void test_useGeneratedProxy() {
+        GreetingAspect greetingAspect = new GreetingAspect();
+        LengthAspect lengthAspect = new LengthAspect();
+        LongAdder counter = new LongAdder();
+        Object proxy = AotProxyRegistry.newProxy(new Greeter(), getAdvisors(greetingAspect, lengthAspect), counter,
+                new LogLevelHolder());
+
+        Assert.assertNotNull(proxy);
+        Assert.assertEquals(Greeter.class.getName() + AotProxyRegistry.PROXY_CLASS_SUFFIX, proxy.getClass().getName());
+        Greeter greeter = (Greeter) proxy;
+        Assert.assertEquals("hello bloom", greeter.greet("bloom"));
+        Assert.assertEquals(5, greeter.length("bloom"));
+
+        // length 返回 int，与 String 参数不兼容，不调用返回通知
+        Assert.assertEquals(List.of("before greet bloom", "returned hello bloom"), greetingAspect.calls);
+        Assert.assertEquals(1, lengthAspect.calls);
+        Assert.assertEquals(2, counter.sum());
+    }
+
+    @Test
+    public void test_fallBackForMissingAspect() {
+        Assert.assertNull(AotProxyRegistry.newProxy(new Greeter(), getAdvisors(new GreetingAspect()), null,
+                new LogLevelHolder()));
+    }
+
+    @Test
+    public void test_fallBackReasonLoggedAtCallerLevel() {
+        List<LogEvent> events = new CopyOnWriteArrayList<>();
+        LoggerFactory.setAppender(events::add);
+        try {
+            LogLevelHolder quiet = new LogLevelHolder();
+            LogLevelHolder verbose = new LogLevelHolder();
+            verbose.setLevel(LogLevel.DEBUG);
+            // 全局级别为 INFO，只有绑定 DEBUG 的调用输出回退原因
+            Assert.assertNull(AotProxyRegistry.newProxy(new Greeter(), getAdvisors(new GreetingAspect()), null, quiet));
+            Assert.assertTrue(events.isEmpty());
+            Assert.assertNull(AotProxyRegistry.newProxy(new Greeter(), getAdvisors(new GreetingAspect()), null, verbose));
+            Assert.assertEquals(List.of("缺少切面 " + LengthAspect.class.getName() + "，使用运行时代理"),
+                    events.stream().map(LogEvent::getFormattedMessage).toList());
+        } finally {
+            LoggerFactory.setAppender(new ConsoleAppender());
+        }
+    }
+
+    @Test
+    public void test_fallBackForUnknownAdvisor() {
+        List<AspectJExpressionPointcutAdvisor> advisors = getAdvisors(new GreetingAspect(), new LengthAspect());
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression("execution(* greet(..))");
+        advisors.add(advisor);
+
+        Assert.assertNull(AotProxyRegistry.newProxy(new Greeter(), advisors, null, new LogLevelHolder()));
+    }
+
+    @Test
+    public void test_ignoreProperty() {
+        System.setProperty(AotProxyRegistry.IGNORE_PROPERTY, "true");
+
+        Assert.assertNull(AotProxyRegistry.newProxy(new Greeter(),
+                getAdvisors(new GreetingAspect(), new LengthAspect()), null, new LogLevelHolder()));
+    }
+
+    @Test
+    public void test_sameAdvisedMethodsAsRuntimeProxy() throws BeansException {
+        InventoryAspect generatedAspect = new InventoryAspect();
+        InventoryAspect runtimeAspect = new InventoryAspect();
+        Inventory generated = proxyInventory(generatedAspect, true);
+        Inventory runtime = proxyInventory(runtimeAspect, false);
+
+        for (Inventory inventory : List.of(generated, runtime)) {
+            Assert.assertEquals("handled a", inventory.handle("a"));
+            Assert.assertEquals(1, inventory.count());
+            Assert.assertEquals("inventory", inventory.describe());
+            Assert.assertEquals("restocked", inventory.restock());
+            Assert.assertEquals("inventory", inventory.name());
+        }
+        Assert.assertEquals(List.of("handle", "describe", "restock"), runtimeAspect.advised);
+        Assert.assertEquals(runtimeAspect.advised, generatedAspect.advised);
+    }
+
+    /**
+     * 已知差异：通过泛型接口调用时走的是桥接方法，生成的代理会执行通知，CGLIB 代理把桥接方法直接分派给目标对象。
+     */
+    @Test
+    public void test_bridgeMethodDivergence() throws BeansException {
+        InventoryAspect generatedAspect = new InventoryAspect();
+        InventoryAspect runtimeAspect = new InventoryAspect();
+        Handler<String> generated = proxyInventory(generatedAspect, true);
+        Handler<String> runtime = proxyInventory(runtimeAspect, false);
+
+        Assert.assertEquals("handled a", generated.handle("a"));
+        Assert.assertEquals("handled a", runtime.handle("a"));
+        Assert.assertEquals(List.of("handle"), generatedAspect.advised);
+        Assert.assertEquals(List.of(), runtimeAspect.advised);
+    }
+}
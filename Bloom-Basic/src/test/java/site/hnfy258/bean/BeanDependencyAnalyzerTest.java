@@ -0,0 +1,82 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.BeanDependencyGraph;
+import site.hnfy258.bean.factory.support.ClassPathBeanDefinitionScanner;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeanCurrentlyInCreationException;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.List;
+
+public class BeanDependencyAnalyzerTest {
+
+    private static DefaultListableBeanFactory scan() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new ClassPathBeanDefinitionScanner(beanFactory).scan("site.hnfy258.bean");
+        return beanFactory;
+    }
+
+    // 初始化方法中通过 getBean 引入的依赖，依赖图看不到
+    public static class InitLookupBean {
+        static DefaultListableBeanFactory beanFactory;
+
+        @PostConstruct
+        public void init() throws BeansException {
+            beanFactory.getBean("BackReferenceBean");
+        }
+    }
+
+    public static class BackReferenceBean {
+        @Autowired
+        private InitLookupBean initLookupBean;
+    }
+
+    @Test
+    public void test_failFastOnCycleOutsideGraph() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("InitLookupBean", new BeanDefinition(InitLookupBean.class));
+        beanFactory.registerBeanDefinition("BackReferenceBean", new BeanDefinition(BackReferenceBean.class));
+        Assert.assertFalse(beanFactory.analyzeDependencies().isInCycle("InitLookupBean"));
+        InitLookupBean.beanFactory = beanFactory;
+
+        try {
+            beanFactory.getBean("InitLookupBean");
+            Assert.fail();
+        } catch (BeanCurrentlyInCreationException e) {
+            Assert.assertEquals(List.of("InitLookupBean", "BackReferenceBean", "InitLookupBean"), e.getCycle());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("InitLookupBean -> BackReferenceBean -> InitLookupBean"));
+        }
+    }
+
+    @Test
+    public void test_detectCycles() throws BeansException {
+        BeanDependencyGraph graph = scan().analyzeDependencies();
+
+        Assert.assertEquals(List.of(List.of("OrderService", "UserService")),
+                graph.getCycles().stream().map(cycle -> cycle.stream().sorted().toList()).toList());
+        Assert.assertTrue(graph.isInCycle("UserService"));
+        Assert.assertFalse(graph.isInCycle("AopTestService"));
+        Assert.assertEquals(List.of("OrderService", "UserService"),
+                graph.getDependencies("AopTestService").stream().sorted().toList());
+        Assert.assertTrue(graph.getDependents("UserService").contains("AopTestService"));
+        Assert.assertTrue(graph.toDot().contains("\"AopTestService\" -> \"UserService\""));
+        Assert.assertTrue(graph.toJson().contains("\"cycles\":[[\""));
+    }
+
+    @Test
+    public void test_createBeansWithoutEarlyReferenceOutsideCycles() throws BeansException {
+        DefaultListableBeanFactory beanFactory = scan();
+        beanFactory.analyzeDependencies();
+        beanFactory.preInstantiateSingletons();
+
+        AopTestService aopTestService = (AopTestService) beanFactory.getBean("AopTestService");
+        Assert.assertNotNull(aopTestService);
+        UserService userService = (UserService) beanFactory.getBean("UserService");
+        Assert.assertTrue(userService.getUserInfo().startsWith("User: defaultUser"));
+    }
+}
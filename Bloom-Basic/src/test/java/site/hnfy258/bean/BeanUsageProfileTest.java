@@ -0,0 +1,91 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import site.hnfy258.bean.factory.DisposableBean;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.BeanUsageProfile;
+import site.hnfy258.bean.factory.support.BeanUsageTracker;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BeanUsageProfileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static class HotBean {
+    }
+
+    public static class ColdBean {
+    }
+
+    public static class ColdBeanWithInit {
+        @PostConstruct
+        public void init() {
+        }
+    }
+
+    public static class ColdDisposableBean implements DisposableBean {
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static DefaultListableBeanFactory newBeanFactory(BeanUsageProfile profile, BeanUsageTracker tracker) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("ColdBean", new BeanDefinition(ColdBean.class));
+        beanFactory.registerBeanDefinition("HotBean", new BeanDefinition(HotBean.class));
+        beanFactory.registerBeanDefinition("ColdBeanWithInit", new BeanDefinition(ColdBeanWithInit.class));
+        beanFactory.registerBeanDefinition("ColdDisposableBean", new BeanDefinition(ColdDisposableBean.class));
+        beanFactory.setUsageProfile(profile);
+        beanFactory.setUsageTracker(tracker);
+        beanFactory.setColdBeanThreshold(2);
+        return beanFactory;
+    }
+
+    /**
+     * 模拟一次运行：提前实例化后只使用 HotBean，返回合并后的画像。
+     */
+    private BeanUsageProfile run(BeanUsageProfile profile, Path location) throws BeansException, IOException {
+        BeanUsageTracker tracker = new BeanUsageTracker();
+        DefaultListableBeanFactory beanFactory = newBeanFactory(profile, tracker);
+        beanFactory.preInstantiateSingletons();
+        beanFactory.getBean("HotBean");
+        beanFactory.getBean(HotBean.class);
+        Assert.assertEquals(0, tracker.getUsageCount("ColdBean"));
+        Assert.assertEquals(2, tracker.getUsageCount("HotBean"));
+        profile.merge(tracker, List.of(beanFactory.getBeanDefinitionNames())).write(location);
+        return BeanUsageProfile.load(location);
+    }
+
+    @Test
+    public void test_coldBeanDeferredAfterIdleRuns() throws BeansException, IOException {
+        Path location = folder.getRoot().toPath().resolve("usage.profile");
+        BeanUsageProfile profile = BeanUsageProfile.load(location);
+        profile = run(profile, location);
+        Assert.assertFalse(profile.isCold("ColdBean", 2));
+        profile = run(profile, location);
+        Assert.assertEquals(2, profile.getRuns());
+        Assert.assertTrue(profile.isCold("ColdBean", 2));
+        Assert.assertEquals(List.of("HotBean", "ColdBean"), profile.orderByUsage(List.of("ColdBean", "HotBean")));
+
+        DefaultListableBeanFactory beanFactory = newBeanFactory(profile, new BeanUsageTracker());
+        beanFactory.preInstantiateSingletons();
+        Assert.assertTrue(beanFactory.containsSingleton("HotBean"));
+        Assert.assertFalse(beanFactory.containsSingleton("ColdBean"));
+        // 带有生命周期回调的 Bean 即使未被使用也不推迟
+        Assert.assertTrue(profile.isCold("ColdBeanWithInit", 2));
+        Assert.assertTrue(beanFactory.containsSingleton("ColdBeanWithInit"));
+        Assert.assertTrue(beanFactory.containsSingleton("ColdDisposableBean"));
+        // 推迟的 Bean 在第一次访问时创建
+        Assert.assertTrue(beanFactory.getBean("ColdBean") instanceof ColdBean);
+    }
+}
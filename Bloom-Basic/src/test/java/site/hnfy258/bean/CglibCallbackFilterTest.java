@@ -0,0 +1,66 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.TargetSource;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.ProxyFactory;
+import site.hnfy258.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CglibCallbackFilterTest {
+
+    public static class Worker {
+        public boolean advised() {
+            return calledThroughInterceptor();
+        }
+
+        public boolean plain() {
+            return calledThroughInterceptor();
+        }
+
+        private static boolean calledThroughInterceptor() {
+            return Arrays.stream(new Throwable().getStackTrace())
+                    .anyMatch(frame -> frame.getClassName().contains("Interceptor"));
+        }
+    }
+
+    private static Worker createProxy(AtomicInteger adviceCount, LongAdder invocationCounter) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression("execution(* *.advised(..))");
+        advisor.setAdvice(new MethodBeforeAdviceInterceptor((method, args, target) -> adviceCount.incrementAndGet()));
+
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(new Worker()));
+        advisedSupport.setProxyTargetClass(true);
+        advisedSupport.setInvocationCounter(invocationCounter);
+        advisedSupport.addAdvisor(advisor);
+        return (Worker) new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    @Test
+    public void test_unadvisedMethodsSkipInterceptor() {
+        AtomicInteger adviceCount = new AtomicInteger();
+        LongAdder invocationCounter = new LongAdder();
+        Worker worker = createProxy(adviceCount, invocationCounter);
+
+        Assert.assertTrue(worker.advised());
+        Assert.assertEquals(1, adviceCount.get());
+        // 没有通知的方法由分派器直接交给目标对象
+        Assert.assertFalse(worker.plain());
+        worker.toString();
+        Assert.assertEquals(1, adviceCount.get());
+        Assert.assertEquals(3, invocationCounter.sum());
+    }
+
+    @Test
+    public void test_sameShapeReusesProxyClass() {
+        Worker first = createProxy(new AtomicInteger(), null);
+        Worker second = createProxy(new AtomicInteger(), null);
+        Assert.assertSame(first.getClass(), second.getClass());
+    }
+}
@@ -0,0 +1,87 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Component;
+import site.hnfy258.bean.factory.annotation.Service;
+import site.hnfy258.bean.factory.support.classreading.ClassMetadata;
+import site.hnfy258.bean.factory.support.classreading.ClassMetadataReader;
+import site.hnfy258.bean.factory.support.classreading.StereotypeFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Set;
+
+public class ClassMetadataReaderTest {
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Component
+    public @interface CustomStereotype {
+    }
+
+    @CustomStereotype
+    public static class MetaAnnotatedBean {
+    }
+
+    // 两个互相标注的注解，只有 CycleHead 直接带有 @Component
+    @Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+    @Retention(RetentionPolicy.RUNTIME)
+    @CycleTail
+    @Component
+    public @interface CycleHead {
+    }
+
+    @Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+    @Retention(RetentionPolicy.RUNTIME)
+    @CycleHead
+    public @interface CycleTail {
+    }
+
+    @CycleHead
+    public static class CycleHeadBean {
+    }
+
+    @CycleTail
+    public static class CycleTailBean {
+    }
+
+    private static ClassMetadata read(Class<?> clazz) throws IOException {
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream inputStream = clazz.getClassLoader().getResourceAsStream(resource)) {
+            return ClassMetadataReader.read(inputStream);
+        }
+    }
+
+    @Test
+    public void test_readAnnotationsWithoutLoading() throws IOException {
+        ClassMetadata metadata = read(LoggingAspect.class);
+        Assert.assertEquals(LoggingAspect.class.getName(), metadata.getClassName());
+        Assert.assertEquals("java.lang.Object", metadata.getSuperClassName());
+        Assert.assertTrue(metadata.getAnnotationTypes().contains("site.hnfy258.aop.annotation.Aspect"));
+        Assert.assertTrue(metadata.getAnnotationTypes().contains(Component.class.getName()));
+        Assert.assertFalse(metadata.isInterface());
+    }
+
+    @Test
+    public void test_stereotypeFilter() throws IOException {
+        StereotypeFilter filter = new StereotypeFilter(getClass().getClassLoader(),
+                Set.of(Component.class.getName(), Service.class.getName()));
+        Assert.assertTrue(filter.matches(read(UserService.class)));
+        Assert.assertTrue(filter.matches(read(MetaAnnotatedBean.class)));
+        Assert.assertFalse(filter.matches(read(ClassMetadataReaderTest.class)));
+        Assert.assertFalse(filter.matches(read(CustomStereotype.class)));
+    }
+
+    @Test
+    public void test_stereotypeFilterWithCyclicMetaAnnotations() throws IOException {
+        StereotypeFilter filter = new StereotypeFilter(getClass().getClassLoader(), Set.of(Component.class.getName()));
+        // 先从 CycleHead 进入时 CycleTail 只得到部分结果，不能被缓存
+        Assert.assertTrue(filter.matches(read(CycleHeadBean.class)));
+        Assert.assertTrue(filter.matches(read(CycleTailBean.class)));
+    }
+}
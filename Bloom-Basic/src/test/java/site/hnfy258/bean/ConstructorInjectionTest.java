@@ -0,0 +1,94 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.Set;
+
+public class ConstructorInjectionTest {
+
+    public static class Repository {
+    }
+
+    public static class Clock {
+    }
+
+    public static class Service {
+        private final Repository repository;
+        private final Clock clock;
+
+        // 只有一个构造函数时不需要 @Autowired
+        public Service(Repository repository, Clock clock) {
+            this.repository = repository;
+            this.clock = clock;
+        }
+    }
+
+    public static class Handler {
+        private final Service service;
+        @Autowired
+        private Clock clock;
+
+        public Handler() {
+            this.service = null;
+        }
+
+        @Autowired
+        public Handler(Service service) {
+            this.service = service;
+        }
+    }
+
+    public static class First {
+        public First(Second second) {
+        }
+    }
+
+    public static class Second {
+        public Second(First first) {
+        }
+    }
+
+    public static abstract class AbstractBean {
+    }
+
+    @Test
+    public void test_injectConstructorArguments() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        beanFactory.registerBeanDefinition("clock", new BeanDefinition(Clock.class));
+        beanFactory.registerBeanDefinition("service", new BeanDefinition(Service.class));
+        BeanDefinition handler = new BeanDefinition(Handler.class);
+        handler.setScope("prototype");
+        beanFactory.registerBeanDefinition("handler", handler);
+
+        Service service = (Service) beanFactory.getBean("service");
+        Assert.assertEquals(Service.class, service.getClass());
+        Assert.assertSame(beanFactory.getBean("repository"), service.repository);
+        Assert.assertSame(beanFactory.getBean("clock"), service.clock);
+
+        Handler first = (Handler) beanFactory.getBean("handler");
+        Handler second = (Handler) beanFactory.getBean("handler");
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(service, first.service);
+        Assert.assertSame(service, second.service);
+        Assert.assertSame(beanFactory.getBean("clock"), first.clock);
+
+        Assert.assertEquals(Set.of("repository", "clock"), beanFactory.getAutowiredDependencyNames("service"));
+    }
+
+    @Test
+    public void test_rejectConstructorCycleAndAbstractClass() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("first", new BeanDefinition(First.class));
+        beanFactory.registerBeanDefinition("second", new BeanDefinition(Second.class));
+        beanFactory.registerBeanDefinition("abstractBean", new BeanDefinition(AbstractBean.class));
+
+        Assert.assertThrows(BeansException.class, () -> beanFactory.getBean("first"));
+        Assert.assertThrows(BeansException.class, () -> beanFactory.getBean("abstractBean"));
+    }
+}
@@ -0,0 +1,78 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.exceptions.UnsatisfiedDependencyException;
+
+public class DependencyResolutionTest {
+
+    public interface Notifier {
+    }
+
+    public static class MailNotifier implements Notifier {
+    }
+
+    public static class SmsNotifier implements Notifier {
+    }
+
+    public static class AlertService {
+        @Autowired
+        private Notifier smsNotifier;
+    }
+
+    public static class ReportService {
+        @Autowired
+        private Notifier notifier;
+    }
+
+    @Test
+    public void test_resolveByNameWhenTypeMatches() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("mailNotifier", new BeanDefinition(MailNotifier.class));
+        beanFactory.registerBeanDefinition("smsNotifier", new BeanDefinition(SmsNotifier.class));
+        beanFactory.registerBeanDefinition("AlertService", new BeanDefinition(AlertService.class));
+
+        AlertService alertService = (AlertService) beanFactory.getBean("AlertService");
+        Assert.assertSame(beanFactory.getBean("smsNotifier"), alertService.smsNotifier);
+    }
+
+    @Test
+    public void test_ambiguousDependencyDiagnostic() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("mailNotifier", new BeanDefinition(MailNotifier.class));
+        beanFactory.registerBeanDefinition("smsNotifier", new BeanDefinition(SmsNotifier.class));
+        beanFactory.registerBeanDefinition("ReportService", new BeanDefinition(ReportService.class));
+
+        try {
+            beanFactory.getBean("ReportService");
+            Assert.fail("expected unsatisfied dependency");
+        } catch (UnsatisfiedDependencyException e) {
+            Assert.assertEquals("ReportService", e.getBeanName());
+            Assert.assertEquals("notifier", e.getInjectionPoint().getName());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("found 2: [mailNotifier, smsNotifier]"));
+        } catch (BeansException e) {
+            Assert.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void test_missingDependencyThenRegistered() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("ReportService", new BeanDefinition(ReportService.class));
+        beanFactory.getBeanDefinition("ReportService").setScope("prototype");
+        try {
+            beanFactory.getBean("ReportService");
+            Assert.fail("expected unsatisfied dependency");
+        } catch (UnsatisfiedDependencyException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("No bean of type '" + Notifier.class.getName()));
+        }
+
+        beanFactory.registerBeanDefinition("mailNotifier", new BeanDefinition(MailNotifier.class));
+        ReportService reportService = (ReportService) beanFactory.getBean("ReportService");
+        Assert.assertTrue(reportService.notifier instanceof MailNotifier);
+    }
+}
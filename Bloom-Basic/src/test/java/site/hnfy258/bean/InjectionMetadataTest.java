@@ -0,0 +1,68 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.DisposableBean;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.bean.factory.support.InjectionMetadata;
+
+import java.util.List;
+
+public class InjectionMetadataTest {
+
+    public static class BaseBean {
+        @Autowired
+        private UserService userService;
+
+        @PostConstruct
+        public void baseInit() {
+        }
+    }
+
+    public static class ChildBean extends BaseBean implements DisposableBean {
+        @Autowired
+        private OrderService orderService;
+        private String name;
+
+        @PostConstruct
+        public void childInit() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    @Test
+    public void test_metadataCoversHierarchy() {
+        InjectionMetadata metadata = InjectionMetadata.forClass(ChildBean.class);
+        Assert.assertEquals(List.of("orderService", "userService"),
+                metadata.getInjectedFields().stream().map(f -> f.getField().getName()).toList());
+        Assert.assertEquals(List.of("childInit", "baseInit"),
+                metadata.getInitMethods().stream().map(m -> m.getMethod().getName()).toList());
+        Assert.assertTrue(metadata.isDisposable());
+        Assert.assertFalse(InjectionMetadata.forClass(BaseBean.class).isDisposable());
+    }
+
+    @Test
+    public void test_injectThroughHandles() throws Throwable {
+        InjectionMetadata metadata = InjectionMetadata.forClass(ChildBean.class);
+        ChildBean bean = new ChildBean();
+        OrderService orderService = new OrderService();
+        metadata.getInjectedFields().get(0).inject(bean, orderService);
+        Assert.assertSame(orderService, metadata.getInjectedFields().get(0).getField().get(bean));
+        Assert.assertThrows(ClassCastException.class,
+                () -> metadata.getInjectedFields().get(0).inject(bean, "not an OrderService"));
+    }
+
+    @Test
+    public void test_metadataCachedUntilCleared() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        InjectionMetadata metadata = beanFactory.getInjectionMetadata(ChildBean.class);
+        Assert.assertSame(metadata, beanFactory.getInjectionMetadata(ChildBean.class));
+        beanFactory.clearInjectionMetadataCache();
+        Assert.assertNotSame(metadata, beanFactory.getInjectionMetadata(ChildBean.class));
+    }
+}
@@ -0,0 +1,85 @@
+package site.hnfy258.bean;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.TargetSource;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.ProxyFactory;
+import site.hnfy258.aop.framework.adapter.CompositeMethodInterceptor;
+import site.hnfy258.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InterceptorChainTest {
+
+    public interface Calculator {
+        int add(int a, int b);
+
+        int negate(int a);
+    }
+
+    public static class SimpleCalculator implements Calculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public int negate(int a) {
+            return -a;
+        }
+    }
+
+    private static AspectJExpressionPointcutAdvisor advisor(String expression, String name, List<String> calls) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(expression);
+        advisor.setAdvice(new MethodBeforeAdviceInterceptor((method, args, target) -> calls.add(name)));
+        return advisor;
+    }
+
+    private static AdvisedSupport advised(boolean proxyTargetClass, List<String> calls) {
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(new SimpleCalculator()));
+        advisedSupport.setProxyTargetClass(proxyTargetClass);
+        advisedSupport.addAdvisor(advisor("execution(* *.add(..))", "addAdvice", calls));
+        advisedSupport.addAdvisor(advisor("execution(* *.add(..)) || execution(* *.negate(..))", "anyAdvice", calls));
+        advisedSupport.addAdvisor(advisor("execution(* *.missing(..))", "missingAdvice", calls));
+        return advisedSupport;
+    }
+
+    @Test
+    public void test_onlyMatchingInterceptorsRun() {
+        for (boolean proxyTargetClass : new boolean[]{true, false}) {
+            List<String> calls = new ArrayList<>();
+            Calculator calculator = (Calculator) new ProxyFactory(advised(proxyTargetClass, calls)).getProxy();
+
+            Assert.assertEquals(3, calculator.add(1, 2));
+            Assert.assertEquals(List.of("addAdvice", "anyAdvice"), calls);
+
+            calls.clear();
+            Assert.assertEquals(-5, calculator.negate(5));
+            Assert.assertEquals(List.of("anyAdvice"), calls);
+
+            calls.clear();
+            calculator.hashCode();
+            Assert.assertTrue(calls.isEmpty());
+        }
+    }
+
+    @Test
+    public void test_chainComputedOncePerMethod() throws Exception {
+        AdvisedSupport advisedSupport = advised(false, new ArrayList<>());
+        Method add = Calculator.class.getMethod("add", int.class, int.class);
+        Method toString = Object.class.getMethod("toString");
+
+        MethodInterceptor chain = advisedSupport.getInterceptorChain(add, SimpleCalculator.class);
+        Assert.assertSame(chain, advisedSupport.getInterceptorChain(add, SimpleCalculator.class));
+        Assert.assertEquals(2, ((CompositeMethodInterceptor) chain).getInterceptors().size());
+        // 没有匹配的方法直接调用目标
+        Assert.assertNull(advisedSupport.getInterceptorChain(toString, SimpleCalculator.class));
+    }
+}
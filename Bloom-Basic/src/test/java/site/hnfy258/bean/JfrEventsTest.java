@@ -0,0 +1,135 @@
+package site.hnfy258.bean;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JfrEventsTest {
+
+    public static class Repository {
+    }
+
+    public static class Facade {
+        @Autowired
+        private Repository repository;
+    }
+
+    public static class Greeter {
+        public String greet(String name) {
+            return "hello " + name;
+        }
+    }
+
+    @Aspect
+    public static class CountingAspect {
+        private int count;
+
+        @Before("execution(* greet(..))")
+        public void countGreeting() {
+            count++;
+        }
+    }
+
+    private interface RecordedAction {
+        void run() throws Exception;
+    }
+
+    private static List<RecordedEvent> record(RecordedAction action, String... eventNames) throws Exception {
+        Path file = Files.createTempFile("bloom-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String eventName : eventNames) {
+                recording.enable(eventName);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private static Greeter createProxy(AspectJAutoProxyCreator proxyCreator) throws BeansException {
+        proxyCreator.postProcessBeforeInitialization(new CountingAspect(), "CountingAspect");
+        return (Greeter) proxyCreator.postProcessAfterInitialization(new Greeter(), "Greeter");
+    }
+
+    @Test
+    public void test_containerEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerBeanDefinition("Facade", new BeanDefinition(Facade.class));
+            beanFactory.registerBeanDefinition("Repository", new BeanDefinition(Repository.class));
+            beanFactory.getBean("Facade");
+        }, "site.hnfy258.BeanDefinitionRegistration", "site.hnfy258.BeanCreation", "site.hnfy258.DependencyResolution");
+
+        List<RecordedEvent> registrations = ofType(events, "site.hnfy258.BeanDefinitionRegistration");
+        Assert.assertEquals(List.of("Facade", "Repository"),
+                registrations.stream().map(e -> e.getString("beanName")).collect(Collectors.toList()));
+        Assert.assertEquals("singleton", registrations.get(0).getString("scope"));
+
+        // Repository 在注入 Facade 的字段时被创建
+        List<RecordedEvent> creations = ofType(events, "site.hnfy258.BeanCreation");
+        Assert.assertEquals(2, creations.size());
+        RecordedEvent repository = creations.stream()
+                .filter(e -> "Repository".equals(e.getString("beanName"))).findFirst().orElseThrow();
+        RecordedEvent facade = creations.stream()
+                .filter(e -> "Facade".equals(e.getString("beanName"))).findFirst().orElseThrow();
+        Assert.assertEquals("Facade", repository.getString("parentBeanName"));
+        Assert.assertEquals(Repository.class.getName(), repository.getClass("beanClass").getName());
+        Assert.assertNull(facade.getString("parentBeanName"));
+        Assert.assertTrue(facade.getDuration().compareTo(repository.getDuration()) >= 0);
+
+        RecordedEvent resolution = ofType(events, "site.hnfy258.DependencyResolution").get(0);
+        Assert.assertEquals("Facade", resolution.getString("beanName"));
+        Assert.assertEquals("Repository", resolution.getString("dependencyBeanName"));
+        Assert.assertEquals(Facade.class.getName() + ".repository", resolution.getString("injectionPoint"));
+        Assert.assertFalse(resolution.getBoolean("cached"));
+    }
+
+    @Test
+    public void test_proxyAndAdviceEvents() throws Exception {
+        AspectJAutoProxyCreator proxyCreator = new AspectJAutoProxyCreator(new DefaultListableBeanFactory());
+        List<RecordedEvent> events = record(() -> createProxy(proxyCreator).greet("bloom"),
+                "site.hnfy258.ProxyCreation", "site.hnfy258.AdviceInvocation");
+
+        RecordedEvent proxyCreation = ofType(events, "site.hnfy258.ProxyCreation").get(0);
+        Assert.assertEquals("Greeter", proxyCreation.getString("beanName"));
+        Assert.assertEquals(1, proxyCreation.getInt("advisorCount"));
+        Assert.assertTrue(proxyCreation.getClass("proxyClass").getName().contains("CGLIB"));
+
+        RecordedEvent advice = ofType(events, "site.hnfy258.AdviceInvocation").get(0);
+        Assert.assertEquals("Greeter", advice.getString("beanName"));
+        Assert.assertEquals("greet", advice.getString("method"));
+        Assert.assertEquals(0, advice.getInt("position"));
+    }
+
+    @Test
+    public void test_adviceEventDisabledByDefault() throws Exception {
+        AspectJAutoProxyCreator proxyCreator = new AspectJAutoProxyCreator(new DefaultListableBeanFactory());
+        Greeter greeter = createProxy(proxyCreator);
+        // 没有在设置中开启时，代理调用不产生事件
+        List<RecordedEvent> events = record(() -> greeter.greet("bloom"));
+
+        Assert.assertTrue(ofType(events, "site.hnfy258.AdviceInvocation").isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+package site.hnfy258.bean;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.logging.Appender;
+import site.hnfy258.common.logging.AsyncAppender;
+import site.hnfy258.common.logging.ConsoleAppender;
+import site.hnfy258.common.logging.LogEvent;
+import site.hnfy258.common.logging.LogLevel;
+import site.hnfy258.common.logging.Logger;
+import site.hnfy258.common.logging.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LoggingTest {
+
+    private static class CollectingAppender implements Appender {
+        private final List<LogEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(LogEvent event) {
+            events.add(event);
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(LoggingTest.class);
+    private final CollectingAppender appender = new CollectingAppender();
+
+    @Before
+    public void setUp() {
+        LoggerFactory.setAppender(appender);
+        LoggerFactory.setLevel(LogLevel.INFO);
+    }
+
+    @After
+    public void tearDown() {
+        LoggerFactory.setAppender(new ConsoleAppender());
+        LoggerFactory.setLevel(LogLevel.INFO);
+    }
+
+    @Test
+    public void test_disabledLevelSkipsFormatting() {
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("argument formatted although level is disabled");
+            }
+        };
+        logger.debug("bean {}", argument);
+        Assert.assertTrue(appender.events.isEmpty());
+        Assert.assertFalse(logger.isDebugEnabled());
+    }
+
+    @Test
+    public void test_placeholdersAndThrowable() {
+        IllegalStateException failure = new IllegalStateException("boom");
+        logger.info("created {} in {} ms", "UserService", 3);
+        logger.error("failed to create {}", "OrderService", failure);
+        logger.warn("missing {} and {}", "a");
+
+        Assert.assertEquals("created UserService in 3 ms", appender.events.get(0).getFormattedMessage());
+        Assert.assertEquals("failed to create OrderService", appender.events.get(1).getFormattedMessage());
+        Assert.assertSame(failure, appender.events.get(1).getThrowable());
+        Assert.assertEquals("missing a and {}", appender.events.get(2).getFormattedMessage());
+    }
+
+    @Test
+    public void test_levelPerContainer() {
+        DefaultListableBeanFactory quiet = new DefaultListableBeanFactory();
+        DefaultListableBeanFactory verbose = new DefaultListableBeanFactory();
+        verbose.getLogLevelHolder().setLevel(LogLevel.DEBUG);
+
+        // 注册 Bean 定义时输出一条 DEBUG 日志，没有设置级别的工厂使用全局的 INFO
+        quiet.registerBeanDefinition("quietBean", new BeanDefinition(Object.class));
+        verbose.registerBeanDefinition("verboseBean", new BeanDefinition(Object.class));
+        Assert.assertEquals(List.of("Registered bean definition: verboseBean"),
+                appender.events.stream().map(LogEvent::getFormattedMessage).toList());
+
+        LoggerFactory.setLevel(LogLevel.DEBUG);
+        quiet.registerBeanDefinition("quietBean2", new BeanDefinition(Object.class));
+        verbose.getLogLevelHolder().setLevel(LogLevel.ERROR);
+        verbose.registerBeanDefinition("verboseBean2", new BeanDefinition(Object.class));
+        Assert.assertEquals("Registered bean definition: quietBean2", appender.events.get(1).getFormattedMessage());
+        Assert.assertEquals(2, appender.events.size());
+    }
+
+    @Test
+    public void test_asyncAppenderDeliversAllEventsOnClose() throws InterruptedException {
+        AsyncAppender asyncAppender = new AsyncAppender(appender, 64);
+        LoggerFactory.setAppender(asyncAppender);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    logger.warn("event {}", j);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        asyncAppender.close();
+
+        Assert.assertEquals(4000, appender.events.size());
+        Assert.assertEquals(0, asyncAppender.getDroppedCount());
+    }
+}
@@ -0,0 +1,154 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.support.classreading.MappedJarFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+public class MappedJarFileTest {
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeEntry(JarOutputStream out, String name, byte[] content, boolean stored) throws IOException {
+        JarEntry entry = new JarEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static byte[] buildLibraryJar() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(buffer)) {
+            writeEntry(out, "lib/Library.class", bytes("library"), false);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Path buildFatJar() throws IOException {
+        Path jar = Files.createTempFile("bloom-mapped", ".jar");
+        try (OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file)) {
+            writeEntry(out, "com/example/A.class", bytes("deflated-a"), false);
+            writeEntry(out, "com/example/B.class", bytes("stored-b"), true);
+            writeEntry(out, "com/example/readme.txt", bytes("text"), false);
+            writeEntry(out, "com/examples/C.class", bytes("other-package"), false);
+            writeEntry(out, "BOOT-INF/lib/library.jar", buildLibraryJar(), true);
+        }
+        return jar;
+    }
+
+    @Test
+    public void test_prefixLookupAndRead() throws IOException {
+        Path jar = buildFatJar();
+        try (MappedJarFile mappedJar = MappedJarFile.open(jar)) {
+            List<String> names = mappedJar.getEntryNames("com/example/", ".class");
+            Assert.assertEquals(Arrays.asList("com/example/A.class", "com/example/B.class"), names);
+            Assert.assertArrayEquals(bytes("deflated-a"), mappedJar.readEntry("com/example/A.class"));
+            Assert.assertArrayEquals(bytes("stored-b"), mappedJar.readEntry("com/example/B.class"));
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    @Test
+    public void test_openNested() throws IOException {
+        Path jar = buildFatJar();
+        try (MappedJarFile mappedJar = MappedJarFile.open(jar)) {
+            MappedJarFile nested = mappedJar.openNested("BOOT-INF/lib/library.jar");
+            Assert.assertEquals(List.of("lib/Library.class"), nested.getEntryNames("lib/", ".class"));
+            Assert.assertArrayEquals(bytes("library"), nested.readEntry("lib/Library.class"));
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    /**
+     * 在中央目录中找到条目并改写它的字段，offset 是字段在中央目录条目中的偏移。
+     */
+    private static void corruptCentralEntry(Path jar, String name, int offset, int value) throws IOException {
+        byte[] data = Files.readAllBytes(jar);
+        byte[] nameBytes = bytes(name);
+        for (int i = 0; i + 46 + nameBytes.length <= data.length; i++) {
+            if (data[i] == 0x50 && data[i + 1] == 0x4b && data[i + 2] == 0x01 && data[i + 3] == 0x02
+                    && Arrays.equals(Arrays.copyOfRange(data, i + 46, i + 46 + nameBytes.length), nameBytes)) {
+                for (int b = 0; b < 4; b++) {
+                    data[i + offset + b] = (byte) (value >>> (8 * b));
+                }
+                Files.write(jar, data);
+                return;
+            }
+        }
+        throw new IllegalStateException("找不到条目: " + name);
+    }
+
+    @Test
+    public void test_corruptOffsetsRejectedAsZipException() throws IOException {
+        Path jar = buildFatJar();
+        try {
+            // 本地文件头偏移指向文件末尾之外
+            corruptCentralEntry(jar, "com/example/A.class", 42, (int) Files.size(jar) - 2);
+            // 压缩后大小超出文件范围
+            corruptCentralEntry(jar, "com/example/B.class", 20, Integer.MAX_VALUE - 64);
+            try (MappedJarFile mappedJar = MappedJarFile.open(jar)) {
+                Assert.assertThrows(ZipException.class, () -> mappedJar.readEntry("com/example/A.class"));
+                Assert.assertThrows(ZipException.class, () -> mappedJar.readEntry("com/example/B.class"));
+                Assert.assertArrayEquals(bytes("text"), mappedJar.readEntry("com/example/readme.txt"));
+            }
+            // 名称长度超出中央目录
+            corruptCentralEntry(jar, "BOOT-INF/lib/library.jar", 28, 0xFFFF);
+            Assert.assertThrows(ZipException.class, () -> MappedJarFile.open(jar).close());
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    @Test
+    public void test_prefixBoundsMatchLinearScan() throws IOException {
+        // 乱序写入，包括相邻前缀和非 ASCII 名称
+        List<String> entryNames = Arrays.asList("org/z/Z.class", "com/examples/C.class", "com/example/B.class",
+                "a.class", "com/example/sub/D.class", "com/exampl.class", "com/例子/E.class", "com/example/A.class");
+        Path jar = Files.createTempFile("bloom-mapped", ".jar");
+        try {
+            try (OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file)) {
+                for (String name : entryNames) {
+                    writeEntry(out, name, bytes(name), false);
+                }
+            }
+            try (MappedJarFile mappedJar = MappedJarFile.open(jar)) {
+                for (String prefix : new String[]{"", "com/", "com/example", "com/example/", "com/例子/", "b", "zz"}) {
+                    List<String> expected = entryNames.stream()
+                            .filter(name -> name.startsWith(prefix) && name.endsWith(".class"))
+                            .sorted()
+                            .toList();
+                    Assert.assertEquals(prefix, expected, mappedJar.getEntryNames(prefix, ".class"));
+                }
+                mappedJar.close();
+                Assert.assertThrows(IllegalStateException.class, () -> mappedJar.getEntryNames("com/", ".class"));
+            }
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.framework.ProxyClassCache;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.bean.factory.support.MemoryFootprint;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.Map;
+import java.util.Set;
+
+public class MemoryFootprintTest {
+
+    public static class Repository {
+        private final byte[] data = new byte[64];
+    }
+
+    public static class Facade {
+        @Autowired
+        private Repository repository;
+        private final byte[] buffer = new byte[4096];
+    }
+
+    public static class Broken {
+        @PostConstruct
+        public void init() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    public static class Greeter {
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    @Aspect
+    public static class GreetingAspect {
+        @Before("execution(* greet(..))")
+        public void beforeGreet() {
+        }
+    }
+
+    private static MemoryFootprint.BeanFootprint find(MemoryFootprint footprint, String beanName) {
+        return footprint.getBeans().stream()
+                .filter(bean -> bean.getBeanName().equals(beanName)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void test_beanAndStructureSizes() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("Facade", new BeanDefinition(Facade.class));
+        beanFactory.registerBeanDefinition("Repository", new BeanDefinition(Repository.class));
+        beanFactory.preInstantiateSingletons();
+
+        MemoryFootprint footprint = beanFactory.analyzeMemoryFootprint();
+
+        // Facade 不包含它引用的 Repository
+        MemoryFootprint.BeanFootprint facade = find(footprint, "Facade");
+        MemoryFootprint.BeanFootprint repository = find(footprint, "Repository");
+        Assert.assertTrue(facade.getRetainedBytes() >= 4096);
+        Assert.assertTrue(facade.getRetainedBytes() < 4096 + 256);
+        Assert.assertTrue(repository.getRetainedBytes() >= 64);
+        Assert.assertEquals(Facade.class, facade.getBeanClass());
+        Assert.assertFalse(facade.isProxy());
+        Assert.assertEquals("Facade", footprint.getBeans().get(0).getBeanName());
+
+        Map<String, Long> structures = footprint.getStructures();
+        Assert.assertTrue(structures.get(MemoryFootprint.BEAN_DEFINITIONS) > 0);
+        Assert.assertTrue(structures.get(MemoryFootprint.SINGLETON_OBJECTS) > 0);
+        Assert.assertTrue(footprint.getLeftoverEarlySingletons().isEmpty());
+        // 普通 Bean 直接调用构造函数实例化，不生成类
+        Assert.assertTrue(footprint.getGeneratedClasses().isEmpty());
+        Assert.assertTrue(footprint.toText(10), footprint.toText(10).contains("Facade"));
+    }
+
+    @Test
+    public void test_reportLeftoverSingletonFactories() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("Broken", new BeanDefinition(Broken.class));
+        Assert.assertThrows(BeansException.class, () -> beanFactory.getBean("Broken"));
+
+        MemoryFootprint footprint = beanFactory.analyzeMemoryFootprint();
+
+        Assert.assertEquals(Set.of("Broken"), footprint.getLeftoverEarlySingletons());
+        Assert.assertTrue(footprint.getStructures().get(MemoryFootprint.SINGLETON_FACTORIES) > 0);
+        Assert.assertTrue(footprint.toText(10).contains("Broken"));
+    }
+
+    @Test
+    public void test_proxyAndPointcutSizes() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addBeanPostProcessor(new AspectJAutoProxyCreator(beanFactory));
+        // 切面先注册，创建 Greeter 时通知器已经就绪
+        beanFactory.registerBeanDefinition("GreetingAspect", new BeanDefinition(GreetingAspect.class));
+        beanFactory.registerBeanDefinition("Greeter", new BeanDefinition(Greeter.class));
+        beanFactory.preInstantiateSingletons();
+        Greeter greeter = (Greeter) beanFactory.getBean("Greeter");
+        Assert.assertEquals("hello", greeter.greet());
+
+        MemoryFootprint footprint = beanFactory.analyzeMemoryFootprint();
+
+        Assert.assertTrue(find(footprint, "Greeter").isProxy());
+        Assert.assertTrue(footprint.getStructures().get(MemoryFootprint.POINTCUT_EXPRESSIONS) > 0);
+        Assert.assertTrue(footprint.getStructures().get(MemoryFootprint.ADVISORS_CACHE) > 0);
+        Assert.assertTrue(footprint.getGeneratedClasses().containsKey(greeter.getClass()));
+    }
+
+    private static DefaultListableBeanFactory newProxyingBeanFactory() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addBeanPostProcessor(new AspectJAutoProxyCreator(beanFactory));
+        beanFactory.registerBeanDefinition("GreetingAspect", new BeanDefinition(GreetingAspect.class));
+        beanFactory.registerBeanDefinition("Greeter", new BeanDefinition(Greeter.class));
+        beanFactory.preInstantiateSingletons();
+        return beanFactory;
+    }
+
+    @Test
+    public void test_generatedClassMetaspaceSharedAcrossContainers() throws BeansException {
+        DefaultListableBeanFactory first = newProxyingBeanFactory();
+        DefaultListableBeanFactory second = newProxyingBeanFactory();
+        Class<?> proxyClass = first.getBean("Greeter").getClass();
+        Assert.assertSame(proxyClass, second.getBean("Greeter").getClass());
+
+        // 生成类由进程内的缓存共用，两个容器报告的都是第一次生成时的测量值
+        long metaspaceBytes = Math.max(0, ProxyClassCache.getMetaspaceBytes(proxyClass));
+        Assert.assertEquals(Long.valueOf(metaspaceBytes),
+                first.analyzeMemoryFootprint().getGeneratedClasses().get(proxyClass));
+        Assert.assertEquals(Long.valueOf(metaspaceBytes),
+                second.analyzeMemoryFootprint().getGeneratedClasses().get(proxyClass));
+        Assert.assertEquals(-1, ProxyClassCache.getMetaspaceBytes(Greeter.class));
+    }
+}
@@ -0,0 +1,120 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.ClassPathBeanDefinitionScanner;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelPreInstantiationTest {
+
+    public static class SlowRepository {
+        @PostConstruct
+        public void init() throws InterruptedException {
+            Thread.sleep(300);
+        }
+    }
+
+    public static class SlowCache {
+        @PostConstruct
+        public void init() throws InterruptedException {
+            Thread.sleep(300);
+        }
+    }
+
+    public static class Facade {
+        @Autowired
+        private SlowRepository repository;
+        @Autowired
+        private SlowCache cache;
+        private boolean dependenciesReady;
+
+        @PostConstruct
+        public void init() {
+            dependenciesReady = repository != null && cache != null;
+        }
+    }
+
+    public static class CountedBean {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        // 在构造函数中等待，此时还没有提前暴露的引用
+        public CountedBean() throws InterruptedException {
+            INSTANCES.incrementAndGet();
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void test_singletonCreatedOnceUnderConcurrentAccess() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("CountedBean", new BeanDefinition(CountedBean.class));
+        CountedBean.INSTANCES.set(0);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return beanFactory.getBean("CountedBean");
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                // 其他线程等待创建完成，不会拿到初始化到一半的对象
+                Assert.assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, CountedBean.INSTANCES.get());
+    }
+
+    @Test
+    public void test_independentBeansCreatedConcurrently() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("SlowRepository", new BeanDefinition(SlowRepository.class));
+        beanFactory.registerBeanDefinition("SlowCache", new BeanDefinition(SlowCache.class));
+        beanFactory.registerBeanDefinition("Facade", new BeanDefinition(Facade.class));
+        beanFactory.setParallelPreInstantiation(true);
+
+        long start = System.nanoTime();
+        beanFactory.preInstantiateSingletons();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Facade facade = (Facade) beanFactory.getBean("Facade");
+        Assert.assertTrue(facade.dependenciesReady);
+        Assert.assertSame(beanFactory.getBean("SlowRepository"), facade.repository);
+        // 两个慢 Bean 互不依赖，顺序创建至少需要 600ms
+        Assert.assertTrue("elapsed " + elapsedMillis + "ms", elapsedMillis < 550);
+    }
+
+    @Test
+    public void test_circularDependencyFallsBack() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new ClassPathBeanDefinitionScanner(beanFactory).scan("site.hnfy258.bean");
+        beanFactory.setParallelPreInstantiation(true);
+        beanFactory.preInstantiateSingletons();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Assert.assertTrue(beanName, beanFactory.containsSingleton(beanName));
+        }
+        UserService userService = (UserService) beanFactory.getBean("UserService");
+        // AopTestService 初始化时会下一个订单
+        Assert.assertEquals("User: defaultUser, Orders: 11", userService.getUserInfo());
+    }
+}
@@ -0,0 +1,171 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcut;
+import site.hnfy258.aop.aspectj.PointcutPrefilter;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PointcutPrefilterTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Audited {
+    }
+
+    public interface Repository {
+        void save(String value);
+    }
+
+    public static class BaseService {
+        public String describe() {
+            return "base";
+        }
+    }
+
+    public static class OrderService extends BaseService implements Repository {
+        @Override
+        public void save(String value) {
+        }
+
+        @Audited
+        public int placeOrder(String item) {
+            return 1;
+        }
+
+        @Override
+        public String describe() {
+            return "order";
+        }
+    }
+
+    public static class Clock {
+        public long now() {
+            return 0;
+        }
+    }
+
+    @Aspect
+    public static class MissingMethodAspect {
+        // 类型匹配 OrderService，但它没有 cancel 方法
+        @Before("execution(* site.hnfy258.bean.PointcutPrefilterTest.OrderService.cancel(..))")
+        public void beforeCancel() {
+        }
+    }
+
+    @Aspect
+    public static class PlaceOrderAspect {
+        @Before("execution(* site.hnfy258.bean..*Service.place*(..))")
+        public void beforePlaceOrder() {
+        }
+    }
+
+    private static final String[] EXPRESSIONS = {
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.OrderService.placeOrder(..))",
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.OrderService.*(..))",
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.*.save(..))",
+            "execution(* site.hnfy258.bean..*Service.*(..))",
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.Repository+.*(..))",
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.Repository.*(..))",
+            "execution(* site.hnfy258.bean.PointcutPrefilterTest.BaseService.describe())",
+            "execution(@site.hnfy258.bean.PointcutPrefilterTest.Audited * *(..))",
+            "execution(public * *(..)) && execution(* place*(..))",
+            "execution(* now(..)) || execution(* save(..))",
+            "!execution(* save(..))",
+            "execution(* java.lang.Object.*(..))",
+            "execution(* *(..))",
+    };
+
+    private static List<Method> getMethods(Class<?> clazz) {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (!Modifier.isPrivate(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    @Test
+    public void test_neverRejectsAspectJMatch() {
+        for (String expression : EXPRESSIONS) {
+            PointcutPrefilter prefilter = PointcutPrefilter.parse(expression);
+            AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(expression);
+            boolean matched = false;
+            for (Class<?> clazz : new Class<?>[]{OrderService.class, Clock.class}) {
+                PointcutPrefilter.TypeNames typeNames = PointcutPrefilter.TypeNames.of(clazz);
+                for (Method method : getMethods(clazz)) {
+                    if (pointcut.matches(method, clazz)) {
+                        matched = true;
+                        Assert.assertTrue(expression + " " + method,
+                                prefilter.couldMatch(method, typeNames));
+                    }
+                }
+            }
+            Assert.assertTrue(expression, matched);
+        }
+    }
+
+    @Test
+    public void test_rejectByNameTypeAndAnnotation() throws NoSuchMethodException {
+        PointcutPrefilter.TypeNames orderService = PointcutPrefilter.TypeNames.of(OrderService.class);
+        PointcutPrefilter.TypeNames clock = PointcutPrefilter.TypeNames.of(Clock.class);
+        Method placeOrder = OrderService.class.getMethod("placeOrder", String.class);
+        Method save = OrderService.class.getMethod("save", String.class);
+        Method now = Clock.class.getMethod("now");
+
+        PointcutPrefilter byType = PointcutPrefilter.parse(EXPRESSIONS[3]);
+        Assert.assertTrue(byType.couldMatch(placeOrder, orderService));
+        Assert.assertFalse(byType.couldMatch(now, clock));
+
+        PointcutPrefilter byAnnotation = PointcutPrefilter.parse(EXPRESSIONS[7]);
+        Assert.assertTrue(byAnnotation.couldMatch(placeOrder, orderService));
+        Assert.assertFalse(byAnnotation.couldMatch(save, orderService));
+
+        PointcutPrefilter bySubtype = PointcutPrefilter.parse(EXPRESSIONS[4]);
+        Assert.assertTrue(bySubtype.couldMatch(save, orderService));
+        Assert.assertFalse(bySubtype.couldMatch(now, clock));
+
+        // 取反无法预先判断
+        Assert.assertSame(PointcutPrefilter.ANY, PointcutPrefilter.parse(EXPRESSIONS[10]));
+        Assert.assertSame(PointcutPrefilter.ANY, PointcutPrefilter.parse("within(site.hnfy258..*)"));
+    }
+
+    @Test
+    public void test_indexKeys() {
+        PointcutPrefilter.IndexKeys byName = PointcutPrefilter.parse(EXPRESSIONS[9]).getIndexKeys();
+        Assert.assertEquals(List.of("now", "save"), new ArrayList<>(byName.getMethodNames()));
+
+        PointcutPrefilter.IndexKeys byPackage = PointcutPrefilter.parse(EXPRESSIONS[3]).getIndexKeys();
+        Assert.assertEquals(List.of("site.hnfy258.bean"), new ArrayList<>(byPackage.getTypeNamePrefixes()));
+        Assert.assertTrue(PointcutPrefilter.TypeNames.of(OrderService.class).getNamePrefixes()
+                .contains("site.hnfy258.bean"));
+
+        Assert.assertNull(PointcutPrefilter.parse(EXPRESSIONS[12]).getIndexKeys());
+    }
+
+    @Test
+    public void test_noProxyWithoutMatchingMethod() throws Exception {
+        AspectJAutoProxyCreator proxyCreator = new AspectJAutoProxyCreator(new DefaultListableBeanFactory());
+        proxyCreator.postProcessBeforeInitialization(new MissingMethodAspect(), "MissingMethodAspect");
+        OrderService orderService = new OrderService();
+        Assert.assertSame(orderService, proxyCreator.postProcessAfterInitialization(orderService, "OrderService"));
+
+        // 切面加入后重建索引
+        proxyCreator.postProcessBeforeInitialization(new PlaceOrderAspect(), "PlaceOrderAspect");
+        Assert.assertNotSame(orderService, proxyCreator.postProcessAfterInitialization(orderService, "OrderService"));
+        Clock clock = new Clock();
+        Assert.assertSame(clock, proxyCreator.postProcessAfterInitialization(clock, "Clock"));
+    }
+}
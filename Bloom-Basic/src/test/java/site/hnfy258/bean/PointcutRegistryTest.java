@@ -0,0 +1,202 @@
+package site.hnfy258.bean;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.annotation.After;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.annotation.Pointcut;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcut;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.AspectJAdvisorFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PointcutRegistryTest {
+
+    public static class Greeter {
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        public int length(String name) {
+            return name.length();
+        }
+    }
+
+    public abstract static class GreetingPointcuts {
+        @Pointcut("execution(* site.hnfy258.bean.PointcutRegistryTest.Greeter.greet(..))")
+        public void greeting() {
+        }
+    }
+
+    @Aspect
+    public static class BeforeGreetingAspect extends GreetingPointcuts {
+        @Before("greeting()")
+        public void beforeGreeting() {
+        }
+    }
+
+    @Aspect
+    public static class AfterGreetingAspect extends GreetingPointcuts {
+        @After("@greeting")
+        public void afterGreeting() {
+        }
+    }
+
+    @Aspect
+    public static class SelfReferencingPointcutAspect {
+        @Pointcut("greeting() || execution(* length(..))")
+        public void greeting() {
+        }
+
+        @Before("greeting()")
+        public void beforeGreeting() {
+        }
+    }
+
+    @Aspect
+    public static class MutualPointcutAspect {
+        @Pointcut("@lengths")
+        public void names() {
+        }
+
+        @Pointcut("names() && execution(* *(String))")
+        public void lengths() {
+        }
+
+        @Before("@names")
+        public void beforeNames() {
+        }
+    }
+
+    /**
+     * 自己定义 Greeter 的子类加载器，模拟按应用或按测试隔离的类加载器。
+     */
+    private static class ChildLoader extends ClassLoader {
+        ChildLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(Greeter.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = in.readAllBytes();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+
+    private static PointcutExpression parse(AspectJExpressionPointcutAdvisor advisor) {
+        return ((AspectJExpressionPointcut) advisor.getPointcut()).getPointcutExpression();
+    }
+
+    @Test
+    public void test_sharedPointcutReferenceParsedOnce() {
+        AspectJExpressionPointcutAdvisor before = new AspectJAdvisorFactory().getAdvisors(new BeforeGreetingAspect()).get(0);
+        AspectJExpressionPointcutAdvisor after = new AspectJAdvisorFactory().getAdvisors(new AfterGreetingAspect()).get(0);
+
+        // "greeting()" 展开后带括号，"@greeting" 不带，仍然共用一次解析
+        Assert.assertNotEquals(before.getExpression(), after.getExpression());
+        Assert.assertSame(parse(before), parse(after));
+        Assert.assertSame(parse(before), new AspectJExpressionPointcut(
+                " execution(* site.hnfy258.bean.PointcutRegistryTest.Greeter.greet(..)) ").getPointcutExpression());
+    }
+
+    @Test
+    public void test_cyclicPointcutReferenceRejected() {
+        // 自引用和相互引用都在展开时失败，而不是栈溢出
+        IllegalArgumentException selfReference = Assert.assertThrows(IllegalArgumentException.class,
+                () -> new AspectJAdvisorFactory().getAdvisors(new SelfReferencingPointcutAspect()));
+        Assert.assertTrue(selfReference.getMessage(), selfReference.getMessage().contains("possibly cyclic"));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new AspectJAdvisorFactory().getAdvisors(new MutualPointcutAspect()));
+    }
+
+    @Test
+    public void test_cachedMethodMatches() throws NoSuchMethodException {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(
+                "execution(* site.hnfy258.bean.PointcutRegistryTest.Greeter.greet(..))");
+        Method greet = Greeter.class.getMethod("greet", String.class);
+        Method length = Greeter.class.getMethod("length", String.class);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(pointcut.matches(greet, Greeter.class));
+            Assert.assertFalse(pointcut.matches(length, Greeter.class));
+        }
+        // 不同的表达式不共用匹配结果
+        Assert.assertTrue(new AspectJExpressionPointcut("execution(* length(..))").matches(length, Greeter.class));
+    }
+
+    private static WeakReference<ClassLoader> matchInChildLoader() throws Exception {
+        ClassLoader loader = new ChildLoader(PointcutRegistryTest.class.getClassLoader());
+        Class<?> greeter = loader.loadClass(Greeter.class.getName());
+        Assert.assertNotSame(Greeter.class, greeter);
+        Method greet = greeter.getMethod("greet", String.class);
+        Method length = greeter.getMethod("length", String.class);
+        for (int i = 0; i < 2; i++) {
+            Assert.assertTrue(new AspectJExpressionPointcut("execution(* greet(..))").matches(greet, greeter));
+            Assert.assertFalse(new AspectJExpressionPointcut("execution(* greet(..))").matches(length, greeter));
+        }
+        return new WeakReference<>(loader);
+    }
+
+    @Test
+    public void test_childLoaderUnloadedAfterMatching() throws Exception {
+        WeakReference<ClassLoader> loader = matchInChildLoader();
+        // 匹配缓存挂在子加载器定义的类上，不应让子加载器一直可达
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(loader.get());
+    }
+
+    @Test
+    public void test_concurrentGetPointcut() throws Exception {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression("execution(* site.hnfy258.bean.PointcutRegistryTest.Greeter.length(..))");
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Object> task = () -> {
+                    start.await();
+                    return advisor.getPointcut();
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                Assert.assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
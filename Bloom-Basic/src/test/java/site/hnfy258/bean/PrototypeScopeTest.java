@@ -0,0 +1,72 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.DisposableBean;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+public class PrototypeScopeTest {
+
+    public static class Counter {
+    }
+
+    public static class CounterHolder {
+        @Autowired
+        private Counter counter;
+    }
+
+    public static class Session implements DisposableBean {
+        private boolean destroyed;
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+        }
+    }
+
+    private static BeanDefinition prototype(Class<?> beanClass) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope("prototype");
+        return beanDefinition;
+    }
+
+    @Test
+    public void test_prototypeCreatedOnEveryLookup() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("prototypeCounter", prototype(Counter.class));
+        beanFactory.registerBeanDefinition("singletonCounter", new BeanDefinition(Counter.class));
+
+        Assert.assertNotSame(beanFactory.getBean("prototypeCounter"), beanFactory.getBean("prototypeCounter"));
+        Assert.assertSame(beanFactory.getBean("singletonCounter"), beanFactory.getBean("singletonCounter"));
+        Assert.assertFalse(beanFactory.containsSingleton("prototypeCounter"));
+    }
+
+    @Test
+    public void test_prototypeInjectedPerHolder() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("Counter", prototype(Counter.class));
+        beanFactory.registerBeanDefinition("CounterHolder", prototype(CounterHolder.class));
+
+        CounterHolder first = (CounterHolder) beanFactory.getBean("CounterHolder");
+        CounterHolder second = (CounterHolder) beanFactory.getBean("CounterHolder");
+        Assert.assertNotNull(first.counter);
+        Assert.assertNotSame(first.counter, second.counter);
+        Assert.assertNotSame(beanFactory.getBean(Counter.class), beanFactory.getBean(Counter.class));
+        // 原型 Bean 不会留在任何一级缓存中
+        Assert.assertFalse(beanFactory.containsSingleton("Counter"));
+        Assert.assertTrue(beanFactory.getLeftoverEarlySingletonNames().isEmpty());
+    }
+
+    @Test
+    public void test_prototypeNotDestroyedByContainer() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("Session", prototype(Session.class));
+
+        Session session = (Session) beanFactory.getBean("Session");
+        beanFactory.destroySingletons();
+        Assert.assertFalse(session.destroyed);
+    }
+}
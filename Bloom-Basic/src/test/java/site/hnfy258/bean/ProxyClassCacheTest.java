@@ -0,0 +1,119 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.TargetSource;
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.ProxyClassCache;
+import site.hnfy258.aop.framework.ProxyFactory;
+import site.hnfy258.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+import site.hnfy258.aop.framework.autoproxy.AspectJAutoProxyCreator;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.CglibInstaniateStrategy;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProxyClassCacheTest {
+
+    public static class Session {
+        static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+        public Session() {
+            CONSTRUCTED.incrementAndGet();
+        }
+    }
+
+    public static class Account {
+        private final String owner;
+
+        public Account() {
+            this("nobody");
+        }
+
+        public Account(String owner) {
+            this.owner = owner;
+        }
+
+        public String owner() {
+            return owner;
+        }
+    }
+
+    @Aspect
+    public static class OwnerAspect {
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Before("execution(* site.hnfy258.bean.ProxyClassCacheTest.Account.owner(..))")
+        public void beforeOwner() {
+            CALLS.incrementAndGet();
+        }
+    }
+
+    private static Account proxy(Account target, AtomicInteger adviceCount) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression("execution(* *.owner(..))");
+        advisor.setAdvice(new MethodBeforeAdviceInterceptor((method, args, object) -> adviceCount.incrementAndGet()));
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(target));
+        advisedSupport.setProxyTargetClass(true);
+        advisedSupport.addAdvisor(advisor);
+        return (Account) new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    @Test
+    public void test_prototypesShareGeneratedClass() throws BeansException {
+        CglibInstaniateStrategy strategy = new CglibInstaniateStrategy();
+        BeanDefinition prototype = new BeanDefinition(Session.class);
+        prototype.setScope("prototype");
+
+        int before = Session.CONSTRUCTED.get();
+        Set<Class<?>> classes = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            classes.add(strategy.instantiate(prototype, "session").getClass());
+        }
+        Assert.assertEquals(1, classes.size());
+        Assert.assertNotSame(Session.class, classes.iterator().next());
+        // 每个实例只调用一次构造函数
+        Assert.assertEquals(50, Session.CONSTRUCTED.get() - before);
+    }
+
+    @Test
+    public void test_proxiesShareClassButNotCallbacks() {
+        AtomicInteger adviceCount = new AtomicInteger();
+        Account alice = proxy(new Account("alice"), adviceCount);
+        Account bob = proxy(new Account("bob"), adviceCount);
+
+        Assert.assertSame(alice.getClass(), bob.getClass());
+        Assert.assertEquals("alice", alice.owner());
+        Assert.assertEquals("bob", bob.owner());
+        Assert.assertEquals(2, adviceCount.get());
+    }
+
+    @Test
+    public void test_cglibInstantiatedBeansAdvised() throws BeansException {
+        CglibInstaniateStrategy strategy = new CglibInstaniateStrategy();
+        AspectJAutoProxyCreator proxyCreator = new AspectJAutoProxyCreator(new DefaultListableBeanFactory());
+        Object aspect = strategy.instantiate(new BeanDefinition(OwnerAspect.class), "OwnerAspect");
+        Object account = strategy.instantiate(new BeanDefinition(Account.class), "Account");
+        Assert.assertEquals(OwnerAspect.class, ProxyClassCache.getUserClass(aspect.getClass()));
+
+        // 生成的子类上没有 @Aspect，按用户类识别切面
+        Assert.assertSame(aspect, proxyCreator.postProcessBeforeInitialization(aspect, "OwnerAspect"));
+        Assert.assertEquals(1, proxyCreator.getAdvisorsCache().get("OwnerAspect").size());
+
+        // 代理类继承用户类，而不是再继承一次生成的子类
+        Account proxy = (Account) proxyCreator.postProcessAfterInitialization(account, "Account");
+        Assert.assertNotSame(account, proxy);
+        Assert.assertSame(Account.class, proxy.getClass().getSuperclass());
+        int before = OwnerAspect.CALLS.get();
+        Assert.assertEquals("nobody", proxy.owner());
+        Assert.assertEquals(1, OwnerAspect.CALLS.get() - before);
+    }
+}
@@ -0,0 +1,79 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+import site.hnfy258.common.startup.BufferingStartupRecorder;
+import site.hnfy258.common.startup.StartupRecorder;
+
+import java.util.List;
+
+public class StartupRecorderTest {
+
+    public static class Repository {
+    }
+
+    public static class Facade {
+        @Autowired
+        private Repository repository;
+    }
+
+    @Test
+    public void test_nestedBeanCreationSteps() throws BeansException {
+        BufferingStartupRecorder recorder = new BufferingStartupRecorder();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setStartupRecorder(recorder);
+        beanFactory.registerBeanDefinition("Facade", new BeanDefinition(Facade.class));
+        beanFactory.registerBeanDefinition("Repository", new BeanDefinition(Repository.class));
+
+        beanFactory.getBean("Facade");
+
+        List<BufferingStartupRecorder.RecordedStep> creations = recorder.getSteps("bean.create");
+        Assert.assertEquals(2, creations.size());
+        BufferingStartupRecorder.RecordedStep facade = creations.get(0);
+        BufferingStartupRecorder.RecordedStep repository = creations.get(1);
+        Assert.assertEquals("Facade", facade.getTag("beanName"));
+        Assert.assertEquals("Repository", repository.getTag("beanName"));
+        // Repository 在注入 Facade 的字段时被创建
+        BufferingStartupRecorder.RecordedStep inject = recorder.getSteps("bean.inject").get(0);
+        Assert.assertEquals(facade.getId(), inject.getParentId());
+        Assert.assertEquals(inject.getId(), repository.getParentId());
+        Assert.assertTrue(facade.getDurationNanos() >= repository.getDurationNanos());
+
+        String trace = recorder.toChromeTrace();
+        Assert.assertTrue(trace, trace.startsWith("{\"traceEvents\":[{\"name\":\"bean.create\""));
+        Assert.assertTrue(trace, trace.contains("\"ph\":\"X\""));
+        Assert.assertTrue(trace, trace.contains("\"args\":{\"beanName\":\"Repository\"}"));
+    }
+
+    public static class FailingBean {
+        public FailingBean() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    @Test
+    public void test_stepsEndedWhenCreationFails() throws BeansException {
+        BufferingStartupRecorder recorder = new BufferingStartupRecorder();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setStartupRecorder(recorder);
+        beanFactory.registerBeanDefinition("FailingBean", new BeanDefinition(FailingBean.class));
+        beanFactory.registerBeanDefinition("Repository", new BeanDefinition(Repository.class));
+
+        Assert.assertThrows(BeansException.class, () -> beanFactory.getBean("FailingBean"));
+        Assert.assertEquals(1, recorder.getSteps("bean.instantiate").size());
+        Assert.assertEquals(1, recorder.getSteps("bean.create").size());
+
+        // 失败的步骤已经结束，之后的步骤不会挂在它下面
+        beanFactory.getBean("Repository");
+        Assert.assertEquals(0, recorder.getSteps("bean.create").get(1).getParentId());
+    }
+
+    @Test
+    public void test_noopRecorderSharesOneStep() {
+        Assert.assertSame(StartupRecorder.NOOP.start("a"), StartupRecorder.NOOP.start("b").tag("k", "v"));
+    }
+}
@@ -0,0 +1,62 @@
+package site.hnfy258.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.List;
+import java.util.Map;
+
+public class TypeIndexTest {
+
+    public interface PaymentGateway {
+    }
+
+    public static class AlipayGateway implements PaymentGateway {
+    }
+
+    public static class WechatGateway implements PaymentGateway {
+    }
+
+    private static DefaultListableBeanFactory newBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("AlipayGateway", new BeanDefinition(AlipayGateway.class));
+        beanFactory.registerBeanDefinition("WechatGateway", new BeanDefinition(WechatGateway.class));
+        return beanFactory;
+    }
+
+    @Test
+    public void test_ambiguousTypeWithoutPrimary() {
+        DefaultListableBeanFactory beanFactory = newBeanFactory();
+        try {
+            beanFactory.getBean(PaymentGateway.class);
+            Assert.fail("expected ambiguity");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("found 2: [AlipayGateway, WechatGateway]"));
+        }
+    }
+
+    @Test
+    public void test_primaryCandidateWins() throws BeansException {
+        DefaultListableBeanFactory beanFactory = newBeanFactory();
+        beanFactory.getBeanDefinition("WechatGateway").setPrimary(true);
+        beanFactory.freezeConfiguration();
+
+        Assert.assertTrue(beanFactory.getBean(PaymentGateway.class) instanceof WechatGateway);
+        Assert.assertTrue(beanFactory.getBean(AlipayGateway.class) instanceof AlipayGateway);
+    }
+
+    @Test
+    public void test_beansOfTypeInRegistrationOrder() throws BeansException {
+        DefaultListableBeanFactory beanFactory = newBeanFactory();
+        beanFactory.freezeConfiguration();
+
+        Map<String, PaymentGateway> gateways = beanFactory.getBeansOfType(PaymentGateway.class);
+        Assert.assertEquals(List.of("AlipayGateway", "WechatGateway"), List.copyOf(gateways.keySet()));
+        Assert.assertSame(gateways, beanFactory.getBeansOfType(PaymentGateway.class));
+        Assert.assertEquals(2, beanFactory.getBeansOfType(Object.class).size());
+        Assert.assertEquals(0, beanFactory.getBeanNamesForType(Runnable.class).length);
+    }
+}
@@ -0,0 +1,87 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.aop.JoinPoint;
+import site.hnfy258.aop.aspectj.AspectJAdviceMethod;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比调用一个通知方法的几种方式：直接调用、每次 getMethod 后反射调用（原来的实现），
+ * 以及创建通知器时绑定的 AspectJAdviceMethod（无参数和接收 JoinPoint 两种）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceInvocationBenchmark {
+
+    public static class CountingAspect {
+        private long count;
+
+        public void count() {
+            count++;
+        }
+
+        public void countWithJoinPoint(JoinPoint joinPoint) {
+            count += joinPoint.getArgs().length;
+        }
+    }
+
+    public static class Target {
+        public String work(String input) {
+            return input;
+        }
+    }
+
+    private final CountingAspect aspect = new CountingAspect();
+    private final Target target = new Target();
+    private final Object[] args = {"bloom"};
+    private Method targetMethod;
+    private AspectJAdviceMethod boundAdvice;
+    private AspectJAdviceMethod boundJoinPointAdvice;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        targetMethod = Target.class.getMethod("work", String.class);
+        boundAdvice = AspectJAdviceMethod.bind(aspect, CountingAspect.class.getMethod("count"), null);
+        boundJoinPointAdvice = AspectJAdviceMethod.bind(aspect,
+                CountingAspect.class.getMethod("countWithJoinPoint", JoinPoint.class), null);
+    }
+
+    @Benchmark
+    public long directCall() {
+        aspect.count();
+        return aspect.count;
+    }
+
+    @Benchmark
+    public long reflectiveLookupAndInvoke() throws Exception {
+        aspect.getClass().getMethod("count").invoke(aspect);
+        return aspect.count;
+    }
+
+    @Benchmark
+    public long boundMethodHandle() throws Throwable {
+        boundAdvice.invoke(targetMethod, args, target, null);
+        return aspect.count;
+    }
+
+    @Benchmark
+    public long boundMethodHandleWithJoinPoint() throws Throwable {
+        boundJoinPointAdvice.invoke(targetMethod, args, target, null);
+        return aspect.count;
+    }
+}
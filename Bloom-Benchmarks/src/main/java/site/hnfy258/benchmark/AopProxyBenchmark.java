@@ -0,0 +1,86 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.aop.AdvisedSupport;
+import site.hnfy258.aop.TargetSource;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import site.hnfy258.aop.framework.ProxyFactory;
+import site.hnfy258.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过 CGLIB 和 JDK 动态代理调用一个方法，分别匹配 0、1、5 个通知器，与直接调用对比。
+ * 通知器的组装方式与 AspectJAutoProxyCreator 一致：代理按方法缓存只包含匹配通知的调用链。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class AopProxyBenchmark {
+    private static final String MATCHING_EXPRESSION =
+            "execution(* site.hnfy258.benchmark.AopProxyBenchmark$EchoService.echo(..))";
+    private static final String NON_MATCHING_EXPRESSION =
+            "execution(* site.hnfy258.benchmark.AopProxyBenchmark$EchoService.missing(..))";
+
+    public interface EchoService {
+        String echo(String message);
+    }
+
+    public static class EchoServiceImpl implements EchoService {
+        @Override
+        public String echo(String message) {
+            return message;
+        }
+    }
+
+    @Param({"cglib", "jdk"})
+    private String proxyType;
+
+    @Param({"0", "1", "5"})
+    private int advisorCount;
+
+    // 通知中累加，避免空通知被优化掉
+    private long adviceInvocations;
+    private EchoService target;
+    private EchoService proxy;
+
+    @Setup
+    public void setUp() {
+        target = new EchoServiceImpl();
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(target));
+        advisedSupport.setProxyTargetClass("cglib".equals(proxyType));
+
+        // 没有匹配的通知器时切点不匹配任何方法，代理直接调用目标
+        for (int i = 0; i < Math.max(advisorCount, 1); i++) {
+            AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+            advisor.setExpression(advisorCount == 0 ? NON_MATCHING_EXPRESSION : MATCHING_EXPRESSION);
+            advisor.setAdvice(new MethodBeforeAdviceInterceptor((method, args, object) -> adviceInvocations++));
+            advisedSupport.addAdvisor(advisor);
+        }
+        proxy = (EchoService) new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    @Benchmark
+    public String directCall() {
+        return target.echo("hello");
+    }
+
+    @Benchmark
+    public String proxyCall() {
+        return proxy.echo("hello");
+    }
+}
@@ -0,0 +1,111 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器热路径：按名称和按类型命中单例缓存、创建单例和原型 Bean，以及带字段注入的原型创建。
+ * 容器中另外注册了 200 个无关的 Bean 定义，让按类型查找面对接近真实应用的注册表大小。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanFactoryBenchmark {
+    private static final int FILLER_BEAN_COUNT = 200;
+
+    public static class Repository {
+    }
+
+    public static class Clock {
+    }
+
+    public static class Service {
+        @Autowired
+        private Repository repository;
+        @Autowired
+        private Clock clock;
+    }
+
+    public static class PlainBean {
+    }
+
+    public static class FillerBean {
+    }
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Setup
+    public void setUp() throws BeansException {
+        beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < FILLER_BEAN_COUNT; i++) {
+            beanFactory.registerBeanDefinition("filler" + i, new BeanDefinition(FillerBean.class));
+        }
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        beanFactory.registerBeanDefinition("clock", new BeanDefinition(Clock.class));
+        beanFactory.registerBeanDefinition("service", new BeanDefinition(Service.class));
+        beanFactory.registerBeanDefinition("prototypeService", prototype(Service.class));
+        beanFactory.registerBeanDefinition("prototypeBean", prototype(PlainBean.class));
+        beanFactory.freezeConfiguration();
+        beanFactory.preInstantiateSingletons();
+    }
+
+    private static BeanDefinition prototype(Class<?> beanClass) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope("prototype");
+        return beanDefinition;
+    }
+
+    @Benchmark
+    public Object getBeanByName() throws BeansException {
+        return beanFactory.getBean("service");
+    }
+
+    @Benchmark
+    public Object getBeanByType() throws BeansException {
+        return beanFactory.getBean(Repository.class);
+    }
+
+    @Benchmark
+    public Object createPrototype() throws BeansException {
+        return beanFactory.getBean("prototypeBean");
+    }
+
+    @Benchmark
+    public Object createPrototypeWithInjection() throws BeansException {
+        return beanFactory.getBean("prototypeService");
+    }
+
+    /**
+     * 在新的容器中注册并创建一个单例，与 createPrototypeInFreshFactory 对比作用域处理的差别。
+     */
+    @Benchmark
+    public Object createSingletonInFreshFactory() throws BeansException {
+        DefaultListableBeanFactory freshFactory = new DefaultListableBeanFactory();
+        freshFactory.registerBeanDefinition("plainBean", new BeanDefinition(PlainBean.class));
+        return freshFactory.getBean("plainBean");
+    }
+
+    @Benchmark
+    public Object createPrototypeInFreshFactory() throws BeansException {
+        DefaultListableBeanFactory freshFactory = new DefaultListableBeanFactory();
+        freshFactory.registerBeanDefinition("plainBean", prototype(PlainBean.class));
+        return freshFactory.getBean("plainBean");
+    }
+}
@@ -0,0 +1,31 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行基准测试并开启 GC 分析器，结果以 JSON 写入文件，便于不同版本之间对比。
+ *
+ * <pre>
+ * java -cp benchmarks.jar site.hnfy258.benchmark.BenchmarkRunner [基准名称正则] [结果文件]
+ * </pre>
+ * 默认运行所有基准，结果写入 jmh-result.json。gc.alloc.rate.norm 一列是每次操作分配的字节数。
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.support.ClassPathBeanDefinitionScanner;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.benchmark.support.SyntheticClasspath;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比组件索引、单线程类路径遍历和并行类路径遍历三种扫描方式。
+ * 每次调用都使用新的类加载器，因此类加载的开销也计算在内。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ComponentScanBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int classCount;
+
+    private SyntheticClasspath classpath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        classpath = SyntheticClasspath.generate(classCount, 0.1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        classpath.close();
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory scanWithIndex() throws IOException {
+        return scan(classpath.getClasspath(true), 1);
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory scanClasspath() throws IOException {
+        return scan(classpath.getClasspath(false), 1);
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory scanClasspathParallel() throws IOException {
+        return scan(classpath.getClasspath(false), 0);
+    }
+
+    private DefaultListableBeanFactory scan(URL[] urls, int parallelism) throws IOException {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(urls, getClass().getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory);
+            scanner.setParallelism(parallelism);
+            scanner.scan(SyntheticClasspath.BASE_PACKAGE);
+            return beanFactory;
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+}
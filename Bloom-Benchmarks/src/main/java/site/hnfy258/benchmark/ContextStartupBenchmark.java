@@ -0,0 +1,46 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.context.BloomBootApplicationContext;
+import site.hnfy258.benchmark.app.BenchmarkApplication;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整启动 BenchmarkApplication：扫描、依赖分析、后置处理器、创建单例和代理。
+ * 每个 fork 只测一次，测到的是类加载和 JIT 都未预热的冷启动时间。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class ContextStartupBenchmark {
+
+    private BloomBootApplicationContext context;
+
+    @Benchmark
+    public BloomBootApplicationContext coldStartup() throws BeansException {
+        context = BloomBootApplicationContext.run(BenchmarkApplication.class);
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws BeansException {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.support.ClassPathBeanDefinitionScanner;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.benchmark.support.SyntheticClasspath;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在约 200MB 的 fat jar 中扫描一个包，对比 JarFile 遍历全部条目和映射中央目录后按前缀查找两种方式。
+ * 扫描包只占 jar 中很小的一部分，其余是填充条目。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FatJarScanBenchmark {
+
+    @Param({"66000"})
+    private int fillerCount;
+
+    @Param({"3000"})
+    private int fillerSize;
+
+    private SyntheticClasspath classpath;
+    private Path jarFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        classpath = SyntheticClasspath.generate(2000, 0.1);
+        jarFile = Files.createTempFile("bloom-fat", ".jar");
+        classpath.writeJar(jarFile, fillerCount, fillerSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        classpath.close();
+        Files.deleteIfExists(jarFile);
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory scanJarFile() throws IOException {
+        System.setProperty(ClassPathBeanDefinitionScanner.IGNORE_MAPPED_JAR_PROPERTY, "true");
+        try {
+            return scan();
+        } finally {
+            System.clearProperty(ClassPathBeanDefinitionScanner.IGNORE_MAPPED_JAR_PROPERTY);
+        }
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory scanMappedJar() throws IOException {
+        return scan();
+    }
+
+    private DefaultListableBeanFactory scan() throws IOException {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jarFile.toUri().toURL()}, getClass().getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory);
+            scanner.scan(SyntheticClasspath.BASE_PACKAGE);
+            return beanFactory;
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+}
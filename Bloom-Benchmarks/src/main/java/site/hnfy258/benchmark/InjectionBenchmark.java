@@ -0,0 +1,139 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.support.InjectionMetadata;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比为一个原型 Bean 注入 3 个字段并执行 @PostConstruct 的几种方式：
+ * 每次遍历类层次结构的反射（原来的实现）、缓存 Field/Method 后的反射，以及 InjectionMetadata 中的 MethodHandle。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionBenchmark {
+
+    public static class Repository {
+    }
+
+    public static class Cache {
+    }
+
+    public static class Clock {
+    }
+
+    public static class BaseHandler {
+        @Autowired
+        private Clock clock;
+    }
+
+    public static class RequestHandler extends BaseHandler {
+        @Autowired
+        private Repository repository;
+        @Autowired
+        private Cache cache;
+        private boolean initialized;
+
+        @PostConstruct
+        private void init() {
+            initialized = true;
+        }
+    }
+
+    private final Repository repository = new Repository();
+    private final Cache cache = new Cache();
+    private final Clock clock = new Clock();
+
+    private List<Field> cachedFields;
+    private List<Method> cachedInitMethods;
+    private InjectionMetadata metadata;
+
+    @Setup
+    public void setUp() {
+        metadata = InjectionMetadata.forClass(RequestHandler.class);
+        cachedFields = new ArrayList<>();
+        cachedInitMethods = new ArrayList<>();
+        for (InjectionMetadata.InjectedField injectedField : metadata.getInjectedFields()) {
+            cachedFields.add(injectedField.getField());
+        }
+        for (InjectionMetadata.InitMethod initMethod : metadata.getInitMethods()) {
+            cachedInitMethods.add(initMethod.getMethod());
+        }
+    }
+
+    private Object dependencyFor(Class<?> type) {
+        if (type == Repository.class) {
+            return repository;
+        }
+        return type == Cache.class ? cache : clock;
+    }
+
+    @Benchmark
+    public RequestHandler reflectionWalkingHierarchy() throws Exception {
+        RequestHandler bean = new RequestHandler();
+        Class<?> clazz = bean.getClass();
+        while (clazz != null && clazz != Object.class) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Autowired.class)) {
+                    field.setAccessible(true);
+                    field.set(bean, dependencyFor(field.getType()));
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        clazz = bean.getClass();
+        while (clazz != null && clazz != Object.class) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(PostConstruct.class)) {
+                    method.setAccessible(true);
+                    method.invoke(bean);
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return bean;
+    }
+
+    @Benchmark
+    public RequestHandler cachedReflection() throws Exception {
+        RequestHandler bean = new RequestHandler();
+        for (Field field : cachedFields) {
+            field.set(bean, dependencyFor(field.getType()));
+        }
+        for (Method method : cachedInitMethods) {
+            method.invoke(bean);
+        }
+        return bean;
+    }
+
+    @Benchmark
+    public RequestHandler methodHandles() throws Throwable {
+        RequestHandler bean = new RequestHandler();
+        for (InjectionMetadata.InjectedField injectedField : metadata.getInjectedFields()) {
+            injectedField.inject(bean, dependencyFor(injectedField.getField().getType()));
+        }
+        for (InjectionMetadata.InitMethod initMethod : metadata.getInitMethods()) {
+            initMethod.invoke(bean);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,86 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.CglibInstaniateStrategy;
+import site.hnfy258.bean.factory.support.InjectionMetadata;
+import site.hnfy258.bean.factory.support.JdkInstaniateStrategy;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比实例化一个没有接口的 Bean 的几种方式：CGLIB 子类（原来的默认策略）、每次反射查找构造函数，
+ * 以及 InjectionMetadata 中编译为 MethodHandle 的构造函数（无参和两个构造函数参数）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class InstantiationBenchmark {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    public static class PlainBean {
+    }
+
+    public static class Repository {
+    }
+
+    public static class Clock {
+    }
+
+    public static class Service {
+        private final Repository repository;
+        private final Clock clock;
+
+        public Service(Repository repository, Clock clock) {
+            this.repository = repository;
+            this.clock = clock;
+        }
+    }
+
+    private final CglibInstaniateStrategy cglibStrategy = new CglibInstaniateStrategy();
+    private final JdkInstaniateStrategy constructorStrategy = new JdkInstaniateStrategy();
+    private final BeanDefinition plainDefinition = new BeanDefinition(PlainBean.class);
+    private final BeanDefinition serviceDefinition = new BeanDefinition(Service.class);
+    private final Object[] serviceArgs = {new Repository(), new Clock()};
+    private InjectionMetadata.BeanConstructor plainConstructor;
+    private InjectionMetadata.BeanConstructor serviceConstructor;
+
+    @Setup
+    public void setUp() {
+        plainConstructor = InjectionMetadata.forClass(PlainBean.class).getConstructor();
+        serviceConstructor = InjectionMetadata.forClass(Service.class).getConstructor();
+    }
+
+    @Benchmark
+    public Object cglibSubclass() throws BeansException {
+        return cglibStrategy.instantiate(plainDefinition, "plainBean");
+    }
+
+    @Benchmark
+    public Object reflectiveConstructor() throws BeansException {
+        return constructorStrategy.instantiate(plainDefinition, "plainBean");
+    }
+
+    @Benchmark
+    public Object constructorHandle() throws BeansException {
+        return constructorStrategy.instantiate(plainDefinition, "plainBean", plainConstructor, NO_ARGS);
+    }
+
+    @Benchmark
+    public Object constructorHandleWithArguments() throws BeansException {
+        return constructorStrategy.instantiate(serviceDefinition, "service", serviceConstructor, serviceArgs);
+    }
+}
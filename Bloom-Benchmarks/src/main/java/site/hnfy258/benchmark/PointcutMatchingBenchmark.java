@@ -0,0 +1,92 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.aop.aspectj.AspectJExpressionPointcut;
+import site.hnfy258.aop.aspectj.PointcutPrefilter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AspectJExpressionPointcut 的解析、类过滤和方法匹配，分别测试匹配和不匹配的情况。
+ * 表达式按文本共享解析结果，parseExpression 测到的是第一次解析之后的查找；方法匹配的结果也被缓存。
+ * prefilterMiss 是 AspectJAutoProxyCreator 在调用 AspectJ 之前用预过滤条件排除同一个类的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointcutMatchingBenchmark {
+    private static final String EXPRESSION =
+            "execution(* site.hnfy258.benchmark.PointcutMatchingBenchmark$OrderService.create*(..))";
+
+    public static class OrderService {
+        public void createOrder(String item) {
+        }
+
+        public int countOrders() {
+            return 0;
+        }
+    }
+
+    public static class UserRepository {
+        public void save(String user) {
+        }
+    }
+
+    private AspectJExpressionPointcut pointcut;
+    private PointcutPrefilter prefilter;
+    private Method repositoryMethod;
+    private Method matchingMethod;
+    private Method nonMatchingMethod;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        pointcut = new AspectJExpressionPointcut(EXPRESSION);
+        prefilter = PointcutPrefilter.parse(EXPRESSION);
+        repositoryMethod = UserRepository.class.getMethod("save", String.class);
+        matchingMethod = OrderService.class.getMethod("createOrder", String.class);
+        nonMatchingMethod = OrderService.class.getMethod("countOrders");
+    }
+
+    @Benchmark
+    public AspectJExpressionPointcut parseExpression() {
+        return new AspectJExpressionPointcut(EXPRESSION);
+    }
+
+    @Benchmark
+    public boolean classFilterMatch() {
+        return pointcut.matches(OrderService.class);
+    }
+
+    @Benchmark
+    public boolean classFilterMiss() {
+        return pointcut.matches(UserRepository.class);
+    }
+
+    @Benchmark
+    public boolean prefilterMiss() {
+        return prefilter.couldMatch(repositoryMethod, PointcutPrefilter.TypeNames.of(UserRepository.class));
+    }
+
+    @Benchmark
+    public boolean methodMatch() {
+        return pointcut.matches(matchingMethod, OrderService.class);
+    }
+
+    @Benchmark
+    public boolean methodMiss() {
+        return pointcut.matches(nonMatchingMethod, OrderService.class);
+    }
+}
@@ -0,0 +1,174 @@
+package site.hnfy258.benchmark;
+
+import site.hnfy258.BloomApplication;
+import site.hnfy258.bean.factory.context.BloomBootApplicationContext;
+import site.hnfy258.benchmark.support.SyntheticApplication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 生成不同规模的合成应用，逐个用 BloomApplication.run 启动，对比启动时间、堆和元空间随 Bean 数量的变化。
+ *
+ * <pre>
+ * java -cp benchmarks.jar site.hnfy258.benchmark.ScalingHarness [Bean 数量列表] [CSV 结果文件]
+ * </pre>
+ * Bean 数量默认为 100,500,1000,2000,5000，结果默认写入 scaling-result.csv。
+ * 其余规模参数通过系统属性设置：scaling.fanOut、scaling.cycleRatio、scaling.aspects、scaling.prototypeShare。
+ *
+ * 每个应用在单独的 JVM 中启动，测到的是冷启动，互相之间不共享已加载的类和 JIT 结果。
+ * 堆和元空间是启动前后（各执行一次 GC 之后）的差值，即上下文本身占用的内存。
+ */
+public class ScalingHarness {
+    private static final String RESULT_PREFIX = "SCALING-RESULT\t";
+    private static final int CHART_WIDTH = 50;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && "--boot".equals(args[0])) {
+            boot(args[1]);
+            return;
+        }
+        String beanCounts = args.length > 0 ? args[0] : "100,500,1000,2000,5000";
+        Path resultFile = Paths.get(args.length > 1 ? args[1] : "scaling-result.csv");
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (String beanCount : beanCounts.split(",")) {
+            SyntheticApplication.Settings settings = new SyntheticApplication.Settings()
+                    .beanCount(Integer.parseInt(beanCount.trim()))
+                    .fanOut(Integer.getInteger("scaling.fanOut", 3))
+                    .cycleRatio(Double.parseDouble(System.getProperty("scaling.cycleRatio", "0.02")))
+                    .aspectCount(Integer.getInteger("scaling.aspects", 2))
+                    .prototypeShare(Double.parseDouble(System.getProperty("scaling.prototypeShare", "0.1")));
+            try (SyntheticApplication application = SyntheticApplication.generate(settings)) {
+                System.out.println("启动 " + settings + "，循环 " + application.getCycleCount() + " 个");
+                Measurement measurement = launch(application);
+                measurements.add(measurement);
+                System.out.printf("  %d ms, 堆 %.1f MB, 元空间 %.1f MB%n",
+                        measurement.startupMillis, megabytes(measurement.heapBytes), megabytes(measurement.metaspaceBytes));
+            }
+        }
+
+        printChart("启动时间 (ms)", measurements, m -> m.startupMillis, 1);
+        printChart("堆 (MB)", measurements, m -> m.heapBytes, 1024 * 1024);
+        printChart("元空间 (MB)", measurements, m -> m.metaspaceBytes, 1024 * 1024);
+        writeCsv(resultFile, measurements);
+        System.out.println("结果已写入 " + resultFile.toAbsolutePath());
+    }
+
+    /**
+     * 在子进程中启动应用，子进程使用当前的类路径再加上生成的类。
+     */
+    private static Measurement launch(SyntheticApplication application) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path") + File.pathSeparator + application.getClassesDir();
+        // 生成的应用带有切面，没有接口的 Bean 的 AOP 代理由 CGLIB 生成，需要开放 java.lang
+        Process process = new ProcessBuilder(java, "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-cp", classpath, ScalingHarness.class.getName(), "--boot", SyntheticApplication.APPLICATION_CLASS_NAME)
+                .redirectErrorStream(true)
+                .start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = line.substring(RESULT_PREFIX.length());
+                } else {
+                    System.out.println("  | " + line);
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || result == null) {
+            throw new IllegalStateException("应用启动失败，退出码 " + exitCode);
+        }
+        String[] fields = result.split("\t");
+        return new Measurement(application.getSettings().getBeanCount(),
+                Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+    }
+
+    /**
+     * 子进程入口：启动应用并输出一行测量结果。
+     */
+    private static void boot(String applicationClassName) throws Exception {
+        Class<?> applicationClass = Class.forName(applicationClassName);
+        long heapBefore = usedHeapAfterGc();
+        long metaspaceBefore = usedMetaspace();
+        long start = System.nanoTime();
+        BloomBootApplicationContext context = BloomApplication.run(applicationClass);
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+        long heap = usedHeapAfterGc() - heapBefore;
+        long metaspace = usedMetaspace() - metaspaceBefore;
+        System.out.println(RESULT_PREFIX + startupMillis + "\t" + heap + "\t" + metaspace);
+        context.close();
+    }
+
+    private static long usedHeapAfterGc() {
+        // 调用两次，让上一次 GC 中进入待回收队列的对象也被回收
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedMetaspace() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                return pool.getUsage().getUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static void printChart(String title, List<Measurement> measurements, ToLongFunction<Measurement> metric, long unit) {
+        long max = 1;
+        for (Measurement measurement : measurements) {
+            max = Math.max(max, metric.applyAsLong(measurement));
+        }
+        System.out.println();
+        System.out.println(title);
+        for (Measurement measurement : measurements) {
+            long value = metric.applyAsLong(measurement);
+            int width = (int) Math.max(0, Math.round((double) value / max * CHART_WIDTH));
+            System.out.printf("%8d | %-" + CHART_WIDTH + "s %.1f%n", measurement.beanCount, "#".repeat(width), (double) value / unit);
+        }
+    }
+
+    private static void writeCsv(Path resultFile, List<Measurement> measurements) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)) {
+            writer.write("beans,startupMillis,heapBytes,metaspaceBytes\n");
+            for (Measurement measurement : measurements) {
+                writer.write(measurement.beanCount + "," + measurement.startupMillis + ","
+                        + measurement.heapBytes + "," + measurement.metaspaceBytes + "\n");
+            }
+        }
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static class Measurement {
+        private final int beanCount;
+        private final long startupMillis;
+        private final long heapBytes;
+        private final long metaspaceBytes;
+
+        Measurement(int beanCount, long startupMillis, long heapBytes, long metaspaceBytes) {
+            this.beanCount = beanCount;
+            this.startupMillis = startupMillis;
+            this.heapBytes = heapBytes;
+            this.metaspaceBytes = metaspaceBytes;
+        }
+    }
+}
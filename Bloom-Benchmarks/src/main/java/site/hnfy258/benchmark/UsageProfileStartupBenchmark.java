@@ -0,0 +1,101 @@
+package site.hnfy258.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.config.BeanDefinition;
+import site.hnfy258.bean.factory.support.BeanUsageProfile;
+import site.hnfy258.bean.factory.support.BeanUsageTracker;
+import site.hnfy258.bean.factory.support.DefaultListableBeanFactory;
+import site.hnfy258.common.exceptions.BeansException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在 5000 个 Bean 的合成应用上对比按注册顺序创建全部单例，以及按使用频率画像推迟冷 Bean 的启动耗时。
+ * 画像由若干次只使用前 hotPercent% 个 Bean 的模拟运行合并而成。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UsageProfileStartupBenchmark {
+    private static final int BEAN_COUNT = 5000;
+    private static final int COLD_BEAN_THRESHOLD = 3;
+
+    /**
+     * 初始化时构建一个小的查找表，模拟加载配置、预热缓存之类的工作。
+     */
+    public static class SyntheticService {
+        private Map<Integer, String> lookup;
+
+        @PostConstruct
+        public void init() {
+            lookup = new HashMap<>();
+            for (int i = 0; i < 200; i++) {
+                lookup.put(i, Integer.toHexString(i * 31));
+            }
+        }
+    }
+
+    @Param({"10", "50"})
+    private int hotPercent;
+
+    private List<String> beanNames;
+    private BeanUsageProfile profile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        beanNames = new ArrayList<>(BEAN_COUNT);
+        for (int i = 0; i < BEAN_COUNT; i++) {
+            beanNames.add("service" + i);
+        }
+        int hotCount = BEAN_COUNT * hotPercent / 100;
+        profile = BeanUsageProfile.empty();
+        for (int run = 0; run < COLD_BEAN_THRESHOLD; run++) {
+            BeanUsageTracker tracker = new BeanUsageTracker();
+            for (int i = 0; i < hotCount; i++) {
+                tracker.recordGetBean(beanNames.get(i));
+            }
+            profile = profile.merge(tracker, beanNames);
+        }
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory eagerStartup() throws BeansException {
+        return start(null);
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory profiledStartup() throws BeansException {
+        return start(profile);
+    }
+
+    private DefaultListableBeanFactory start(BeanUsageProfile usageProfile) throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (String beanName : beanNames) {
+            beanFactory.registerBeanDefinition(beanName, new BeanDefinition(SyntheticService.class));
+        }
+        beanFactory.setUsageProfile(usageProfile);
+        beanFactory.setColdBeanThreshold(COLD_BEAN_THRESHOLD);
+        beanFactory.setUsageTracker(new BeanUsageTracker());
+        beanFactory.preInstantiateSingletons();
+        return beanFactory;
+    }
+}
@@ -0,0 +1,16 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.aop.annotation.Aspect;
+import site.hnfy258.aop.annotation.Before;
+import site.hnfy258.bean.factory.annotation.Component;
+
+@Aspect
+@Component
+public class AuditAspect {
+    private long audited;
+
+    @Before("execution(* site.hnfy258.benchmark.app.OrderService.placeOrder(..))")
+    public void audit() {
+        audited++;
+    }
+}
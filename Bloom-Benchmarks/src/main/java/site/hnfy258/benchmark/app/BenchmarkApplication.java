@@ -0,0 +1,10 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.bean.factory.annotation.BloomBootApplication;
+
+/**
+ * ContextStartupBenchmark 启动的小型应用：两个仓库、两个服务和一个切面。
+ */
+@BloomBootApplication
+public class BenchmarkApplication {
+}
@@ -0,0 +1,19 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.bean.factory.annotation.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class OrderRepository {
+    private final List<String> orders = new ArrayList<>();
+
+    public void save(String order) {
+        orders.add(order);
+    }
+
+    public int count() {
+        return orders.size();
+    }
+}
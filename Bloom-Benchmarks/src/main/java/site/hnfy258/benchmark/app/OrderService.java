@@ -0,0 +1,23 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.PostConstruct;
+import site.hnfy258.bean.factory.annotation.Service;
+
+@Service
+public class OrderService {
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserService userService;
+
+    @PostConstruct
+    public void init() {
+        orderRepository.save("warmup");
+    }
+
+    public String placeOrder(long userId, String item) {
+        orderRepository.save(item);
+        return userService.describe(userId) + " ordered " + item;
+    }
+}
@@ -0,0 +1,11 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.bean.factory.annotation.Repository;
+
+@Repository
+public class UserRepository {
+
+    public String findName(long id) {
+        return "user-" + id;
+    }
+}
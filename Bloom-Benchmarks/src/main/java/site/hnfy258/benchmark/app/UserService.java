@@ -0,0 +1,14 @@
+package site.hnfy258.benchmark.app;
+
+import site.hnfy258.bean.factory.annotation.Autowired;
+import site.hnfy258.bean.factory.annotation.Service;
+
+@Service
+public class UserService {
+    @Autowired
+    private UserRepository userRepository;
+
+    public String describe(long id) {
+        return userRepository.findName(id);
+    }
+}
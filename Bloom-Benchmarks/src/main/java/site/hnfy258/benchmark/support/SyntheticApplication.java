@@ -0,0 +1,300 @@
+package site.hnfy258.benchmark.support;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 生成 Java 源码并用 javax.tools 在进程内编译的合成应用，用来观察容器在不同规模下的启动表现。
+ *
+ * 生成的应用包含一个 @BloomBootApplication 主类、若干 Bean 和切面：
+ * <ul>
+ *     <li>Bean 按每包 {@value #BEANS_PER_PACKAGE} 个分布在 {@value #BASE_PACKAGE} 的子包中，
+ *     每个 Bean 通过 @Autowired 字段依赖若干编号更小的 Bean，依赖关系本身是无环的</li>
+ *     <li>按循环比例挑出相邻的两个单例互相依赖，形成需要提前引用才能创建的循环</li>
+ *     <li>每个切面拦截一个子包中所有 Bean 的 work() 方法，被拦截的 Bean 会被创建代理</li>
+ *     <li>按原型比例把一部分 Bean 标为 @Scope("prototype")，原型不参与循环</li>
+ * </ul>
+ * 同样的 Settings 总是生成同样的应用。
+ */
+public class SyntheticApplication implements Closeable {
+    public static final String BASE_PACKAGE = "site.hnfy258.generated";
+    public static final String APPLICATION_CLASS_NAME = BASE_PACKAGE + ".GeneratedApplication";
+
+    static final int BEANS_PER_PACKAGE = 100;
+
+    private final Path root;
+    private final Path classesDir;
+    private final Settings settings;
+    private final int cycleCount;
+
+    private SyntheticApplication(Path root, Settings settings, int cycleCount) {
+        this.root = root;
+        this.classesDir = root.resolve("classes");
+        this.settings = settings;
+        this.cycleCount = cycleCount;
+    }
+
+    /**
+     * 生成并编译应用，编译使用当前进程的类路径，因此 Bloom-Basic 必须在类路径上。
+     *
+     * @throws IllegalStateException 如果运行在没有编译器的 JRE 上，或生成的源码编译失败
+     */
+    public static SyntheticApplication generate(Settings settings) throws IOException {
+        Path root = Files.createTempDirectory("bloom-synthetic-app");
+        Path sourcesDir = root.resolve("sources");
+        Random random = new Random(settings.seed);
+        int beanCount = settings.beanCount;
+
+        boolean[] prototype = new boolean[beanCount];
+        List<Set<Integer>> dependencies = new ArrayList<>(beanCount);
+        for (int i = 0; i < beanCount; i++) {
+            prototype[i] = random.nextDouble() < settings.prototypeShare;
+            Set<Integer> targets = new LinkedHashSet<>();
+            int fanOut = Math.min(settings.fanOut, i);
+            while (targets.size() < fanOut) {
+                targets.add(random.nextInt(i));
+            }
+            dependencies.add(targets);
+        }
+
+        // 每个循环占用两个 Bean，所以按比例的一半决定是否在相邻的两个单例之间加一条回边
+        int cycleCount = 0;
+        for (int i = 0; i + 1 < beanCount; i++) {
+            if (prototype[i] || prototype[i + 1] || random.nextDouble() >= settings.cycleRatio / 2) {
+                continue;
+            }
+            dependencies.get(i + 1).add(i);
+            dependencies.get(i).add(i + 1);
+            cycleCount++;
+            i++;
+        }
+
+        List<Path> sources = new ArrayList<>();
+        sources.add(writeSource(sourcesDir, APPLICATION_CLASS_NAME, applicationSource()));
+        for (int i = 0; i < beanCount; i++) {
+            sources.add(writeSource(sourcesDir, beanClassName(i), beanSource(i, prototype[i], dependencies.get(i))));
+        }
+        int packageCount = (beanCount + BEANS_PER_PACKAGE - 1) / BEANS_PER_PACKAGE;
+        for (int i = 0; i < settings.aspectCount; i++) {
+            String className = BASE_PACKAGE + ".aspects.GeneratedAspect" + i;
+            sources.add(writeSource(sourcesDir, className, aspectSource(i, i % Math.max(packageCount, 1))));
+        }
+
+        SyntheticApplication application = new SyntheticApplication(root, settings, cycleCount);
+        application.compile(sources);
+        return application;
+    }
+
+    static String beanClassName(int index) {
+        return BASE_PACKAGE + ".p" + (index / BEANS_PER_PACKAGE) + ".Bean" + index;
+    }
+
+    private static String applicationSource() {
+        // 容器日志会淹没测量输出，只保留警告
+        return "package " + BASE_PACKAGE + ";\n\n"
+                + "@site.hnfy258.bean.factory.annotation.BloomBootApplication(logLevel = site.hnfy258.common.logging.LogLevel.WARN)\n"
+                + "public class GeneratedApplication {\n"
+                + "}\n";
+    }
+
+    private static String beanSource(int index, boolean prototype, Set<Integer> dependencies) {
+        String className = beanClassName(index);
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(className, 0, className.lastIndexOf('.')).append(";\n\n")
+                .append("@site.hnfy258.bean.factory.annotation.Component\n");
+        if (prototype) {
+            source.append("@site.hnfy258.bean.factory.annotation.Scope(\"prototype\")\n");
+        }
+        source.append("public class Bean").append(index).append(" {\n");
+        for (int dependency : dependencies) {
+            source.append("    @site.hnfy258.bean.factory.annotation.Autowired\n")
+                    .append("    private ").append(beanClassName(dependency))
+                    .append(" dependency").append(dependency).append(";\n");
+        }
+        return source.append("\n    public int work() {\n")
+                .append("        return ").append(index).append(";\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+
+    private static String aspectSource(int index, int targetPackage) {
+        return "package " + BASE_PACKAGE + ".aspects;\n\n"
+                + "@site.hnfy258.aop.annotation.Aspect\n"
+                + "@site.hnfy258.bean.factory.annotation.Component\n"
+                + "public class GeneratedAspect" + index + " {\n"
+                + "    private long invocations;\n\n"
+                + "    @site.hnfy258.aop.annotation.Before(\"execution(* " + BASE_PACKAGE + ".p" + targetPackage + ".*.work(..))\")\n"
+                + "    public void before() {\n"
+                + "        invocations++;\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static Path writeSource(Path sourcesDir, String className, String source) throws IOException {
+        Path file = sourcesDir.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private void compile(List<Path> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("当前运行环境没有 Java 编译器，请使用 JDK 运行");
+        }
+        Files.createDirectories(classesDir);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = List.of(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", classesDir.toString(),
+                    // 组件索引处理器等注解处理器与这里无关
+                    "-proc:none");
+            boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromPaths(sources)).call();
+            if (!success) {
+                StringBuilder message = new StringBuilder("生成的应用编译失败:");
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        message.append('\n').append(diagnostic);
+                    }
+                }
+                throw new IllegalStateException(message.toString());
+            }
+        }
+    }
+
+    /**
+     * 编译后的类所在目录，启动应用时需要加到类路径上。
+     */
+    public Path getClassesDir() {
+        return classesDir;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * 实际生成的循环依赖数量，每个循环包含两个单例。
+     */
+    public int getCycleCount() {
+        return cycleCount;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 合成应用的规模参数。
+     */
+    public static class Settings {
+        private int beanCount = 100;
+        private int fanOut = 3;
+        private double cycleRatio = 0.02;
+        private int aspectCount = 2;
+        private double prototypeShare = 0.1;
+        private long seed = 42;
+
+        /**
+         * Bean 的数量。
+         */
+        public Settings beanCount(int beanCount) {
+            this.beanCount = beanCount;
+            return this;
+        }
+
+        /**
+         * 每个 Bean 依赖的其他 Bean 数量，编号靠前的 Bean 依赖会少一些。
+         */
+        public Settings fanOut(int fanOut) {
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        /**
+         * 处于循环依赖中的 Bean 所占比例。
+         */
+        public Settings cycleRatio(double cycleRatio) {
+            this.cycleRatio = cycleRatio;
+            return this;
+        }
+
+        /**
+         * 切面数量，每个切面拦截一个子包，切面多于子包时会有子包被多个切面拦截。
+         */
+        public Settings aspectCount(int aspectCount) {
+            this.aspectCount = aspectCount;
+            return this;
+        }
+
+        /**
+         * 原型 Bean 所占比例。
+         */
+        public Settings prototypeShare(double prototypeShare) {
+            this.prototypeShare = prototypeShare;
+            return this;
+        }
+
+        public Settings seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public int getBeanCount() {
+            return beanCount;
+        }
+
+        public int getFanOut() {
+            return fanOut;
+        }
+
+        public double getCycleRatio() {
+            return cycleRatio;
+        }
+
+        public int getAspectCount() {
+            return aspectCount;
+        }
+
+        public double getPrototypeShare() {
+            return prototypeShare;
+        }
+
+        @Override
+        public String toString() {
+            return "beans=" + beanCount + ", fanOut=" + fanOut + ", cycleRatio=" + cycleRatio
+                    + ", aspects=" + aspectCount + ", prototypeShare=" + prototypeShare + ", seed=" + seed;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package site.hnfy258.benchmark.support;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * 用 ASM 直接生成 .class 文件的合成类路径，用来观察扫描在大量类下的表现。
+ * 生成的类按每包 {@value #CLASSES_PER_PACKAGE} 个分布在 {@value #BASE_PACKAGE} 的子包中，
+ * 其中一部分带有 @Component 注解，其余是普通类。
+ */
+public class SyntheticClasspath implements Closeable {
+    public static final String BASE_PACKAGE = "site.hnfy258.synthetic";
+
+    static final int CLASSES_PER_PACKAGE = 500;
+
+    private static final String COMPONENT_DESC = "Lsite/hnfy258/bean/factory/annotation/Component;";
+    private static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/bloom.components";
+
+    private final Path root;
+    private final Path classesDir;
+    private final Path indexDir;
+    private final List<String> componentClassNames;
+
+    private SyntheticClasspath(Path root, List<String> componentClassNames) {
+        this.root = root;
+        this.classesDir = root.resolve("classes");
+        this.indexDir = root.resolve("index");
+        this.componentClassNames = componentClassNames;
+    }
+
+    /**
+     * 生成合成类路径。
+     *
+     * @param classCount 生成的类总数
+     * @param componentRatio 带 @Component 注解的类所占比例
+     */
+    public static SyntheticClasspath generate(int classCount, double componentRatio) throws IOException {
+        Path root = Files.createTempDirectory("bloom-synthetic");
+        List<String> components = new ArrayList<>();
+        int componentEvery = componentRatio <= 0 ? Integer.MAX_VALUE : (int) Math.round(1 / componentRatio);
+        for (int i = 0; i < classCount; i++) {
+            String className = BASE_PACKAGE + ".p" + (i / CLASSES_PER_PACKAGE) + ".Synthetic" + i;
+            boolean component = i % componentEvery == 0;
+            writeClass(root.resolve("classes"), className, component);
+            if (component) {
+                components.add(className);
+            }
+        }
+        SyntheticClasspath classpath = new SyntheticClasspath(root, components);
+        classpath.writeIndex();
+        return classpath;
+    }
+
+    private static void writeClass(Path classesDir, String className, boolean component) throws IOException {
+        String internalName = className.replace('.', '/');
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+        if (component) {
+            writer.visitAnnotation(COMPONENT_DESC, true).visitEnd();
+        }
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(1, 1);
+        constructor.visitEnd();
+        writer.visitEnd();
+
+        Path file = classesDir.resolve(internalName + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, writer.toByteArray());
+    }
+
+    /**
+     * 写出与 Bloom-Processor 相同格式的组件索引，放在单独的目录中，便于对比有无索引两种情况。
+     */
+    private void writeIndex() throws IOException {
+        Path file = indexDir.resolve(COMPONENTS_RESOURCE_LOCATION);
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String className : componentClassNames) {
+                writer.write(className + "=site.hnfy258.bean.factory.annotation.Component\n");
+            }
+        }
+    }
+
+    /**
+     * 把生成的类打包成一个 jar，并追加若干不在扫描包下的填充条目，模拟依赖众多的 fat jar。
+     * 填充条目使用 STORED 方式写入随机内容，jar 的体积约为 fillerCount * fillerSize。
+     *
+     * @param jarFile 输出的 jar 文件
+     * @param fillerCount 填充条目数量
+     * @param fillerSize 每个填充条目的字节数
+     */
+    public void writeJar(Path jarFile, int fillerCount, int fillerSize) throws IOException {
+        List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(classesDir)) {
+            // 与 Maven 打出的 jar 一样包含目录条目，ClassLoader.getResources 依赖它们定位包
+            classFiles = paths.filter(path -> !path.equals(classesDir)).sorted().collect(Collectors.toList());
+        }
+        Random random = new Random(42);
+        byte[] filler = new byte[fillerSize];
+        try (OutputStream file = Files.newOutputStream(jarFile);
+             JarOutputStream out = new JarOutputStream(new BufferedOutputStream(file))) {
+            for (int i = 0; i < fillerCount; i++) {
+                random.nextBytes(filler);
+                CRC32 crc = new CRC32();
+                crc.update(filler);
+                JarEntry entry = new JarEntry("BOOT-INF/filler/f" + (i / CLASSES_PER_PACKAGE) + "/Filler" + i + ".bin");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(fillerSize);
+                entry.setCompressedSize(fillerSize);
+                entry.setCrc(crc.getValue());
+                out.putNextEntry(entry);
+                out.write(filler);
+                out.closeEntry();
+            }
+            for (Path classFile : classFiles) {
+                String entryName = classesDir.relativize(classFile).toString().replace('\\', '/');
+                if (Files.isDirectory(classFile)) {
+                    out.putNextEntry(new JarEntry(entryName + "/"));
+                } else {
+                    out.putNextEntry(new JarEntry(entryName));
+                    out.write(Files.readAllBytes(classFile));
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * 获取类路径。
+     *
+     * @param withIndex 是否包含组件索引目录
+     */
+    public URL[] getClasspath(boolean withIndex) {
+        try {
+            return withIndex
+                    ? new URL[]{classesDir.toUri().toURL(), indexDir.toUri().toURL()}
+                    : new URL[]{classesDir.toUri().toURL()};
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<String> getComponentClassNames() {
+        return componentClassNames;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
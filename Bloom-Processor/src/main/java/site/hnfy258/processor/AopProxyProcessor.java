@@ -0,0 +1,512 @@
+package site.hnfy258.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * AOP 代理注解处理器，在编译期用本次编译中的 @Aspect 切面对 Bean 类的方法求值切点，
+ * 为有方法匹配的 Bean 生成名为 "类的二进制名$$BloomAotProxy" 的子类代理。
+ * 生成的代理直接调用切面方法，运行时由 AotProxyRegistry 实例化，不再生成字节码。
+ *
+ * 只有能在编译期确定结果的情况才生成代理：任何一个通知的切点无法求值时本次编译不生成代理；
+ * 某个 Bean 的方法匹配结果无法确定、或代理无法访问它需要的类型和方法时，跳过这个 Bean。
+ * 跳过的 Bean 在运行时照常使用 CGLIB 代理。
+ *
+ * 选项 bloom.aot.include 是逗号分隔的包名或类名，设置后只处理其中的切面和 Bean（包括子包和内部类），
+ * 例如只为测试源码中的部分夹具生成代理。没有处理的切面不在代理的 ADVICE 中，运行时容器里有它们时照常回退。
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(AopProxyProcessor.INCLUDE_OPTION)
+public class AopProxyProcessor extends AbstractProcessor {
+    public static final String PROXY_CLASS_SUFFIX = "$$BloomAotProxy";
+    public static final String INCLUDE_OPTION = "bloom.aot.include";
+
+    static final String JOIN_POINT = "site.hnfy258.aop.JoinPoint";
+    private static final String POINTCUT = "site.hnfy258.aop.annotation.Pointcut";
+    private static final String BEFORE = "site.hnfy258.aop.annotation.Before";
+    private static final String AFTER = "site.hnfy258.aop.annotation.After";
+    private static final String AFTER_RETURNING = "site.hnfy258.aop.annotation.AfterReturning";
+    // 与运行时 AspectJAdvisorFactory 相同的 @Pointcut 方法引用写法，例如 serviceMethods()
+    private static final Pattern POINTCUT_REFERENCE = Pattern.compile("(?<![\\w$.*])([A-Za-z_$][\\w$]*)\\(\\)");
+    private static final int MAX_REFERENCE_DEPTH = 32;
+    // 生成的代码用全限定名引用类型，Bean 中同名的成员会遮蔽这些包名
+    private static final Set<String> RESERVED_NAMES = Set.of("java", "site");
+
+    private Elements elements;
+    private Types types;
+    // 为空时处理所有类
+    private List<String> includes = List.of();
+    private boolean processed;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        String include = processingEnv.getOptions().get(INCLUDE_OPTION);
+        if (include != null && !include.isBlank()) {
+            this.includes = new ArrayList<>();
+            for (String name : include.split(",")) {
+                if (!name.isBlank()) {
+                    this.includes.add(name.trim());
+                }
+            }
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // 只处理第一轮中的源文件，之后的轮次是生成的代码
+        if (processed || roundEnv.processingOver()) {
+            return false;
+        }
+        processed = true;
+        List<TypeElement> aspects = new ArrayList<>();
+        List<TypeElement> components = new ArrayList<>();
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element, aspects, components);
+        }
+        if (aspects.isEmpty() || components.isEmpty()) {
+            return false;
+        }
+
+        List<Advice> advice = new ArrayList<>();
+        for (TypeElement aspect : aspects) {
+            try {
+                readAdvice(aspect, advice);
+            } catch (IllegalArgumentException e) {
+                note("切面 " + aspect.getQualifiedName() + " 的切点无法在编译期求值，本次编译不生成 AOP 代理: "
+                        + e.getMessage(), aspect);
+                return false;
+            }
+        }
+        for (TypeElement component : components) {
+            generateProxy(component, advice);
+        }
+        return false;
+    }
+
+    private void collect(Element element, List<TypeElement> aspects, List<TypeElement> components) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getKind() == ElementKind.CLASS && isIncluded(type)) {
+            Set<String> stereotypes = Stereotypes.find(type);
+            if (findAnnotation(type, Stereotypes.ASPECT) != null) {
+                aspects.add(type);
+            } else if (!stereotypes.isEmpty() && !stereotypes.contains(Stereotypes.ASPECT)) {
+                components.add(type);
+            }
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed, aspects, components);
+        }
+    }
+
+    private boolean isIncluded(TypeElement type) {
+        if (includes.isEmpty()) {
+            return true;
+        }
+        String name = type.getQualifiedName().toString();
+        for (String include : includes) {
+            if (name.equals(include) || name.startsWith(include + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按运行时 AspectJAdvisorFactory 的规则读取切面的通知：所有 public 方法（包括继承的），
+     * 注解按 @Before、@After、@AfterReturning 的顺序只取第一个。
+     */
+    private void readAdvice(TypeElement aspect, List<Advice> advice) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(aspect))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            Advice.Kind kind;
+            AnnotationMirror annotation;
+            if ((annotation = findAnnotation(method, BEFORE)) != null) {
+                kind = Advice.Kind.BEFORE;
+            } else if ((annotation = findAnnotation(method, AFTER)) != null) {
+                kind = Advice.Kind.AFTER;
+            } else if ((annotation = findAnnotation(method, AFTER_RETURNING)) != null) {
+                kind = Advice.Kind.AFTER_RETURNING;
+            } else {
+                continue;
+            }
+            if (method.getModifiers().contains(Modifier.STATIC)) {
+                throw new IllegalArgumentException("通知方法 " + method.getSimpleName() + " 是静态方法");
+            }
+            for (TypeMirror thrown : method.getThrownTypes()) {
+                if (!isUnchecked(thrown)) {
+                    throw new IllegalArgumentException("通知方法 " + method.getSimpleName() + " 声明了受检异常");
+                }
+            }
+            String expression = resolveExpression(aspect, stringValue(annotation, "value"), 0);
+            String returningName = kind == Advice.Kind.AFTER_RETURNING ? stringValue(annotation, "returning") : null;
+            Advice item = new Advice(aspect, method, kind, expression, ExecutionPointcut.parse(expression),
+                    elements.getBinaryName(aspect) + "#" + method.getSimpleName() + "=" + expression);
+            bindParameters(item, returningName);
+            advice.add(item);
+        }
+    }
+
+    /**
+     * 按 AspectJAdviceMethod 的规则绑定通知方法的参数。
+     */
+    private void bindParameters(Advice advice, String returningName) {
+        for (VariableElement parameter : advice.method.getParameters()) {
+            TypeMirror type = parameter.asType();
+            boolean returning = returningName != null && parameter.getSimpleName().contentEquals(returningName);
+            if (isType(type, JOIN_POINT)) {
+                advice.bindings.add(Advice.Binding.JOIN_POINT);
+            } else if (isObjectArray(type) && !returning) {
+                advice.bindings.add(Advice.Binding.ARGUMENTS);
+            } else if (isObjectArray(type)) {
+                // 运行时只有编译时保留了参数名才会按名称识别，结果取决于编译选项
+                throw new IllegalArgumentException("通知方法 " + advice.method.getSimpleName()
+                        + " 的返回值参数是 Object[]");
+            } else if (returningName != null && advice.returningType == null) {
+                advice.bindings.add(Advice.Binding.RETURN_VALUE);
+                advice.returningType = type;
+            } else {
+                throw new IllegalArgumentException("无法绑定通知方法 " + advice.method.getSimpleName()
+                        + " 的参数 " + parameter.getSimpleName());
+            }
+        }
+    }
+
+    private String resolveExpression(TypeElement aspect, String expression, int depth) {
+        if (depth > MAX_REFERENCE_DEPTH) {
+            throw new IllegalArgumentException("切点引用层次过深: " + expression);
+        }
+        if (expression.startsWith("@")) {
+            ExecutableElement pointcut = findPointcutMethod(aspect, expression.substring(1));
+            if (pointcut == null) {
+                throw new IllegalArgumentException("找不到切点声明: " + expression.substring(1));
+            }
+            return resolveExpression(aspect, pointcutValue(pointcut), depth + 1);
+        }
+        Matcher matcher = POINTCUT_REFERENCE.matcher(expression);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            ExecutableElement pointcut = findPointcutMethod(aspect, matcher.group(1));
+            String replacement = pointcut == null ? matcher.group()
+                    : "(" + resolveExpression(aspect, pointcutValue(pointcut), depth + 1) + ")";
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private ExecutableElement findPointcutMethod(TypeElement aspect, String name) {
+        for (TypeElement type = aspect; type != null && !type.getQualifiedName().contentEquals("java.lang.Object");
+             type = (TypeElement) types.asElement(type.getSuperclass())) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(name) && findAnnotation(method, POINTCUT) != null) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String pointcutValue(ExecutableElement pointcut) {
+        return stringValue(findAnnotation(pointcut, POINTCUT), "value");
+    }
+
+    /**
+     * 为一个 Bean 生成代理，没有方法匹配任何通知时不生成。
+     */
+    private void generateProxy(TypeElement component, List<Advice> advice) {
+        PackageElement packageElement = elements.getPackageOf(component);
+        List<ProxySourceWriter.ProxiedMethod> methods = new ArrayList<>();
+        boolean advised = false;
+        String problem = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(component))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)
+                    || modifiers.contains(Modifier.FINAL) || isObjectMethodNotProxied(method)) {
+                continue;
+            }
+            boolean samePackage = elements.getPackageOf(owner).equals(packageElement);
+            if (!samePackage && !modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)) {
+                // 其他包中的包私有方法不能被重写，运行时代理也不会拦截
+                continue;
+            }
+            List<Advice> matched = new ArrayList<>();
+            for (Advice item : advice) {
+                ExecutionPointcut.Match match = item.pointcut.matches(method, elements, types);
+                if (match == ExecutionPointcut.Match.UNKNOWN) {
+                    note("无法在编译期确定切点 " + item.expression + " 是否匹配 " + owner.getSimpleName() + "."
+                            + method.getSimpleName() + "，" + component.getSimpleName() + " 使用运行时代理", component);
+                    return;
+                }
+                if (match == ExecutionPointcut.Match.YES) {
+                    matched.add(item);
+                }
+            }
+            advised |= !matched.isEmpty();
+            ExecutableType memberType = (ExecutableType) types.asMemberOf((DeclaredType) component.asType(), method);
+            if (problem == null) {
+                problem = checkMethod(method, memberType, samePackage, matched, packageElement);
+            }
+            methods.add(new ProxySourceWriter.ProxiedMethod(method, memberType, matched));
+        }
+        if (!advised) {
+            return;
+        }
+        if (problem == null) {
+            problem = checkComponent(component);
+        }
+        if (problem != null) {
+            note(component.getSimpleName() + " 使用运行时代理: " + problem, component);
+            return;
+        }
+
+        Set<TypeElement> usedAspects = new LinkedHashSet<>();
+        methods.forEach(method -> method.advice.forEach(item -> usedAspects.add(item.aspect)));
+        List<String> adviceKeys = new ArrayList<>();
+        advice.forEach(item -> adviceKeys.add(item.key));
+        String binaryName = elements.getBinaryName(component).toString();
+        String packageName = packageElement.getQualifiedName().toString();
+        String proxyName = binaryName + PROXY_CLASS_SUFFIX;
+        String source = new ProxySourceWriter(types).write(component, packageName,
+                proxyName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1),
+                methods, new ArrayList<>(usedAspects), adviceKeys);
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(proxyName, component);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "无法写入 AOP 代理 " + proxyName + ": " + e.getMessage(), component);
+        }
+    }
+
+    /**
+     * Object 中只有 equals、hashCode 和 toString 需要代理。
+     * clone 和 finalize 是 protected 的，外部代码无法在代理对象上调用，Bean 类中重写的版本不受影响。
+     */
+    private boolean isObjectMethodNotProxied(ExecutableElement method) {
+        if (!((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+            return false;
+        }
+        String name = method.getSimpleName().toString();
+        return !name.equals("equals") && !name.equals("hashCode") && !name.equals("toString");
+    }
+
+    /**
+     * 检查代理能否重写并委托这个方法，返回 null 表示可以。
+     */
+    private String checkMethod(ExecutableElement method, ExecutableType memberType,
+                               boolean samePackage, List<Advice> matched, PackageElement packageElement) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (!samePackage && method.getModifiers().contains(Modifier.PROTECTED)) {
+            return "无法委托其他包中声明的 protected 方法 " + method.getSimpleName();
+        }
+        if (!method.getTypeParameters().isEmpty() && !owner.getTypeParameters().isEmpty()) {
+            return "无法重写泛型类中的泛型方法 " + method.getSimpleName();
+        }
+        List<TypeMirror> signature = new ArrayList<>(memberType.getParameterTypes());
+        signature.add(memberType.getReturnType());
+        signature.addAll(memberType.getThrownTypes());
+        method.getParameters().forEach(parameter -> signature.add(types.erasure(parameter.asType())));
+        method.getTypeParameters().forEach(parameter -> signature.addAll(parameter.getBounds()));
+        for (TypeMirror type : signature) {
+            if (!isAccessible(type, packageElement)) {
+                return "方法 " + method.getSimpleName() + " 的签名中有无法访问的类型 " + type;
+            }
+        }
+        for (Advice item : matched) {
+            if (!isAccessible(item.aspect.asType(), packageElement)) {
+                return "无法访问切面 " + item.aspect.getQualifiedName();
+            }
+            if (item.returningType != null && !isAccessible(types.erasure(item.returningType), packageElement)) {
+                return "无法访问通知方法 " + item.method.getSimpleName() + " 的参数类型";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查 Bean 类本身能否被生成的代理继承，返回 null 表示可以。
+     */
+    private String checkComponent(TypeElement component) {
+        Set<Modifier> modifiers = component.getModifiers();
+        if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.ABSTRACT)) {
+            return "类是 final 或 abstract 的";
+        }
+        if (!component.getTypeParameters().isEmpty()) {
+            return "类有类型参数";
+        }
+        if (component.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC)) {
+            return "类是非静态内部类";
+        }
+        if (!isAccessible(component.asType(), elements.getPackageOf(component))) {
+            return "类是 private 的";
+        }
+        boolean hasConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(component.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)
+                    && constructor.getThrownTypes().stream().allMatch(this::isUnchecked)) {
+                hasConstructor = true;
+            }
+        }
+        if (!hasConstructor) {
+            return "没有可以访问的无参构造函数";
+        }
+        for (Element member : elements.getAllMembers(component)) {
+            if ((member.getKind().isField() || member.getKind().isClass() || member.getKind().isInterface())
+                    && RESERVED_NAMES.contains(member.getSimpleName().toString())) {
+                return "成员 " + member.getSimpleName() + " 会遮蔽生成代码引用的包名";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断类型能否在给定的包中按全限定名引用。
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement packageElement) {
+        switch (type.getKind()) {
+            case DECLARED:
+                for (Element element = types.asElement(type); element instanceof TypeElement;
+                     element = element.getEnclosingElement()) {
+                    Set<Modifier> modifiers = element.getModifiers();
+                    if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC)
+                            && !elements.getPackageOf(element).equals(packageElement))) {
+                        return false;
+                    }
+                }
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (!isAccessible(argument, packageElement)) {
+                        return false;
+                    }
+                }
+                return true;
+            case ARRAY:
+                return isAccessible(((ArrayType) type).getComponentType(), packageElement);
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return (wildcard.getExtendsBound() == null || isAccessible(wildcard.getExtendsBound(), packageElement))
+                        && (wildcard.getSuperBound() == null || isAccessible(wildcard.getSuperBound(), packageElement));
+            case TYPEVAR:
+            case VOID:
+                return true;
+            default:
+                return type.getKind().isPrimitive();
+        }
+    }
+
+    private boolean isUnchecked(TypeMirror type) {
+        return types.isSubtype(type, elements.getTypeElement("java.lang.RuntimeException").asType())
+                || types.isSubtype(type, elements.getTypeElement("java.lang.Error").asType());
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) types.asElement(type)).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private boolean isObjectArray(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY && isType(((ArrayType) type).getComponentType(), "java.lang.Object");
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String qualifiedName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(qualifiedName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return "";
+    }
+
+    private void note(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+    /**
+     * 切面中的一个通知方法及其在编译期解析的切点。
+     */
+    static class Advice {
+        enum Kind { BEFORE, AFTER, AFTER_RETURNING }
+
+        enum Binding { JOIN_POINT, ARGUMENTS, RETURN_VALUE }
+
+        final TypeElement aspect;
+        final ExecutableElement method;
+        final Kind kind;
+        final String expression;
+        final ExecutionPointcut pointcut;
+        // 与运行时通知器对应的标识：切面类#方法名=解析后的表达式
+        final String key;
+        final List<Binding> bindings = new ArrayList<>();
+        // 返回值参数的类型，没有返回值参数时为 null
+        TypeMirror returningType;
+
+        Advice(TypeElement aspect, ExecutableElement method, Kind kind, String expression,
+               ExecutionPointcut pointcut, String key) {
+            this.aspect = aspect;
+            this.method = method;
+            this.kind = kind;
+            this.expression = expression;
+            this.pointcut = pointcut;
+            this.key = key;
+        }
+    }
+}
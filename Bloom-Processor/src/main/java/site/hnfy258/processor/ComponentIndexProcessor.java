@@ -0,0 +1,135 @@
+package site.hnfy258.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 组件索引注解处理器，在编译期把所有直接或通过元注解带有 Bean 注解的类写入 META-INF/bloom.components。
+ * 运行时 ClassPathBeanDefinitionScanner 发现该索引后即可跳过类路径遍历。
+ * 注意只要类路径上存在任意一份索引，所有基础包都只按索引查找，没有用本处理器编译的 jar 中的组件不会被发现。
+ *
+ * 索引为一行一个类，格式为 "类的二进制名=注解全名[,注解全名...]"，按类名排序输出。
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/bloom.components";
+
+    // 类名 -> 注解全名，TreeMap 保证输出稳定
+    private final Map<String, Set<String>> entries = new TreeMap<>();
+    private Elements elements;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.filer = processingEnv.getFiler();
+        readPreviousIndex();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * 记录类型及其嵌套类型上的 Bean 注解。本轮处理过的类型以本轮结果为准，覆盖旧索引中的条目。
+     */
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getKind() == ElementKind.CLASS) {
+            String className = elements.getBinaryName(type).toString();
+            Set<String> found = Stereotypes.find(type);
+            entries.remove(className);
+            if (!found.isEmpty()) {
+                entries.put(className, found);
+            }
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    /**
+     * 增量编译时只会处理改动过的源文件，因此先读入上一次的索引，丢弃已经不存在的类。
+     * 保留下来的类重新检查一次注解：它本身没有重新编译，但它使用的自定义注解可能已经去掉了元注解，
+     * 因此注解以当前能看到的类型为准，旧索引中只取类名。本轮处理的类型随后在 collect 中再次覆盖。
+     */
+    private void readPreviousIndex() {
+        try {
+            FileObject previous = filer.getResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(previous.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf('=');
+                    if (line.isBlank() || line.startsWith("#") || separator < 0) {
+                        continue;
+                    }
+                    String className = line.substring(0, separator).trim();
+                    TypeElement type = elements.getTypeElement(className.replace('$', '.'));
+                    if (type == null) {
+                        continue;
+                    }
+                    Set<String> stereotypes = Stereotypes.find(type);
+                    if (!stereotypes.isEmpty()) {
+                        entries.put(className, stereotypes);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译时没有旧索引
+        }
+    }
+
+    private void writeIndex() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by BloomBoot ComponentIndexProcessor\n");
+                for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "=" + String.join(",", entry.getValue()) + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "无法写入组件索引 " + COMPONENTS_RESOURCE_LOCATION + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package site.hnfy258.processor;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 在编译期对方法求值的 execution 切点表达式，支持运行时 AspectJExpressionPointcut 能够解析的全部写法中常见的部分：
+ * execution(修饰符? 返回类型 声明类型?.方法名(参数)) 以及 &&、||、! 和括号。
+ *
+ * 求值结果有三种：匹配、不匹配和无法确定。注解、throws、泛型、数组、"+" 等写法，
+ * 以及 AspectJ 按桥接方法匹配的泛型重写方法，在编译期都无法保证与运行时结果一致，统一返回无法确定，
+ * 由调用方放弃为相关的类生成代理。
+ */
+final class ExecutionPointcut {
+
+    enum Match {
+        YES, NO, UNKNOWN;
+
+        Match and(Match other) {
+            if (this == NO || other == NO) {
+                return NO;
+            }
+            return this == UNKNOWN || other == UNKNOWN ? UNKNOWN : YES;
+        }
+
+        Match or(Match other) {
+            if (this == YES || other == YES) {
+                return YES;
+            }
+            return this == UNKNOWN || other == UNKNOWN ? UNKNOWN : NO;
+        }
+
+        Match not() {
+            return this == UNKNOWN ? UNKNOWN : this == YES ? NO : YES;
+        }
+
+        static Match of(boolean matches) {
+            return matches ? YES : NO;
+        }
+    }
+
+    private static final Set<String> MODIFIERS =
+            Set.of("public", "protected", "private", "static", "final", "synchronized", "native");
+    private static final Set<String> PRIMITIVES =
+            Set.of("boolean", "byte", "short", "char", "int", "long", "float", "double", "void");
+    private static final Pattern TYPE_PATTERN = Pattern.compile("[\\w$.*]+");
+    private static final Pattern NAME_PATTERN = Pattern.compile("[\\w$*]+");
+
+    private final Node root;
+
+    private ExecutionPointcut(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @throws IllegalArgumentException 表达式包含不支持的写法
+     */
+    static ExecutionPointcut parse(String expression) {
+        Parser parser = new Parser(expression);
+        Node root = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.position != expression.length()) {
+            throw new IllegalArgumentException("Unexpected '" + expression.substring(parser.position) + "'");
+        }
+        return new ExecutionPointcut(root);
+    }
+
+    /**
+     * 判断方法的执行是否匹配，与运行时对同一个 Method 调用 matchesMethodExecution 的结果一致。
+     */
+    Match matches(ExecutableElement method, Elements elements, Types types) {
+        return root.matches(new MethodContext(method, elements, types));
+    }
+
+    private interface Node {
+        Match matches(MethodContext context);
+    }
+
+    /**
+     * 递归下降解析，优先级从低到高为 ||、&&、!。
+     */
+    private static class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parseOr() {
+            Node left = parseAnd();
+            while (consume("||")) {
+                Node l = left;
+                Node r = parseAnd();
+                left = context -> l.matches(context).or(r.matches(context));
+            }
+            return left;
+        }
+
+        Node parseAnd() {
+            Node left = parseNot();
+            while (consume("&&")) {
+                Node l = left;
+                Node r = parseNot();
+                left = context -> l.matches(context).and(r.matches(context));
+            }
+            return left;
+        }
+
+        Node parseNot() {
+            if (consume("!")) {
+                Node operand = parseNot();
+                return context -> operand.matches(context).not();
+            }
+            if (consume("(")) {
+                Node inner = parseOr();
+                if (!consume(")")) {
+                    throw new IllegalArgumentException("Missing ')' in " + text);
+                }
+                return inner;
+            }
+            if (consume("execution")) {
+                skipWhitespace();
+                if (position < text.length() && text.charAt(position) == '(') {
+                    return new Execution(readParenthesized());
+                }
+            }
+            throw new IllegalArgumentException("Unsupported pointcut at '" + text.substring(position) + "'");
+        }
+
+        private String readParenthesized() {
+            int depth = 0;
+            int start = position + 1;
+            for (int i = position; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    position = i + 1;
+                    return text.substring(start, i);
+                }
+            }
+            throw new IllegalArgumentException("Missing ')' in " + text);
+        }
+
+        private boolean consume(String token) {
+            skipWhitespace();
+            if (text.startsWith(token, position)) {
+                position += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * 一个 execution(...) 切点。
+     */
+    private static class Execution implements Node {
+        private final List<String> modifiers = new ArrayList<>();
+        private final String returnType;
+        private final String declaringType;
+        private final String name;
+        private final List<String> parameters;
+
+        Execution(String signature) {
+            int open = signature.indexOf('(');
+            if (open < 0 || !signature.trim().endsWith(")") || signature.contains("@")) {
+                throw new IllegalArgumentException("Unsupported execution signature: " + signature);
+            }
+            String[] head = signature.substring(0, open).trim().split("\\s+");
+            if (head.length < 2) {
+                throw new IllegalArgumentException("Unsupported execution signature: " + signature);
+            }
+            for (int i = 0; i < head.length - 2; i++) {
+                String modifier = head[i].startsWith("!") ? head[i].substring(1) : head[i];
+                if (!MODIFIERS.contains(modifier)) {
+                    throw new IllegalArgumentException("Unsupported modifier pattern: " + head[i]);
+                }
+                modifiers.add(head[i]);
+            }
+            returnType = head[head.length - 2];
+            String qualifiedName = head[head.length - 1];
+            int dot = qualifiedName.lastIndexOf('.');
+            if (dot > 0 && qualifiedName.charAt(dot - 1) == '.') {
+                throw new IllegalArgumentException("Unsupported declaring type pattern: " + qualifiedName);
+            }
+            declaringType = dot < 0 ? null : qualifiedName.substring(0, dot);
+            name = qualifiedName.substring(dot + 1);
+            if (!NAME_PATTERN.matcher(name).matches()) {
+                throw new IllegalArgumentException("Unsupported method name pattern: " + name);
+            }
+            String parameterList = signature.substring(open + 1, signature.trim().lastIndexOf(')')).trim();
+            parameters = parameterList.isEmpty() ? List.of() : Arrays.asList(parameterList.split("\\s*,\\s*"));
+        }
+
+        @Override
+        public Match matches(MethodContext context) {
+            ExecutableElement method = context.method;
+            Match match = Match.of(wildcard(name, false).matcher(method.getSimpleName()).matches());
+            for (String modifier : modifiers) {
+                boolean negated = modifier.startsWith("!");
+                boolean present = method.getModifiers().contains(
+                        Modifier.valueOf(modifier.substring(negated ? 1 : 0).toUpperCase()));
+                match = match.and(Match.of(present != negated));
+            }
+            if (match == Match.NO) {
+                return match;
+            }
+            // AspectJ 对泛型重写方法还会按桥接方法的签名匹配，编译期无法复现
+            boolean exact = !context.overridesGenericMethod;
+            match = match.and(context.matchType(returnType, method.getReturnType(), exact));
+            if (declaringType != null) {
+                Match declared = Match.NO;
+                for (TypeElement type : context.declaringTypes) {
+                    declared = declared.or(context.matchType(declaringType, type.asType(), exact));
+                }
+                match = match.and(declared);
+            }
+            return match.and(matchParameters(context, 0, 0));
+        }
+
+        private Match matchParameters(MethodContext context, int patternIndex, int parameterIndex) {
+            List<TypeMirror> types = context.parameterTypes;
+            if (patternIndex == parameters.size()) {
+                return Match.of(parameterIndex == types.size());
+            }
+            String pattern = parameters.get(patternIndex);
+            if (pattern.equals("..")) {
+                Match match = Match.NO;
+                for (int i = parameterIndex; i <= types.size(); i++) {
+                    match = match.or(matchParameters(context, patternIndex + 1, i));
+                }
+                return match;
+            }
+            if (parameterIndex == types.size()) {
+                return Match.NO;
+            }
+            boolean varArgs = context.method.isVarArgs() && parameterIndex == types.size() - 1;
+            Match match = varArgs && !pattern.equals("*") ? Match.UNKNOWN
+                    : context.matchType(pattern, types.get(parameterIndex), !context.overridesGenericMethod);
+            return match.and(matchParameters(context, patternIndex + 1, parameterIndex + 1));
+        }
+    }
+
+    /**
+     * 被匹配的方法及其签名中与运行时 Method 对应的部分。
+     */
+    private static class MethodContext {
+        private final ExecutableElement method;
+        private final Elements elements;
+        private final Types types;
+        private final List<TypeMirror> parameterTypes = new ArrayList<>();
+        // 方法所在的类型，以及声明了被它重写的方法的父类型
+        private final List<TypeElement> declaringTypes = new ArrayList<>();
+        private boolean overridesGenericMethod;
+
+        MethodContext(ExecutableElement method, Elements elements, Types types) {
+            this.method = method;
+            this.elements = elements;
+            this.types = types;
+            method.getParameters().forEach(parameter -> parameterTypes.add(parameter.asType()));
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            declaringTypes.add(owner);
+            Map<String, TypeElement> supertypes = new LinkedHashMap<>();
+            collectSupertypes(owner, supertypes);
+            for (TypeElement supertype : supertypes.values()) {
+                for (ExecutableElement candidate : ElementFilter.methodsIn(supertype.getEnclosedElements())) {
+                    if (elements.overrides(method, candidate, owner)) {
+                        declaringTypes.add(supertype);
+                        overridesGenericMethod |= !types.isSameType(types.erasure(method.asType()),
+                                types.erasure(candidate.asType()));
+                    }
+                }
+            }
+        }
+
+        private void collectSupertypes(TypeElement type, Map<String, TypeElement> supertypes) {
+            for (TypeMirror supertype : types.directSupertypes(type.asType())) {
+                TypeElement element = (TypeElement) types.asElement(supertype);
+                if (element != null && supertypes.putIfAbsent(element.getQualifiedName().toString(), element) == null) {
+                    collectSupertypes(element, supertypes);
+                }
+            }
+        }
+
+        /**
+         * 类型模式匹配，比较对象是擦除后的类型，与运行时 Method 的签名一致。
+         *
+         * @param exact 为 false 时任何非 "*" 的模式都无法确定
+         */
+        Match matchType(String pattern, TypeMirror type, boolean exact) {
+            if (pattern.equals("*")) {
+                return Match.YES;
+            }
+            if (!exact || !TYPE_PATTERN.matcher(pattern).matches()) {
+                return Match.UNKNOWN;
+            }
+            boolean wildcard = pattern.contains("*") || pattern.contains("..");
+            TypeMirror erased = types.erasure(type);
+            if (erased.getKind().isPrimitive() || erased.getKind() == TypeKind.VOID) {
+                if (wildcard) {
+                    return Match.UNKNOWN;
+                }
+                return PRIMITIVES.contains(pattern) ? Match.of(pattern.equals(erased.toString())) : resolvable(pattern);
+            }
+            if (erased.getKind() == TypeKind.ARRAY) {
+                return wildcard ? Match.UNKNOWN : resolvable(pattern);
+            }
+            if (erased.getKind() != TypeKind.DECLARED) {
+                return Match.UNKNOWN;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            String canonicalName = element.getQualifiedName().toString();
+            if (!wildcard) {
+                if (pattern.contains(".")) {
+                    return Match.of(pattern.equals(canonicalName)
+                            || pattern.equals(elements.getBinaryName(element).toString()));
+                }
+                return resolvable(pattern) == Match.UNKNOWN ? Match.UNKNOWN
+                        : Match.of(canonicalName.equals("java.lang." + pattern));
+            }
+            if (pattern.contains(".")) {
+                return Match.of(wildcard(pattern, true).matcher(canonicalName).matches());
+            }
+            // 不带包名的通配模式只匹配默认包和 java.lang 中的类型
+            if (element.getNestingKind() != NestingKind.TOP_LEVEL) {
+                return Match.UNKNOWN;
+            }
+            String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+            return Match.of((packageName.isEmpty() || packageName.equals("java.lang"))
+                    && wildcard(pattern, true).matcher(element.getSimpleName()).matches());
+        }
+
+        /**
+         * 不带通配符的简单类型名在运行时只能解析为基本类型或 java.lang 中的类型，其他名称会导致解析失败。
+         * 模式能够解析时它与当前类型不匹配，返回 NO。
+         */
+        private Match resolvable(String pattern) {
+            if (pattern.contains(".") || PRIMITIVES.contains(pattern)) {
+                return Match.NO;
+            }
+            TypeElement type = elements.getTypeElement("java.lang." + pattern);
+            return type != null && type.getKind() != ElementKind.PACKAGE ? Match.NO : Match.UNKNOWN;
+        }
+    }
+
+    /**
+     * 把 AspectJ 的名称模式转换为正则：类型模式中 "*" 不跨越 "."，".." 匹配任意层包名。
+     */
+    private static Pattern wildcard(String pattern, boolean typePattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*') {
+                regex.append(typePattern ? "[^.]*" : ".*");
+            } else if (c == '.' && pattern.startsWith("..", i)) {
+                regex.append("\\.(?:.*\\.)?");
+                i++;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
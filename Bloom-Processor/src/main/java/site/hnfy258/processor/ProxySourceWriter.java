@@ -0,0 +1,318 @@
+package site.hnfy258.processor;
+
+import site.hnfy258.processor.AopProxyProcessor.Advice;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成 AOP 代理的源代码。
+ *
+ * 代理继承 Bean 类并重写所有可以重写的方法，调用都转发给目标对象；有通知的方法按通知的顺序嵌套：
+ * 前置通知在调用之前执行，后置通知在 finally 中执行，返回通知在正常返回之后执行。
+ * 代码中的类型一律使用全限定名，不生成 import。
+ */
+final class ProxySourceWriter {
+    private static final String INDENT = "    ";
+    private static final String OBJECT = "java.lang.Object";
+
+    private final Types types;
+
+    ProxySourceWriter(Types types) {
+        this.types = types;
+    }
+
+    /**
+     * @param methods 代理需要重写的方法
+     * @param aspects 代理中用到的切面，顺序与构造函数 aspects 参数一致
+     * @param adviceKeys 生成代理时考虑过的全部通知
+     */
+    String write(TypeElement component, String packageName, String proxySimpleName, List<ProxiedMethod> methods,
+                 List<TypeElement> aspects, List<String> adviceKeys) {
+        String componentName = component.getQualifiedName().toString();
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("/**\n")
+                .append(" * Generated by BloomBoot AopProxyProcessor for {@link ").append(componentName)
+                .append("}, do not edit.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})\n")
+                .append("public class ").append(proxySimpleName).append(" extends ").append(componentName).append(" {\n");
+
+        out.append(INDENT).append("public static final java.lang.String[] ADVICE = {\n");
+        for (String key : adviceKeys) {
+            out.append(INDENT).append(INDENT).append(INDENT).append(literal(key)).append(",\n");
+        }
+        out.append(INDENT).append("};\n");
+        out.append(INDENT).append("public static final java.lang.Class<?>[] ASPECTS = {\n");
+        for (TypeElement aspect : aspects) {
+            out.append(INDENT).append(INDENT).append(INDENT).append(aspect.getQualifiedName()).append(".class,\n");
+        }
+        out.append(INDENT).append("};\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ProxiedMethod method = methods.get(i);
+            if (!method.needs(Advice.Binding.JOIN_POINT)) {
+                continue;
+            }
+            out.append(INDENT).append("private static final java.lang.reflect.Method METHOD_").append(i)
+                    .append(" = site.hnfy258.aop.framework.AotProxyRegistry.findMethod(\n")
+                    .append(INDENT).append(INDENT).append(INDENT).append(componentName).append(".class, ")
+                    .append(literal(method.method.getSimpleName().toString()));
+            for (VariableElement parameter : method.method.getParameters()) {
+                out.append(", ").append(types.erasure(parameter.asType())).append(".class");
+            }
+            out.append(");\n");
+        }
+        out.append('\n');
+
+        out.append(INDENT).append("private final ").append(componentName).append(" target;\n");
+        for (int i = 0; i < aspects.size(); i++) {
+            out.append(INDENT).append("private final ").append(aspects.get(i).getQualifiedName())
+                    .append(" aspect").append(i).append(";\n");
+        }
+        out.append(INDENT).append("private final java.util.concurrent.atomic.LongAdder invocationCounter;\n\n");
+
+        out.append(INDENT).append("public ").append(proxySimpleName).append("(").append(componentName)
+                .append(" target, java.lang.Object[] aspects,\n")
+                .append(INDENT).append(INDENT).append(INDENT).append("java.util.concurrent.atomic.LongAdder invocationCounter) {\n");
+        out.append(INDENT).append(INDENT).append("this.target = target;\n");
+        for (int i = 0; i < aspects.size(); i++) {
+            String aspectName = aspects.get(i).getQualifiedName().toString();
+            out.append(INDENT).append(INDENT).append("this.aspect").append(i).append(" = (").append(aspectName)
+                    .append(") aspects[").append(i).append("];\n");
+        }
+        out.append(INDENT).append(INDENT).append("this.invocationCounter = invocationCounter;\n");
+        out.append(INDENT).append("}\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            out.append('\n');
+            writeMethod(out, methods.get(i), i, aspects);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void writeMethod(StringBuilder out, ProxiedMethod proxied, int index, List<TypeElement> aspects) {
+        ExecutableElement method = proxied.method;
+        ExecutableType memberType = proxied.memberType;
+        List<? extends TypeMirror> parameterTypes = memberType.getParameterTypes();
+        TypeMirror returnType = memberType.getReturnType();
+        boolean returnsValue = returnType.getKind() != TypeKind.VOID;
+        String body = INDENT + INDENT;
+
+        out.append(INDENT).append("@java.lang.Override\n").append(INDENT);
+        if (method.getModifiers().contains(Modifier.PUBLIC)) {
+            out.append("public ");
+        } else if (method.getModifiers().contains(Modifier.PROTECTED)) {
+            out.append("protected ");
+        }
+        if (!method.getTypeParameters().isEmpty()) {
+            List<String> typeParameters = new ArrayList<>();
+            for (TypeParameterElement typeParameter : method.getTypeParameters()) {
+                List<String> bounds = new ArrayList<>();
+                typeParameter.getBounds().forEach(bound -> bounds.add(bound.toString()));
+                bounds.remove(OBJECT);
+                typeParameters.add(typeParameter.getSimpleName()
+                        + (bounds.isEmpty() ? "" : " extends " + String.join(" & ", bounds)));
+            }
+            out.append('<').append(String.join(", ", typeParameters)).append("> ");
+        }
+        out.append(returnType).append(' ').append(method.getSimpleName()).append('(');
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            TypeMirror type = parameterTypes.get(i);
+            if (i > 0) {
+                out.append(", ");
+            }
+            if (method.isVarArgs() && i == parameterTypes.size() - 1) {
+                out.append(((ArrayType) type).getComponentType()).append("...");
+            } else {
+                out.append(type);
+            }
+            out.append(" p").append(i);
+        }
+        out.append(')');
+        if (!memberType.getThrownTypes().isEmpty()) {
+            List<String> thrown = new ArrayList<>();
+            memberType.getThrownTypes().forEach(type -> thrown.add(type.toString()));
+            out.append(" throws ").append(String.join(", ", thrown));
+        }
+        out.append(" {\n");
+        out.append(body).append("if (invocationCounter != null) {\n")
+                .append(body).append(INDENT).append("invocationCounter.increment();\n")
+                .append(body).append("}\n");
+
+        boolean needsArguments = proxied.needs(Advice.Binding.ARGUMENTS) || proxied.needs(Advice.Binding.JOIN_POINT);
+        List<String> callArguments = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            callArguments.add(needsArguments ? "(" + parameterTypes.get(i) + ") args[" + i + "]" : "p" + i);
+        }
+        String call = "target." + method.getSimpleName() + "(" + String.join(", ", callArguments) + ")";
+        if (proxied.advice.isEmpty()) {
+            out.append(body).append(returnsValue ? "return " : "").append(call).append(";\n");
+            out.append(INDENT).append("}\n");
+            return;
+        }
+
+        if (needsArguments) {
+            List<String> parameters = new ArrayList<>();
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                parameters.add("p" + i);
+            }
+            out.append(body).append("java.lang.Object[] args = ")
+                    .append(parameters.isEmpty() ? "new java.lang.Object[0]"
+                            : "new java.lang.Object[]{" + String.join(", ", parameters) + "}")
+                    .append(";\n");
+        }
+        if (proxied.needs(Advice.Binding.JOIN_POINT)) {
+            out.append(body).append(AopProxyProcessor.JOIN_POINT)
+                    .append(" joinPoint = new site.hnfy258.aop.aspectj.MethodJoinPoint(METHOD_").append(index)
+                    .append(", args, target);\n");
+        }
+        if (returnsValue) {
+            out.append(body).append(returnType).append(" result;\n");
+        }
+        writeChain(out, proxied, 0, body, returnType, call, aspects);
+        if (returnsValue) {
+            out.append(body).append("return result;\n");
+        }
+        out.append(INDENT).append("}\n");
+    }
+
+    /**
+     * 从第 position 个通知开始生成嵌套的调用代码。
+     */
+    private void writeChain(StringBuilder out, ProxiedMethod proxied, int position, String indent,
+                            TypeMirror returnType, String call, List<TypeElement> aspects) {
+        if (position == proxied.advice.size()) {
+            out.append(indent).append(returnType.getKind() != TypeKind.VOID ? "result = " : "").append(call).append(";\n");
+            return;
+        }
+        Advice advice = proxied.advice.get(position);
+        String aspect = "aspect" + aspects.indexOf(advice.aspect);
+        switch (advice.kind) {
+            case BEFORE:
+                out.append(indent).append(invocation(advice, aspect, null)).append(";\n");
+                writeChain(out, proxied, position + 1, indent, returnType, call, aspects);
+                break;
+            case AFTER:
+                out.append(indent).append("try {\n");
+                writeChain(out, proxied, position + 1, indent + INDENT, returnType, call, aspects);
+                out.append(indent).append("} finally {\n")
+                        .append(indent).append(INDENT).append(invocation(advice, aspect, null)).append(";\n")
+                        .append(indent).append("}\n");
+                break;
+            default:
+                writeChain(out, proxied, position + 1, indent, returnType, call, aspects);
+                writeAfterReturning(out, advice, aspect, indent, returnType);
+                break;
+        }
+    }
+
+    /**
+     * 与运行时 AspectJAdviceMethod 一致：返回值与参数类型不兼容时不调用通知，
+     * 返回 null（包括 void 方法）时只有参数不是基本类型才调用。能在编译期确定结果的情况不生成判断。
+     */
+    private void writeAfterReturning(StringBuilder out, Advice advice, String aspect, String indent,
+                                     TypeMirror returnType) {
+        if (advice.returningType == null) {
+            out.append(indent).append(invocation(advice, aspect, null)).append(";\n");
+            return;
+        }
+        TypeMirror parameterType = advice.returningType;
+        boolean primitiveParameter = parameterType.getKind().isPrimitive();
+        TypeMirror wrappedParameter = primitiveParameter
+                ? types.boxedClass((PrimitiveType) parameterType).asType() : types.erasure(parameterType);
+        if (returnType.getKind() == TypeKind.VOID) {
+            if (!primitiveParameter) {
+                out.append(indent).append(invocation(advice, aspect, "(" + wrappedParameter + ") null")).append(";\n");
+            }
+            return;
+        }
+        if (returnType.getKind().isPrimitive()) {
+            TypeMirror boxed = types.boxedClass((PrimitiveType) returnType).asType();
+            if (types.isAssignable(boxed, wrappedParameter)) {
+                out.append(indent).append(invocation(advice, aspect, "result")).append(";\n");
+            }
+            return;
+        }
+        if (!primitiveParameter && types.isAssignable(types.erasure(returnType), wrappedParameter)) {
+            out.append(indent).append(invocation(advice, aspect, "result")).append(";\n");
+            return;
+        }
+        String value = "(" + wrappedParameter + ") (" + OBJECT + ") result";
+        out.append(indent).append("if (").append(primitiveParameter ? "" : "result == null || ")
+                .append("((").append(OBJECT).append(") result) instanceof ").append(wrappedParameter).append(") {\n")
+                .append(indent).append(INDENT).append(invocation(advice, aspect, value)).append(";\n")
+                .append(indent).append("}\n");
+    }
+
+    private static String invocation(Advice advice, String aspect, String returnValue) {
+        List<String> arguments = new ArrayList<>();
+        for (Advice.Binding binding : advice.bindings) {
+            switch (binding) {
+                case JOIN_POINT:
+                    arguments.add("joinPoint");
+                    break;
+                case ARGUMENTS:
+                    arguments.add("args");
+                    break;
+                default:
+                    arguments.add(returnValue);
+                    break;
+            }
+        }
+        return aspect + "." + advice.method.getSimpleName() + "(" + String.join(", ", arguments) + ")";
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20) {
+                literal.append(String.format("\\%03o", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * 代理重写的一个方法，以及按顺序匹配它的通知。
+     */
+    static class ProxiedMethod {
+        final ExecutableElement method;
+        // 方法作为 Bean 类成员的类型，父类的类型参数已经替换为实际类型
+        final ExecutableType memberType;
+        final List<Advice> advice;
+
+        ProxiedMethod(ExecutableElement method, ExecutableType memberType, List<Advice> advice) {
+            this.method = method;
+            this.memberType = memberType;
+            this.advice = advice;
+        }
+
+        boolean needs(Advice.Binding binding) {
+            for (Advice item : advice) {
+                if (item.bindings.contains(binding)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package site.hnfy258.processor;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 容器识别的 Bean 注解，以及在类型上查找这些注解（包括通过元注解标注）的方法。
+ */
+final class Stereotypes {
+    static final String ASPECT = "site.hnfy258.aop.annotation.Aspect";
+
+    static final Set<String> NAMES = Set.of(
+            "site.hnfy258.bean.factory.annotation.Component",
+            "site.hnfy258.bean.factory.annotation.Service",
+            "site.hnfy258.bean.factory.annotation.Repository",
+            "site.hnfy258.bean.factory.annotation.Resource",
+            "site.hnfy258.bean.factory.annotation.Bean",
+            ASPECT);
+
+    private Stereotypes() {
+    }
+
+    /**
+     * 查找类型上直接或通过元注解带有的 Bean 注解，按名称排序。
+     */
+    static Set<String> find(TypeElement type) {
+        Set<String> found = new TreeSet<>();
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            find((TypeElement) mirror.getAnnotationType().asElement(), found, new HashSet<>());
+        }
+        return found;
+    }
+
+    /**
+     * 查找注解本身或其元注解中的 Bean 注解。
+     */
+    private static void find(TypeElement annotationType, Set<String> found, Set<String> visited) {
+        String name = annotationType.getQualifiedName().toString();
+        if (NAMES.contains(name)) {
+            found.add(name);
+            return;
+        }
+        if (name.startsWith("java.lang.annotation.") || !visited.add(name)) {
+            return;
+        }
+        for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+            find((TypeElement) metaAnnotation.getAnnotationType().asElement(), found, visited);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package site.hnfy258.processor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class AopProxyProcessorTest {
+    private static final String PROXY_NAME = "fixture.Inventory" + AopProxyProcessor.PROXY_CLASS_SUFFIX;
+    // 生成代码中重写的方法签名
+    private static final Pattern OVERRIDE = Pattern.compile("@java\\.lang\\.Override\\s+(?:\\w+ )?[\\w.<>\\[\\]]+ (\\w+)\\(");
+
+    private static Map<String, String> fixtures(String... aspectPointcuts) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("fixture.Handler", "package fixture; public interface Handler<T> { String handle(T value); }");
+        sources.put("fixture.Inventory", "package fixture;\n"
+                + "@site.hnfy258.bean.factory.annotation.Component\n"
+                + "public class Inventory implements Handler<String> {\n"
+                + "    public String handle(String value) { return value; }\n"
+                + "    public int count() { return 1; }\n"
+                + "    protected String describe() { return \"inventory\"; }\n"
+                + "    public final String name() { return \"inventory\"; }\n"
+                + "}\n");
+        sources.put("fixture.Clock", "package fixture;\n"
+                + "@site.hnfy258.bean.factory.annotation.Component\n"
+                + "public class Clock { public long now() { return 0; } }\n");
+        for (int i = 0; i < aspectPointcuts.length; i++) {
+            sources.put("fixture.Aspect" + i, "package fixture;\n"
+                    + "@site.hnfy258.aop.annotation.Aspect\n"
+                    + "public class Aspect" + i + " {\n"
+                    + "    @site.hnfy258.aop.annotation.Before(\"" + aspectPointcuts[i] + "\")\n"
+                    + "    public void record(site.hnfy258.aop.JoinPoint joinPoint) { }\n"
+                    + "}\n");
+        }
+        return sources;
+    }
+
+    private static String advisedMethods(String source) {
+        StringBuilder methods = new StringBuilder();
+        for (String member : source.split("\n\n")) {
+            Matcher matcher = OVERRIDE.matcher(member);
+            if (matcher.find() && member.contains(".record(")) {
+                methods.append(methods.length() == 0 ? "" : ",").append(matcher.group(1));
+            }
+        }
+        return methods.toString();
+    }
+
+    @Test
+    public void test_generateProxyForAdvisedComponent() {
+        InMemoryCompiler.Result result = InMemoryCompiler.process(new AopProxyProcessor(),
+                fixtures("execution(* handle(..)) || execution(* describe(..))"));
+
+        Assert.assertTrue(result.isSuccess());
+        // Clock 没有方法匹配，不生成代理
+        Assert.assertEquals(List.of(PROXY_NAME), List.copyOf(result.getGeneratedSources().keySet()));
+        String source = result.getGeneratedSources().get(PROXY_NAME);
+        Assert.assertTrue(source, source.contains(
+                "\"fixture.Aspect0#record=execution(* handle(..)) || execution(* describe(..))\""));
+        // 与 CGLIB 代理一样通知 handle(String) 和 protected 方法，final 方法不重写；
+        // 桥接方法 handle(Object) 由编译器在父类中生成，通过泛型接口调用时同样会执行通知
+        Assert.assertEquals("handle,describe", advisedMethods(source));
+        Assert.assertFalse(source.contains(" name("));
+    }
+
+    @Test
+    public void test_skipComponentWithUndecidedMatch() {
+        InMemoryCompiler.Result result = InMemoryCompiler.process(new AopProxyProcessor(),
+                fixtures("execution(* handle(..))", "execution(* fixture.Handler+.*(..))"));
+
+        Assert.assertTrue(result.isSuccess());
+        // 子类型模式对两个 Bean 都无法确定，各自回退到运行时代理
+        Assert.assertTrue(result.getGeneratedSources().isEmpty());
+        List<String> notes = result.getMessages(Diagnostic.Kind.NOTE);
+        Assert.assertEquals(notes.toString(), 2, notes.size());
+        Assert.assertTrue(notes.toString(), notes.stream().allMatch(note -> note.contains("fixture.Handler+")));
+    }
+
+    @Test
+    public void test_noProxiesForUnsupportedPointcut() {
+        InMemoryCompiler.Result result = InMemoryCompiler.process(new AopProxyProcessor(),
+                fixtures("execution(* handle(..))", "within(fixture..*)"));
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertTrue(result.getGeneratedSources().isEmpty());
+        Assert.assertEquals(1, result.getMessages(Diagnostic.Kind.NOTE).size());
+    }
+
+    @Test
+    public void test_includeOption() {
+        Map<String, String> sources = fixtures("execution(* handle(..))");
+
+        Assert.assertTrue(InMemoryCompiler.process(new AopProxyProcessor(), sources,
+                "-A" + AopProxyProcessor.INCLUDE_OPTION + "=fixture.Inventory,fixture.Clock")
+                .getGeneratedSources().isEmpty());
+        Assert.assertEquals(List.of(PROXY_NAME), List.copyOf(InMemoryCompiler.process(new AopProxyProcessor(), sources,
+                "-A" + AopProxyProcessor.INCLUDE_OPTION + "=fixture.Inventory, fixture.Aspect0")
+                .getGeneratedSources().keySet()));
+    }
+}
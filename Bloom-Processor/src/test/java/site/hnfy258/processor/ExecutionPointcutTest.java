@@ -0,0 +1,86 @@
+package site.hnfy258.processor;
+
+import com.sun.source.util.JavacTask;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.util.Map;
+
+public class ExecutionPointcutTest {
+    private static final Map<String, String> FIXTURES = Map.of(
+            "fixture.Handler", "package fixture; public interface Handler<T> { String handle(T value); }",
+            "fixture.Inventory", "package fixture;\n"
+                    + "public class Inventory implements Handler<String> {\n"
+                    + "    public String handle(String value) { return value; }\n"
+                    + "    public int count(String... names) { return names.length; }\n"
+                    + "    public java.util.List<String> names() { return null; }\n"
+                    + "    protected void reset() { }\n"
+                    + "}\n");
+
+    private static Elements elements;
+    private static Types types;
+    private static TypeElement inventory;
+
+    @BeforeClass
+    public static void compileFixtures() throws IOException {
+        JavacTask task = InMemoryCompiler.analyze(FIXTURES);
+        elements = task.getElements();
+        types = task.getTypes();
+        inventory = elements.getTypeElement("fixture.Inventory");
+    }
+
+    private static ExecutionPointcut.Match match(String expression, String methodName) {
+        for (ExecutableElement method : ElementFilter.methodsIn(inventory.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(methodName)) {
+                return ExecutionPointcut.parse(expression).matches(method, elements, types);
+            }
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    @Test
+    public void test_decidedMatches() {
+        Assert.assertEquals(ExecutionPointcut.Match.YES, match("execution(* handle(..))", "handle"));
+        Assert.assertEquals(ExecutionPointcut.Match.YES, match("execution(int count(..))", "count"));
+        Assert.assertEquals(ExecutionPointcut.Match.YES, match("execution(* fixture.Inventory.names())", "names"));
+        Assert.assertEquals(ExecutionPointcut.Match.NO, match("execution(public * *(..))", "reset"));
+        Assert.assertEquals(ExecutionPointcut.Match.NO, match("execution(* fixture.Inventory.*(int))", "names"));
+        // 一边能确定匹配时不受另一边影响
+        Assert.assertEquals(ExecutionPointcut.Match.YES,
+                match("execution(* handle(..)) || execution(* fixture.Handler+.*(..))", "handle"));
+        Assert.assertEquals(ExecutionPointcut.Match.NO,
+                match("execution(* count(..)) && execution(* fixture.Handler+.*(..))", "reset"));
+    }
+
+    @Test
+    public void test_unknownForUnsupportedSyntax() {
+        // 子类型模式
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN, match("execution(* fixture.Handler+.*(..))", "handle"));
+        // 可变参数
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN, match("execution(* count(String[]))", "count"));
+        // 泛型类型模式
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN,
+                match("execution(java.util.List<String> names())", "names"));
+        // 泛型重写方法，AspectJ 还会按桥接方法 handle(Object) 匹配
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN,
+                match("execution(* fixture.Inventory.handle(String))", "handle"));
+        // 无法解析的简单类型名
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN, match("execution(Inventory names())", "names"));
+        Assert.assertEquals(ExecutionPointcut.Match.UNKNOWN, match("!execution(* fixture.Handler+.*(..))", "handle"));
+    }
+
+    @Test
+    public void test_rejectUnsupportedDesignators() {
+        for (String expression : new String[]{"within(fixture..*)", "execution(@Deprecated * *(..))",
+                "execution(* *(..) throws Exception)", "execution(* fixture..*(..))", "execution(* *(..)"}) {
+            Assert.assertThrows(expression, IllegalArgumentException.class, () -> ExecutionPointcut.parse(expression));
+        }
+    }
+}
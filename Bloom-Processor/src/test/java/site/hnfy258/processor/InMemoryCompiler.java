@@ -0,0 +1,165 @@
+package site.hnfy258.processor;
+
+import com.sun.source.util.JavacTask;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 在进程内用 javax.tools 编译测试夹具，源码和生成的文件都保存在内存中。
+ *
+ * 夹具只需要处理器按名称识别的注解，STUBS 提供了这些注解的最小声明，不依赖 Bloom-Basic。
+ */
+final class InMemoryCompiler {
+    static final Map<String, String> STUBS = Map.of(
+            "site.hnfy258.aop.annotation.Aspect", annotation("site.hnfy258.aop.annotation", "Aspect", ""),
+            "site.hnfy258.aop.annotation.Pointcut", annotation("site.hnfy258.aop.annotation", "Pointcut", "String value();"),
+            "site.hnfy258.aop.annotation.Before", annotation("site.hnfy258.aop.annotation", "Before", "String value();"),
+            "site.hnfy258.aop.annotation.After", annotation("site.hnfy258.aop.annotation", "After", "String value();"),
+            "site.hnfy258.aop.annotation.AfterReturning", annotation("site.hnfy258.aop.annotation", "AfterReturning",
+                    "String value(); String returning() default \"\";"),
+            "site.hnfy258.bean.factory.annotation.Component",
+            annotation("site.hnfy258.bean.factory.annotation", "Component", "String value() default \"\";"),
+            "site.hnfy258.aop.JoinPoint", "package site.hnfy258.aop; public interface JoinPoint {}");
+
+    private InMemoryCompiler() {
+    }
+
+    private static String annotation(String packageName, String name, String members) {
+        return "package " + packageName + "; @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+                + "public @interface " + name + " { " + members + " }";
+    }
+
+    /**
+     * 只运行处理器（-proc:only），不生成 class 文件。
+     *
+     * @param sources 类名 -> 源码，STUBS 会自动加入
+     */
+    static Result process(Processor processor, Map<String, String> sources, String... options) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, StringWriter> generated = new LinkedHashMap<>();
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(
+                compiler.getStandardFileManager(diagnostics, Locale.ROOT, null)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                       FileObject sibling) {
+                StringWriter content = new StringWriter();
+                generated.put(className, content);
+                return new Source(className, content);
+            }
+        };
+        List<String> arguments = new ArrayList<>(List.of("-proc:only"));
+        arguments.addAll(Arrays.asList(options));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                toFileObjects(sources));
+        task.setProcessors(List.of(processor));
+        boolean success = task.call();
+        Map<String, String> generatedSources = new LinkedHashMap<>();
+        generated.forEach((name, content) -> generatedSources.put(name, content.toString()));
+        return new Result(success, generatedSources, diagnostics.getDiagnostics());
+    }
+
+    /**
+     * 解析并检查夹具，用返回的任务获取 Elements 和 Types。
+     */
+    static JavacTask analyze(Map<String, String> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavacTask task = (JavacTask) compiler.getTask(null, null, diagnostics, List.of("-proc:none"), null,
+                toFileObjects(sources));
+        task.analyze();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                throw new IllegalStateException(diagnostic.toString());
+            }
+        }
+        return task;
+    }
+
+    private static List<JavaFileObject> toFileObjects(Map<String, String> sources) {
+        Map<String, String> all = new LinkedHashMap<>(STUBS);
+        all.putAll(sources);
+        List<JavaFileObject> files = new ArrayList<>();
+        all.forEach((className, source) -> {
+            StringWriter content = new StringWriter();
+            content.write(source);
+            files.add(new Source(className, content));
+        });
+        return files;
+    }
+
+    static final class Result {
+        private final boolean success;
+        private final Map<String, String> generatedSources;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+        Result(boolean success, Map<String, String> generatedSources,
+               List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.success = success;
+            this.generatedSources = generatedSources;
+            this.diagnostics = diagnostics;
+        }
+
+        boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * 生成的源码，键为类的二进制名。
+         */
+        Map<String, String> getGeneratedSources() {
+            return generatedSources;
+        }
+
+        List<String> getMessages(Diagnostic.Kind kind) {
+            List<String> messages = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                if (diagnostic.getKind() == kind) {
+                    messages.add(diagnostic.getMessage(Locale.ROOT));
+                }
+            }
+            return messages;
+        }
+    }
+
+    /**
+     * 内存中的源文件，生成的源码写入后可以在下一轮被编译器读取。
+     */
+    private static final class Source extends SimpleJavaFileObject {
+        private final StringWriter content;
+
+        Source(String className, StringWriter content) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content.toString();
+        }
+
+        @Override
+        public Writer openWriter() {
+            return content;
+        }
+    }
+}